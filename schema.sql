@@ -29,6 +29,7 @@ CREATE TABLE `users` (
   -- AI ve Diğer Özellikler
   `loyalty_points` INT DEFAULT 0 NOT NULL,
   `image_gen_quota` INT DEFAULT 3 NOT NULL, -- Satıcılar için AI imaj hakkı
+  `last_broadcast_id` BIGINT DEFAULT 0 NOT NULL, -- Bildirimlere aktarılmış son toplu bildirim ID'si
 
   CONSTRAINT unique_provider_id UNIQUE (`auth_provider`, `provider_id`) -- Aynı provider ile aynı ID'li 2 kişi olamaz
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -44,6 +45,8 @@ CREATE TABLE `categories` (
   `parent_category_id` BIGINT NULL, -- Ana kategori (NULL ise kök kategori)
   `image_url` VARCHAR(1024) NULL,
   `is_active` BOOLEAN DEFAULT TRUE NOT NULL,
+  `path` VARCHAR(512) NULL, -- Materialized path: kökten bu kategoriye id'ler, örn. '/1/5/12/'
+  `depth` INT DEFAULT 0 NOT NULL, -- Kök kategoriler için 0
 
   FOREIGN KEY (`parent_category_id`) REFERENCES `categories`(`id`) ON DELETE SET NULL -- Ana kategori silinirse alt kategoriler kök olur
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -65,6 +68,7 @@ CREATE TABLE `products` (
 
   -- İlişkiler
   `category_id` BIGINT NULL,
+  `category_path` VARCHAR(512) NULL, -- Kategorinin path'inin kopyası; alt ağaç filtresi LIKE '/1/5/%' önek araması olur
   `seller_id` BIGINT NOT NULL,
 
   -- Yönetim ve Durum
@@ -72,9 +76,17 @@ CREATE TABLE `products` (
   `is_active` BOOLEAN DEFAULT TRUE NOT NULL, -- Satışta mı?
   `average_rating` DECIMAL(3, 2) DEFAULT 0.00 NOT NULL, -- Yorum ortalaması (Servis veya trigger ile güncellenir)
   `review_count` INT DEFAULT 0 NOT NULL, -- Toplam yorum sayısı
+  `rating_sum` BIGINT DEFAULT 0 NOT NULL, -- Onaylı yorum puanlarının toplamı (ortalama artımlı hesaplanır)
+  `rating_1_count` INT DEFAULT 0 NOT NULL, -- Yıldız dağılımı (histogram): 1 puanlı onaylı yorum sayısı
+  `rating_2_count` INT DEFAULT 0 NOT NULL,
+  `rating_3_count` INT DEFAULT 0 NOT NULL,
+  `rating_4_count` INT DEFAULT 0 NOT NULL,
+  `rating_5_count` INT DEFAULT 0 NOT NULL,
 
   -- AI Özellikleri
   `review_summary_ai` TEXT NULL, -- Gemini ile oluşturulan özet
+  `reviews_version` BIGINT DEFAULT 0 NOT NULL, -- Onaylı yorumlar her değiştiğinde artar
+  `review_summary_version` BIGINT DEFAULT 0 NOT NULL, -- AI özetinin üretildiği reviews_version (watermark)
   `ai_generated_image_url` VARCHAR(1024) NULL, -- DALL-E/ChatGPT ile oluşturulan görsel
 
   FOREIGN KEY (`category_id`) REFERENCES `categories`(`id`) ON DELETE SET NULL, -- Kategori silinirse ürün kategorisiz kalır
@@ -95,6 +107,7 @@ CREATE TABLE `coupons` (
   `is_active` BOOLEAN DEFAULT TRUE NOT NULL,
   `usage_limit` INT NULL, -- Null ise sınırsız kullanım
   `times_used` INT DEFAULT 0 NOT NULL,
+  `single_use_codes` BOOLEAN DEFAULT FALSE NOT NULL, -- TRUE ise kampanya şablonu: sadece coupon_codes'taki kodlarla kullanılır
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
   `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -114,10 +127,11 @@ CREATE TABLE `orders` (
   `shipping_address` JSON NOT NULL, -- { "street": "...", "city": "...", "zipCode": "...", "country": "..." }
   `billing_address` JSON NULL, -- Opsiyonel: Fatura adresi farklıysa
   `payment_method` VARCHAR(50) NULL, -- Ödeme sonrası doldurulur
-  `payment_status` ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED', 'PARTIALLY_REFUNDED') NOT NULL DEFAULT 'PENDING',
+  `payment_status` ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED', 'PARTIALLY_REFUNDED', 'REFUND_REQUIRED') NOT NULL DEFAULT 'PENDING',
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
   `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL,
   `coupon_id` BIGINT NULL, -- Kullanılan kupon
+  `single_use_coupon_code` VARCHAR(50) NULL, -- Kampanya kuponlarında kullanılan tek kullanımlık kod (coupon_codes.code)
   `tracking_number` VARCHAR(100) NULL, -- Kargo Takip No
 
   FOREIGN KEY (`customer_id`) REFERENCES `users`(`id`) ON DELETE RESTRICT, -- Müşteri silinirse siparişler kalmalı (ama ilişki kopabilir veya engellenebilir)
@@ -149,7 +163,7 @@ CREATE TABLE `payments` (
   `payment_date` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
   `payment_method` VARCHAR(50) NOT NULL, -- Örn: 'STRIPE', 'PAYPAL_SANDBOX', 'CREDIT_CARD'
   `transaction_id` VARCHAR(255) NULL UNIQUE, -- Ödeme ağ geçidinden gelen ID
-  `status` ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED') NOT NULL,
+  `status` ENUM('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED', 'REFUND_REQUIRED') NOT NULL,
   `currency` CHAR(3) DEFAULT 'TRY' NOT NULL, -- Para birimi
   `gateway_response` TEXT NULL, -- Ağ geçidinden gelen detaylı yanıt (debug için)
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
@@ -188,10 +202,70 @@ CREATE TABLE `notifications` (
   `is_read` BOOLEAN DEFAULT FALSE NOT NULL,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
   `type` VARCHAR(50) NULL, -- Bildirim tipi (örn: 'ORDER_STATUS', 'NEW_PRODUCT', 'PROMOTION')
+  `broadcast_id` BIGINT NULL, -- Toplu bildirimden aktarıldıysa kaynak kayıt
 
+  UNIQUE KEY `uk_notification_user_broadcast` (`user_id`, `broadcast_id`),
   FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE -- Kullanıcı silinirse bildirimleri de silinir
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =============================================
+-- Bildirim Arşivi
+-- Saklama süresini aşan okunmuş bildirimler buraya taşınır (NotificationRetentionService).
+-- Yıllık RANGE partition: eski yıllar tek ALTER TABLE ... DROP PARTITION ile silinebilir.
+-- JPA entity'si olmadığından uygulama başlangıçta tabloyu yoksa oluşturur ve ayda bir gelecek yılın partition'ını
+-- pmax'i bölerek ekler (NotificationRetentionService.maintainArchivePartitions). Aşağıdaki liste örnektir.
+-- Partition anahtarı (created_at) birincil anahtarda olmak zorunda olduğu için FK tanımlanmaz.
+-- =============================================
+CREATE TABLE `notifications_archive` (
+  `id` BIGINT NOT NULL, -- notifications.id ile aynı
+  `user_id` BIGINT NOT NULL,
+  `message` TEXT NOT NULL,
+  `link` VARCHAR(1024) NULL,
+  `is_read` BOOLEAN NOT NULL,
+  `created_at` TIMESTAMP NOT NULL,
+  `type` VARCHAR(50) NULL,
+  `broadcast_id` BIGINT NULL,
+  `archived_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+
+  PRIMARY KEY (`id`, `created_at`),
+  KEY `idx_notifications_archive_user_created` (`user_id`, `created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ROW_FORMAT=COMPRESSED
+PARTITION BY RANGE (UNIX_TIMESTAMP(`created_at`)) (
+  PARTITION p2024 VALUES LESS THAN (UNIX_TIMESTAMP('2025-01-01 00:00:00')),
+  PARTITION p2025 VALUES LESS THAN (UNIX_TIMESTAMP('2026-01-01 00:00:00')),
+  PARTITION p2026 VALUES LESS THAN (UNIX_TIMESTAMP('2027-01-01 00:00:00')),
+  PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+-- =============================================
+-- Toplu (Broadcast / Segment) Bildirimler
+-- Bir kez saklanır; kullanıcı bildirimlerini okuduğunda kendi bildirimlerine aktarılır (fan-out-on-read).
+-- =============================================
+CREATE TABLE `broadcast_notifications` (
+  `id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+  `message` TEXT NOT NULL,
+  `link` VARCHAR(1024) NULL,
+  `type` VARCHAR(50) NULL,
+  `target_role` VARCHAR(20) NULL, -- NULL: tüm roller
+  `target_subscription_type` VARCHAR(20) NULL, -- NULL: tüm abonelik tipleri
+  `explicit_recipients` BOOLEAN DEFAULT FALSE NOT NULL, -- TRUE ise sadece broadcast_notification_recipients listesindekiler
+  `created_by` BIGINT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+  `expires_at` TIMESTAMP NULL, -- Bu tarihten sonra henüz aktarılmamış kullanıcılara gösterilmez
+
+  INDEX `idx_broadcast_notifications_created_at` (`created_at`), -- İmleç üst sınırı (güvenlik payı) ve listeleme
+  FOREIGN KEY (`created_by`) REFERENCES `users`(`id`) ON DELETE SET NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `broadcast_notification_recipients` (
+  `broadcast_id` BIGINT NOT NULL,
+  `user_id` BIGINT NOT NULL,
+
+  PRIMARY KEY (`broadcast_id`, `user_id`),
+  FOREIGN KEY (`broadcast_id`) REFERENCES `broadcast_notifications`(`id`) ON DELETE CASCADE,
+  FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =============================================
 -- İstek Listesi (Wishlist)
 -- =============================================
@@ -213,14 +287,17 @@ CREATE TABLE `wishlist_items` (
 CREATE INDEX idx_users_email ON `users`(`email`);
 CREATE INDEX idx_users_role ON `users`(`role`);
 CREATE INDEX idx_users_subscription_type ON `users`(`subscription_type`);
+CREATE INDEX idx_users_subscription_expiry ON `users`(`subscription_expiry_date`, `id`); -- Abonelik bitiş işinin keyset'i
 
 -- Categories
 CREATE INDEX idx_categories_slug ON `categories`(`slug`);
 CREATE INDEX idx_categories_parent_id ON `categories`(`parent_category_id`);
+CREATE INDEX idx_categories_path ON `categories`(`path`);
 
 -- Products
 CREATE INDEX idx_products_slug ON `products`(`slug`);
 CREATE INDEX idx_products_category_id ON `products`(`category_id`);
+CREATE INDEX idx_products_category_path ON `products`(`category_path`);
 CREATE INDEX idx_products_seller_id ON `products`(`seller_id`);
 CREATE INDEX idx_products_is_approved ON `products`(`is_approved`);
 CREATE INDEX idx_products_is_active ON `products`(`is_active`);
@@ -236,6 +313,7 @@ CREATE INDEX idx_coupons_is_active ON `coupons`(`is_active`);
 CREATE INDEX idx_orders_customer_id ON `orders`(`customer_id`);
 CREATE INDEX idx_orders_status ON `orders`(`status`);
 CREATE INDEX idx_orders_order_date ON `orders`(`order_date`);
+CREATE INDEX idx_orders_status_order_date ON `orders`(`status`, `order_date`); -- Bayat PENDING_PAYMENT siparişlerinin keyset taraması
 
 -- Order Items
 CREATE INDEX idx_order_items_order_id ON `order_items`(`order_id`);
@@ -254,6 +332,8 @@ CREATE INDEX idx_reviews_rating ON `reviews`(`rating`);
 -- Notifications
 CREATE INDEX idx_notifications_user_id ON `notifications`(`user_id`);
 CREATE INDEX idx_notifications_is_read ON `notifications`(`is_read`);
+-- Okunmamış sayısı (COUNT) ve mutabakat sorguları için
+CREATE INDEX idx_notifications_user_read ON `notifications`(`user_id`, `is_read`);
 
 -- Wishlist Items
 CREATE INDEX idx_wishlist_items_user_id ON `wishlist_items`(`user_id`);
@@ -289,4 +369,116 @@ CREATE TABLE `cart_items` (
 -- ... (İndexler vb.) ...
 -- Yeni Index'ler
 CREATE INDEX idx_cart_items_cart_id ON `cart_items`(`cart_id`);
-CREATE INDEX idx_cart_items_product_id ON `cart_items`(`product_id`);
\ No newline at end of file
+CREATE INDEX idx_cart_items_product_id ON `cart_items`(`product_id`);
+
+-- =============================================
+-- Satıcı Paneli Özet (Rollup) Tabloları
+-- Sipariş/ödeme durum geçişlerinde INSERT ... ON DUPLICATE KEY UPDATE ile artımlı güncellenir.
+-- =============================================
+CREATE TABLE `seller_daily_stats` (
+  `seller_id` BIGINT NOT NULL,
+  `stat_date` DATE NOT NULL,
+  `units_sold` INT NOT NULL DEFAULT 0,
+  `revenue` DECIMAL(14, 2) NOT NULL DEFAULT 0.00, -- Kalem tutarları (kupon indirimi hariç)
+  `order_count` INT NOT NULL DEFAULT 0,
+  `refunded_order_count` INT NOT NULL DEFAULT 0,
+  `refunded_amount` DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+  PRIMARY KEY (`seller_id`, `stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `seller_hourly_stats` (
+  `seller_id` BIGINT NOT NULL,
+  `stat_hour` DATETIME NOT NULL, -- Saat başına yuvarlanmış
+  `units_sold` INT NOT NULL DEFAULT 0,
+  `revenue` DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+  `order_count` INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`seller_id`, `stat_hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `seller_product_daily_stats` (
+  `seller_id` BIGINT NOT NULL,
+  `stat_date` DATE NOT NULL,
+  `product_id` BIGINT NOT NULL, -- FK yok: ürün silinse de geçmiş istatistik kalır
+  `units_sold` INT NOT NULL DEFAULT 0,
+  `revenue` DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+  PRIMARY KEY (`seller_id`, `stat_date`, `product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================
+-- Satıcı Sipariş Okuma Modeli (her satıcı/sipariş/kalem için bir satır)
+-- Sipariş oluşturma ve durum değişikliklerinde aynı transaction içinde güncellenir.
+-- =============================================
+CREATE TABLE `seller_order_lines` (
+  `order_item_id` BIGINT PRIMARY KEY, -- order_items.id
+  `seller_id` BIGINT NOT NULL,
+  `order_id` BIGINT NOT NULL,
+  `customer_id` BIGINT NOT NULL,
+  `product_id` BIGINT NULL,
+  `product_name` VARCHAR(255) NULL, -- Sipariş anındaki ürün adı
+  `quantity` INT NOT NULL,
+  `price_at_purchase` DECIMAL(12, 2) NOT NULL,
+  `line_total` DECIMAL(14, 2) NOT NULL,
+  `order_status` VARCHAR(30) NOT NULL,
+  `payment_status` VARCHAR(20) NOT NULL,
+  `order_date` TIMESTAMP NOT NULL,
+  INDEX `idx_seller_order_lines_seller_date` (`seller_id`, `order_date`, `order_id`), -- Keyset sıralaması: order_date DESC, order_id DESC
+  INDEX `idx_seller_order_lines_seller_status_date` (`seller_id`, `order_status`, `order_date`, `order_id`),
+  INDEX `idx_seller_order_lines_order` (`order_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================
+-- Kampanya Kuponlarının Tek Kullanımlık Kodları
+-- Toplu üretilir (INSERT IGNORE batch); kullanım unique code index'i üzerinden koşullu UPDATE ile işaretlenir.
+-- =============================================
+CREATE TABLE `coupon_codes` (
+  `id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+  `coupon_id` BIGINT NOT NULL,
+  `code` VARCHAR(50) NOT NULL,
+  `redeemed_at` TIMESTAMP NULL, -- NULL ise kullanılmamış
+  `created_at` TIMESTAMP NOT NULL,
+  UNIQUE KEY `uk_coupon_codes_code` (`code`),
+  INDEX `idx_coupon_codes_coupon_id` (`coupon_id`, `id`),
+  FOREIGN KEY (`coupon_id`) REFERENCES `coupons`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================
+-- Parça parça çalışan periyodik işlerin checkpoint'leri (örn. 'subscription-expiry')
+-- Her parça işini ve imleci aynı transaction'da commit eder; yarıda kalan iş kaldığı yerden devam eder.
+-- =============================================
+CREATE TABLE `job_checkpoints` (
+  `job_name` VARCHAR(64) PRIMARY KEY,
+  `status` VARCHAR(20) NOT NULL, -- RUNNING, COMPLETED
+  `cutoff` TIMESTAMP NOT NULL, -- Çalıştırmanın sabit kesim zamanı
+  `last_sort_value` TIMESTAMP NULL, -- Keyset imleci (sıralama anahtarı)
+  `last_id` BIGINT NOT NULL DEFAULT 0, -- Keyset imleci (id)
+  `processed_count` BIGINT NOT NULL DEFAULT 0,
+  `chunk_count` INT NOT NULL DEFAULT 0,
+  `started_at` TIMESTAMP NOT NULL,
+  `updated_at` TIMESTAMP NOT NULL,
+  `finished_at` TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================
+-- Stripe Webhook Event Kuyruğu
+-- Webhook isteği event'i doğrulayıp INSERT IGNORE ile yazar ve hemen 200 döner (event_id unique: tekrarlar atlanır).
+-- Worker'lar PENDING satırları koşullu UPDATE ile sahiplenir; hata alanlar artan beklemeyle tekrar denenir, sonra DEAD olur.
+-- Aynı partition_key'de daha eski PENDING/PROCESSING satır varsa yenisi sahiplenilmez (bekleyen retry bölümü sırayla tutar).
+-- =============================================
+CREATE TABLE `stripe_webhook_events` (
+  `id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+  `event_id` VARCHAR(255) NOT NULL, -- Stripe event id (evt_...)
+  `event_type` VARCHAR(100) NOT NULL,
+  `partition_key` VARCHAR(64) NOT NULL, -- 'order:<id>', 'user:<id>' vb.; aynı anahtar aynı worker'da sırayla işlenir
+  `payload` LONGTEXT NOT NULL, -- İmzası doğrulanmış ham JSON
+  `signature_header` VARCHAR(1000) NOT NULL, -- Stripe-Signature; worker payload'ı bununla tekrar doğrulayıp çözer
+  `status` VARCHAR(20) NOT NULL, -- PENDING, PROCESSING, PROCESSED, DEAD
+  `attempts` INT NOT NULL DEFAULT 0,
+  `next_attempt_at` TIMESTAMP NOT NULL,
+  `claimed_at` TIMESTAMP NULL,
+  `last_error` VARCHAR(1000) NULL,
+  `received_at` TIMESTAMP NOT NULL,
+  `processed_at` TIMESTAMP NULL,
+  UNIQUE KEY `uk_stripe_webhook_events_event_id` (`event_id`),
+  INDEX `idx_stripe_webhook_events_status_next` (`status`, `next_attempt_at`),
+  INDEX `idx_stripe_webhook_events_partition` (`partition_key`, `status`) -- Aynı bölümde önce gelen bitmemiş event var mı?
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
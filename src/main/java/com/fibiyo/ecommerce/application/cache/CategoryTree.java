@@ -0,0 +1,292 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.application.dto.CategoryResponse;
+import com.fibiyo.ecommerce.application.dto.CategoryTreeNodeResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Kategori ağacının değişmez (immutable) anlık görüntüsü.
+ * Düğümler id sırasıyla dizilerde tutulur: parent index dizisi, çocuklar için CSR (offset + index) dizileri ve
+ * preorder Euler turu aralıkları. Bir düğümün alt ağacı preorder sırasında [enter, exit) aralığıdır; bu sayede
+ * "X, Y'nin altında mı?" sorusu iki karşılaştırmayla, alt ağaç id'leri de tek bir dizi dilimiyle cevaplanır.
+ *
+ * Oluşturulduktan sonra hiçbir dizi değişmez; CategoryTreeCache yeni ağacı kurup referansı atomik olarak değiştirir.
+ */
+public final class CategoryTree {
+
+    private static final int NO_PARENT = -1;
+
+    private final long[] ids;
+    private final int[] parent;
+    private final String[] names;
+    private final String[] slugs;
+    private final String[] descriptions;
+    private final String[] imageUrls;
+    private final boolean[] active;
+    private final String[] paths; // Veritabanındaki materialized path (henüz doldurulmadıysa null)
+
+    private final int[] childOffsets; // i'nin çocukları: children[childOffsets[i] .. childOffsets[i + 1])
+    private final int[] children;
+    private final int[] roots;
+
+    private final int[] enter;    // Düğümün preorder sıra numarası
+    private final int[] exit;     // Alt ağacın bittiği sıra numarası (hariç)
+    private final int[] preorder; // Sıra numarası -> düğüm index'i
+
+    private final Map<Long, Integer> indexById;
+    private final Map<String, Integer> indexBySlug;
+    private final int brokenCycleCount;
+
+    /** Veritabanından okunan tek kategori satırı. */
+    public record Node(Long id, Long parentId, String name, String slug, String description, String imageUrl, boolean active,
+                       String path) {
+    }
+
+    private CategoryTree(List<Node> nodes) {
+        int n = nodes.size();
+        List<Node> sorted = new ArrayList<>(nodes);
+        sorted.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+        ids = new long[n];
+        names = new String[n];
+        slugs = new String[n];
+        descriptions = new String[n];
+        imageUrls = new String[n];
+        active = new boolean[n];
+        paths = new String[n];
+        indexById = new HashMap<>(n * 2);
+        indexBySlug = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Node node = sorted.get(i);
+            ids[i] = node.id();
+            names[i] = node.name();
+            slugs[i] = node.slug();
+            descriptions[i] = node.description();
+            imageUrls[i] = node.imageUrl();
+            active[i] = node.active();
+            paths[i] = node.path();
+            indexById.put(node.id(), i);
+            indexBySlug.put(node.slug(), i);
+        }
+
+        parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            Long parentId = sorted.get(i).parentId();
+            Integer parentIndex = parentId != null ? indexById.get(parentId) : null;
+            parent[i] = parentIndex != null ? parentIndex : NO_PARENT;
+        }
+
+        childOffsets = new int[n + 1];
+        children = new int[n];
+        enter = new int[n];
+        exit = new int[n];
+        preorder = new int[n];
+
+        // Veritabanında döngü (A -> B -> A) varsa kökten ulaşılamayan düğüm kalır; döngü kırılıp tekrar denenir.
+        int broken = 0;
+        int unvisited;
+        while ((unvisited = buildChildrenAndTour()) != NO_PARENT) {
+            parent[unvisited] = NO_PARENT;
+            broken++;
+        }
+        brokenCycleCount = broken;
+
+        int rootCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (parent[i] == NO_PARENT) rootCount++;
+        }
+        roots = new int[rootCount];
+        for (int i = 0, r = 0; i < n; i++) {
+            if (parent[i] == NO_PARENT) roots[r++] = i;
+        }
+    }
+
+    public static CategoryTree build(List<Node> nodes) {
+        return new CategoryTree(nodes);
+    }
+
+    public static CategoryTree empty() {
+        return new CategoryTree(List.of());
+    }
+
+    /**
+     * CSR çocuk dizilerini kurar ve köklerden iteratif DFS ile Euler turu aralıklarını hesaplar.
+     * @return Ulaşılamayan (döngüdeki) ilk düğümün index'i; hepsi ziyaret edildiyse NO_PARENT.
+     */
+    private int buildChildrenAndTour() {
+        int n = ids.length;
+        Arrays.fill(childOffsets, 0);
+        for (int i = 0; i < n; i++) {
+            if (parent[i] != NO_PARENT) childOffsets[parent[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            childOffsets[i + 1] += childOffsets[i];
+        }
+        int[] cursor = Arrays.copyOf(childOffsets, n);
+        for (int i = 0; i < n; i++) { // Artan i => çocuklar id sırasında
+            if (parent[i] != NO_PARENT) children[cursor[parent[i]]++] = i;
+        }
+
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] nextChild = new int[n];
+        int order = 0;
+        for (int root = 0; root < n; root++) {
+            if (parent[root] != NO_PARENT) continue;
+            int top = 0;
+            stack[top] = root;
+            nextChild[root] = childOffsets[root];
+            visited[root] = true;
+            enter[root] = order;
+            preorder[order++] = root;
+            while (top >= 0) {
+                int node = stack[top];
+                if (nextChild[node] < childOffsets[node + 1]) {
+                    int child = children[nextChild[node]++];
+                    if (visited[child]) continue;
+                    visited[child] = true;
+                    enter[child] = order;
+                    preorder[order++] = child;
+                    nextChild[child] = childOffsets[child];
+                    stack[++top] = child;
+                } else {
+                    exit[node] = order;
+                    top--;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!visited[i]) return i;
+        }
+        return NO_PARENT;
+    }
+
+    // --- Sorgular ---
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int getBrokenCycleCount() {
+        return brokenCycleCount;
+    }
+
+    public boolean contains(Long id) {
+        return id != null && indexById.containsKey(id);
+    }
+
+    public Optional<CategoryResponse> findById(Long id) {
+        Integer index = id != null ? indexById.get(id) : null;
+        return index != null ? Optional.of(toResponse(index)) : Optional.empty();
+    }
+
+    public Optional<CategoryResponse> findBySlug(String slug) {
+        Integer index = slug != null ? indexBySlug.get(slug) : null;
+        return index != null ? Optional.of(toResponse(index)) : Optional.empty();
+    }
+
+    /** Tüm (veya sadece aktif) kategoriler, id sırasıyla. */
+    public List<CategoryResponse> findAll(boolean activeOnly) {
+        List<CategoryResponse> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            if (!activeOnly || active[i]) result.add(toResponse(i));
+        }
+        return result;
+    }
+
+    public List<CategoryResponse> findRoots() {
+        List<CategoryResponse> result = new ArrayList<>(roots.length);
+        for (int root : roots) {
+            result.add(toResponse(root));
+        }
+        return result;
+    }
+
+    public List<CategoryResponse> findChildren(Long parentId) {
+        Integer index = parentId != null ? indexById.get(parentId) : null;
+        if (index == null) return Collections.emptyList();
+        List<CategoryResponse> result = new ArrayList<>(childOffsets[index + 1] - childOffsets[index]);
+        for (int c = childOffsets[index]; c < childOffsets[index + 1]; c++) {
+            result.add(toResponse(children[c]));
+        }
+        return result;
+    }
+
+    /** Kökten verilen kategoriye kadar olan yol (breadcrumb); kategori yoksa boş liste. */
+    public List<CategoryResponse> findPath(Long id) {
+        Integer index = id != null ? indexById.get(id) : null;
+        if (index == null) return Collections.emptyList();
+        List<CategoryResponse> path = new ArrayList<>();
+        for (int i = index; i != NO_PARENT; i = parent[i]) {
+            path.add(toResponse(i));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Kategorinin kendisi ve tüm alt kategorilerinin id'leri (preorder); kategori yoksa boş liste. */
+    public List<Long> findSubtreeIds(Long id) {
+        Integer index = id != null ? indexById.get(id) : null;
+        if (index == null) return Collections.emptyList();
+        List<Long> result = new ArrayList<>(exit[index] - enter[index]);
+        for (int o = enter[index]; o < exit[index]; o++) {
+            result.add(ids[preorder[o]]);
+        }
+        return result;
+    }
+
+    /** Kategorinin materialized path'i ("/1/5/12/"); kategori yoksa veya path henüz doldurulmadıysa null. */
+    public String findMaterializedPath(Long id) {
+        Integer index = id != null ? indexById.get(id) : null;
+        return index != null ? paths[index] : null;
+    }
+
+    /** descendantId, ancestorId'nin kendisi veya alt kategorisi mi? (Euler turu aralık kontrolü) */
+    public boolean isInSubtree(Long ancestorId, Long descendantId) {
+        Integer ancestor = ancestorId != null ? indexById.get(ancestorId) : null;
+        Integer descendant = descendantId != null ? indexById.get(descendantId) : null;
+        if (ancestor == null || descendant == null) return false;
+        return enter[ancestor] <= enter[descendant] && enter[descendant] < exit[ancestor];
+    }
+
+    /** Aktif kategorilerin iç içe ağacı; pasif bir kategorinin alt ağacı tamamen gizlenir. */
+    public List<CategoryTreeNodeResponse> toActiveTree() {
+        List<CategoryTreeNodeResponse> result = new ArrayList<>();
+        for (int root : roots) {
+            if (active[root]) result.add(toTreeNode(root));
+        }
+        return result;
+    }
+
+    private CategoryTreeNodeResponse toTreeNode(int index) {
+        List<CategoryTreeNodeResponse> childNodes = new ArrayList<>();
+        for (int c = childOffsets[index]; c < childOffsets[index + 1]; c++) {
+            if (active[children[c]]) childNodes.add(toTreeNode(children[c]));
+        }
+        return new CategoryTreeNodeResponse(ids[index], names[index], slugs[index], imageUrls[index], childNodes);
+    }
+
+    // DTO'lar mutable olduğu için her çağrıda yeni nesne üretilir; ağacın kendisi paylaşılır.
+    private CategoryResponse toResponse(int index) {
+        CategoryResponse response = new CategoryResponse();
+        response.setId(ids[index]);
+        response.setName(names[index]);
+        response.setSlug(slugs[index]);
+        response.setDescription(descriptions[index]);
+        response.setImageUrl(imageUrls[index]);
+        response.setActive(active[index]);
+        int parentIndex = parent[index];
+        if (parentIndex != NO_PARENT) {
+            response.setParentCategoryId(ids[parentIndex]);
+            response.setParentCategoryName(names[parentIndex]);
+        }
+        return response;
+    }
+}
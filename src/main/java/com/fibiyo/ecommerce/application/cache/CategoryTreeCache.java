@@ -0,0 +1,114 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kategori ağacının bellek içi anlık görüntüsünü (CategoryTree) tutar.
+ * Kategori yazma işlemleri commit sonrasında ağacı baştan kurar ve referansı atomik olarak değiştirir;
+ * okuyucular kilit almadan o anki görüntüyü kullanır. Diğer instance'lardaki değişiklikler için periyodik yenileme yapılır.
+ */
+@Component
+public class CategoryTreeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readTransaction;
+
+    private volatile CategoryTree tree;
+
+    @Autowired
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        // afterCommit içinden de çağrıldığı için biten transaction'a katılmamalı: her yükleme kendi transaction'ında
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Güncel ağaç; henüz yüklenmediyse ilk çağrıda yüklenir. */
+    public CategoryTree get() {
+        CategoryTree current = tree;
+        return current != null ? current : loadIfAbsent();
+    }
+
+    private synchronized CategoryTree loadIfAbsent() {
+        return tree != null ? tree : reload();
+    }
+
+    /**
+     * Ağacı veritabanından yeniden kurar. synchronized olduğu için eşzamanlı yüklemeler sıralanır;
+     * sonra başlayan yükleme daha yeni veriyi okur ve en son o yazılır.
+     */
+    public synchronized CategoryTree reload() {
+        long startedAt = System.currentTimeMillis();
+        List<Object[]> rows = readTransaction.execute(status -> categoryRepository.findTreeRows());
+        List<CategoryTree.Node> nodes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            nodes.add(new CategoryTree.Node((Long) row[0], (Long) row[1], (String) row[2], (String) row[3],
+                    (String) row[4], (String) row[5], Boolean.TRUE.equals(row[6]), (String) row[7]));
+        }
+        CategoryTree built = CategoryTree.build(nodes);
+        tree = built;
+        if (built.getBrokenCycleCount() > 0) {
+            logger.warn("Category tree contains {} parent cycle(s). Affected categories are treated as roots.", built.getBrokenCycleCount());
+        }
+        logger.info("Category tree loaded in {} ms. Categories: {}", System.currentTimeMillis() - startedAt, built.size());
+        return built;
+    }
+
+    /**
+     * Aktif transaction varsa commit sonrasında, yoksa hemen yeniden yükler.
+     * Rollback olan yazmalar ağacı değiştirmez.
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    reload();
+                } catch (Exception e) {
+                    // Yazma zaten commit oldu; periyodik yenileme ağacı sonradan düzeltir
+                    logger.error("Category tree reload after commit failed: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Initial category tree load failed. It will be loaded on first use: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${category.tree.refresh-ms:300000}", initialDelayString = "${category.tree.refresh-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Scheduled category tree refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse;
+import com.stripe.exception.StripeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Siparişler için açık Stripe Checkout Session'larının bellek içi, boyut sınırlı (LRU) önbelleği.
+ * "Öde"ye çift tıklama veya ödeme sayfasının yenilenmesi aynı sipariş için yeni session açmaz: anahtar
+ * (sipariş id, tutar, sürüm) aynıysa ve session'ın süresi dolmak üzere değilse mevcut session döner.
+ * Sipariş başına sadece son anahtar tutulur; tutar veya sipariş değişirse (sürüm = updatedAt) yeni session açılır.
+ * Aynı anahtar için eşzamanlı istekler tek bir Stripe çağrısında birleştirilir (single-flight).
+ */
+@Component
+public class CheckoutSessionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutSessionCache.class);
+
+    // Süresi bu kadar içinde dolacak session tekrar kullanılmaz; kullanıcıya ödeme için zaman kalmalı
+    @Value("${payment.checkout.reuse-margin-seconds:300}")
+    private long reuseMarginSeconds;
+
+    private final int maxEntries;
+    private final Map<Long, Entry> entries; // orderId -> son açılan session
+    private final Map<Key, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @param orderId     Sipariş ID'si.
+     * @param amountCents Ödenecek tutar (kuruş).
+     * @param version     Siparişin sürümü (updatedAt, epoch ms); sipariş güncellenirse değişir.
+     * @param urlDigest   Başarı/iptal URL'lerinin SHA-256 özeti (hex); farklı yönlendirme istenirse farklı session.
+     */
+    public record Key(Long orderId, long amountCents, long version, String urlDigest) {
+
+        public Key(Long orderId, long amountCents, long version, String successUrl, String cancelUrl) {
+            this(orderId, amountCents, version, digest(successUrl + "\n" + cancelUrl));
+        }
+
+        /** Stripe idempotency key'i: aynı anahtar ve aynı zaman penceresi -> Stripe aynı session'ı döner. */
+        public String idempotencyKey(long window) {
+            return "checkout-order-" + orderId + "-" + amountCents + "-" + version + "-" + urlDigest + "-" + window;
+        }
+
+        // 32 bitlik hashCode çakışırsa başka URL'lere yönlenen bir session dönebilirdi; tam URL'ler ise
+        // Stripe'ın 255 karakterlik idempotency key sınırını aşabilir. Bu yüzden güçlü ve sabit uzunlukta özet.
+        private static String digest(String value) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(hash);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    /** Önbellekteki session; expiresAt epoch saniyesidir (Stripe Session.expires_at). */
+    public record Entry(Key key, StripeCheckoutSessionResponse response, long expiresAt) {
+    }
+
+    @FunctionalInterface
+    public interface SessionLoader {
+        Entry load() throws StripeException;
+    }
+
+    public CheckoutSessionCache(@Value("${payment.checkout.cache-max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) { // access-order => LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > CheckoutSessionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Anahtar için geçerli bir session varsa onu döner; yoksa loader ile oluşturur ve önbelleğe alır.
+     * Aynı anahtar için başka bir istek o anda session oluşturuyorsa onun sonucunu bekler.
+     */
+    public StripeCheckoutSessionResponse getOrCreate(Key key, SessionLoader loader) throws StripeException {
+        Entry cached = find(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            logger.debug("Reusing Stripe Checkout Session {} for Order ID: {}", cached.response().getSessionId(), key.orderId());
+            return cached.response();
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            return await(existing).response();
+        }
+        missCount.incrementAndGet();
+        try {
+            Entry created = loader.load();
+            synchronized (entries) {
+                entries.put(key.orderId(), created);
+            }
+            mine.complete(created);
+            return created.response();
+        } catch (StripeException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Ödeme tamamlanınca/başarısız olunca siparişin session'ı bir daha kullanılmaz
+    public void evictOrder(Long orderId) {
+        synchronized (entries) {
+            entries.remove(orderId);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private Entry find(Key key) {
+        long reusableUntil = System.currentTimeMillis() / 1000 + reuseMarginSeconds;
+        synchronized (entries) {
+            Entry entry = entries.get(key.orderId());
+            if (entry == null || !entry.key().equals(key)) {
+                return null;
+            }
+            if (entry.expiresAt() <= reusableUntil) {
+                entries.remove(key.orderId());
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> future) throws StripeException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for checkout session creation.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StripeException stripeException) throw stripeException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
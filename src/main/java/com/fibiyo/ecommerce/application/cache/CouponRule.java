@@ -0,0 +1,68 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.domain.entity.Coupon;
+import com.fibiyo.ecommerce.domain.enums.DiscountType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Bir kuponun değişmez (immutable) kural görüntüsü. Geçerlilik kontrolü ve indirim hesabı sadece burada yapılır;
+ * sepet önizlemesi (CouponService.validateCoupon) ve sipariş oluşturma aynı kuralı ve aynı yuvarlamayı kullanır.
+ *
+ * @param timesUsed      Görüntünün alındığı andaki kullanım sayısı. Önizleme için yeterlidir; kesin limit kontrolü yazma sırasında yapılır.
+ * @param singleUseCodes True ise kural sadece üretilen tek kullanımlık kodlarla uygulanır; kuponun kendi kodu geçersizdir.
+ */
+public record CouponRule(Long id, String code, DiscountType discountType, BigDecimal discountValue,
+                         BigDecimal minPurchaseAmount, LocalDateTime expiryDate, boolean active,
+                         Integer usageLimit, int timesUsed, boolean singleUseCodes) {
+
+    // Tek yuvarlama politikası: indirim ham değer üzerinden hesaplanır, sonuç bir kez 2 basamağa HALF_UP yuvarlanır
+    public static final int MONEY_SCALE = 2;
+    public static final RoundingMode MONEY_ROUNDING = RoundingMode.HALF_UP;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    public static CouponRule from(Coupon coupon) {
+        return new CouponRule(coupon.getId(), coupon.getCode(), coupon.getDiscountType(), coupon.getDiscountValue(),
+                coupon.getMinPurchaseAmount() != null ? coupon.getMinPurchaseAmount() : BigDecimal.ZERO,
+                coupon.getExpiryDate(), coupon.isActive(), coupon.getUsageLimit(), coupon.getTimesUsed(),
+                coupon.isSingleUseCodes());
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return now.isAfter(expiryDate);
+    }
+
+    public boolean isUsageLimitReached() {
+        return usageLimit != null && timesUsed >= usageLimit;
+    }
+
+    /**
+     * Kuponun verilen sepet tutarına uygulanamama nedeni.
+     * @return Kullanıcıya gösterilecek mesaj; kupon uygulanabiliyorsa null.
+     */
+    public String rejectionReason(BigDecimal cartTotal, LocalDateTime now) {
+        if (!active) return "Kupon şu anda aktif değil.";
+        if (isExpired(now)) return "Kuponun kullanım süresi dolmuş.";
+        if (isUsageLimitReached()) return "Kupon kullanım limitine ulaşmış.";
+        if (cartTotal == null || cartTotal.compareTo(minPurchaseAmount) < 0) {
+            return String.format("Kuponu kullanmak için minimum sepet tutarı %.2f TL olmalıdır.", minPurchaseAmount);
+        }
+        return null;
+    }
+
+    /** İndirim tutarı; tutarı geçemez. */
+    public BigDecimal calculateDiscount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return BigDecimal.ZERO.setScale(MONEY_SCALE);
+        }
+        BigDecimal discount = switch (discountType) {
+            case FIXED_AMOUNT -> discountValue;
+            case PERCENTAGE -> amount.multiply(discountValue).divide(HUNDRED);
+        };
+        return discount.min(amount).setScale(MONEY_SCALE, MONEY_ROUNDING);
+    }
+
+}
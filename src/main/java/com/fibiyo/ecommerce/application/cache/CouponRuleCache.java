@@ -0,0 +1,153 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.domain.entity.Coupon;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Süresi dolmamış kuponların kod -> CouponRule haritası. Sepet önizlemesi veritabanına gitmeden buradan cevaplanır.
+ * Harita kopyala-değiştir (copy-on-write) ile güncellenir: okuyucular kilit almadan o anki haritayı kullanır.
+ * Kupon CRUD işlemleri commit sonrasında ilgili kodu yeniler; periyodik tam yenileme süresi dolanları atar
+ * ve diğer instance'lardaki değişiklikleri alır.
+ */
+@Component
+public class CouponRuleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponRuleCache.class);
+
+    private final CouponRepository couponRepository;
+    private final TransactionTemplate readTransaction;
+
+    private volatile Rules rules;
+
+    // Aynı anlık görüntünün iki indeksi: tek kullanımlık kodlar kupona id ile bağlanır
+    private record Rules(Map<String, CouponRule> byCode, Map<Long, CouponRule> byId) {
+        static Rules of(Map<String, CouponRule> byCode) {
+            Map<Long, CouponRule> byId = new HashMap<>(byCode.size() * 2);
+            for (CouponRule rule : byCode.values()) {
+                byId.put(rule.id(), rule);
+            }
+            return new Rules(Map.copyOf(byCode), Map.copyOf(byId));
+        }
+    }
+
+    @Autowired
+    public CouponRuleCache(CouponRepository couponRepository, PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        // refresh() kupon CRUD'unun afterCommit'inde çalışır: biten transaction'ın persistence context'ine katılmadan
+        // commit edilmiş kupon satırını ayrı, salt okunur bir transaction'da okur
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Kod büyük/küçük harf duyarsızdır; kupon yoksa veya süresi dolup haritadan atıldıysa boş döner. */
+    public Optional<CouponRule> find(String code) {
+        if (code == null) return Optional.empty();
+        return Optional.ofNullable(current().byCode().get(code.toUpperCase()));
+    }
+
+    public Optional<CouponRule> findById(Long couponId) {
+        if (couponId == null) return Optional.empty();
+        return Optional.ofNullable(current().byId().get(couponId));
+    }
+
+    private Rules current() {
+        Rules current = rules;
+        return current != null ? current : loadIfAbsent();
+    }
+
+    private synchronized Rules loadIfAbsent() {
+        if (rules == null) reload();
+        return rules;
+    }
+
+    /** Tüm haritayı veritabanından yeniden kurar. */
+    public synchronized void reload() {
+        long startedAt = System.currentTimeMillis();
+        List<Coupon> coupons = readTransaction.execute(status -> couponRepository.findByExpiryDateAfter(LocalDateTime.now()));
+        Map<String, CouponRule> built = new HashMap<>(coupons.size() * 2);
+        for (Coupon coupon : coupons) {
+            built.put(coupon.getCode().toUpperCase(), CouponRule.from(coupon));
+        }
+        rules = Rules.of(built);
+        logger.info("Coupon rules loaded in {} ms. Coupons: {}", System.currentTimeMillis() - startedAt, built.size());
+    }
+
+    /** Tek bir kodu veritabanından yeniler; kupon silindiyse haritadan çıkarır. */
+    public synchronized void refresh(String code) {
+        if (rules == null) {
+            reload();
+            return;
+        }
+        String key = code.toUpperCase();
+        Optional<Coupon> coupon = readTransaction.execute(status -> couponRepository.findByCode(key));
+        Map<String, CouponRule> updated = new HashMap<>(rules.byCode());
+        if (coupon.isPresent() && !coupon.get().isExpired()) {
+            updated.put(key, CouponRule.from(coupon.get()));
+        } else {
+            updated.remove(key);
+        }
+        rules = Rules.of(updated);
+        logger.debug("Coupon rule refreshed for code: {}", key);
+    }
+
+    /**
+     * Aktif transaction varsa commit sonrasında, yoksa hemen yeniler.
+     * Rollback olan yazmalar haritayı değiştirmez.
+     */
+    public void refreshAfterCommit(String code) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(code);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    refresh(code);
+                } catch (Exception e) {
+                    // Kupon kaydı commit oldu ama haritada eski kural kalabilir (örn. silinen kupon önizlemede görünür).
+                    // En geç coupon.cache.refresh-ms sonra tam yenileme düzeltir; kullanım limiti siparişte
+                    // veritabanındaki koşullu UPDATE ile kontrol edildiği için bu arada limit aşılmaz.
+                    logger.error("Coupon rule refresh after commit failed for code {}: {}", code, e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Initial coupon rule load failed. It will be loaded on first use: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.cache.refresh-ms:60000}", initialDelayString = "${coupon.cache.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Scheduled coupon rule refresh failed: {}", e.getMessage());
+        }
+    }
+}
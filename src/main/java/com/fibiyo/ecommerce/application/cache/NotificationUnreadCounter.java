@@ -0,0 +1,142 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kullanıcı başına okunmamış bildirim sayacı. İlk erişimde veritabanından yüklenir, sonrasında
+ * bildirim oluşturma/okuma/silme işlemleriyle artımlı güncellenir; rozet (badge) isteği COUNT çalıştırmaz.
+ * Olası sapmalar periyodik mutabakat ile düzeltilir, uzun süre erişilmeyen sayaçlar bellekten atılır.
+ */
+@Component
+public class NotificationUnreadCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationUnreadCounter.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    @Value("${notification.unread-counter.idle-minutes:60}")
+    private long idleMinutes;
+
+    public NotificationUnreadCounter(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    public long get(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter == null) {
+            // Yükleme anahtar kilidi altında yapılır; aynı kullanıcı için ikinci bir yükleme ilk sayacın üzerine yazamaz
+            counter = counters.computeIfAbsent(userId, id -> {
+                long loaded = notificationRepository.countByUserIdAndIsReadFalse(id);
+                logger.trace("Unread counter loaded for user ID: {} ({})", id, loaded);
+                return new Counter(loaded);
+            });
+        }
+        counter.touch();
+        return counter.value.get();
+    }
+
+    /**
+     * Sayaç bellekteyse artırır ve yeni değeri döner; yüklenmemişse -1 döner (ilk erişimde DB'den okunur).
+     */
+    public long increment(Long userId) {
+        Counter counter = counters.get(userId);
+        return counter != null ? counter.value.incrementAndGet() : -1;
+    }
+
+    public long add(Long userId, long delta) {
+        Counter counter = counters.get(userId);
+        return counter != null ? counter.value.addAndGet(delta) : -1;
+    }
+
+    public long decrement(Long userId) {
+        Counter counter = counters.get(userId);
+        return counter != null ? counter.value.updateAndGet(v -> Math.max(0, v - 1)) : -1;
+    }
+
+    public void reset(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter != null) {
+            counter.value.set(0);
+        }
+    }
+
+    // Bellekteki sayaçları veritabanıyla karşılaştırır ve düzeltir; boşta kalan sayaçları atar.
+    @Scheduled(fixedDelayString = "${notification.unread-counter.reconcile-ms:300000}")
+    public void reconcile() {
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        int evicted = 0;
+        int corrected = 0;
+
+        List<Long> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            if (entry.getValue().lastAccessMillis < idleBefore) {
+                counters.remove(entry.getKey(), entry.getValue());
+                evicted++;
+                continue;
+            }
+            batch.add(entry.getKey());
+            if (batch.size() == RECONCILE_BATCH_SIZE) {
+                corrected += reconcileBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            corrected += reconcileBatch(batch);
+        }
+        logger.debug("Unread counter reconciliation finished. Active: {}, Evicted: {}, Corrected: {}", counters.size(), evicted, corrected);
+    }
+
+    // Sorgudan önce görülen değer saklanır; düzeltme yalnızca sayaç bu arada değişmediyse (CAS) uygulanır.
+    // Sorgu sırasında gelen artış/azalışlar ezilmez, kalan sapma bir sonraki turda düzeltilir.
+    private int reconcileBatch(List<Long> userIds) {
+        Map<Long, Long> seen = new HashMap<>();
+        for (Long userId : userIds) {
+            Counter counter = counters.get(userId);
+            if (counter != null) {
+                seen.put(userId, counter.value.get());
+            }
+        }
+        Map<Long, Long> actual = new HashMap<>();
+        for (Object[] row : notificationRepository.countUnreadByUserIds(userIds)) {
+            actual.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        int corrected = 0;
+        for (Map.Entry<Long, Long> entry : seen.entrySet()) {
+            Counter counter = counters.get(entry.getKey());
+            long before = entry.getValue();
+            long expected = actual.getOrDefault(entry.getKey(), 0L);
+            if (counter != null && before != expected && counter.value.compareAndSet(before, expected)) {
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    private static final class Counter {
+        private final AtomicLong value;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private Counter(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+
+        private void touch() {
+            lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+}
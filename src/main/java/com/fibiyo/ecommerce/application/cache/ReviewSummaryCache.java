@@ -0,0 +1,108 @@
+package com.fibiyo.ecommerce.application.cache;
+
+import com.fibiyo.ecommerce.application.dto.ReviewSummaryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ürün bazında yorum özeti (ilk sayfa + yıldız dağılımı) için bellek içi, boyut sınırlı (LRU) önbellek.
+ * Yorum yazma işlemleri ilgili ürünü transaction commit'inden sonra geçersiz kılar.
+ */
+@Component
+public class ReviewSummaryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSummaryCache.class);
+
+    @Value("${review.summary-cache.page-size:5}")
+    private int pageSize;
+
+    @Value("${review.summary-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final int maxEntries;
+
+    // Her geçersiz kılmada artar; yükleme sırasında değiştiyse eski veri önbelleğe yazılmaz.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<Long, Entry> entries;
+
+    public ReviewSummaryCache(@Value("${review.summary-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) { // access-order => LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > ReviewSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public Optional<ReviewSummaryResponse> get(Long productId) {
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(productId);
+                return Optional.empty();
+            }
+            return Optional.of(entry.summary);
+        }
+    }
+
+    /**
+     * Yükleme başlamadan önce alınan generation hâlâ güncelse özeti önbelleğe yazar.
+     */
+    public void putIfUnchanged(Long productId, ReviewSummaryResponse summary, long loadedAtGeneration) {
+        synchronized (entries) {
+            if (generation.get() != loadedAtGeneration) {
+                logger.debug("Review summary for product ID: {} changed while loading. Not caching.", productId);
+                return;
+            }
+            entries.put(productId, new Entry(summary, System.currentTimeMillis() + ttlSeconds * 1000));
+        }
+    }
+
+    public void evict(Long productId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(productId);
+        }
+    }
+
+    /**
+     * Hemen ve (aktif transaction varsa) commit sonrasında tekrar geçersiz kılar.
+     * Böylece commit'ten önce başka bir isteğin eski veriyi yeniden önbelleğe alması engellenir.
+     */
+    public void evictAfterCommit(Long productId) {
+        evict(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(productId);
+                }
+            });
+        }
+    }
+
+    private record Entry(ReviewSummaryResponse summary, long expiresAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminDailyKpiResponse {
+    private LocalDate date;
+    private long orders; // O gün verilen sipariş sayısı
+    private BigDecimal gmv; // O gün verilmiş ve ödemesi tamamlanmış siparişlerin tutarı
+    private long newUsers;
+}
@@ -0,0 +1,29 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Admin paneli KPI anlık görüntüsü (bellekteki sayaçlardan üretilir, veritabanına gitmez)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminKpiSnapshotResponse {
+    private BigDecimal gmv; // Ödemesi tamamlanmış siparişlerin toplam tutarı
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+    private long totalUsers;
+    private long newUsersToday;
+    private long newUsersLast7Days;
+    private long pendingProductApprovals;
+    private long pendingReviewApprovals;
+    private List<AdminDailyKpiResponse> daily; // Eskiden yeniye
+    private LocalDateTime lastRebuildAt;
+    private LocalDateTime generatedAt;
+}
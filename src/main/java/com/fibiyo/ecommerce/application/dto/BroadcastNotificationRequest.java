@@ -0,0 +1,36 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Hedef: targetRole ve/veya targetSubscriptionType ile segment, ya da userIds ile açık liste. Hepsi boşsa tüm kullanıcılar.
+@Data
+public class BroadcastNotificationRequest {
+
+    @NotBlank(message = "Bildirim mesajı boş olamaz")
+    @Size(max = 2000, message = "Mesaj en fazla 2000 karakter olabilir")
+    private String message;
+
+    @Size(max = 1024, message = "Link en fazla 1024 karakter olabilir")
+    private String link;
+
+    private NotificationType type;
+
+    private Role targetRole;
+
+    private SubscriptionType targetSubscriptionType;
+
+    @Size(max = 10000, message = "Açık listede en fazla 10000 kullanıcı olabilir")
+    private List<Long> userIds;
+
+    @Future(message = "Bitiş tarihi gelecekte olmalıdır")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BroadcastNotificationResponse {
+    private Long id;
+    private String message;
+    private String link;
+    private NotificationType type;
+    private Role targetRole;
+    private SubscriptionType targetSubscriptionType;
+    private boolean explicitRecipients;
+    private int recipientCount; // Sadece açık listede dolu
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
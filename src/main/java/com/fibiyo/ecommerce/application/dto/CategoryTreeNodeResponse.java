@@ -0,0 +1,18 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeNodeResponse {
+    private Long id;
+    private String name;
+    private String slug;
+    private String imageUrl;
+    private List<CategoryTreeNodeResponse> children; // Sadece aktif alt kategoriler
+}
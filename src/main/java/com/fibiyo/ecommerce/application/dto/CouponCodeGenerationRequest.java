@@ -0,0 +1,21 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class CouponCodeGenerationRequest {
+
+    @NotNull(message = "Üretilecek kod sayısı boş olamaz")
+    @Min(value = 1, message = "En az 1 kod üretilmelidir")
+    private Integer count;
+
+    // Opsiyonel: Kodların başına eklenir (örn: "BAHAR-")
+    @Pattern(regexp = "^[A-Za-z0-9-]{0,20}$", message = "Önek en fazla 20 harf, rakam veya '-' içerebilir")
+    private String prefix;
+
+    // Önek hariç rastgele kısmın uzunluğu
+    @Min(value = 6, message = "Kod uzunluğu en az 6 olmalıdır")
+    @Max(value = 24, message = "Kod uzunluğu en fazla 24 olabilir")
+    private Integer length = 10;
+}
@@ -0,0 +1,18 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCodeGenerationResponse {
+    private Long couponId;
+    private int requestedCount;
+    private long generatedCount; // Bu istekte eklenen kod sayısı
+    private long totalCodeCount; // Kuponun toplam kod sayısı
+    private int discardedCandidates; // Mevcut kodlarla çakışabileceği için atılan aday sayısı
+    private long durationMs;
+    private long codesPerSecond;
+}
@@ -18,6 +18,7 @@ public class CouponResponse {
     private boolean isActive;
     private Integer usageLimit; // Null ise sınırsız
     private int timesUsed;
+    private boolean singleUseCodes; // True ise sadece üretilen tek kullanımlık kodlarla kullanılabilir
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     // Ekstra Alanlar
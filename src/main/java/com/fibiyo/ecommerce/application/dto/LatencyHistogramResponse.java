@@ -0,0 +1,21 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyHistogramResponse {
+    private long count;
+    private long avgMs;
+    private long p50Ms; // Yüzdelikler kova üst sınırına yuvarlanmış yaklaşık değerlerdir
+    private long p95Ms;
+    private long p99Ms;
+    private long maxMs;
+    private List<Long> bucketUpperBoundsMs;
+    private List<Long> bucketCounts; // Son eleman: en büyük sınırın üstündeki çağrılar
+}
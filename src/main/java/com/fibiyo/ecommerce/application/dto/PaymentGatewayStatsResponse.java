@@ -0,0 +1,23 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentGatewayStatsResponse {
+    private String circuitState; // CLOSED, OPEN, HALF_OPEN
+    private int failureRatePercent; // Devre kesici penceresindeki hata oranı
+    private long circuitOpenedCount;
+    private int callsInFlight;
+    private int maxConcurrentCalls;
+    private long totalCalls;
+    private long failedCalls; // Bağlantı/zaman aşımı ve 5xx/429 hataları
+    private long rejectedByCircuit;
+    private long rejectedByBulkhead;
+    private Map<String, LatencyHistogramResponse> latencies; // İşlem adı -> gecikme histogramı
+}
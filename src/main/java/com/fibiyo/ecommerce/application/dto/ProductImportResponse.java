@@ -0,0 +1,20 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private int totalRows; // Dosyadan okunan veri satırı sayısı
+    private int importedCount; // Başarıyla eklenen ürün sayısı
+    private int failedCount; // Hatalı (eklenmeyen) satır sayısı
+    private long durationMs;
+    private long rowsPerSecond; // İşlem hızı (throughput)
+    private boolean errorsTruncated; // Hata listesi sınıra takıldıysa true (failedCount yine tam sayıdır)
+    private List<ProductImportRowError> errors;
+}
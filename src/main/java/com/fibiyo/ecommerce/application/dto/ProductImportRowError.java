@@ -0,0 +1,14 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRowError {
+    private long rowNumber; // CSV'de başlık hariç kayıt sırası, NDJSON'da satır numarası
+    private String sku; // Varsa, satırı tanımayı kolaylaştırmak için
+    private String message;
+}
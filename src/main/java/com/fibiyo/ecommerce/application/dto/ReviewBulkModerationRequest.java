@@ -0,0 +1,29 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Toplu yorum moderasyonu: ya reviewIds listesi ya da filtre alanlarından en az biri verilmelidir.
+@Data
+public class ReviewBulkModerationRequest {
+
+    @Size(max = 10000, message = "Tek istekte en fazla 10000 yorum ID'si gönderilebilir")
+    private List<Long> reviewIds;
+
+    // --- Filtre (reviewIds boşsa kullanılır) ---
+    private Boolean isApproved;
+    private Long productId;
+    private Long customerId;
+
+    @Min(value = 1, message = "Puan en az 1 olmalıdır")
+    @Max(value = 5, message = "Puan en fazla 5 olabilir")
+    private Integer rating;
+
+    private LocalDateTime createdAfter;
+    private LocalDateTime createdBefore;
+}
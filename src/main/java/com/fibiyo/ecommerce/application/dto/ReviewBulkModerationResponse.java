@@ -0,0 +1,16 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBulkModerationResponse {
+    private String action; // APPROVE, REJECT, DELETE
+    private int matchedCount; // Seçime/filtreye uyan yorum sayısı
+    private int affectedCount; // Durumu gerçekten değişen veya silinen yorum sayısı
+    private int affectedProductCount; // Puanı yeniden hesaplanan ürün sayısı
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Ürün sayfasındaki yorum bloğu: puan özeti + yıldız dağılımı + en yeni onaylı yorumlar
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummaryResponse {
+    private Long productId;
+    private BigDecimal averageRating;
+    private int reviewCount; // Onaylı yorum sayısı
+    private Map<Integer, Integer> ratingHistogram; // 1..5 yıldız -> yorum sayısı
+    private List<ReviewResponse> latestReviews; // İlk sayfa (createdAt DESC)
+}
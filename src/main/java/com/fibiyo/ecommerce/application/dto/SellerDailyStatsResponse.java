@@ -0,0 +1,20 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerDailyStatsResponse {
+    private LocalDate date;
+    private int unitsSold;
+    private BigDecimal revenue;
+    private int orderCount;
+    private int refundedOrderCount;
+    private BigDecimal refundedAmount;
+}
@@ -0,0 +1,28 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Satıcı paneli: seçilen tarih aralığının özeti + günlük seri + son 24 saat + en çok satan ürünler
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerDashboardResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int unitsSold;
+    private BigDecimal revenue;
+    private int orderCount;
+    private int refundedOrderCount;
+    private BigDecimal refundedAmount;
+    private BigDecimal netRevenue; // revenue - refundedAmount
+    private BigDecimal refundRate; // refundedOrderCount / orderCount (0..1)
+    private List<SellerDailyStatsResponse> daily;
+    private List<SellerHourlyStatsResponse> last24Hours;
+    private List<SellerTopProductResponse> topProducts;
+}
@@ -0,0 +1,18 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerHourlyStatsResponse {
+    private LocalDateTime hour; // Saat başı
+    private int unitsSold;
+    private BigDecimal revenue;
+    private int orderCount;
+}
@@ -0,0 +1,27 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Satıcının sipariş listesindeki tek kalem (sadece satıcının kendi ürünleri)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderLineResponse {
+    private Long orderId;
+    private Long orderItemId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal priceAtPurchase;
+    private BigDecimal lineTotal;
+    private OrderStatus orderStatus;
+    private PaymentStatus paymentStatus;
+    private LocalDateTime orderDate;
+}
@@ -0,0 +1,17 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerTopProductResponse {
+    private Long productId;
+    private String productName; // Ürün silindiyse null
+    private long unitsSold;
+    private BigDecimal revenue;
+}
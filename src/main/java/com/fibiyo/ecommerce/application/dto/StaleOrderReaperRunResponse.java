@@ -0,0 +1,24 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaleOrderReaperRunResponse {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt; // Çalışıyorsa veya yarıda kaldıysa null
+    private LocalDateTime cutoff; // Bu tarihten önce oluşturulup hâlâ ödeme bekleyen siparişler iptal edilir
+    private boolean resumed; // Yarıda kalan önceki çalıştırmadan devam edildiyse true
+    private int chunkCount;
+    private long cancelledCount;
+    private long reclaimedUnits; // Bu çalıştırmada stoğa geri dönen ürün adedi
+    private long totalDurationMs;
+    private long maxChunkMs;
+    private long totalCancelledOrders; // Uygulama başladığından beri
+    private long totalReclaimedUnits; // Uygulama başladığından beri
+}
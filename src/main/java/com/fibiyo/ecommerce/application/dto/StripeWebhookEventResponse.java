@@ -0,0 +1,24 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import com.fibiyo.ecommerce.domain.enums.WebhookEventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEventResponse {
+    private Long id;
+    private String eventId; // Stripe event id (evt_...); Stripe panelinde aramak için
+    private String eventType;
+    private String partitionKey;
+    private WebhookEventStatus status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime receivedAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime processedAt;
+}
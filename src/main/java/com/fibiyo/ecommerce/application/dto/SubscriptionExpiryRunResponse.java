@@ -0,0 +1,24 @@
+package com.fibiyo.ecommerce.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionExpiryRunResponse {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt; // Çalışıyorsa veya yarıda kaldıysa null
+    private LocalDateTime cutoff; // Bu tarihten önce süresi dolan abonelikler düşürülür
+    private boolean resumed; // Yarıda kalan önceki çalıştırmadan devam edildiyse true
+    private int chunkCount;
+    private long downgradedCount;
+    private long totalDurationMs;
+    private long minChunkMs;
+    private long avgChunkMs;
+    private long maxChunkMs;
+    private long lastChunkMs;
+}
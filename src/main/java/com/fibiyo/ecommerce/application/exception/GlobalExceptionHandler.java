@@ -57,6 +57,14 @@ public ResponseEntity<ApiResponse> handleConflictException(ConflictException ex,
         return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(PaymentGatewayUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiResponse> handlePaymentGatewayUnavailableException(PaymentGatewayUnavailableException ex, WebRequest request) {
+        logger.warn("Payment Gateway Unavailable: {}", ex.getMessage());
+        ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
+        return new ResponseEntity<>(apiResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
      @ExceptionHandler(UnauthorizedException.class)
      @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ResponseEntity<ApiResponse> handleUnauthorizedException(UnauthorizedException ex, WebRequest request) {
@@ -0,0 +1,12 @@
+package com.fibiyo.ecommerce.application.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Ödeme sağlayıcısı geçici olarak kullanılamıyor (devre açık veya eşzamanlı çağrı sınırı dolu): 503 döner
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PaymentGatewayUnavailableException extends RuntimeException {
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+}
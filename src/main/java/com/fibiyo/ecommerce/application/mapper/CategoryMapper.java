@@ -23,9 +23,13 @@ public interface CategoryMapper {
 
     // CategoryRequest -> Category (Yeni kategori oluşturma)
     // Slug'ı request'ten almıyoruz, servis'te oluşturulacak.
+    @Mapping(target = "path", ignore = true) // Materialized path servis tarafından id belli olunca yazılır
+    @Mapping(target = "depth", ignore = true)
     Category toCategory(CategoryRequest categoryRequest);
 
     // CategoryRequest'ten mevcut Category'yi güncelleme
     // Slug'ı güncelleme (gerekirse servis katmanında yapılmalı)
+    @Mapping(target = "path", ignore = true) // Path sadece taşıma sırasında repository UPDATE'i ile değişir
+    @Mapping(target = "depth", ignore = true)
     void updateCategoryFromRequest(CategoryRequest request, @MappingTarget Category category);
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ public interface CouponMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "orders", ignore = true) // İlişkiyi map'lemiyoruz
+    @Mapping(target = "singleUseCodes", ignore = true) // Kod üretimiyle açılır
     Coupon toCoupon(CouponRequest couponRequest);
 
     // CouponRequest'ten mevcut Coupon'u güncelleme
@@ -35,6 +36,7 @@ public interface CouponMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "orders", ignore = true)
+    @Mapping(target = "singleUseCodes", ignore = true)
      @Mapping(target = "code", ignore = true) // Genellikle kupon kodu değiştirilmez, değiştirilecekse serviste kontrol edilmeli.
     void updateCouponFromRequest(CouponRequest request, @MappingTarget Coupon coupon);
 
@@ -1,9 +1,11 @@
 package com.fibiyo.ecommerce.application.mapper;
 
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationResponse;
 import com.fibiyo.ecommerce.application.dto.NotificationResponse;
+import com.fibiyo.ecommerce.domain.entity.BroadcastNotification;
 import com.fibiyo.ecommerce.domain.entity.Notification;
 import org.mapstruct.Mapper;
-// import org.mapstruct.Mapping; // Direkt eşleşme olduğu için @Mapping'e gerek yok gibi
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -16,6 +18,9 @@ public interface NotificationMapper {
 
     List<NotificationResponse> toNotificationResponseList(List<Notification> notifications);
 
+    @Mapping(target = "recipientCount", expression = "java(broadcast.getRecipientUserIds() != null ? broadcast.getRecipientUserIds().size() : 0)")
+    BroadcastNotificationResponse toBroadcastNotificationResponse(BroadcastNotification broadcast);
+
     // Notification oluşturma işlemi genellikle servis içinde manuel yapılır,
     // request DTO'su kullanmak yerine parametrelerle yapılabilir.
 }
\ No newline at end of file
@@ -16,7 +16,8 @@ public interface OrderMapper {
 
     @Mapping(source = "customer.id", target = "customerId")
     @Mapping(source = "customer.username", target = "customerUsername")
-    @Mapping(source = "coupon.code", target = "couponCode")
+    // Kampanya kuponlarında müşterinin kullandığı tek kullanımlık kod gösterilir
+    @Mapping(target = "couponCode", expression = "java(order.getSingleUseCouponCode() != null ? order.getSingleUseCouponCode() : (order.getCoupon() != null ? order.getCoupon().getCode() : null))")
      // JSON string'leri AddressDto'ya maplemek için özel metot kullan
     @Mapping(target = "shippingAddress", qualifiedByName = "jsonToAddressDto")
     @Mapping(target = "billingAddress", qualifiedByName = "jsonToAddressDto")
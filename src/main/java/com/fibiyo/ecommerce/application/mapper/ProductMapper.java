@@ -42,9 +42,18 @@ public interface ProductMapper {
     @Mapping(target = "active", ignore = true) // Serviste default set edilecek
     @Mapping(target = "averageRating", ignore = true)
     @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewsVersion", ignore = true)
+    @Mapping(target = "reviewSummaryVersion", ignore = true)
+    @Mapping(target = "rating1Count", ignore = true)
+    @Mapping(target = "rating2Count", ignore = true)
+    @Mapping(target = "rating3Count", ignore = true)
+    @Mapping(target = "rating4Count", ignore = true)
+    @Mapping(target = "rating5Count", ignore = true)
     @Mapping(target = "reviewSummaryAi", ignore = true)
     @Mapping(target = "aiGeneratedImageUrl", ignore = true)
     @Mapping(target = "category", ignore = true) // Serviste atanacak
+    @Mapping(target = "categoryPath", ignore = true) // Kategoriden kopyalanır
     @Mapping(target = "seller", ignore = true) // Serviste atanacak
     @Mapping(target = "orderItems", ignore = true) // İlişki listeleri
     @Mapping(target = "reviews", ignore = true)
@@ -62,9 +71,18 @@ public interface ProductMapper {
     @Mapping(target = "active", ignore = true) // Ayrı admin/seller işlevi
     @Mapping(target = "averageRating", ignore = true)
     @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewsVersion", ignore = true)
+    @Mapping(target = "reviewSummaryVersion", ignore = true)
+    @Mapping(target = "rating1Count", ignore = true)
+    @Mapping(target = "rating2Count", ignore = true)
+    @Mapping(target = "rating3Count", ignore = true)
+    @Mapping(target = "rating4Count", ignore = true)
+    @Mapping(target = "rating5Count", ignore = true)
     @Mapping(target = "reviewSummaryAi", ignore = true) // Ayrı AI işlevi
     @Mapping(target = "aiGeneratedImageUrl", ignore = true) // Ayrı AI işlevi
     @Mapping(target = "category", ignore = true) // Kategori ID'si değişirse serviste atanacak
+    @Mapping(target = "categoryPath", ignore = true) // ProductRepository.syncCategoryPath ile güncellenir
     @Mapping(target = "seller", ignore = true) // Satıcı değişmemeli
     @Mapping(target = "orderItems", ignore = true) // İlişki listeleri
     @Mapping(target = "reviews", ignore = true)
@@ -37,6 +37,7 @@ public interface UserMapper {
     @Mapping(target = "subscriptionExpiryDate", ignore = true)
     @Mapping(target = "loyaltyPoints", ignore = true)
     @Mapping(target = "imageGenQuota", ignore = true)
+    @Mapping(target = "lastBroadcastId", ignore = true)
     @Mapping(target = "productsSold", ignore = true)
     @Mapping(target = "orders", ignore = true)
     @Mapping(target = "reviews", ignore = true)
@@ -0,0 +1,27 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.domain.enums.ExportFormat;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.Role;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Admin veri dışa aktarımları (sipariş, ürün, kullanıcı). Sonuçlar sayfalanmadan, COUNT sorgusu olmadan,
+ * ileri yönlü bir JDBC cursor'dan skaler kolonlar olarak okunur ve satır satır yazılır;
+ * milyonlarca satırda bile bellek kullanımı sabittir. Filtreler mevcut *Specifications sınıflarıyla aynıdır.
+ * Metotlar kendi read-only transaction'larını açar (StreamingResponseBody ayrı bir thread'de çalışır)
+ * ve yazılan veri satırı sayısını döner.
+ */
+public interface AdminExportService {
+
+    long exportOrders(OutputStream out, ExportFormat format, Long customerId, OrderStatus status,
+                      LocalDateTime from, LocalDateTime to) throws IOException;
+
+    long exportProducts(OutputStream out, ExportFormat format, Long sellerId, Long categoryId,
+                        Boolean approved, Boolean active, String searchTerm) throws IOException;
+
+    long exportUsers(OutputStream out, ExportFormat format, String searchTerm, Role role, Boolean active) throws IOException;
+}
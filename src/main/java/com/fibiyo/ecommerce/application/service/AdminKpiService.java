@@ -0,0 +1,50 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.AdminKpiSnapshotResponse;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+
+/**
+ * Admin paneli KPI motoru. GMV, duruma göre sipariş sayıları, yeni kullanıcılar ve günlük kovalar bellekte
+ * tutulur; sipariş ve kullanıcı servisleri olayları bildirdikçe (transaction commit'inden sonra) güncellenir.
+ * Anlık görüntü veritabanına gitmeden üretilir; sayaçlar periyodik olarak geçmiş veriden yeniden hesaplanır.
+ */
+public interface AdminKpiService {
+
+    /**
+     * Sipariş oluşturulduğunda (previousStatus = null) veya durumu değiştiğinde çağrılır.
+     */
+    void recordOrderStatusChange(Order order, OrderStatus previousStatus);
+
+    /**
+     * Aynı durumdaki birden fazla sipariş tek seferde başka bir duruma geçtiğinde çağrılır (örn. bayat sipariş iptali).
+     */
+    void recordOrderStatusChanges(OrderStatus previousStatus, OrderStatus newStatus, int count);
+
+    /**
+     * Siparişin ödemesi tamamlandığında çağrılır (GMV artar).
+     */
+    void recordOrderPaid(Order order);
+
+    /**
+     * Ödemesi tamamlanmış sipariş iade edildiğinde çağrılır (GMV azalır).
+     */
+    void recordOrderRefunded(Order order);
+
+    /**
+     * Yeni kullanıcı kaydında çağrılır.
+     */
+    void recordUserRegistered(User user);
+
+    /**
+     * Bellekteki sayaçlardan anlık KPI görüntüsü.
+     */
+    AdminKpiSnapshotResponse getSnapshot();
+
+    /**
+     * Tüm sayaçları geçmiş veriden (siparişler akış halinde okunarak) yeniden hesaplar ve bellekteki durumla değiştirir.
+     * Artımlı sayaçlardaki sapma loglanır. Her gece çalıştırılır (@Scheduled); admin tarafından da tetiklenebilir.
+     */
+    void rebuild();
+}
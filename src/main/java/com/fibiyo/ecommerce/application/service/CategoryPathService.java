@@ -0,0 +1,25 @@
+package com.fibiyo.ecommerce.application.service;
+
+/**
+ * Kategori materialized path'lerinin (categories.path) ve ürünlerdeki denormalize kopyasının (products.category_path)
+ * bakımını yapan servis. Alt ağaç ürün sorguları bu sayede tek bir index'li önek (LIKE '/1/5/%') koşuluna dönüşür.
+ */
+public interface CategoryPathService {
+
+    /**
+     * Taşınan bir kategorinin alt ağacındaki ürünlerin path'ini commit sonrasında parça parça (LIMIT'li UPDATE'ler) günceller.
+     * Her parça kendi kısa transaction'ında çalışır; aktif transaction yoksa hemen çalışır.
+     *
+     * @param oldPath Kategorinin taşınmadan önceki path'i.
+     * @param newPath Kategorinin yeni path'i.
+     */
+    void repathProductsAfterCommit(String oldPath, String newPath);
+
+    /**
+     * Eksik kategori path'lerini seviye seviye doldurur, ardından ürünlerin category_path değerlerini id aralıkları halinde
+     * kategorilerle mutabık hale getirir. Açılışta ve periyodik olarak (@Scheduled) çalışır.
+     *
+     * @return Düzeltilen ürün sayısı.
+     */
+    int reconcilePaths();
+}
@@ -2,6 +2,7 @@ package com.fibiyo.ecommerce.application.service;
 
 import com.fibiyo.ecommerce.application.dto.CategoryRequest;
 import com.fibiyo.ecommerce.application.dto.CategoryResponse;
+import com.fibiyo.ecommerce.application.dto.CategoryTreeNodeResponse;
 
 import java.util.List;
 
@@ -14,4 +15,8 @@ public interface CategoryService {
     void deleteCategory(Long id); // Silme işlemi bir şey döndürmez genelde
     List<CategoryResponse> findSubCategories(Long parentId); // Alt kategorileri bulma
     List<CategoryResponse> findRootCategories(); // Ana kategorileri bulma
+    List<CategoryTreeNodeResponse> findActiveCategoryTree(); // Aktif kategorilerin iç içe ağacı (bellekten)
+    List<CategoryResponse> findCategoryPath(Long id); // Kökten kategoriye breadcrumb
+    String findMaterializedPath(Long id); // "/1/5/12/" biçiminde path; bilinmiyorsa null (ürün alt ağaç filtresi için)
+    List<Long> findSubtreeCategoryIds(Long id); // Kategori + tüm alt kategorilerin id'leri (path henüz yoksa yedek filtre)
 }
\ No newline at end of file
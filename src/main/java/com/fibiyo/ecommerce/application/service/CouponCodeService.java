@@ -0,0 +1,48 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.cache.CouponRule;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationRequest;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Kampanya kuponları için tek kullanımlık kod üretimi, dışa aktarımı ve sepette girilen kodun çözümlenmesi.
+ * Bir kupona kod üretildiğinde kupon kampanya şablonuna dönüşür (Coupon.singleUseCodes); kuralları (indirim, süre,
+ * minimum tutar, toplam limit) kupondan gelir, her kod ise en fazla bir kez kullanılabilir.
+ */
+public interface CouponCodeService {
+
+    /**
+     * Sepette veya siparişte girilen kod için uygulanacak kural.
+     *
+     * @param rule          Kupon kuralı (CouponRuleCache'ten).
+     * @param singleUseCode Kod üretilmiş tek kullanımlık bir kodsa kendisi (büyük harf); normal kuponlarda null.
+     * @param redeemed      Tek kullanımlık kod daha önce kullanıldıysa true.
+     */
+    record CouponMatch(CouponRule rule, String singleUseCode, boolean redeemed) {
+    }
+
+    /**
+     * Kodu önce bellekteki kupon kurallarında, bulunamazsa coupon_codes tablosunda (unique index ile tek satır) arar.
+     * Kampanya şablonu olan kuponun kendi kodu eşleşmez.
+     */
+    Optional<CouponMatch> resolve(String code);
+
+    /**
+     * Kupon için istenen sayıda benzersiz kod üretir ve parça parça (her parça kendi transaction'ında) ekler.
+     * Mevcut kodlar bir bloom filter'a yüklenir; filtrede "var olabilir" denen adaylar atılıp yeniden üretilir,
+     * böylece üretim veritabanına kod başına sorgu atmaz.
+     */
+    CouponCodeGenerationResponse generateCodes(Long couponId, CouponCodeGenerationRequest request);
+
+    /**
+     * Kuponun kodlarını CSV (code,redeemed_at) olarak ileri yönlü bir cursor'dan satır satır yazar.
+     * Kendi read-only transaction'ını açar (StreamingResponseBody ayrı bir thread'de çalışır).
+     *
+     * @return Yazılan kod sayısı.
+     */
+    long exportCodes(Long couponId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.fibiyo.ecommerce.application.service;
+
+/**
+ * Kupon kullanım sayacının (coupons.times_used) tek yazıcısı.
+ * Limit kontrolü ve artırma tek bir koşullu UPDATE'tir; bu sayede aynı kuponu kullanan eşzamanlı siparişler
+ * limiti aşamaz ve kupon satırı sipariş transaction'ı boyunca kilitli kalmaz.
+ */
+public interface CouponUsageService {
+
+    /**
+     * Kuponu bir kez kullanır. Artırma kendi kısa transaction'ında hemen commit edilir; çağıran transaction
+     * rollback olursa kullanım commit sonrasında otomatik geri alınır.
+     *
+     * @return Kullanım kaydedildiyse true; limit dolmuşsa veya kupon silinmişse false.
+     */
+    boolean tryRedeem(Long couponId);
+
+    /**
+     * İptal edilen bir siparişin kupon kullanımını geri verir. Çağıran transaction'a katılır;
+     * iptal rollback olursa geri verme de geri alınır.
+     */
+    void release(Long couponId);
+
+    /**
+     * Tek kullanımlık bir kodu kullanıldı olarak işaretler (unique index üzerinden koşullu UPDATE).
+     * tryRedeem gibi hemen commit edilir ve çağıran transaction rollback olursa geri alınır.
+     *
+     * @return Kod işaretlendiyse true; kod yoksa veya daha önce kullanıldıysa false.
+     */
+    boolean tryRedeemCode(String code);
+
+    /** İptal edilen siparişin tek kullanımlık kodunu tekrar kullanılabilir yapar. Çağıran transaction'a katılır. */
+    void releaseCode(String code);
+}
@@ -0,0 +1,26 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+
+/**
+ * Bildirimleri bellekteki sınırlı bir kuyrukta toplayıp çok satırlı batch INSERT'lerle yazan servis.
+ * Her N ms'de bir veya M bildirim biriktiğinde (hangisi önce olursa) yazılır.
+ */
+public interface NotificationIngestService {
+
+    /**
+     * Bildirimi yazma kuyruğuna ekler. Kuyruk doluysa kısa süre bekler; yine yer açılmazsa
+     * bildirimi çağıran thread'de doğrudan yazar (backpressure: üretici yavaşlar, bildirim kaybolmaz).
+     */
+    void enqueue(Long userId, String message, String link, NotificationType type);
+
+    long getEnqueuedCount();
+
+    long getWrittenCount();
+
+    long getCoalescedCount(); // Aynı pencerede tekrar eden (aynı kullanıcı + içerik) ve birleştirilen bildirimler
+
+    long getFailedCount();
+
+    int getQueueSize();
+}
@@ -0,0 +1,33 @@
+package com.fibiyo.ecommerce.application.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * Bildirimleri bağlı istemcilere sunucudan itme (Server-Sent Events) ile ileten servis.
+ * Kullanıcı başına açık bağlantılar bellekte tutulur; her bağlantının sınırlı bir gönderim tamponu vardır.
+ */
+public interface NotificationPushService {
+
+    /**
+     * Kullanıcı için yeni bir SSE bağlantısı açar ve kayıt defterine ekler.
+     */
+    SseEmitter subscribe(Long userId);
+
+    /**
+     * Kullanıcının tüm açık bağlantılarına olay gönderir. Bağlı değilse hiçbir şey yapmaz.
+     * Çağıran thread beklemez; gönderim arka planda yapılır.
+     */
+    void pushToUser(Long userId, String eventName, Object payload);
+
+    /**
+     * Bu node'a en az bir açık bağlantısı olan kullanıcıların ID'leri (anlık kopya).
+     */
+    Set<Long> getConnectedUserIds();
+
+    /**
+     * Bu node üzerindeki açık SSE bağlantı sayısı.
+     */
+    int getActiveConnectionCount();
+}
@@ -0,0 +1,29 @@
+package com.fibiyo.ecommerce.application.service;
+
+/**
+ * notifications tablosunun sınırsız büyümesini engelleyen saklama (retention) servisi.
+ * Saklama süresini aşan okunmuş bildirimler parçalar halinde notifications_archive tablosuna taşınır.
+ */
+public interface NotificationRetentionService {
+
+    /**
+     * Okunmuş ve notification.retention.days günden eski bildirimleri id sırasıyla parçalar halinde arşive taşır.
+     * Parçalar arasında beklenir ve tek çalıştırmanın süresi sınırlıdır; yoğun saatlerde veritabanını yormaz.
+     * Periyodik görev olarak (@Scheduled) çalıştırılır.
+     *
+     * @return Bu çalıştırmada arşive taşınan bildirim sayısı.
+     */
+    int archiveOldNotifications();
+
+    /**
+     * notifications_archive tablosunu (JPA entity'si olmadığı için ddl-auto oluşturmaz) yoksa oluşturur ve yıllık
+     * partition'ları döndürür: gelecek yıllar için pmax bölünerek partition eklenir, saklama süresi tanımlıysa
+     * eski yılların partition'ları silinir. Başlangıçta ve periyodik görev olarak çalıştırılır.
+     */
+    void maintainArchivePartitions();
+
+    /**
+     * Uygulama başladığından beri arşive taşınan toplam bildirim sayısı.
+     */
+    long getTotalArchived();
+}
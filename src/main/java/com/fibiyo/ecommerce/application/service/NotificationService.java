@@ -1,24 +1,34 @@
 package com.fibiyo.ecommerce.application.service;
 
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationRequest;
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationResponse;
 import com.fibiyo.ecommerce.application.dto.NotificationResponse;
 import com.fibiyo.ecommerce.application.dto.UnreadNotificationCountDto; // DTO import
 import com.fibiyo.ecommerce.domain.entity.User; // Parametre için
 import com.fibiyo.ecommerce.domain.enums.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface NotificationService {
 
     // --- User Operations ---
     Page<NotificationResponse> findMyNotifications(Pageable pageable); // Kullanıcının bildirimleri
+    Page<NotificationResponse> findMyArchivedNotifications(Pageable pageable); // Saklama süresi dolup arşive taşınmış eski bildirimler
     UnreadNotificationCountDto getMyUnreadNotificationCount(); // Okunmamış sayısını getir
     NotificationResponse markNotificationAsRead(Long notificationId); // Tek bildirimi okundu yap
     int markAllMyNotificationsAsRead(); // Tümünü okundu yap, etkilenen satır sayısını dön
     void deleteNotification(Long notificationId); // Tek bildirimi sil (Kullanıcı için)
+    SseEmitter subscribeToMyNotifications(); // Yeni bildirimleri anlık almak için SSE akışı (polling yerine)
 
     // --- System/Service Operations (Internal Usage) ---
     // Diğer servislerin bildirim oluşturmak için çağıracağı metodlar
     void createNotification(User user, String message, String link, NotificationType type);
+
+    // --- Admin Operations ---
+    // Rol / abonelik tipi / açık kullanıcı listesine toplu bildirim: tek satır saklanır, kullanıcı okurken aktarılır
+    BroadcastNotificationResponse createBroadcastNotification(BroadcastNotificationRequest request);
+    Page<BroadcastNotificationResponse> findBroadcastNotifications(Pageable pageable);
     // Örnek özel metodlar:
     // void sendOrderStatusUpdateNotification(Order order);
     // void sendNewPromotionNotification(Coupon coupon, List<User> targetUsers);
@@ -5,6 +5,9 @@ import com.fibiyo.ecommerce.application.dto.OrderResponse;
 import com.fibiyo.ecommerce.domain.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
 
 public interface OrderService {
 
@@ -16,7 +19,9 @@ public interface OrderService {
 
     // --- Admin/Seller Operations ---
     Page<OrderResponse> findAllOrders(Pageable pageable, Long customerId, OrderStatus status /*.. more filters */); // Tüm siparişler (Admin)
-    Page<OrderResponse> findSellerOrders(Pageable pageable, OrderStatus status /*.. more filters */); // Satıcının siparişleri (Admin/Seller)
+    // Satıcının siparişleri (Admin/Seller). Satıcı için keyset sayfalama: sonraki sayfada önceki sayfanın son siparişinin
+    // tarihi ve ID'si verilir (sayfa numarası kullanılmaz, toplam sayı hesaplanmaz)
+    Slice<OrderResponse> findSellerOrders(Pageable pageable, OrderStatus status, LocalDateTime beforeOrderDate, Long beforeOrderId /*.. more filters */);
     OrderResponse findOrderById(Long orderId); // ID ile herhangi bir siparişi görme (Admin/Seller)
     OrderResponse updateOrderStatus(Long orderId, OrderStatus newStatus); // Sipariş durumunu güncelle (Admin/Seller)
     OrderResponse addTrackingNumber(Long orderId, String trackingNumber); // Kargo takip no ekle (Admin/Seller)
@@ -0,0 +1,25 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.PaymentGatewayStatsResponse;
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import com.stripe.param.checkout.SessionCreateParams;
+
+/**
+ * Ödeme sağlayıcısı (Stripe) API portu. Uygulama HTTP isteği thread'lerinden yapılan çağrılar bu port üzerinden geçer;
+ * adapter bağlantı havuzu, çağrı bazında timeout, devre kesici ve eşzamanlı çağrı sınırı (bulkhead) uygular.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Stripe Checkout Session oluşturur.
+     *
+     * @param idempotencyKey Aynı key ile tekrar gelen istekte Stripe yeni session açmaz, ilkini döner (24 saat). Null olabilir.
+     * @throws StripeException                    Stripe hata dönerse veya bağlantı/zaman aşımı hatası olursa.
+     * @throws PaymentGatewayUnavailableException Devre açıksa veya eşzamanlı çağrı sınırı doluysa (Stripe'a gidilmez).
+     */
+    Session createCheckoutSession(SessionCreateParams params, String idempotencyKey) throws StripeException;
+
+    /** Devre kesici durumu, reddedilen çağrılar ve işlem bazında gecikme histogramları. */
+    PaymentGatewayStatsResponse getStats();
+}
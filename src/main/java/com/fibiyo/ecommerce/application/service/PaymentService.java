@@ -2,6 +2,7 @@ package com.fibiyo.ecommerce.application.service;
 
 import com.fibiyo.ecommerce.application.dto.CreateCheckoutSessionRequest;
 import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse;
+import com.stripe.model.Event;
 // Gerekirse diğer DTO importları (örn: RefundRequest, RefundResponse)
 
 /**
@@ -22,16 +23,14 @@ public interface PaymentService {
     StripeCheckoutSessionResponse createCheckoutSession(CreateCheckoutSessionRequest request);
 
     /**
-     * Stripe'dan gelen webhook event'lerini işler.
-     * İmza doğrulaması yapar ve event tipine göre sipariş durumunu günceller.
-     * (Örn: checkout.session.completed, payment_intent.payment_failed)
+     * İmzası doğrulanmış ve kuyruğa alınmış bir Stripe event'ini işler (StripeWebhookQueueService worker'larından çağrılır).
+     * Event tipine göre sipariş/abonelik durumunu günceller (Örn: checkout.session.completed, payment_intent.payment_failed).
+     * Tekrar gelen event'ler için idempotent'tir.
      *
-     * @param payload   Stripe'dan gelen ham request body'si (JSON string).
-     * @param sigHeader Stripe'ın gönderdiği 'Stripe-Signature' header değeri.
-     * @throws BadRequestException İmza geçersizse veya payload hatalıysa.
-     * @throws RuntimeException    Beklenmedik bir hata oluşursa.
+     * @param event Stripe event'i.
+     * @throws RuntimeException İşleme sırasında geçici bir hata olursa; kuyruk event'i daha sonra tekrar dener.
      */
-    void handleStripeWebhook(String payload, String sigHeader);
+    void processWebhookEvent(Event event);
 
 
     /**
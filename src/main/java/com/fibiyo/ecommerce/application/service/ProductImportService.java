@@ -0,0 +1,24 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.ProductImportResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Satıcıların CSV veya NDJSON dosyasıyla toplu ürün eklemesi için servis.
+ */
+public interface ProductImportService {
+
+    /**
+     * Dosyayı akış (streaming) olarak okur; satırları doğrular, kategorileri tek seferde yüklenen bir kümeden çözer,
+     * slug'ları parti bazında benzersizlik kontrolüyle üretir ve ürünleri parçalar (chunk) halinde JDBC batch ile ekler.
+     * Hatalı satırlar atlanır ve satır numarasıyla raporlanır; geçerli satırlar yine eklenir.
+     * Format dosya uzantısından (.ndjson/.jsonl → NDJSON, diğerleri → CSV) belirlenir.
+     *
+     * CSV başlığı: name, description, price, stock, sku, imageUrl, categoryId (name, price, stock, categoryId zorunlu).
+     *
+     * @param file Yüklenen dosya.
+     * @return Eklenen/hatalı satır sayıları, satır bazlı hatalar ve işlem hızı.
+     * @throws com.fibiyo.ecommerce.application.exception.BadRequestException Dosya boş, okunamaz veya başlık eksikse.
+     */
+    ProductImportResponse importProductsForCurrentSeller(MultipartFile file);
+}
@@ -1,7 +1,10 @@
 package com.fibiyo.ecommerce.application.service;
 
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationRequest;
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationResponse;
 import com.fibiyo.ecommerce.application.dto.ReviewRequest;
 import com.fibiyo.ecommerce.application.dto.ReviewResponse;
+import com.fibiyo.ecommerce.application.dto.ReviewSummaryResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -14,10 +17,18 @@ public interface ReviewService {
 
     // --- Public Operations ---
     Page<ReviewResponse> findReviewsByProduct(Long productId, Pageable pageable, boolean approvedOnly); // Onaylı/Tümünü getirme seçeneği
+    ReviewSummaryResponse getReviewSummary(Long productId); // Puan özeti + yıldız dağılımı + en yeni onaylı yorumlar (önbellekli)
 
     // --- Admin Operations ---
     Page<ReviewResponse> findAllReviews(Pageable pageable, Boolean isApproved); // Tüm yorumları admin için listeleme
     ReviewResponse approveReview(Long reviewId);
     ReviewResponse rejectReview(Long reviewId); // Veya sadece isApproved = false yapabilir
     void deleteReviewByAdmin(Long reviewId); // Adminin herhangi bir yorumu silmesi
+    // Toplu moderasyon: ID listesi veya filtre ile set-based güncelleme, ürün başına tek puan hesaplaması
+    ReviewBulkModerationResponse bulkApproveReviews(ReviewBulkModerationRequest request);
+    ReviewBulkModerationResponse bulkRejectReviews(ReviewBulkModerationRequest request);
+    ReviewBulkModerationResponse bulkDeleteReviews(ReviewBulkModerationRequest request);
+
+    // --- System Operations ---
+    int reconcileProductRatings(); // Ürün puan toplamlarındaki sapmaları partiler halinde onarır (@Scheduled), onarılan ürün sayısını döner
 }
\ No newline at end of file
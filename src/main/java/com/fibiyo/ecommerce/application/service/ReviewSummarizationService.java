@@ -0,0 +1,17 @@
+package com.fibiyo.ecommerce.application.service;
+
+/**
+ * Ürün yorumlarından AI özeti (Product.reviewSummaryAi) üreten toplu iş.
+ * Sadece onaylı yorumları son özetten sonra değişmiş ürünler işlenir (reviews_version watermark'ı).
+ */
+public interface ReviewSummarizationService {
+
+    /**
+     * Özeti eskimiş ürünleri partiler halinde seçer, yorumları token bütçesine göre parçalar,
+     * LLM'i sınırlı eşzamanlılık ve hız limitiyle çağırır ve özetleri parti parti geri yazar.
+     * Periyodik görev olarak (@Scheduled) çalıştırılır.
+     *
+     * @return Bu çalıştırmada özeti güncellenen ürün sayısı.
+     */
+    int summarizeChangedProducts();
+}
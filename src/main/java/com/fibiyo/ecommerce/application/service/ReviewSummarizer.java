@@ -0,0 +1,24 @@
+package com.fibiyo.ecommerce.application.service;
+
+import java.util.List;
+
+/**
+ * Yorum metinlerinden kısa özet üreten dil modeli (LLM) portu.
+ * Üretimde OpenAI adapter'ı, testlerde/yerelde ağ çağrısı yapmayan stub kullanılır
+ * (ai.review-summary.provider=openai|stub).
+ */
+public interface ReviewSummarizer {
+
+    /**
+     * Tek bir token bütçesine sığan yorum parçasını özetler.
+     *
+     * @param productName Ürün adı (bağlam için).
+     * @param reviews     "puan/5: yorum" biçiminde yorum satırları.
+     */
+    String summarizeReviews(String productName, List<String> reviews);
+
+    /**
+     * Birden fazla parçanın ara özetlerini tek bir nihai özette birleştirir.
+     */
+    String mergeSummaries(String productName, List<String> partialSummaries);
+}
@@ -0,0 +1,32 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.SellerDashboardResponse;
+import com.fibiyo.ecommerce.domain.entity.Order;
+
+import java.time.LocalDate;
+
+/**
+ * Satıcı paneli metrikleri. Sipariş/ödeme durum geçişlerinde günlük, saatlik ve ürün bazlı özet tablolar
+ * artımlı olarak güncellenir; panel sipariş tablolarını taramadan bu özetlerden birkaç indeksli okumayla üretilir.
+ */
+public interface SellerAnalyticsService {
+
+    /**
+     * Siparişin ödemesi tamamlandığında çağrılır. Siparişteki kalemler satıcı bazında gruplanıp
+     * birim, ciro ve sipariş sayıları sipariş tarihinin gün/saat özet satırlarına eklenir.
+     * Çağıranın transaction'ına katılır; durum geçişi geri alınırsa istatistik de geri alınır.
+     */
+    void recordOrderPaid(Order order);
+
+    /**
+     * Ödemesi tamamlanmış sipariş iade edildiğinde (iptal vb.) çağrılır.
+     * İade, satışın yazıldığı sipariş tarihine işlenir: günlük satırda iade sayısı/tutarı artar,
+     * saatlik ve ürün bazlı satırlarda satış geri alınır.
+     */
+    void recordOrderRefunded(Order order);
+
+    /**
+     * Giriş yapmış satıcının [from, to] aralığı için panel verisi.
+     */
+    SellerDashboardResponse getMyDashboard(LocalDate from, LocalDate to, int topProductLimit);
+}
@@ -1 +1,60 @@
 package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.SellerOrderLineResponse;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Satıcı sipariş sorgularının okuma modeli (seller_order_lines).
+ * Sipariş yazma işlemleri bu servisi aynı transaction içinde çağırır; satıcı listeleri join'siz okunur.
+ */
+public interface SellerOrderService {
+
+    /**
+     * Yeni kaydedilmiş siparişin kalemlerini (ID'leri atanmış olmalı) satıcı satırları olarak ekler.
+     */
+    void recordOrderCreated(Order order);
+
+    /**
+     * Siparişin güncel sipariş/ödeme durumunu tüm satıcı satırlarına yansıtır (tek UPDATE).
+     */
+    void syncOrderStatus(Order order);
+
+    /**
+     * Toplu durum değişikliğinde (örn. bayat sipariş iptali) siparişlerin satıcı satırlarına yeni sipariş durumunu yazar (tek UPDATE).
+     * Ödeme durumu değişmez.
+     */
+    void syncOrderStatuses(List<Long> orderIds, OrderStatus status);
+
+    /**
+     * Giriş yapmış satıcının sipariş kalemleri, en yeni önce.
+     */
+    Page<SellerOrderLineResponse> findMyOrderLines(Pageable pageable, OrderStatus status);
+
+    /**
+     * Satıcının ürününü içeren siparişlerin ID'leri, en yeni önce (sipariş başına bir kez), keyset sayfalama ile.
+     * İlk sayfa için beforeOrderDate/beforeOrderId null verilir; sonraki sayfalar için önceki sayfanın son siparişinin
+     * tarihi ve ID'si verilir.
+     *
+     * @param limit En fazla dönecek sipariş sayısı.
+     */
+    List<Long> findOrderIdsForSeller(Long sellerId, OrderStatus status, LocalDateTime beforeOrderDate, Long beforeOrderId, int limit);
+
+    /**
+     * Satıcının bu siparişte kalemi olup olmadığı (yetki kontrolü için).
+     */
+    boolean sellerHasItemsInOrder(Long sellerId, Long orderId);
+
+    /**
+     * Okuma modelinde henüz satırı olmayan (eski) siparişleri parçalar halinde doldurur.
+     * İlerleme job_checkpoints tablosunda saklanır; kesilirse kaldığı sipariş ID'sinden devam eder.
+     *
+     * @return Eklenen satır sayısı.
+     */
+    int backfillMissingLines();
+}
@@ -0,0 +1,22 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.StaleOrderReaperRunResponse;
+
+/**
+ * Ödemesi hiç tamamlanmayan siparişleri temizleyen servis. createOrder stoğu hemen düşürdüğü için
+ * PENDING_PAYMENT'ta kalan siparişler, süreleri (TTL) dolunca iptal edilir ve stokları geri verilir.
+ */
+public interface StaleOrderReaperService {
+
+    /**
+     * TTL'den eski PENDING_PAYMENT siparişlerini (order_date, id) keyset'i ile parça parça iptal eder. Her parça kendi
+     * transaction'ında stok, kupon kullanımı ve satıcı satırlarını toplu UPDATE'lerle günceller.
+     * Periyodik görev olarak (@Scheduled) çalıştırılır.
+     */
+    void reapStaleOrders();
+
+    /**
+     * Son çalıştırmanın özeti ve uygulama başladığından beri geri kazanılan toplamlar; hiç çalışmadıysa null.
+     */
+    StaleOrderReaperRunResponse getLastRun();
+}
@@ -0,0 +1,27 @@
+package com.fibiyo.ecommerce.application.service;
+
+/**
+ * Upload klasöründe hiçbir kayıt tarafından referans edilmeyen (yetim) dosyaları temizleyen servis.
+ * AI üretimleri, başarısız ürün kayıtları ve görsel değişimleri geride sahipsiz dosyalar bırakır.
+ */
+public interface StorageCleanupService {
+
+    /**
+     * Mark-and-sweep temizliği çalıştırır: önce veritabanındaki ürün/kategori görsel URL'leri sayfa sayfa
+     * okunup işaretlenir, ardından upload klasörü taranır ve grace period'dan eski, referanssız dosyalar silinir.
+     * Periyodik görev olarak (@Scheduled) çalıştırılır.
+     *
+     * @return Bu çalıştırmada silinen dosya sayısı.
+     */
+    int cleanupOrphanedUploads();
+
+    /**
+     * Uygulama başladığından beri silinen toplam dosya sayısı.
+     */
+    long getTotalFilesDeleted();
+
+    /**
+     * Uygulama başladığından beri geri kazanılan toplam disk alanı (byte).
+     */
+    long getTotalBytesReclaimed();
+}
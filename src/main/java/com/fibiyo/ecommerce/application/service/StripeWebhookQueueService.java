@@ -0,0 +1,42 @@
+package com.fibiyo.ecommerce.application.service;
+
+import com.fibiyo.ecommerce.application.dto.StripeWebhookEventResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Stripe webhook event'lerinin kalıcı kuyruğu. Webhook isteği sadece imzayı doğrular ve event'i event id'ye göre
+ * tekilleştirerek kaydeder; asıl işleme (PaymentService.processWebhookEvent) arka plandaki worker'larda,
+ * aynı sipariş/kullanıcıya ait event'ler aynı worker'da sırayla olacak şekilde yapılır.
+ * Hata alan event'ler artan bekleme süreleriyle tekrar denenir; deneme hakkı bitenler dead-letter'a düşer.
+ */
+public interface StripeWebhookQueueService {
+
+    /**
+     * İmzayı doğrular ve event'i kuyruğa yazar. Aynı event daha önce alındıysa hiçbir şey yapmaz.
+     *
+     * @return Event yeni ise true, tekrar gelen bir event ise false.
+     * @throws BadRequestException İmza geçersizse veya payload çözülemezse.
+     */
+    boolean ingest(String payload, String sigHeader);
+
+    /** Deneme hakkı bitmiş (DEAD) event'ler, en yeniden eskiye. */
+    Page<StripeWebhookEventResponse> getDeadLetters(Pageable pageable);
+
+    /**
+     * Dead-letter'daki bir event'i deneme sayacını sıfırlayarak tekrar kuyruğa alır.
+     * @throws ResourceNotFoundException Event bulunamazsa.
+     * @throws BadRequestException       Event DEAD durumunda değilse.
+     */
+    StripeWebhookEventResponse requeueDeadLetter(Long id);
+
+    long getReceivedCount();
+
+    long getDuplicateCount(); // Stripe'ın tekrar gönderdiği ve atlanan event'ler
+
+    long getProcessedCount();
+
+    long getRetryCount();
+
+    long getDeadCount();
+}
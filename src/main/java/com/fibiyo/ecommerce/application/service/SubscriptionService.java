@@ -1,6 +1,7 @@
 package com.fibiyo.ecommerce.application.service;
 
 import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse; // Ödeme session yanıtı
+import com.fibiyo.ecommerce.application.dto.SubscriptionExpiryRunResponse;
 import com.fibiyo.ecommerce.application.dto.SubscriptionStatusResponse;
 import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
 
@@ -41,6 +42,13 @@ public interface SubscriptionService {
 
      /**
      * Abonelik süresi dolmuş kullanıcıları kontrol edip FREE'ye düşüren periyodik görev (Scheduled Task).
+     * Kullanıcılar keyset sayfalı parçalar halinde, her parça kendi transaction'ında tek UPDATE ile düşürülür;
+     * iş yarıda kesilirse bir sonraki çalıştırma kaldığı yerden devam eder.
       */
      void checkAndExpireSubscriptions(); // @Scheduled ile çalıştırılır
+
+    /**
+     * Son abonelik bitiş çalıştırmasının özeti (parça sayısı ve süreleri). Hiç çalışmadıysa null.
+     */
+    SubscriptionExpiryRunResponse getLastExpiryRun();
  }
\ No newline at end of file
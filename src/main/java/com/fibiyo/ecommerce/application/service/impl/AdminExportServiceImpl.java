@@ -0,0 +1,273 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fibiyo.ecommerce.application.service.AdminExportService;
+import com.fibiyo.ecommerce.application.service.CategoryService;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.Product;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.ExportFormat;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.infrastructure.persistence.specification.OrderSpecifications;
+import com.fibiyo.ecommerce.infrastructure.persistence.specification.ProductSpecifications;
+import com.fibiyo.ecommerce.infrastructure.persistence.specification.UserSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class AdminExportServiceImpl implements AdminExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminExportServiceImpl.class);
+
+    // MySQL sürücüsünde Integer.MIN_VALUE fetch size satır satır streaming demektir (sonuç kümesi belleğe alınmaz)
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final CategoryService categoryService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public AdminExportServiceImpl(ObjectMapper objectMapper, CategoryService categoryService, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.categoryService = categoryService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // --- Kolon tanımları (entity yerine sadece bu kolonlar seçilir) ---
+
+    private static final List<ExportColumn<Order>> ORDER_COLUMNS = List.of(
+            new ExportColumn<>("id", root -> root.get("id")),
+            new ExportColumn<>("orderDate", root -> root.get("orderDate")),
+            new ExportColumn<>("status", root -> root.get("status")),
+            new ExportColumn<>("paymentStatus", root -> root.get("paymentStatus")),
+            new ExportColumn<>("customerId", root -> root.get("customer").get("id")),
+            new ExportColumn<>("totalAmount", root -> root.get("totalAmount")),
+            new ExportColumn<>("discountAmount", root -> root.get("discountAmount")),
+            new ExportColumn<>("shippingFee", root -> root.get("shippingFee")),
+            new ExportColumn<>("paymentMethod", root -> root.get("paymentMethod")),
+            new ExportColumn<>("trackingNumber", root -> root.get("trackingNumber")));
+
+    private static final List<ExportColumn<Product>> PRODUCT_COLUMNS = List.of(
+            new ExportColumn<>("id", root -> root.get("id")),
+            new ExportColumn<>("sku", root -> root.get("sku")),
+            new ExportColumn<>("name", root -> root.get("name")),
+            new ExportColumn<>("slug", root -> root.get("slug")),
+            new ExportColumn<>("price", root -> root.get("price")),
+            new ExportColumn<>("stock", root -> root.get("stock")),
+            new ExportColumn<>("isActive", root -> root.get("isActive")),
+            new ExportColumn<>("isApproved", root -> root.get("isApproved")),
+            new ExportColumn<>("categoryId", root -> root.get("category").get("id")),
+            new ExportColumn<>("sellerId", root -> root.get("seller").get("id")),
+            new ExportColumn<>("averageRating", root -> root.get("averageRating")),
+            new ExportColumn<>("reviewCount", root -> root.get("reviewCount")),
+            new ExportColumn<>("createdAt", root -> root.get("createdAt")));
+
+    private static final List<ExportColumn<User>> USER_COLUMNS = List.of(
+            new ExportColumn<>("id", root -> root.get("id")),
+            new ExportColumn<>("username", root -> root.get("username")),
+            new ExportColumn<>("email", root -> root.get("email")),
+            new ExportColumn<>("firstName", root -> root.get("firstName")),
+            new ExportColumn<>("lastName", root -> root.get("lastName")),
+            new ExportColumn<>("role", root -> root.get("role")),
+            new ExportColumn<>("isActive", root -> root.get("isActive")),
+            new ExportColumn<>("subscriptionType", root -> root.get("subscriptionType")),
+            new ExportColumn<>("subscriptionExpiryDate", root -> root.get("subscriptionExpiryDate")),
+            new ExportColumn<>("loyaltyPoints", root -> root.get("loyaltyPoints")),
+            new ExportColumn<>("createdAt", root -> root.get("createdAt")));
+
+    // --- Dışa aktarımlar ---
+
+    @Override
+    public long exportOrders(OutputStream out, ExportFormat format, Long customerId, OrderStatus status,
+                             LocalDateTime from, LocalDateTime to) throws IOException {
+        // findAllOrders ile aynı filtreler
+        Specification<Order> spec = Specification.where(OrderSpecifications.hasCustomer(customerId))
+                .and(OrderSpecifications.hasStatus(status))
+                .and(OrderSpecifications.orderDateBetween(from, to));
+        return export("orders", Order.class, spec, ORDER_COLUMNS, format, out);
+    }
+
+    // ProductServiceImpl ile aynı alt ağaç filtresi
+    private Specification<Product> inCategorySubtree(Long categoryId) {
+        String path = categoryService.findMaterializedPath(categoryId);
+        return path != null ? ProductSpecifications.hasCategoryPathPrefix(path)
+                : ProductSpecifications.hasCategoryIn(categoryService.findSubtreeCategoryIds(categoryId));
+    }
+
+    @Override
+    public long exportProducts(OutputStream out, ExportFormat format, Long sellerId, Long categoryId,
+                               Boolean approved, Boolean active, String searchTerm) throws IOException {
+        // findAllProductsAdmin ile aynı filtreler
+        Specification<Product> spec = Specification.where(null);
+        if (sellerId != null) spec = spec.and(ProductSpecifications.hasSeller(sellerId));
+        if (categoryId != null) spec = spec.and(inCategorySubtree(categoryId));
+        if (approved != null) spec = spec.and(ProductSpecifications.isApproved(approved));
+        if (active != null) spec = spec.and(ProductSpecifications.isActive(active));
+        if (searchTerm != null && !searchTerm.isBlank()) spec = spec.and(ProductSpecifications.nameOrDescriptionContains(searchTerm));
+        return export("products", Product.class, spec, PRODUCT_COLUMNS, format, out);
+    }
+
+    @Override
+    public long exportUsers(OutputStream out, ExportFormat format, String searchTerm, Role role, Boolean active) throws IOException {
+        // AdminUserServiceImpl.findAllUsers ile aynı filtreler
+        Specification<User> spec = Specification.where(UserSpecifications.searchByTerm(searchTerm))
+                .and(UserSpecifications.hasRole(role))
+                .and(UserSpecifications.isActive(active));
+        return export("users", User.class, spec, USER_COLUMNS, format, out);
+    }
+
+    // --- Ortak akış ---
+
+    private <T> long export(String name, Class<T> type, Specification<T> spec, List<ExportColumn<T>> columns,
+                            ExportFormat format, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        RowWriter writer = format == ExportFormat.NDJSON ? new NdjsonRowWriter(out, columns) : new CsvRowWriter(out, columns);
+        Long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> streamRows(type, spec, columns, writer));
+        } catch (UncheckedIOException e) {
+            // Genellikle istemci bağlantıyı kapattı (indirme iptal edildi)
+            logger.warn("Export '{}' aborted after {} ms: {}", name, System.currentTimeMillis() - startedAt, e.getMessage());
+            throw e.getCause();
+        }
+        writer.finish();
+        logger.info("Export '{}' ({}) finished in {} ms. Rows: {}", name, format, System.currentTimeMillis() - startedAt, rows);
+        return rows != null ? rows : 0;
+    }
+
+    private <T> long streamRows(Class<T> type, Specification<T> spec, List<ExportColumn<T>> columns, RowWriter writer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(type);
+        query.multiselect(columns.stream().<Selection<?>>map(column -> column.selector().apply(root)).toList());
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) query.where(predicate);
+        query.orderBy(cb.asc(root.get("id")));
+
+        long count = 0;
+        try (Stream<Object[]> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAMING_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                writer.write(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private record ExportColumn<T>(String header, Function<Root<T>, Selection<?>> selector) {
+    }
+
+    private interface RowWriter {
+        void write(Object[] row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, List<? extends ExportColumn<?>> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write('\uFEFF'); // BOM: Excel'in UTF-8 Türkçe karakterleri doğru açması için
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) writer.write(',');
+                writer.write(columns.get(i).header());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(escape(row[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(Object value) {
+            if (value == null) return "";
+            if (value instanceof BigDecimal decimal) return decimal.toPlainString();
+            if (!(value instanceof String text)) return value instanceof Enum<?> e ? e.name() : value.toString();
+            // Formül enjeksiyonuna karşı (=, +, -, @ ile başlayan metinler tabloda formül olarak çalışmasın)
+            if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) text = "'" + text;
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<? extends ExportColumn<?>> columns;
+
+        NdjsonRowWriter(OutputStream out, List<? extends ExportColumn<?>> columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(columns.get(i).header());
+                Object value = row[i];
+                if (value == null) generator.writeNull();
+                else if (value instanceof Enum<?> e) generator.writeString(e.name());
+                else if (value instanceof LocalDateTime dateTime) generator.writeString(dateTime.toString());
+                else generator.writeObject(value);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
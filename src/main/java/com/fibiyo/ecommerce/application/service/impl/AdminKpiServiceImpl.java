@@ -0,0 +1,346 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.dto.AdminDailyKpiResponse;
+import com.fibiyo.ecommerce.application.dto.AdminKpiSnapshotResponse;
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ReviewRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class AdminKpiServiceImpl implements AdminKpiService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminKpiServiceImpl.class);
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Snapshot'taki günlük kova sayısı (bugün dahil)
+    @Value("${admin.kpi.bucket-days:30}")
+    private int bucketDays;
+
+    private final Object lock = new Object();
+    private volatile KpiState state = new KpiState();
+    // Yeniden hesaplama sürerken gelen olaylar; yeni duruma tekrar uygulanır (null => rebuild yok)
+    private List<Consumer<KpiState>> journal;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private volatile LocalDateTime lastRebuildAt;
+
+    // Onay bekleyen ürün/yorum sayıları indeksli COUNT sorgularıyla periyodik yenilenir
+    private volatile long pendingProductApprovals;
+    private volatile long pendingReviewApprovals;
+
+    @Autowired
+    public AdminKpiServiceImpl(OrderRepository orderRepository,
+                               UserRepository userRepository,
+                               ProductRepository productRepository,
+                               ReviewRepository reviewRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // --- Olaylar ---
+
+    @Override
+    public void recordOrderStatusChange(Order order, OrderStatus previousStatus) {
+        OrderStatus newStatus = order.getStatus();
+        if (newStatus == previousStatus) return;
+        LocalDate orderDay = dayOf(order.getOrderDate());
+        applyAfterCommit(kpi -> {
+            if (previousStatus == null) {
+                kpi.day(orderDay).orders.incrementAndGet();
+            } else {
+                kpi.ordersByStatus.get(previousStatus).decrementAndGet();
+            }
+            kpi.ordersByStatus.get(newStatus).incrementAndGet();
+        });
+    }
+
+    @Override
+    public void recordOrderStatusChanges(OrderStatus previousStatus, OrderStatus newStatus, int count) {
+        if (newStatus == previousStatus || count <= 0) return;
+        applyAfterCommit(kpi -> {
+            kpi.ordersByStatus.get(previousStatus).addAndGet(-count);
+            kpi.ordersByStatus.get(newStatus).addAndGet(count);
+        });
+    }
+
+    @Override
+    public void recordOrderPaid(Order order) {
+        long cents = finalAmountCents(order.getTotalAmount(), order.getDiscountAmount(), order.getShippingFee());
+        LocalDate orderDay = dayOf(order.getOrderDate());
+        applyAfterCommit(kpi -> kpi.addGmv(orderDay, cents));
+    }
+
+    @Override
+    public void recordOrderRefunded(Order order) {
+        long cents = finalAmountCents(order.getTotalAmount(), order.getDiscountAmount(), order.getShippingFee());
+        LocalDate orderDay = dayOf(order.getOrderDate());
+        applyAfterCommit(kpi -> kpi.addGmv(orderDay, -cents));
+    }
+
+    @Override
+    public void recordUserRegistered(User user) {
+        LocalDate day = dayOf(user.getCreatedAt());
+        applyAfterCommit(kpi -> {
+            kpi.totalUsers.incrementAndGet();
+            kpi.day(day).newUsers.incrementAndGet();
+        });
+    }
+
+    // Sayaçlar sadece commit edilmiş değişiklikleri yansıtır; rollback olan işlem KPI'ı bozmaz.
+    private void applyAfterCommit(Consumer<KpiState> event) {
+        Runnable apply = () -> {
+            synchronized (lock) {
+                event.accept(state);
+                if (journal != null) journal.add(event);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // --- Snapshot ---
+
+    @Override
+    public AdminKpiSnapshotResponse getSnapshot() {
+        KpiState kpi = state;
+        LocalDate today = LocalDate.now();
+
+        Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+        long totalOrders = 0;
+        for (Map.Entry<OrderStatus, AtomicLong> entry : kpi.ordersByStatus.entrySet()) {
+            byStatus.put(entry.getKey(), entry.getValue().get());
+            totalOrders += entry.getValue().get();
+        }
+
+        List<AdminDailyKpiResponse> daily = new ArrayList<>(bucketDays);
+        long newUsersLast7Days = 0;
+        for (int i = bucketDays - 1; i >= 0; i--) {
+            LocalDate date = today.minusDays(i);
+            DailyKpi bucket = kpi.daily.get(date);
+            long orders = bucket != null ? bucket.orders.get() : 0;
+            long gmvCents = bucket != null ? bucket.gmvCents.get() : 0;
+            long newUsers = bucket != null ? bucket.newUsers.get() : 0;
+            if (i < 7) newUsersLast7Days += newUsers;
+            daily.add(new AdminDailyKpiResponse(date, orders, fromCents(gmvCents), newUsers));
+        }
+        DailyKpi todayBucket = kpi.daily.get(today);
+
+        return new AdminKpiSnapshotResponse(
+                fromCents(kpi.gmvCents.get()),
+                totalOrders,
+                byStatus,
+                kpi.totalUsers.get(),
+                todayBucket != null ? todayBucket.newUsers.get() : 0,
+                newUsersLast7Days,
+                pendingProductApprovals,
+                pendingReviewApprovals,
+                daily,
+                lastRebuildAt,
+                LocalDateTime.now());
+    }
+
+    // --- Yeniden hesaplama (backfill) ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeOnStartup() {
+        try {
+            rebuild();
+            refreshPendingApprovals();
+        } catch (RuntimeException e) {
+            logger.error("Initial admin KPI rebuild failed. Counters start from zero until the next rebuild: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${admin.kpi.rebuild-cron:0 30 2 * * ?}") // Varsayılan: her gece 02:30
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.warn("Admin KPI rebuild is already running. Skipping this trigger.");
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            // Journal, veritabanı snapshot'ı alınmadan önce açılır: arada commit olan olay kaybolmaz
+            // (en kötü ihtimalle bir sonraki rebuild'e kadar iki kez sayılır).
+            synchronized (lock) {
+                journal = new ArrayList<>();
+            }
+            KpiState fresh = readOnlyTransaction.execute(status -> buildStateFromDatabase());
+
+            synchronized (lock) {
+                journal.forEach(event -> event.accept(fresh));
+                logDrift(state, fresh);
+                state = fresh;
+                lastRebuildAt = LocalDateTime.now();
+            }
+            logger.info("Admin KPI rebuild finished in {} ms.", System.currentTimeMillis() - startedAt);
+        } finally {
+            synchronized (lock) {
+                journal = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private KpiState buildStateFromDatabase() {
+        KpiState fresh = new KpiState();
+        LocalDate firstBucket = LocalDate.now().minusDays(bucketDays - 1);
+
+        // Siparişler tek geçişte akış halinde okunur (entity/persistence context oluşmaz)
+        long rows = 0;
+        try (Stream<Object[]> stream = orderRepository.streamKpiRows()) {
+            for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                OrderStatus status = (OrderStatus) row[0];
+                PaymentStatus paymentStatus = (PaymentStatus) row[1];
+                LocalDate orderDay = dayOf((LocalDateTime) row[5]);
+                fresh.ordersByStatus.get(status).incrementAndGet();
+                if (!orderDay.isBefore(firstBucket)) {
+                    fresh.day(orderDay).orders.incrementAndGet();
+                }
+                if (isPaid(paymentStatus)) {
+                    long cents = finalAmountCents((BigDecimal) row[2], (BigDecimal) row[3], (BigDecimal) row[4]);
+                    fresh.gmvCents.addAndGet(cents);
+                    if (!orderDay.isBefore(firstBucket)) {
+                        fresh.day(orderDay).gmvCents.addAndGet(cents);
+                    }
+                }
+                rows++;
+            }
+        }
+
+        fresh.totalUsers.set(userRepository.count());
+        for (Object[] row : userRepository.countNewUsersPerDaySince(firstBucket.atStartOfDay())) {
+            LocalDate day = row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0];
+            fresh.day(day).newUsers.set(((Number) row[1]).longValue());
+        }
+        logger.debug("Admin KPI rebuild scanned {} orders.", rows);
+        return fresh;
+    }
+
+    // Artımlı sayaçların geçmiş veriden hesaplanan değerlerle karşılaştırılması
+    private void logDrift(KpiState current, KpiState rebuilt) {
+        if (lastRebuildAt == null) return; // İlk yüklemede karşılaştırılacak durum yok
+        long gmvDrift = current.gmvCents.get() - rebuilt.gmvCents.get();
+        if (gmvDrift != 0) {
+            logger.warn("Admin KPI drift detected. GMV (cents) incremental: {}, rebuilt: {}", current.gmvCents.get(), rebuilt.gmvCents.get());
+        }
+        for (OrderStatus status : OrderStatus.values()) {
+            long incremental = current.ordersByStatus.get(status).get();
+            long rebuiltCount = rebuilt.ordersByStatus.get(status).get();
+            if (incremental != rebuiltCount) {
+                logger.warn("Admin KPI drift detected. Orders in {} incremental: {}, rebuilt: {}", status, incremental, rebuiltCount);
+            }
+        }
+        if (current.totalUsers.get() != rebuilt.totalUsers.get()) {
+            logger.warn("Admin KPI drift detected. Users incremental: {}, rebuilt: {}", current.totalUsers.get(), rebuilt.totalUsers.get());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${admin.kpi.pending-refresh-ms:60000}", initialDelayString = "${admin.kpi.pending-refresh-ms:60000}")
+    public void refreshPendingApprovals() {
+        pendingProductApprovals = productRepository.countByIsApprovedFalse();
+        pendingReviewApprovals = reviewRepository.countByIsApprovedFalse();
+    }
+
+    // --- Yardımcılar ---
+
+    private static boolean isPaid(PaymentStatus paymentStatus) {
+        return paymentStatus == PaymentStatus.COMPLETED || paymentStatus == PaymentStatus.PARTIALLY_REFUNDED;
+    }
+
+    // Order.finalAmount bir @Formula alanı; yeni oluşturulan siparişte henüz dolu olmadığından burada hesaplanır.
+    private static long finalAmountCents(BigDecimal total, BigDecimal discount, BigDecimal shippingFee) {
+        BigDecimal amount = nullToZero(total).subtract(nullToZero(discount)).add(nullToZero(shippingFee));
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static LocalDate dayOf(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toLocalDate() : LocalDate.now();
+    }
+
+    private static class KpiState {
+        private final AtomicLong gmvCents = new AtomicLong();
+        private final Map<OrderStatus, AtomicLong> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        private final AtomicLong totalUsers = new AtomicLong();
+        private final Map<LocalDate, DailyKpi> daily = new ConcurrentHashMap<>();
+
+        KpiState() {
+            for (OrderStatus status : OrderStatus.values()) {
+                ordersByStatus.put(status, new AtomicLong());
+            }
+        }
+
+        DailyKpi day(LocalDate date) {
+            return daily.computeIfAbsent(date, d -> new DailyKpi());
+        }
+
+        void addGmv(LocalDate orderDay, long cents) {
+            gmvCents.addAndGet(cents);
+            day(orderDay).gmvCents.addAndGet(cents);
+        }
+    }
+
+    private static class DailyKpi {
+        private final AtomicLong orders = new AtomicLong();
+        private final AtomicLong gmvCents = new AtomicLong();
+        private final AtomicLong newUsers = new AtomicLong();
+    }
+}
@@ -6,6 +6,7 @@ import com.fibiyo.ecommerce.application.dto.LoginRequest;
 import com.fibiyo.ecommerce.application.dto.RegisterRequest;
 import com.fibiyo.ecommerce.application.dto.ResetPasswordRequest;
 import com.fibiyo.ecommerce.application.exception.BadRequestException; // Custom exception
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
 import com.fibiyo.ecommerce.application.service.AuthService;
 import com.fibiyo.ecommerce.application.service.EmailService;
 import com.fibiyo.ecommerce.domain.entity.User;
@@ -45,6 +46,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtTokenProvider tokenProvider;
     private final NotificationService notificationService; // bu eklenecek
     private final EmailService emailService; // Inject et
+    private final AdminKpiService adminKpiService; // Yeni kullanıcı sayaçları
     
 
 
@@ -55,13 +57,15 @@ public class AuthServiceImpl implements AuthService {
                            PasswordEncoder passwordEncoder,
                            JwtTokenProvider tokenProvider,
                            NotificationService notificationService,
-                           EmailService emailService) { 
+                           EmailService emailService,
+                           AdminKpiService adminKpiService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
         this.notificationService = notificationService; 
         this.emailService = emailService;
+        this.adminKpiService = adminKpiService;
     }
 
     @Override
@@ -146,6 +150,7 @@ public class AuthServiceImpl implements AuthService {
 
         User savedUser = userRepository.save(user);
         logger.info("User '{}' registered successfully with role {}.", savedUser.getUsername(), savedUser.getRole());
+        adminKpiService.recordUserRegistered(savedUser);
 
         // Burada kayıt sonrası email gönderme gibi işlemler de eklenebilir (Async olarak)
 
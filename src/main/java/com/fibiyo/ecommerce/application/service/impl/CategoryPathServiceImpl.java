@@ -0,0 +1,132 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.cache.CategoryTreeCache;
+import com.fibiyo.ecommerce.application.service.CategoryPathService;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CategoryRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class CategoryPathServiceImpl implements CategoryPathService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryPathServiceImpl.class);
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
+
+    @Value("${category.path.repath-batch-size:1000}")
+    private int repathBatchSize;
+
+    @Value("${category.path.reconcile-chunk-size:5000}")
+    private int reconcileChunkSize;
+
+    @Value("${category.path.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    @Autowired
+    public CategoryPathServiceImpl(CategoryRepository categoryRepository, ProductRepository productRepository,
+                                   CategoryTreeCache categoryTreeCache) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryTreeCache = categoryTreeCache;
+    }
+
+    @Override
+    public void repathProductsAfterCommit(String oldPath, String newPath) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            repathProducts(oldPath, newPath);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    repathProducts(oldPath, newPath);
+                } catch (Exception e) {
+                    // Kategori taşıması commit oldu; kalan ürünleri periyodik mutabakat düzeltir
+                    logger.error("Re-pathing products from '{}' to '{}' failed: {}", oldPath, newPath, e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private void repathProducts(String oldPath, String newPath) {
+        long startedAt = System.currentTimeMillis();
+        String pathPattern = oldPath + "%";
+        int total = 0;
+        long afterId = 0;
+        List<Long> ids;
+        // Keyset (id): her ürün en fazla bir kez seçilir; yeni path eski path ile başlasa da döngü sonlanır
+        do {
+            ids = productRepository.findIdsByCategoryPathAfterId(pathPattern, afterId, PageRequest.of(0, repathBatchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += productRepository.repathCategoryBatch(ids, pathPattern, oldPath.length(), newPath);
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == repathBatchSize);
+        logger.info("Re-pathed {} products from '{}' to '{}' in {} ms.", total, oldPath, newPath, System.currentTimeMillis() - startedAt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        try {
+            reconcilePaths();
+        } catch (Exception e) {
+            logger.error("Category path reconciliation on startup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${category.path.reconcile-cron:0 45 3 * * ?}") // Varsayılan: her gece 03:45
+    public int reconcilePaths() {
+        if (!reconciling.compareAndSet(false, true)) {
+            logger.warn("Category path reconciliation is already running. Skipping this trigger.");
+            return 0;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+
+            int filledCategories = categoryRepository.fillMissingRootPaths();
+            int filledLevel;
+            do {
+                filledLevel = categoryRepository.fillMissingChildPaths();
+                filledCategories += filledLevel;
+            } while (filledLevel > 0);
+            if (filledCategories > 0) {
+                logger.info("Filled missing materialized paths for {} categories.", filledCategories);
+                categoryTreeCache.reload();
+            }
+
+            long maxId = productRepository.findMaxId();
+            int fixedProducts = 0;
+            for (long fromId = 0; fromId < maxId; fromId += reconcileChunkSize) {
+                fixedProducts += productRepository.reconcileCategoryPathRange(fromId, Math.min(fromId + reconcileChunkSize, maxId));
+            }
+            logger.info("Category path reconciliation finished in {} ms. Categories filled: {}, Products fixed: {}",
+                    System.currentTimeMillis() - startedAt, filledCategories, fixedProducts);
+            return fixedProducts;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
+import com.fibiyo.ecommerce.application.cache.CategoryTree;
+import com.fibiyo.ecommerce.application.cache.CategoryTreeCache;
 import com.fibiyo.ecommerce.application.dto.CategoryRequest;
 import com.fibiyo.ecommerce.application.dto.CategoryResponse;
+import com.fibiyo.ecommerce.application.dto.CategoryTreeNodeResponse;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException; // Bunu da oluşturmak lazım
 import com.fibiyo.ecommerce.application.mapper.CategoryMapper; // Mapper'ı inject et
+import com.fibiyo.ecommerce.application.service.CategoryPathService;
 import com.fibiyo.ecommerce.application.service.CategoryService;
 import com.fibiyo.ecommerce.application.util.SlugUtils; // Slug helper
 import com.fibiyo.ecommerce.domain.entity.Category;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.CategoryRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
@@ -24,39 +31,46 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper; // Inject the mapper
+    private final CategoryTreeCache categoryTreeCache; // Okumalar bellek içi ağaçtan yapılır
+    private final ProductRepository productRepository;
+    private final CategoryPathService categoryPathService;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper, CategoryTreeCache categoryTreeCache,
+                               ProductRepository productRepository, CategoryPathService categoryPathService) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.categoryTreeCache = categoryTreeCache;
+        this.productRepository = productRepository;
+        this.categoryPathService = categoryPathService;
+    }
+
+    // Kategorinin yeni path'i: üst kategorinin path'i + kendi id'si. Üstün path'i henüz doldurulmadıysa null.
+    private String childPath(Category parent, Long id) {
+        if (parent == null) return "/" + id + "/";
+        return parent.getPath() != null ? parent.getPath() + id + "/" : null;
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryResponse> findAllActiveCategories() {
         logger.debug("Fetching all active categories");
-        List<Category> categories = categoryRepository.findAllActive(); // Repository'deki custom query'yi kullan
-        return categoryMapper.toCategoryResponseList(categories);
+        return categoryTreeCache.get().findAll(true);
     }
 
      @Override
-    @Transactional(readOnly = true)
     public CategoryResponse findCategoryById(Long id) {
          logger.debug("Fetching category by ID: {}", id);
-         Category category = categoryRepository.findById(id)
+         return categoryTreeCache.get().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
-         return categoryMapper.toCategoryResponse(category);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CategoryResponse findCategoryBySlug(String slug) {
          logger.debug("Fetching category by slug: {}", slug);
-         Category category = categoryRepository.findBySlug(slug)
-                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
         // Aktif olmayanları göstermek istemeyebiliriz. İsteğe bağlı kontrol:
          // if (!category.isActive()) { throw new ResourceNotFoundException(...); }
-         return categoryMapper.toCategoryResponse(category);
+         return categoryTreeCache.get().findBySlug(slug)
+                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
     }
 
     @Override
@@ -81,6 +95,15 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        // Id insert ile belli olur; path ayrı bir UPDATE ile yazılır
+        String path = childPath(savedCategory.getParentCategory(), savedCategory.getId());
+        if (path != null) {
+            int depth = savedCategory.getParentCategory() != null ? savedCategory.getParentCategory().getDepth() + 1 : 0;
+            categoryRepository.setMaterializedPath(savedCategory.getId(), path, depth);
+            savedCategory.setPath(path);
+            savedCategory.setDepth(depth);
+        }
+        categoryTreeCache.reloadAfterCommit();
         logger.info("Category '{}' created successfully with ID: {}", savedCategory.getName(), savedCategory.getId());
         return categoryMapper.toCategoryResponse(savedCategory);
     }
@@ -104,6 +127,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Mapper ile diğer alanları güncelle (Null değerleri ignore eder)
         categoryMapper.updateCategoryFromRequest(categoryRequest, existingCategory);
+        Category previousParent = existingCategory.getParentCategory();
 
          // Üst kategoriyi güncelle/ayarla
         if (categoryRequest.getParentCategoryId() != null) {
@@ -114,6 +138,11 @@ public class CategoryServiceImpl implements CategoryService {
                  if (parentCategory.getId().equals(existingCategory.getId())) {
                      throw new BadRequestException("Bir kategori kendisinin üst kategorisi olamaz.");
                  }
+                 // Kendi alt ağacına taşınırsa döngü oluşur (A -> B -> A). Önbellekteki ağaç bayat olabileceği için
+                 // kontrol kalıcı kayıtlar üzerinden, yeni üst kategoriden köke doğru yürünerek yapılır.
+                 if (isSelfOrAncestor(existingCategory, parentCategory)) {
+                     throw new BadRequestException("Bir kategori kendi alt kategorilerinden birinin altına taşınamaz.");
+                 }
                  existingCategory.setParentCategory(parentCategory);
              }
          } else {
@@ -121,6 +150,10 @@ public class CategoryServiceImpl implements CategoryService {
          }
 
         Category updatedCategory = categoryRepository.save(existingCategory);
+        if (updatedCategory.getParentCategory() != previousParent) {
+            repathSubtree(updatedCategory);
+        }
+        categoryTreeCache.reloadAfterCommit();
         logger.info("Category with ID: {} updated successfully.", updatedCategory.getId());
         return categoryMapper.toCategoryResponse(updatedCategory);
     }
@@ -134,23 +167,78 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Kategori silinince ürünlerin category_id'si SET NULL olacak (schema ve Product entity ayarı)
         // Eğer alt kategorileri de silmek gerekiyorsa ek mantık eklenebilir.
+        String path = category.getPath();
         categoryRepository.delete(category);
+        // FK ürünlerin category_id'sini NULL yapar; alt ağaç filtresine takılmamaları için path de temizlenir
+        if (path != null) {
+            int cleared = productRepository.clearCategoryPaths(path + "%");
+            logger.info("Cleared category path of {} products under deleted category ID: {}", cleared, id);
+        }
+        categoryTreeCache.reloadAfterCommit();
         logger.info("Category with ID: {} deleted successfully.", id);
     }
 
+    // category, candidate'in kendisi veya atalarından biri mi (candidate'ten köke üst kategori zinciri)
+    private static boolean isSelfOrAncestor(Category category, Category candidate) {
+        Set<Long> visited = new HashSet<>();
+        for (Category current = candidate; current != null && visited.add(current.getId()); current = current.getParentCategory()) {
+            if (current.getId().equals(category.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Kategori ve alt ağacının path'lerini tek UPDATE ile değiştirir; ürünler commit sonrasında parça parça güncellenir.
+    private void repathSubtree(Category category) {
+        String oldPath = category.getPath();
+        String newPath = childPath(category.getParentCategory(), category.getId());
+        if (oldPath == null || newPath == null || oldPath.equals(newPath)) {
+            return; // Path'ler henüz doldurulmadıysa periyodik mutabakat işi halleder
+        }
+        int newDepth = category.getParentCategory() != null ? category.getParentCategory().getDepth() + 1 : 0;
+        int movedCategories = categoryRepository.repathSubtree(oldPath + "%", oldPath.length(), newPath, newDepth - category.getDepth());
+        logger.info("Category ID: {} moved from '{}' to '{}'. {} categories re-pathed.", category.getId(), oldPath, newPath, movedCategories);
+        categoryPathService.repathProductsAfterCommit(oldPath, newPath);
+    }
+
      @Override
-    @Transactional(readOnly = true)
      public List<CategoryResponse> findSubCategories(Long parentId) {
          logger.debug("Fetching subcategories for parent ID: {}", parentId);
-         List<Category> subCategories = categoryRepository.findByParentCategoryId(parentId);
-         return categoryMapper.toCategoryResponseList(subCategories);
+         return categoryTreeCache.get().findChildren(parentId);
      }
 
      @Override
-    @Transactional(readOnly = true)
      public List<CategoryResponse> findRootCategories() {
          logger.debug("Fetching root categories");
-         List<Category> rootCategories = categoryRepository.findByParentCategoryIsNull();
-         return categoryMapper.toCategoryResponseList(rootCategories);
+         return categoryTreeCache.get().findRoots();
      }
+
+    @Override
+    public List<CategoryTreeNodeResponse> findActiveCategoryTree() {
+        logger.debug("Fetching active category tree");
+        return categoryTreeCache.get().toActiveTree();
+    }
+
+    @Override
+    public List<CategoryResponse> findCategoryPath(Long id) {
+        logger.debug("Fetching category path for ID: {}", id);
+        List<CategoryResponse> path = categoryTreeCache.get().findPath(id);
+        if (path.isEmpty()) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return path;
+    }
+
+    @Override
+    public String findMaterializedPath(Long id) {
+        return categoryTreeCache.get().findMaterializedPath(id);
+    }
+
+    @Override
+    public List<Long> findSubtreeCategoryIds(Long id) {
+        CategoryTree tree = categoryTreeCache.get();
+        // Bilinmeyen id için eski davranış korunur: sadece o id ile filtrelenir (sonuç boş olur)
+        return tree.contains(id) ? tree.findSubtreeIds(id) : List.of(id);
+    }
 }
\ No newline at end of file
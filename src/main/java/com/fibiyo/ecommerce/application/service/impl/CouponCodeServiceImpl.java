@@ -0,0 +1,234 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.cache.CouponRule;
+import com.fibiyo.ecommerce.application.cache.CouponRuleCache;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationRequest;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationResponse;
+import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.CouponCodeService;
+import com.fibiyo.ecommerce.application.util.BloomFilter;
+import com.fibiyo.ecommerce.domain.entity.Coupon;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponCodeRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@Service
+public class CouponCodeServiceImpl implements CouponCodeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponCodeServiceImpl.class);
+
+    // 32 karakter (5 bit): birbirine karışan 0/O ve 1/I yok
+    private static final char[] ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int BITS_PER_CHAR = 5;
+    private static final int MAX_CODE_LENGTH = 50; // coupon_codes.code kolon uzunluğu
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.001;
+    // INSERT IGNORE ile atlanan (başka bir üretimle çakışan) kodlar için tamamlama turu sayısı
+    private static final int MAX_TOP_UP_ROUNDS = 5;
+
+    private final CouponRepository couponRepository;
+    private final CouponCodeRepository couponCodeRepository;
+    private final CouponRuleCache couponRuleCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${coupon.codes.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${coupon.codes.max-count-per-request:1000000}")
+    private int maxCountPerRequest;
+
+    // Bloom filter tüm mevcut kodları tuttuğu için aynı anda tek üretim çalışır
+    private final AtomicBoolean generating = new AtomicBoolean(false);
+
+    @Autowired
+    public CouponCodeServiceImpl(CouponRepository couponRepository, CouponCodeRepository couponCodeRepository,
+                                 CouponRuleCache couponRuleCache, PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        this.couponCodeRepository = couponCodeRepository;
+        this.couponRuleCache = couponRuleCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Optional<CouponMatch> resolve(String code) {
+        if (!StringUtils.hasText(code)) return Optional.empty();
+        String key = code.trim().toUpperCase();
+
+        Optional<CouponRule> rule = couponRuleCache.find(key);
+        if (rule.isPresent()) {
+            return rule.get().singleUseCodes() ? Optional.empty() : Optional.of(new CouponMatch(rule.get(), null, false));
+        }
+
+        List<Object[]> rows = couponCodeRepository.findLookupByCode(key);
+        if (rows.isEmpty()) return Optional.empty();
+        Object[] row = rows.get(0);
+        // Kural önbellekte yoksa kampanya kuponunun süresi dolmuş veya kupon silinmiştir
+        return couponRuleCache.findById((Long) row[0]).map(r -> new CouponMatch(r, key, row[1] != null));
+    }
+
+    @Override
+    public CouponCodeGenerationResponse generateCodes(Long couponId, CouponCodeGenerationRequest request) {
+        int count = request.getCount();
+        int length = request.getLength() != null ? request.getLength() : 10;
+        String prefix = request.getPrefix() != null ? request.getPrefix().toUpperCase() : "";
+
+        if (count > maxCountPerRequest) {
+            throw new BadRequestException(String.format("Tek seferde en fazla %d kod üretilebilir.", maxCountPerRequest));
+        }
+        if (prefix.length() + length > MAX_CODE_LENGTH) {
+            throw new BadRequestException("Önek ve kod uzunluğu toplamı " + MAX_CODE_LENGTH + " karakteri geçemez.");
+        }
+        // Anahtar uzayı istenen adetten çok büyük olmalı; yoksa üretim çakışmalar yüzünden yavaşlar ve kodlar tahmin edilebilir olur
+        if (count > Math.pow(ALPHABET.length, length) / 1000) {
+            throw new BadRequestException("Kod uzunluğu bu kadar kod için çok kısa. Lütfen uzunluğu artırın.");
+        }
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new ResourceNotFoundException("Coupon not found with id: " + couponId));
+        if (coupon.isExpired()) {
+            throw new BadRequestException("Süresi dolmuş kupon için kod üretilemez.");
+        }
+        if (!generating.compareAndSet(false, true)) {
+            throw new BadRequestException("Şu anda başka bir kod üretimi devam ediyor. Lütfen daha sonra tekrar deneyin.");
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            logger.info("ADMIN: Generating {} single-use codes for coupon ID: {} (prefix: '{}', length: {})", count, couponId, prefix, length);
+
+            if (!coupon.isSingleUseCodes()) {
+                couponRepository.enableSingleUseCodes(couponId);
+                couponRuleCache.refresh(coupon.getCode()); // Kuponun kendi kodu artık sepette kullanılamaz
+            }
+
+            long before = couponCodeRepository.countByCouponId(couponId);
+            BloomFilter knownCodes = loadKnownCodes(count);
+            logger.info("Known codes loaded into bloom filter in {} ms ({} bits).", System.currentTimeMillis() - startedAt, knownCodes.getBitCount());
+
+            long target = before + count;
+            long total = before;
+            int discarded = 0;
+            LocalDateTime createdAt = LocalDateTime.now();
+            for (int round = 0; round < MAX_TOP_UP_ROUNDS && total < target; round++) {
+                long remaining = target - total;
+                List<String> chunk = new ArrayList<>(chunkSize);
+                for (long i = 0; i < remaining; i++) {
+                    String candidate = prefix + randomPart(length);
+                    while (!knownCodes.addIfAbsent(candidate)) {
+                        discarded++;
+                        candidate = prefix + randomPart(length);
+                    }
+                    chunk.add(candidate);
+                    if (chunk.size() == chunkSize) {
+                        couponCodeRepository.insertIgnoreAll(couponId, chunk, createdAt);
+                        chunk.clear();
+                    }
+                }
+                couponCodeRepository.insertIgnoreAll(couponId, chunk, createdAt);
+                // rewriteBatchedStatements ile satır sayıları kesin değil; gerçek adet tablodan okunur
+                total = couponCodeRepository.countByCouponId(couponId);
+            }
+            if (total < target) {
+                logger.warn("Coupon ID: {} code generation stopped {} codes short after {} rounds.", couponId, target - total, MAX_TOP_UP_ROUNDS);
+            }
+
+            long durationMs = System.currentTimeMillis() - startedAt;
+            long generated = total - before;
+            long codesPerSecond = durationMs > 0 ? generated * 1000 / durationMs : generated;
+            logger.info("ADMIN: Generated {} codes for coupon ID: {} in {} ms ({} codes/s). Discarded candidates: {}",
+                    generated, couponId, durationMs, codesPerSecond, discarded);
+            return new CouponCodeGenerationResponse(couponId, count, generated, total, discarded, durationMs, codesPerSecond);
+        } finally {
+            generating.set(false);
+        }
+    }
+
+    @Override
+    public long exportCodes(Long couponId, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("code,redeemed_at\n");
+        Long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> writeCodes(couponId, writer));
+        } catch (UncheckedIOException e) {
+            // Genellikle istemci bağlantıyı kapattı (indirme iptal edildi)
+            logger.warn("Coupon code export for coupon ID: {} aborted after {} ms: {}", couponId, System.currentTimeMillis() - startedAt, e.getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Coupon code export for coupon ID: {} finished in {} ms. Rows: {}", couponId, System.currentTimeMillis() - startedAt, rows);
+        return rows != null ? rows : 0;
+    }
+
+    private long writeCodes(Long couponId, Writer writer) {
+        long count = 0;
+        // Kodlar sadece [A-Z0-9-] içerir; CSV kaçışı gerekmez
+        try (Stream<Object[]> rows = couponCodeRepository.streamByCouponId(couponId)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                writer.write((String) row[0]);
+                writer.write(',');
+                if (row[1] != null) writer.write(row[1].toString());
+                writer.write('\n');
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    // Mevcut tüm kodlar (üretilmiş kodlar + kupon kodları) ileri yönlü cursor'larla bloom filter'a yüklenir
+    private BloomFilter loadKnownCodes(int newCodeCount) {
+        long existing = couponCodeRepository.count() + couponRepository.count();
+        BloomFilter bloomFilter = new BloomFilter(existing + newCodeCount, BLOOM_FALSE_POSITIVE_RATE);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> codes = couponCodeRepository.streamAllCodes()) {
+                codes.forEach(bloomFilter::add);
+            }
+            try (Stream<String> codes = couponRepository.streamAllCodes()) {
+                codes.forEach(code -> bloomFilter.add(code.toUpperCase()));
+            }
+        });
+        return bloomFilter;
+    }
+
+    // Her nextLong() 12 karakter üretir (5 bit/karakter)
+    private String randomPart(int length) {
+        char[] chars = new char[length];
+        long bits = 0;
+        int available = 0;
+        for (int i = 0; i < length; i++) {
+            if (available < BITS_PER_CHAR) {
+                bits = random.nextLong();
+                available = Long.SIZE;
+            }
+            chars[i] = ALPHABET[(int) (bits & (ALPHABET.length - 1))];
+            bits >>>= BITS_PER_CHAR;
+            available -= BITS_PER_CHAR;
+        }
+        return new String(chars);
+    }
+}
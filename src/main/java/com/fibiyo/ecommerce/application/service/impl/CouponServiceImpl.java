@@ -1,5 +1,7 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
+import com.fibiyo.ecommerce.application.cache.CouponRule;
+import com.fibiyo.ecommerce.application.cache.CouponRuleCache;
 import com.fibiyo.ecommerce.application.dto.CouponRequest;
 import com.fibiyo.ecommerce.application.dto.CouponResponse;
 import com.fibiyo.ecommerce.application.dto.CouponValidationResponse;
@@ -7,11 +9,13 @@ import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
 import com.fibiyo.ecommerce.application.mapper.CouponMapper;
+import com.fibiyo.ecommerce.application.service.CouponCodeService;
 import com.fibiyo.ecommerce.application.service.CouponService;
 import com.fibiyo.ecommerce.domain.entity.Coupon;
 import com.fibiyo.ecommerce.domain.enums.DiscountType;
 import com.fibiyo.ecommerce.domain.enums.Role;
 import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponCodeRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.specification.CouponSpecifications; // Doğru import
@@ -38,12 +42,20 @@ public class CouponServiceImpl implements CouponService {
     private final CouponRepository couponRepository;
     private final CouponMapper couponMapper;
     private final UserRepository userRepository; // Admin kontrolü için
+    private final CouponRuleCache couponRuleCache;
+    private final CouponCodeService couponCodeService;
+    private final CouponCodeRepository couponCodeRepository;
 
     @Autowired
-    public CouponServiceImpl(CouponRepository couponRepository, CouponMapper couponMapper, UserRepository userRepository) {
+    public CouponServiceImpl(CouponRepository couponRepository, CouponMapper couponMapper, UserRepository userRepository,
+                             CouponRuleCache couponRuleCache, CouponCodeService couponCodeService,
+                             CouponCodeRepository couponCodeRepository) {
         this.couponRepository = couponRepository;
         this.couponMapper = couponMapper;
         this.userRepository = userRepository;
+        this.couponRuleCache = couponRuleCache;
+        this.couponCodeService = couponCodeService;
+        this.couponCodeRepository = couponCodeRepository;
     }
 
     // --- Helper Metotlar ---
@@ -84,7 +96,8 @@ public class CouponServiceImpl implements CouponService {
         String requestCode = couponRequest.getCode().toUpperCase(); // Standardize et
         logger.info("ADMIN: Creating coupon with code: {}", requestCode);
 
-        if (couponRepository.existsByCode(requestCode)) {
+        // Kampanyalar için üretilmiş tek kullanımlık kodlarla da çakışmamalı
+        if (couponRepository.existsByCode(requestCode) || couponCodeRepository.existsByCode(requestCode)) {
             logger.warn("ADMIN: Coupon code '{}' already exists.", requestCode);
             throw new BadRequestException("Bu kupon kodu zaten mevcut.");
         }
@@ -99,6 +112,7 @@ public class CouponServiceImpl implements CouponService {
         coupon.setCode(requestCode); // Büyük harf kaydet
         coupon.setTimesUsed(0); // Yeni kuponun kullanım sayısı 0 olmalı
         Coupon savedCoupon = couponRepository.save(coupon);
+        couponRuleCache.refreshAfterCommit(savedCoupon.getCode());
         logger.info("ADMIN: Coupon '{}' (ID: {}) created successfully.", savedCoupon.getCode(), savedCoupon.getId());
         return mapToResponseWithStatus(savedCoupon);
     }
@@ -129,6 +143,7 @@ public class CouponServiceImpl implements CouponService {
         couponMapper.updateCouponFromRequest(couponRequest, existingCoupon);
 
         Coupon updatedCoupon = couponRepository.save(existingCoupon);
+        couponRuleCache.refreshAfterCommit(updatedCoupon.getCode());
         logger.info("ADMIN: Coupon ID: {} updated successfully.", updatedCoupon.getId());
         return mapToResponseWithStatus(updatedCoupon);
     }
@@ -145,6 +160,7 @@ public class CouponServiceImpl implements CouponService {
         // TODO: Silmek yerine pasife çekme (isActive=false) stratejisi değerlendirilebilir.
         // Siparişlerde kullanılan kupon referansının ne olacağına karar vermek lazım (SET NULL iyiydi).
         couponRepository.delete(coupon); // Direkt silelim şimdilik
+        couponRuleCache.refreshAfterCommit(coupon.getCode());
         logger.info("ADMIN: Coupon ID: {} deleted successfully.", couponId);
     }
 
@@ -187,56 +203,36 @@ public class CouponServiceImpl implements CouponService {
 
     // --- Customer/System Operations Implementation ---
 
+    // Kurallar CouponRuleCache'ten okunur; veritabanına sadece tek kullanımlık kodlar için (unique index) gidilir
     @Override
-    @Transactional(readOnly = true)
     public CouponValidationResponse validateCoupon(String code, BigDecimal cartTotal) {
         String upperCaseCode = code.toUpperCase();
         logger.debug("Validating coupon code: {} for cart total: {}", upperCaseCode, cartTotal);
 
-        Optional<Coupon> couponOpt = couponRepository.findByCode(upperCaseCode);
+        Optional<CouponCodeService.CouponMatch> matchOpt = couponCodeService.resolve(upperCaseCode);
 
-        if (couponOpt.isEmpty()) {
+        if (matchOpt.isEmpty()) {
             logger.warn("Validation failed: Coupon code '{}' not found.", upperCaseCode);
             return new CouponValidationResponse(false, "Geçersiz kupon kodu.", code, BigDecimal.ZERO);
         }
-
-        Coupon coupon = couponOpt.get();
-
-        if (!coupon.isValid()) {
-            String message = "Kupon geçerli değil.";
-            if(!coupon.isActive()) message = "Kupon şu anda aktif değil.";
-            else if(coupon.isExpired()) message = "Kuponun kullanım süresi dolmuş.";
-            else if(coupon.isUsageLimitReached()) message = "Kupon kullanım limitine ulaşmış.";
-            logger.warn("Validation failed for coupon '{}': {}", upperCaseCode, message);
-            return new CouponValidationResponse(false, message, code, BigDecimal.ZERO);
+        if (matchOpt.get().redeemed()) {
+            logger.warn("Validation failed: Single-use coupon code '{}' already redeemed.", upperCaseCode);
+            return new CouponValidationResponse(false, "Bu kupon kodu daha önce kullanılmış.", code, BigDecimal.ZERO);
         }
 
+        CouponRule rule = matchOpt.get().rule();
         if (cartTotal == null) cartTotal = BigDecimal.ZERO; // Null gelme ihtimaline karşı
 
-        if (cartTotal.compareTo(coupon.getMinPurchaseAmount()) < 0) {
-             String message = String.format("Kuponu kullanmak için minimum sepet tutarı %.2f TL olmalıdır.", coupon.getMinPurchaseAmount());
-            logger.warn("Validation failed for coupon '{}': Minimum purchase amount not met (Required: {}, Cart: {})",
-                       upperCaseCode, coupon.getMinPurchaseAmount(), cartTotal);
-            return new CouponValidationResponse(false, message, code, BigDecimal.ZERO);
+        String rejection = rule.rejectionReason(cartTotal, LocalDateTime.now());
+        if (rejection != null) {
+            logger.warn("Validation failed for coupon '{}': {}", upperCaseCode, rejection);
+            return new CouponValidationResponse(false, rejection, code, BigDecimal.ZERO);
         }
 
         // Kupon geçerli, indirim tutarını hesapla
-        BigDecimal discountAmount = calculateDiscount(coupon, cartTotal);
+        BigDecimal discountAmount = rule.calculateDiscount(cartTotal);
         logger.info("Coupon code '{}' is valid. Calculated discount: {}", upperCaseCode, discountAmount);
         return new CouponValidationResponse(true, "Kupon başarıyla uygulandı!", code, discountAmount);
     }
 
-     // İndirim hesaplama yardımcı metodu
-     private BigDecimal calculateDiscount(Coupon coupon, BigDecimal amount) {
-          BigDecimal discount = BigDecimal.ZERO;
-         if (coupon.getDiscountType() == DiscountType.FIXED_AMOUNT) {
-             discount = coupon.getDiscountValue();
-          } else if (coupon.getDiscountType() == DiscountType.PERCENTAGE) {
-             // Yüzdeyi uygula (scale ayarlarına dikkat et)
-              discount = amount.multiply(coupon.getDiscountValue().divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP)); // Virgülden sonra 2 basamak, yukarı yuvarla
-          }
-         // İndirim tutarı, esas tutarı geçemez
-          return discount.min(amount);
-      }
-
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.service.CouponUsageService;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponCodeRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+@Service
+public class CouponUsageServiceImpl implements CouponUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponUsageServiceImpl.class);
+
+    private final CouponRepository couponRepository;
+    private final CouponCodeRepository couponCodeRepository;
+    private final TransactionTemplate separateTransaction;
+
+    @Autowired
+    public CouponUsageServiceImpl(CouponRepository couponRepository, CouponCodeRepository couponCodeRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        this.couponCodeRepository = couponCodeRepository;
+        // Satır kilidi sadece UPDATE süresince tutulur; sipariş transaction'ının geri kalanı kupon satırını beklemez
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean tryRedeem(Long couponId) {
+        Integer updated = separateTransaction.execute(status -> couponRepository.incrementUsageIfAvailable(couponId));
+        if (updated == null || updated == 0) {
+            logger.info("Coupon ID: {} could not be redeemed. Usage limit reached or coupon removed.", couponId);
+            return false;
+        }
+        compensateOnRollback(() -> {
+            couponRepository.decrementUsage(couponId);
+            logger.info("Coupon ID: {} redemption rolled back with its order.", couponId);
+        });
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void release(Long couponId) {
+        if (couponRepository.decrementUsage(couponId) == 0) {
+            logger.warn("Coupon ID: {} usage could not be released. Counter already at zero or coupon removed.", couponId);
+        } else {
+            logger.info("Coupon ID: {} usage released.", couponId);
+        }
+    }
+
+    @Override
+    public boolean tryRedeemCode(String code) {
+        Integer updated = separateTransaction.execute(status -> couponCodeRepository.markRedeemed(code, LocalDateTime.now()));
+        if (updated == null || updated == 0) {
+            logger.info("Single-use coupon code {} could not be redeemed. Already used or unknown.", code);
+            return false;
+        }
+        compensateOnRollback(() -> {
+            couponCodeRepository.clearRedeemed(code);
+            logger.info("Single-use coupon code {} redemption rolled back with its order.", code);
+        });
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void releaseCode(String code) {
+        if (couponCodeRepository.clearRedeemed(code) == 0) {
+            logger.warn("Single-use coupon code {} could not be released. Not redeemed or removed.", code);
+        } else {
+            logger.info("Single-use coupon code {} released.", code);
+        }
+    }
+
+    // Sipariş commit olmadıysa kullanım geri verilir; biten transaction'a katılmamak için yeni transaction açılır
+    private void compensateOnRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    separateTransaction.executeWithoutResult(tx -> compensation.run());
+                } catch (Exception e) {
+                    logger.error("Could not roll back coupon redemption. Usage may be counted one time too many: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
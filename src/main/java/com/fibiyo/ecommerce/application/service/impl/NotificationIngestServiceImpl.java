@@ -0,0 +1,243 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.cache.NotificationUnreadCounter;
+import com.fibiyo.ecommerce.application.dto.NotificationResponse;
+import com.fibiyo.ecommerce.application.dto.UnreadNotificationCountDto;
+import com.fibiyo.ecommerce.application.service.NotificationIngestService;
+import com.fibiyo.ecommerce.application.service.NotificationPushService;
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.NotificationRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.NotificationRepositoryCustom.NewNotificationRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class NotificationIngestServiceImpl implements NotificationIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationIngestServiceImpl.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounter unreadCounter;
+    private final NotificationPushService notificationPushService;
+
+    @Value("${notification.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notification.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // Kuyruk doluyken üreticinin en fazla bekleyeceği süre; sonra bildirimi kendisi yazar
+    @Value("${notification.writer.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${notification.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final BlockingQueue<PendingNotification> queue;
+    private volatile boolean running;
+    private Thread flusher;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong callerWriteCount = new AtomicLong();
+
+    public NotificationIngestServiceImpl(NotificationRepository notificationRepository, NotificationUnreadCounter unreadCounter,
+                                         NotificationPushService notificationPushService,
+                                         @Value("${notification.writer.queue-capacity:10000}") int queueCapacity) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounter = unreadCounter;
+        this.notificationPushService = notificationPushService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "notification-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Notification writer started (batch size: {}, flush interval: {} ms, queue capacity: {})",
+                batchSize, flushIntervalMs, queue.remainingCapacity());
+    }
+
+    // Uygulama kapanırken kuyrukta kalan bildirimler yazılmadan çıkılmaz
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(shutdownTimeoutMs);
+        if (flusher.isAlive()) {
+            logger.warn("Notification writer did not finish within {} ms. {} notifications left in queue.", shutdownTimeoutMs, queue.size());
+        } else {
+            logger.info("Notification writer stopped. Written: {}, Coalesced: {}, Failed: {}", writtenCount.get(), coalescedCount.get(), failedCount.get());
+        }
+    }
+
+    @Override
+    public void enqueue(Long userId, String message, String link, NotificationType type) {
+        if (userId == null) {
+            logger.error("Cannot create notification for null user.");
+            return;
+        }
+        PendingNotification pending = new PendingNotification(userId, message, link, type, LocalDateTime.now());
+        enqueuedCount.incrementAndGet();
+        try {
+            if (running && queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Backpressure: kuyruk dolu (veya writer kapanıyor) -> çağıran thread kendi bildirimini yazar
+        callerWriteCount.incrementAndGet();
+        logger.debug("Notification queue full. Writing notification for user ID: {} on caller thread.", userId);
+        write(List.of(pending));
+    }
+
+    @Override
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.writer.metrics-log-ms:60000}")
+    public void logMetrics() {
+        long batches = batchCount.get();
+        if (batches == 0) return;
+        logger.info("Notification writer metrics - Enqueued: {}, Written: {}, Batches: {}, Avg batch: {}, Coalesced: {}, Caller writes: {}, Failed: {}, Queue: {}",
+                enqueuedCount.get(), writtenCount.get(), batches, writtenCount.get() / batches,
+                coalescedCount.get(), callerWriteCount.get(), failedCount.get(), queue.size());
+    }
+
+    private void runFlusher() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // İlk bildirimden sonra en fazla flushIntervalMs kadar veya batchSize dolana kadar biriktir
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        break;
+                    }
+                    PendingNotification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error in notification writer: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingNotification> batch) {
+        // Aynı pencerede aynı kullanıcıya giden birebir aynı bildirim (örn. tekrar tetiklenen olay) tek satır yazılır
+        Set<PendingNotification> unique = new LinkedHashSet<>(batch);
+        coalescedCount.addAndGet(batch.size() - unique.size());
+
+        List<PendingNotification> pending = new ArrayList<>(unique);
+        List<NewNotificationRow> rows = pending.stream()
+                .map(p -> new NewNotificationRow(p.userId, p.message, p.link, p.type, p.createdAt))
+                .toList();
+        try {
+            List<Long> ids = notificationRepository.insertAllUnread(rows);
+            batchCount.incrementAndGet();
+            writtenCount.addAndGet(ids.size());
+            for (int i = 0; i < pending.size(); i++) {
+                afterWrite(pending.get(i), i < ids.size() ? ids.get(i) : null);
+            }
+        } catch (RuntimeException e) {
+            if (rows.size() == 1) {
+                failedCount.incrementAndGet();
+                logger.error("Could not write notification for user ID: {}: {}", pending.get(0).userId, e.getMessage());
+                return;
+            }
+            // Batch içinde tek hatalı satır (örn. silinmiş kullanıcı) diğerlerini engellemesin
+            logger.warn("Notification batch insert of {} rows failed ({}). Retrying row by row.", rows.size(), e.getMessage());
+            for (PendingNotification single : pending) {
+                write(List.of(single));
+            }
+        }
+    }
+
+    // Yazıldıktan sonra okunmamış sayacı ve bağlı istemciler güncellenir
+    private void afterWrite(PendingNotification pending, Long id) {
+        NotificationResponse response = new NotificationResponse();
+        response.setId(id);
+        response.setMessage(pending.message);
+        response.setLink(pending.link);
+        response.setRead(false);
+        response.setCreatedAt(pending.createdAt);
+        response.setType(pending.type);
+        notificationPushService.pushToUser(pending.userId, "notification", response);
+
+        long unreadCount = unreadCounter.increment(pending.userId);
+        if (unreadCount >= 0) {
+            notificationPushService.pushToUser(pending.userId, "unread-count", new UnreadNotificationCountDto(unreadCount));
+        }
+    }
+
+    // equals/hashCode zaman damgasını içermez: birleştirme (coalescing) için içerik eşitliği yeterli
+    private record PendingNotification(Long userId, String message, String link, NotificationType type, LocalDateTime createdAt) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PendingNotification other
+                    && userId.equals(other.userId)
+                    && Objects.equals(message, other.message)
+                    && Objects.equals(link, other.link)
+                    && type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, message, link, type);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.service.NotificationRetentionService;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class NotificationRetentionServiceImpl implements NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionServiceImpl.class);
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${notification.retention.enabled:true}")
+    private boolean enabled;
+
+    // Okunmuş bildirimlerin sıcak tabloda tutulacağı gün sayısı
+    @Value("${notification.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${notification.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    // Parçalar arası bekleme: kilitlerin kısa tutulması ve replikasyon gecikmesinin birikmemesi için
+    @Value("${notification.retention.pause-ms:200}")
+    private long pauseMs;
+
+    // Tek çalıştırmanın en uzun süresi; kalanlar bir sonraki çalıştırmaya bırakılır
+    @Value("${notification.retention.max-run-minutes:30}")
+    private long maxRunMinutes;
+
+    // Bu yıldan sonra kaç yıl için partition hazır tutulur (pmax boş kalsın diye)
+    @Value("${notification.archive.partitions-ahead-years:1}")
+    private int partitionsAheadYears;
+
+    // Arşivin yıl olarak saklama süresi; 0 ise eski partition'lar silinmez
+    @Value("${notification.archive.retention-years:0}")
+    private int archiveRetentionYears;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalArchived = new AtomicLong();
+
+    @Autowired
+    public NotificationRetentionServiceImpl(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    // Bilinçli olarak @Transactional değil: her parça kendi kısa transaction'ında taşınır.
+    @Override
+    @Scheduled(cron = "${notification.retention.cron:0 0 4 * * ?}") // Varsayılan: her gece 04:00 (düşük trafik)
+    public int archiveOldNotifications() {
+        if (!enabled) {
+            logger.debug("Notification retention is disabled (notification.retention.enabled=false).");
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Notification archival is already running. Skipping this trigger.");
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            long startedAt = System.currentTimeMillis();
+            long deadline = startedAt + maxRunMinutes * 60_000;
+            PageRequest chunk = PageRequest.of(0, chunkSize);
+            logger.info("Archiving read notifications older than {} (chunk size: {})", cutoff, chunkSize);
+
+            long afterId = 0L;
+            int archived = 0;
+            int chunks = 0;
+            List<Long> ids;
+            do {
+                ids = notificationRepository.findArchivableIdsAfterId(afterId, cutoff, chunk);
+                if (ids.isEmpty()) break;
+                afterId = ids.get(ids.size() - 1);
+                int moved = notificationRepository.moveToArchive(ids);
+                archived += moved;
+                totalArchived.addAndGet(moved);
+                chunks++;
+
+                if (System.currentTimeMillis() > deadline) {
+                    logger.info("Notification archival reached max run time ({} min). Remaining rows will be handled next run.", maxRunMinutes);
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            } while (ids.size() == chunkSize);
+
+            logger.info("Notification archival finished in {} ms. Archived: {}, Chunks: {}",
+                    System.currentTimeMillis() - startedAt, archived, chunks);
+            return archived;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Notification archival interrupted.");
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareArchiveOnStartup() {
+        try {
+            maintainArchivePartitions();
+        } catch (RuntimeException e) {
+            logger.error("Notification archive table check failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Arşivleme ile aynı anda DDL çalışmasın diye aynı bayrak kullanılır
+    @Override
+    @Scheduled(cron = "${notification.archive.partition-cron:0 30 3 1 * ?}") // Varsayılan: her ayın 1'i 03:30
+    public void maintainArchivePartitions() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Notification archival is running. Skipping archive partition maintenance.");
+            return;
+        }
+        try {
+            int currentYear = LocalDate.now().getYear();
+            int lastYear = currentYear + Math.max(0, partitionsAheadYears);
+
+            // İlk partition kendi sınırından eski tüm satırları da alır (RANGE ... LESS THAN)
+            List<Integer> initialYears = new ArrayList<>();
+            for (int year = currentYear - 1; year <= lastYear; year++) {
+                initialYears.add(year);
+            }
+            notificationRepository.createArchiveTableIfMissing(initialYears);
+
+            List<Integer> years = notificationRepository.findArchivePartitionYears();
+            if (years.isEmpty()) {
+                logger.warn("notifications_archive has no yearly partitions. Skipping partition rotation.");
+                return;
+            }
+            for (int year = years.get(years.size() - 1) + 1; year <= lastYear; year++) {
+                notificationRepository.addArchivePartition(year);
+                logger.info("Added notifications_archive partition p{}.", year);
+            }
+            if (archiveRetentionYears > 0) {
+                int oldestKept = currentYear - archiveRetentionYears;
+                // En az bir yıllık partition kalmalı (pmax dışında)
+                for (int i = 0; i < years.size() - 1 && years.get(i) < oldestKept; i++) {
+                    notificationRepository.dropArchivePartition(years.get(i));
+                    logger.info("Dropped notifications_archive partition p{} (archive retention: {} years).", years.get(i), archiveRetentionYears);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public long getTotalArchived() {
+        return totalArchived.get();
+    }
+}
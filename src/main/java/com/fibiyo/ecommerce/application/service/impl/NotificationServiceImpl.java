@@ -1,25 +1,49 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
+import com.fibiyo.ecommerce.application.cache.NotificationUnreadCounter;
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationRequest;
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationResponse;
 import com.fibiyo.ecommerce.application.dto.NotificationResponse;
 import com.fibiyo.ecommerce.application.dto.UnreadNotificationCountDto;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
 import com.fibiyo.ecommerce.application.mapper.NotificationMapper;
+import com.fibiyo.ecommerce.application.service.NotificationIngestService;
+import com.fibiyo.ecommerce.application.service.NotificationPushService;
 import com.fibiyo.ecommerce.application.service.NotificationService;
+import com.fibiyo.ecommerce.domain.entity.BroadcastNotification;
 import com.fibiyo.ecommerce.domain.entity.Notification;
 import com.fibiyo.ecommerce.domain.entity.User;
 import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.BroadcastNotificationRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.NotificationRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional; // Transactional gerekli
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
@@ -29,7 +53,29 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final NotificationMapper notificationMapper;
+    private final NotificationPushService notificationPushService;
+    private final NotificationUnreadCounter unreadCounter;
+    private final NotificationIngestService notificationIngestService;
+    private final BroadcastNotificationRepository broadcastNotificationRepository;
+    private final TransactionTemplate writeTransaction;
+
+    // En son toplu bildirim ID'si kısa süre önbelleklenir; imleci güncel kullanıcılar için sorgu yapılmaz
+    @Value("${notification.broadcast.max-id-cache-ms:15000}")
+    private long broadcastMaxIdCacheMs;
+    @Value("${notification.broadcast.settle-ms:30000}")
+    private long broadcastSettleMs;
+    private volatile long latestBroadcastId = -1L;
+    private volatile long latestBroadcastIdLoadedAt;
+
+    // userId -> bilinen aktarım imleci. Rozet isteği sadece imleç geride kaldıysa kullanıcıyı yükleyip aktarım yapar.
+    private final Map<Long, Long> broadcastCursorsByUserId = new ConcurrentHashMap<>();
+    // Bağlı kullanıcılara en son hangi toplu bildirim ID'sine kadar aktarım yapıldı (pushSettledBroadcasts)
+    private volatile long lastPushedBroadcastId = -1L;
+    private static final int BROADCAST_PUSH_CHUNK_SIZE = 500;
 
+    // username -> userId (kullanıcı adları değişmez). Rozet isteğinde kullanıcı sorgusunu atlamak için.
+    private static final int MAX_CACHED_USER_IDS = 100_000;
+    private final Map<String, Long> userIdsByUsername = new ConcurrentHashMap<>();
 
      // Helper
      private User getCurrentUser() {
@@ -42,30 +88,82 @@ public class NotificationServiceImpl implements NotificationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Current user not found: " + username));
      }
 
+     private Long getCurrentUserId() {
+         String username = SecurityContextHolder.getContext().getAuthentication().getName();
+         Long userId = userIdsByUsername.get(username);
+         if (userId == null) {
+             userId = getCurrentUser().getId();
+             if (userIdsByUsername.size() >= MAX_CACHED_USER_IDS) {
+                 userIdsByUsername.clear();
+             }
+             userIdsByUsername.put(username, userId);
+         }
+         return userId;
+     }
+
 
     @Autowired
-    public NotificationServiceImpl(NotificationRepository notificationRepository, UserRepository userRepository, NotificationMapper notificationMapper) {
+    public NotificationServiceImpl(NotificationRepository notificationRepository, UserRepository userRepository, NotificationMapper notificationMapper, NotificationPushService notificationPushService, NotificationUnreadCounter unreadCounter, NotificationIngestService notificationIngestService, BroadcastNotificationRepository broadcastNotificationRepository, PlatformTransactionManager transactionManager) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.notificationMapper = notificationMapper;
+        this.notificationPushService = notificationPushService;
+        this.unreadCounter = unreadCounter;
+        this.notificationIngestService = notificationIngestService;
+        this.broadcastNotificationRepository = broadcastNotificationRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional // Bekleyen toplu bildirimler okumadan önce kullanıcıya aktarılabilir (yazma)
     public Page<NotificationResponse> findMyNotifications(Pageable pageable) {
         User currentUser = getCurrentUser();
         logger.debug("Fetching notifications for user ID: {}", currentUser.getId());
+        // Toplu bildirimler kişisel bildirimlere aktarıldıktan sonra tek tablo üzerinden sayfalanır
+        materializeBroadcasts(currentUser);
         Page<Notification> notificationPage = notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId(), pageable);
         return notificationPage.map(notificationMapper::toNotificationResponse);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public UnreadNotificationCountDto getMyUnreadNotificationCount() {
+    public Page<NotificationResponse> findMyArchivedNotifications(Pageable pageable) {
         User currentUser = getCurrentUser();
-        logger.trace("Getting unread notification count for user ID: {}", currentUser.getId()); // trace seviyesi yeterli
-        long count = notificationRepository.countByUserIdAndIsReadFalse(currentUser.getId());
-        return new UnreadNotificationCountDto(count);
+        logger.debug("Fetching archived notifications for user ID: {}", currentUser.getId());
+        // Sıralama sorguda sabit (created_at DESC); native sorguya dışarıdan sort eklenmez
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return notificationRepository.findArchivedByUserId(currentUser.getId(), page).map(row -> {
+            NotificationResponse response = new NotificationResponse();
+            response.setId(((Number) row[0]).longValue());
+            response.setMessage((String) row[1]);
+            response.setLink((String) row[2]);
+            response.setRead(toBoolean(row[3]));
+            response.setCreatedAt(toLocalDateTime(row[4]));
+            response.setType(row[5] != null ? NotificationType.valueOf((String) row[5]) : null);
+            return response;
+        });
+    }
+
+    private static boolean toBoolean(Object value) {
+        return value instanceof Boolean b ? b : value instanceof Number n && n.intValue() != 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        if (value instanceof Instant instant) return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return (LocalDateTime) value;
+    }
+
+    @Override
+    public UnreadNotificationCountDto getMyUnreadNotificationCount() {
+        // Bellekteki sayaçtan okunur; veritabanına sadece sayacın ilk yüklenmesinde
+        // veya kullanıcıya henüz aktarılmamış toplu bildirim varsa gidilir
+        Long userId = getCurrentUserId();
+        logger.trace("Getting unread notification count for user ID: {}", userId); // trace seviyesi yeterli
+        if (getLatestBroadcastId() > broadcastCursorsByUserId.getOrDefault(userId, -1L)) {
+            writeTransaction.executeWithoutResult(status -> materializeBroadcasts(getCurrentUser()));
+        }
+        return new UnreadNotificationCountDto(unreadCounter.get(userId));
     }
 
     @Override
@@ -81,10 +179,11 @@ public class NotificationServiceImpl implements NotificationService {
                throw new ForbiddenException("Bu bildirimi okundu olarak işaretleme yetkiniz yok.");
           }
 
-         // Zaten okunmuşsa tekrar kaydetmeye gerek yok
-         if (!notification.isRead()) {
+         // Koşullu UPDATE: eşzamanlı iki istekte sayaç sadece bir kez azalır. Zaten okunmuşsa işlem yapılmaz.
+         if (notificationRepository.markAsReadIfUnread(notificationId) == 1) {
              notification.setRead(true);
-             notification = notificationRepository.save(notification);
+             Long userId = currentUser.getId();
+             runAfterCommit(() -> publishUnreadCount(userId, unreadCounter.decrement(userId)));
              logger.info("Notification ID: {} marked as read for User ID: {}", notificationId, currentUser.getId());
          } else {
               logger.debug("Notification ID: {} was already marked as read.", notificationId);
@@ -99,6 +198,11 @@ public class NotificationServiceImpl implements NotificationService {
           logger.info("User ID: {} marking all notifications as read", currentUser.getId());
         // Repository'deki custom update query'sini kullan
         int affectedRows = notificationRepository.markAllAsReadByUserId(currentUser.getId());
+        Long userId = currentUser.getId();
+        runAfterCommit(() -> {
+            unreadCounter.reset(userId);
+            publishUnreadCount(userId, 0);
+        });
          logger.info("{} notifications marked as read for User ID: {}", affectedRows, currentUser.getId());
         return affectedRows; // Kaç tanesi güncellendi bilgisini dönelim
     }
@@ -117,31 +221,162 @@ public class NotificationServiceImpl implements NotificationService {
          }
 
         notificationRepository.delete(notification);
+        if (!notification.isRead()) {
+            Long userId = currentUser.getId();
+            runAfterCommit(() -> publishUnreadCount(userId, unreadCounter.decrement(userId)));
+        }
          logger.info("Notification ID: {} deleted successfully by User ID: {}", notificationId, currentUser.getId());
     }
 
+    @Override
+    @Transactional
+    public SseEmitter subscribeToMyNotifications() {
+        User currentUser = getCurrentUser();
+        materializeBroadcasts(currentUser);
+        logger.debug("User ID: {} subscribing to notification stream", currentUser.getId());
+        SseEmitter emitter = notificationPushService.subscribe(currentUser.getId());
+        // Bağlantı başında güncel okunmamış sayısı bir kez gönderilir; sonrası olaylarla güncellenir
+        publishUnreadCount(currentUser.getId(), unreadCounter.get(currentUser.getId()));
+        return emitter;
+    }
+
     // --- System/Service Operations ---
 
-    @Async
     @Override
-    @Transactional // Ayrı transaction'da çalışması genellikle daha iyidir
     public void createNotification(User user, String message, String link, NotificationType type) {
-         // Asenkron yapmak (örn: @Async) genellikle daha performanslıdır,
-         // çünkü bildirim oluşturma işlemi ana işlemi (örn: sipariş verme) yavaşlatmamalı.
-         // Ama başlangıçta senkron yapalım.
-         logger.debug("Creating notification for User ID: {}, Type: {}", user.getId(), type);
-         if(user == null){
-             logger.error("Cannot create notification for null user.");
-             return; // Hata logla ve çık
-         }
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setMessage(message);
-        notification.setLink(link);
-        notification.setType(type);
-        notification.setRead(false);
-        notificationRepository.save(notification);
-         logger.info("Notification created for User ID: {}. Message: '{}'", user.getId(), message.substring(0, Math.min(message.length(), 50)) + "..."); // Mesajın başını logla
-         // TODO: Eğer gerçek zamanlı bir mekanizma varsa (WebSocket vb.) burada tetiklenebilir.
+        // Bildirim satır satır ve ayrı async transaction'larda değil, NotificationIngestService kuyruğu üzerinden
+        // toplu (batch) yazılır. Çağıranın transaction'ı varsa commit'ten sonra kuyruğa alınır (rollback'te bildirim gitmez).
+        if (user == null) {
+            logger.error("Cannot create notification for null user.");
+            return; // Hata logla ve çık
+        }
+        logger.debug("Queueing notification for User ID: {}, Type: {}", user.getId(), type);
+        Long userId = user.getId();
+        runAfterCommit(() -> notificationIngestService.enqueue(userId, message, link, type));
+    }
+
+    // --- Broadcast (Segment) Notifications ---
+
+    @Override
+    @Transactional
+    public BroadcastNotificationResponse createBroadcastNotification(BroadcastNotificationRequest request) {
+        User admin = getCurrentUser();
+        BroadcastNotification broadcast = new BroadcastNotification();
+        broadcast.setMessage(request.getMessage());
+        broadcast.setLink(request.getLink());
+        broadcast.setType(request.getType() != null ? request.getType() : NotificationType.SYSTEM_MESSAGE);
+        broadcast.setTargetRole(request.getTargetRole());
+        broadcast.setTargetSubscriptionType(request.getTargetSubscriptionType());
+        broadcast.setExpiresAt(request.getExpiresAt());
+        broadcast.setCreatedBy(admin);
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            broadcast.setExplicitRecipients(true);
+            broadcast.setRecipientUserIds(new HashSet<>(request.getUserIds().stream().filter(Objects::nonNull).toList()));
+        }
+        BroadcastNotification saved = broadcastNotificationRepository.save(broadcast);
+        logger.info("Broadcast notification ID: {} created by admin ID: {}. Role: {}, Subscription: {}, Explicit recipients: {}",
+                saved.getId(), admin.getId(), saved.getTargetRole(), saved.getTargetSubscriptionType(), saved.getRecipientUserIds().size());
+        return notificationMapper.toBroadcastNotificationResponse(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BroadcastNotificationResponse> findBroadcastNotifications(Pageable pageable) {
+        return broadcastNotificationRepository.findAllByOrderByCreatedAtDesc(pageable)
+                .map(notificationMapper::toBroadcastNotificationResponse);
+    }
+
+    // Toplu bildirim commit edildiğinde bağlı istemcilere henüz gönderilemez: imleç güvenlik payı dolana kadar onu
+    // kapsamaz. Bu iş imleç ilerlediğinde bu node'a bağlı kullanıcılar için aktarımı yapar; segmente uyan kullanıcılara
+    // materializeBroadcasts commit sonrası güncel okunmamış sayısını gönderir.
+    @Scheduled(fixedDelayString = "${notification.broadcast.push-interval-ms:10000}")
+    public void pushSettledBroadcasts() {
+        long upToId = getLatestBroadcastId();
+        if (upToId <= lastPushedBroadcastId) {
+            return;
+        }
+        List<Long> pendingUserIds = notificationPushService.getConnectedUserIds().stream()
+                .filter(userId -> broadcastCursorsByUserId.getOrDefault(userId, -1L) < upToId)
+                .toList();
+        boolean failed = false;
+        for (int from = 0; from < pendingUserIds.size(); from += BROADCAST_PUSH_CHUNK_SIZE) {
+            List<Long> chunk = pendingUserIds.subList(from, Math.min(from + BROADCAST_PUSH_CHUNK_SIZE, pendingUserIds.size()));
+            try {
+                writeTransaction.executeWithoutResult(status -> userRepository.findAllById(chunk).forEach(this::materializeBroadcasts));
+            } catch (Exception e) {
+                failed = true; // Sonraki çalışmada aynı kullanıcılar tekrar denenir
+                logger.warn("Failed to push broadcasts up to ID: {} to {} connected users: {}", upToId, chunk.size(), e.getMessage());
+            }
+        }
+        if (!failed) {
+            lastPushedBroadcastId = upToId;
+        }
+        logger.debug("Pushed broadcasts up to ID: {} to {} connected users.", upToId, pendingUserIds.size());
+    }
+
+    // Fan-out-on-read: kullanıcının imlecinden sonraki toplu bildirimlerden segmentine uyanlar tek INSERT ... SELECT
+    // ile kendi bildirimlerine eklenir. İmleç koşullu UPDATE ile ilerletildiği için eşzamanlı istekler çift ekleme yapmaz.
+    private void materializeBroadcasts(User user) {
+        long upToId = getLatestBroadcastId();
+        long afterId = user.getLastBroadcastId();
+        Long userId = user.getId();
+        if (upToId <= afterId) {
+            rememberBroadcastCursor(userId, afterId);
+            return; // Yeni toplu bildirim yok (sık yol: sorgu yapılmaz)
+        }
+        if (userRepository.advanceBroadcastCursor(userId, afterId, upToId) == 0) {
+            logger.debug("Broadcast cursor for user ID: {} already advanced by another request.", userId);
+            return;
+        }
+        int inserted = notificationRepository.materializeBroadcasts(userId, afterId, upToId,
+                user.getRole().name(), user.getSubscriptionType().name(), user.getCreatedAt());
+        user.setLastBroadcastId(upToId);
+        if (inserted > 0) {
+            logger.debug("Materialized {} broadcast notifications for user ID: {}", inserted, userId);
+        }
+        runAfterCommit(() -> {
+            rememberBroadcastCursor(userId, upToId);
+            if (inserted > 0) {
+                publishUnreadCount(userId, unreadCounter.add(userId, inserted));
+            }
+        });
+    }
+
+    private void rememberBroadcastCursor(Long userId, long cursor) {
+        if (broadcastCursorsByUserId.size() >= MAX_CACHED_USER_IDS) {
+            broadcastCursorsByUserId.clear();
+        }
+        broadcastCursorsByUserId.merge(userId, cursor, Math::max);
+    }
+
+    private long getLatestBroadcastId() {
+        long now = System.currentTimeMillis();
+        if (latestBroadcastId < 0 || now - latestBroadcastIdLoadedAt > broadcastMaxIdCacheMs) {
+            // Güvenlik payından yeni kayıtlar henüz commit edilmemiş daha düşük ID'lerin arkasında olabilir; imleç onları atlamasın
+            LocalDateTime cutoff = LocalDateTime.now().minusNanos(broadcastSettleMs * 1_000_000);
+            latestBroadcastId = Math.max(latestBroadcastId, broadcastNotificationRepository.findMaxIdCreatedBefore(cutoff));
+            latestBroadcastIdLoadedAt = now;
+        }
+        return latestBroadcastId;
+    }
+
+    // Sayaç bellekte değilse (-1) olay gönderilmez; istemci bağlanırken güncel sayıyı zaten alır.
+    private void publishUnreadCount(Long userId, long unreadCount) {
+        if (unreadCount >= 0) {
+            notificationPushService.pushToUser(userId, "unread-count", new UnreadNotificationCountDto(unreadCount));
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.fibiyo.ecommerce.application.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fibiyo.ecommerce.application.cache.CouponRule;
+import com.fibiyo.ecommerce.application.cache.CouponRuleCache;
 import com.fibiyo.ecommerce.application.dto.AddressDto;
 // import com.fibiyo.ecommerce.application.dto.CartResponse; // createOrder içinde artık kullanılmıyor
 import com.fibiyo.ecommerce.application.dto.OrderRequest;
@@ -10,10 +12,15 @@ import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
 import com.fibiyo.ecommerce.application.mapper.OrderMapper;
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
 import com.fibiyo.ecommerce.application.service.CartService; // Inject edilecek
+import com.fibiyo.ecommerce.application.service.CouponCodeService;
+import com.fibiyo.ecommerce.application.service.CouponUsageService;
 import com.fibiyo.ecommerce.application.service.EmailService;
 import com.fibiyo.ecommerce.application.service.NotificationService; // Inject edilecek
 import com.fibiyo.ecommerce.application.service.OrderService;
+import com.fibiyo.ecommerce.application.service.SellerAnalyticsService;
+import com.fibiyo.ecommerce.application.service.SellerOrderService;
 // import com.fibiyo.ecommerce.application.service.CouponService; // İhtiyaç olursa inject edilebilir
 import com.fibiyo.ecommerce.domain.entity.*; // Entity importları
 import com.fibiyo.ecommerce.domain.enums.NotificationType; // Enumlar
@@ -27,7 +34,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,10 +45,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode; // Kupon hesaplama için
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -57,6 +69,12 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMapper orderMapper;
     private final ObjectMapper objectMapper;
     private final EmailService emailService; // Email gönderme (sipariş onayı için)
+    private final SellerAnalyticsService sellerAnalyticsService; // Satıcı paneli özetleri
+    private final AdminKpiService adminKpiService; // Admin paneli KPI sayaçları
+    private final SellerOrderService sellerOrderService; // Satıcı sipariş okuma modeli (seller_order_lines)
+    private final CouponRuleCache couponRuleCache; // Kupon kuralları (sepet önizlemesiyle ortak)
+    private final CouponUsageService couponUsageService; // Kupon kullanım sayacı (atomik UPDATE)
+    private final CouponCodeService couponCodeService; // Girilen kodun kupon kuralına çözümlenmesi
 
 
     // --- Helper Methods ---
@@ -118,21 +136,12 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
-    private BigDecimal calculateDiscount(Coupon coupon, BigDecimal amount) {
-         if(coupon == null || amount == null) return BigDecimal.ZERO;
-         BigDecimal discount = BigDecimal.ZERO;
-        if (coupon.getDiscountType() == com.fibiyo.ecommerce.domain.enums.DiscountType.FIXED_AMOUNT) {
-            discount = coupon.getDiscountValue();
-        } else if (coupon.getDiscountType() == com.fibiyo.ecommerce.domain.enums.DiscountType.PERCENTAGE) {
-            discount = amount.multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        }
-        return discount.min(amount); // İndirim, tutarı geçemez
-     }
-
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository, ProductRepository productRepository, UserRepository userRepository, CouponRepository couponRepository, CartService cartService, CartItemRepository cartItemRepository, NotificationService notificationService, OrderMapper orderMapper, ObjectMapper objectMapper
-    , EmailService emailService) {
+    , EmailService emailService, SellerAnalyticsService sellerAnalyticsService, AdminKpiService adminKpiService
+    , SellerOrderService sellerOrderService, CouponRuleCache couponRuleCache, CouponUsageService couponUsageService
+    , CouponCodeService couponCodeService) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
@@ -144,6 +153,12 @@ public class OrderServiceImpl implements OrderService {
         this.orderMapper = orderMapper;
         this.objectMapper = objectMapper;
         this.emailService = emailService; // Email gönderme için eklendi
+        this.sellerAnalyticsService = sellerAnalyticsService;
+        this.adminKpiService = adminKpiService;
+        this.sellerOrderService = sellerOrderService;
+        this.couponRuleCache = couponRuleCache;
+        this.couponUsageService = couponUsageService;
+        this.couponCodeService = couponCodeService;
         
     }
 
@@ -216,30 +231,41 @@ public class OrderServiceImpl implements OrderService {
         Coupon appliedCoupon = null;
         if (orderRequest.getCouponCode() != null && !orderRequest.getCouponCode().isBlank()) {
             String couponCode = orderRequest.getCouponCode().toUpperCase();
-            appliedCoupon = couponRepository.findByCodeAndIsActiveTrueAndExpiryDateAfter(couponCode, LocalDateTime.now())
-                     .orElseThrow(() -> new BadRequestException("Geçersiz veya süresi dolmuş kupon kodu: " + couponCode));
+            CouponCodeService.CouponMatch couponMatch = couponCodeService.resolve(couponCode)
+                    .orElseThrow(() -> new BadRequestException("Geçersiz veya süresi dolmuş kupon kodu: " + couponCode));
+            if (couponMatch.redeemed()) {
+                throw new BadRequestException("Bu kupon kodu daha önce kullanılmış.");
+            }
+            CouponRule couponRule = couponMatch.rule();
 
-             // Min sepet tutarı kontrolü (İndirim uygulanmadan önceki totalAmount'a göre)
-            if (totalAmount.compareTo(appliedCoupon.getMinPurchaseAmount()) < 0) {
-                 throw new BadRequestException(String.format("Bu kuponu kullanmak için minimum alışveriş tutarı %.2f TL olmalıdır.", appliedCoupon.getMinPurchaseAmount()));
+            // Sepet önizlemesiyle aynı kural ve yuvarlama (İndirim uygulanmadan önceki totalAmount'a göre)
+            String rejection = couponRule.rejectionReason(totalAmount, LocalDateTime.now());
+            if (rejection != null) {
+                throw new BadRequestException(rejection);
             }
-            if (appliedCoupon.isUsageLimitReached()) {
+            // Önbellekteki kullanım sayısı anlık görüntüdür; kesin limit kontrolü koşullu UPDATE ile yapılır.
+            // Sipariş rollback olursa kullanım CouponUsageService tarafından geri alınır.
+            if (couponMatch.singleUseCode() != null && !couponUsageService.tryRedeemCode(couponMatch.singleUseCode())) {
+                throw new BadRequestException("Bu kupon kodu daha önce kullanılmış.");
+            }
+            if (!couponUsageService.tryRedeem(couponRule.id())) {
+                couponRuleCache.refresh(couponRule.code()); // Önizlemeler de limitin dolduğunu görsün
                 throw new BadRequestException("Bu kupon kullanım limitine ulaşmış.");
             }
+            appliedCoupon = couponRepository.getReferenceById(couponRule.id()); // Kupon satırı okunmaz/kilitlenmez
 
-            BigDecimal discount = calculateDiscount(appliedCoupon, totalAmount); // İndirimi hesapla
+            BigDecimal discount = couponRule.calculateDiscount(totalAmount); // İndirimi hesapla
             order.setCoupon(appliedCoupon);
+            order.setSingleUseCouponCode(couponMatch.singleUseCode());
             order.setDiscountAmount(discount);
-             // Kupon kullanımını artır (Transaction sonunda başarılı olursa kaydedilir)
-             appliedCoupon.incrementTimesUsed();
-             // couponRepository.save(appliedCoupon); // Order save edilirken cascade veya @PreUpdate ile yapılabilir? Şimdilik manuel yapalım.
-             couponRepository.save(appliedCoupon);
 
              logger.info("Coupon '{}' applied. Discount: {}", couponCode, discount);
         }
 
         // Order ve ilişkili OrderItem'ları (ve Product/Coupon güncellemelerini) kaydet
         Order savedOrder = orderRepository.save(order);
+        sellerOrderService.recordOrderCreated(savedOrder);
+        adminKpiService.recordOrderStatusChange(savedOrder, null);
 
         // SEPETİ TEMİZLE (cartItemRepository kullanarak)
         try {
@@ -304,7 +330,8 @@ public class OrderServiceImpl implements OrderService {
     public OrderResponse cancelMyOrder(Long orderId) {
         User customer = getCurrentUser();
         logger.warn("Customer ID: {} attempting to cancel order ID: {}", customer.getId(), orderId);
-        Order order = orderRepository.findById(orderId)
+        // Satır kilidi: bayat sipariş temizliği veya ödeme webhook'u ile yarışırsa stok/kupon iki kez geri verilmez
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
         if (!order.getCustomer().getId().equals(customer.getId())) {
@@ -316,6 +343,7 @@ public class OrderServiceImpl implements OrderService {
              throw new BadRequestException("Bu sipariş artık iptal edilemez (Mevcut Durum: " + order.getStatus() + ").");
         }
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED_BY_CUSTOMER);
 
          // Ödeme Durumu: Eğer ödenmişse refund gerekir, değilse direkt iptal.
@@ -323,6 +351,8 @@ public class OrderServiceImpl implements OrderService {
          if (paymentWasCompleted) {
              order.setPaymentStatus(PaymentStatus.REFUNDED); // TODO: Gerçek refund işlemini tetikle (PaymentService)!
               logger.info("Order ID {} cancelled by customer. Initiating refund process.", orderId);
+             sellerAnalyticsService.recordOrderRefunded(order);
+             adminKpiService.recordOrderRefunded(order);
              // paymentService.initiateRefund(orderId, "Müşteri İptali");
          } else {
               order.setPaymentStatus(PaymentStatus.PENDING); // Veya özel bir "CANCELLED" ödeme durumu? Şimdilik PENDING kalabilir.
@@ -332,12 +362,16 @@ public class OrderServiceImpl implements OrderService {
         restoreStockForOrderItems(order.getOrderItems());
 
          if (order.getCoupon() != null) {
-             // TODO: Kupon sayacını decrement et
-             logger.info("Decrementing usage count for coupon code: {}", order.getCoupon().getCode());
-            // Coupon coupon = order.getCoupon(); coupon.decrementTimesUsed(); couponRepository.save(coupon);
+             logger.info("Decrementing usage count for coupon ID: {}", order.getCoupon().getId());
+             couponUsageService.release(order.getCoupon().getId());
+         }
+         if (order.getSingleUseCouponCode() != null) {
+             couponUsageService.releaseCode(order.getSingleUseCouponCode());
          }
 
         Order cancelledOrder = orderRepository.save(order);
+        sellerOrderService.syncOrderStatus(cancelledOrder);
+        adminKpiService.recordOrderStatusChange(cancelledOrder, previousStatus);
 
          // Bildirim Gönder (Admin'e / Satıcıya?)
          // notificationService.createNotification(...);
@@ -364,7 +398,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<OrderResponse> findSellerOrders(Pageable pageable, OrderStatus status) {
+    public Slice<OrderResponse> findSellerOrders(Pageable pageable, OrderStatus status, LocalDateTime beforeOrderDate, Long beforeOrderId) {
          // Hem Admin hem Seller bu endpoint'i kullanabilir ama farklı filtrelerle
          User currentUser = getCurrentUser();
          Specification<Order> spec;
@@ -378,8 +412,16 @@ public class OrderServiceImpl implements OrderService {
              // Seller sadece kendi ürünlerini içeren siparişleri görmeli
                logger.debug("SELLER: Fetching orders containing products for seller ID: {}. Status Filter: {}, Pageable: {}",
                           currentUser.getId(), status, pageable);
-                spec = Specification.where(OrderSpecifications.hasSellerProduct(currentUser.getId()))
-                         .and(OrderSpecifications.hasStatus(status));
+               // 3 join + DISTINCT yerine seller_order_lines okuma modelinden keyset ile sayfalanır, siparişler ID ile tek sorguda yüklenir.
+               // Bir fazla ID istenir: sonraki sayfa olup olmadığı COUNT sorgusu olmadan anlaşılır.
+               int size = pageable.getPageSize();
+               List<Long> orderIds = sellerOrderService.findOrderIdsForSeller(currentUser.getId(), status, beforeOrderDate, beforeOrderId, size + 1);
+               boolean hasNext = orderIds.size() > size;
+               List<Long> pageIds = hasNext ? orderIds.subList(0, size) : orderIds;
+               Map<Long, Order> ordersById = orderRepository.findAllById(pageIds).stream()
+                       .collect(Collectors.toMap(Order::getId, Function.identity()));
+               List<OrderResponse> content = pageIds.stream().map(id -> orderMapper.toOrderResponse(ordersById.get(id))).toList();
+               return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
           } else {
               // Bu duruma düşmemeli (@PreAuthorize veya kontrol sonrası) ama güvenlik için
               throw new ForbiddenException("Siparişleri görme yetkiniz yok.");
@@ -411,7 +453,7 @@ public class OrderServiceImpl implements OrderService {
         User currentUser = getCurrentUser();
         logger.info("User/Admin ID: {} updating status for Order ID: {} to {}", currentUser.getId(), orderId, newStatus);
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId) // İptalde stok iadesi yarışmasın diye kilitli okunur
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
         // Yetki Kontrolü
@@ -455,22 +497,35 @@ public class OrderServiceImpl implements OrderService {
              notificationMsg = "#" + orderId + " numaralı siparişiniz kargoya verildi! Takip Numarası: " + order.getTrackingNumber();
          }
          else if (newStatus == OrderStatus.DELIVERED) {
+             if (order.getPaymentStatus() != PaymentStatus.COMPLETED) {
+                 sellerAnalyticsService.recordOrderPaid(order); // Kapıda ödeme vb.: satış teslimatta gerçekleşir
+                 adminKpiService.recordOrderPaid(order);
+             }
              order.setPaymentStatus(PaymentStatus.COMPLETED); // Otomatik tamamlama
               notificationMsg = "#" + orderId + " numaralı siparişiniz teslim edildi! Bizi değerlendirmeyi unutmayın.";
          } else if (newStatus.name().startsWith("CANCELLED")) {
              logger.warn("Order ID: {} status set to {} by User/Admin ID: {}. Restoring stock and handling payment.", orderId, newStatus, currentUser.getId());
             if (order.getPaymentStatus() == PaymentStatus.COMPLETED || order.getPaymentStatus() == PaymentStatus.PARTIALLY_REFUNDED) {
                  order.setPaymentStatus(PaymentStatus.REFUNDED); // Refund gerekli
+                 sellerAnalyticsService.recordOrderRefunded(order);
+                 adminKpiService.recordOrderRefunded(order);
                  // TODO: PaymentService.initiateRefund(...) çağır
              } else {
                  order.setPaymentStatus(PaymentStatus.PENDING); // Veya FAILED?
              }
             restoreStockForOrderItems(order.getOrderItems());
-            // TODO: Kuponu geri al?
+            if (order.getCoupon() != null) {
+                couponUsageService.release(order.getCoupon().getId());
+            }
+            if (order.getSingleUseCouponCode() != null) {
+                couponUsageService.releaseCode(order.getSingleUseCouponCode());
+            }
             notificationMsg = "#" + orderId + " numaralı siparişiniz iptal edildi.";
          }
 
         Order updatedOrder = orderRepository.save(order);
+        sellerOrderService.syncOrderStatus(updatedOrder);
+        adminKpiService.recordOrderStatusChange(updatedOrder, currentStatus);
 
          // Bildirim Gönder
          if(notificationMsg != null && updatedOrder.getCustomer() != null) {
@@ -507,6 +562,7 @@ public class OrderServiceImpl implements OrderService {
          // Eğer durum PROCESSING ise otomatik SHIPPED yapalım
         if(order.getStatus() == OrderStatus.PROCESSING) {
              order.setStatus(OrderStatus.SHIPPED);
+             adminKpiService.recordOrderStatusChange(order, OrderStatus.PROCESSING);
              logger.info("Order ID: {} status automatically updated to SHIPPED after adding tracking number.", orderId);
             // TODO: SHIPPED bildirimi burada gönderilebilir
              try{
@@ -518,6 +574,7 @@ public class OrderServiceImpl implements OrderService {
          }
 
         Order updatedOrder = orderRepository.save(order);
+        sellerOrderService.syncOrderStatus(updatedOrder);
         logger.info("Tracking number '{}' added successfully to Order ID: {}.", trackingNumber, orderId);
         return orderMapper.toOrderResponse(updatedOrder);
     }
@@ -1,13 +1,19 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
+import com.fibiyo.ecommerce.application.cache.CheckoutSessionCache;
 import com.fibiyo.ecommerce.application.dto.CreateCheckoutSessionRequest;
 import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
+import com.fibiyo.ecommerce.application.exception.PaymentGatewayUnavailableException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
 import com.fibiyo.ecommerce.application.service.EmailService;
 import com.fibiyo.ecommerce.application.service.NotificationService; // Bildirim göndermek için
+import com.fibiyo.ecommerce.application.service.PaymentGateway;
 import com.fibiyo.ecommerce.application.service.PaymentService;
+import com.fibiyo.ecommerce.application.service.SellerAnalyticsService;
+import com.fibiyo.ecommerce.application.service.SellerOrderService;
 import com.fibiyo.ecommerce.application.service.SubscriptionService;
 import com.fibiyo.ecommerce.domain.entity.*; // Tüm ilgili entity'ler
 import com.fibiyo.ecommerce.domain.enums.NotificationType;
@@ -15,12 +21,10 @@ import com.fibiyo.ecommerce.domain.enums.OrderStatus;
 import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
 import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.*; // Gerekli repository'ler
-import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.*; // Stripe modelleri: Event, Session, PaymentIntent vb.
 import com.stripe.model.checkout.Session;
 
-import com.stripe.net.Webhook;
 import com.stripe.param.checkout.SessionCreateParams;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -32,6 +36,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -49,10 +56,24 @@ public class PaymentServiceImpl implements PaymentService {
     private final NotificationService notificationService;
     private final EmailService emailService; 
     private SubscriptionService subscriptionService;
+    private final SellerAnalyticsService sellerAnalyticsService;
+    private final AdminKpiService adminKpiService;
+    private final SellerOrderService sellerOrderService;
+    private final PaymentGateway paymentGateway;
+    private final CheckoutSessionCache checkoutSessionCache;
 
+    // Stripe expires_at en az 30 dk, en fazla 24 saat sonrası olmalı. Session [pencere, 2 x pencere) + pay kadar açık kalır;
+    // pay, pencere sınırına denk gelen isteklerde ağ gecikmesi/saat farkı yüzünden 30 dk altına düşülmesini önler.
+    private static final long MIN_CHECKOUT_WINDOW_SECONDS = 30 * 60;
+    private static final long CHECKOUT_EXPIRY_MARGIN_SECONDS = 5 * 60;
+    private static final long MAX_CHECKOUT_WINDOW_SECONDS = 11 * 60 * 60; // 2 x 11 saat + pay < 24 saat
 
-    @Value("${stripe.webhook.secret}")
-    private String endpointSecret; // Stripe webhook secret key
+    @Value("${payment.checkout.session-window-minutes:30}")
+    private long checkoutWindowMinutes;
+
+    // Bayat sipariş temizliği (StaleOrderReaperService) bu süreden eski PENDING_PAYMENT siparişlerini iptal eder
+    @Value("${order.pending-payment.ttl-minutes:1440}")
+    private long pendingPaymentTtlMinutes;
 
 
     @Autowired
@@ -63,8 +84,18 @@ public class PaymentServiceImpl implements PaymentService {
                               UserRepository userRepository,
                               NotificationService notificationService,
                               EmailService emailService,
-                              SubscriptionService subscriptionService) {
+                              SubscriptionService subscriptionService,
+                              SellerAnalyticsService sellerAnalyticsService,
+                              AdminKpiService adminKpiService,
+                              SellerOrderService sellerOrderService,
+                              PaymentGateway paymentGateway,
+                              CheckoutSessionCache checkoutSessionCache) {
         this.subscriptionService = subscriptionService;
+        this.sellerAnalyticsService = sellerAnalyticsService;
+        this.adminKpiService = adminKpiService;
+        this.sellerOrderService = sellerOrderService;
+        this.paymentGateway = paymentGateway;
+        this.checkoutSessionCache = checkoutSessionCache;
         this.orderRepository = orderRepository;
         this.paymentRepository = paymentRepository;
         this.cartRepository = cartRepository;
@@ -115,6 +146,12 @@ public class PaymentServiceImpl implements PaymentService {
          if (order.getOrderItems() == null || order.getOrderItems().isEmpty()){
               throw new BadRequestException("Siparişte ödenecek ürün bulunmuyor.");
          }
+         // Session en fazla iki pencere açık kalır; sipariş o süre içinde iptal edilecekse ödeme başlatılmaz
+         // (aksi halde stok geri verildikten sonra ödeme alınabilirdi)
+         long maxSessionSeconds = 2 * checkoutWindowSeconds() + CHECKOUT_EXPIRY_MARGIN_SECONDS;
+         if (LocalDateTime.now().plusSeconds(maxSessionSeconds).isAfter(order.getOrderDate().plusMinutes(pendingPaymentTtlMinutes))) {
+              throw new BadRequestException("Bu siparişin ödeme süresi dolmak üzere. Lütfen sepetinizden yeni bir sipariş oluşturun.");
+         }
 
 
                // ... (Metodun başındaki kodlar) ...
@@ -135,50 +172,17 @@ public class PaymentServiceImpl implements PaymentService {
                 // Şimdilik Stripe API'sine bırakalım, API hata dönecektir.
              }
 
-            SessionCreateParams params = SessionCreateParams.builder() // <--- Değişiklik burada
-                .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
-                .setMode(SessionCreateParams.Mode.PAYMENT)
-                .setSuccessUrl(request.getSuccessUrl())
-                .setCancelUrl(request.getCancelUrl())
-                 // Locale set ederken enum kullanalım
-                .setLocale(SessionCreateParams.Locale.TR)
-                .addLineItem(
-                     SessionCreateParams.LineItem.builder() // <--- Değişiklik burada
-                        .setQuantity(1L)
-                        .setPriceData(
-                             SessionCreateParams.LineItem.PriceData.builder() // <--- Değişiklik burada
-                                .setCurrency("try")
-                                .setUnitAmount(finalAmountCents)
-                                .setProductData(
-                                     SessionCreateParams.LineItem.PriceData.ProductData.builder() // <--- Değişiklik burada
-                                        .setName("Fibiyo Sipariş #" + order.getId())
-                                         // .setDescription(...) // Opsiyonel
-                                        .build()
-                                )
-                                .build()
-                        )
-                        .build()
-                 )
-                 // Metadata
-                .putMetadata("order_id", order.getId().toString())
-                 .putMetadata("customer_id", customer.getId().toString())
-                 // Payment Intent Metadata
-                .setPaymentIntentData(
-                     SessionCreateParams.PaymentIntentData.builder() // <--- Değişiklik burada
-                             .putMetadata("order_id", order.getId().toString())
-                            .build()
-                )
-                 .setCustomerEmail(customer.getEmail())
-                .build(); // <--- En sonda .build()
-
-            Session session = Session.create(params);
-            logger.info("Stripe Checkout Session created: {} for Order ID: {}", session.getId(), orderId);
-
-            return new StripeCheckoutSessionResponse(session.getId(), session.getUrl());
+            // Aynı sipariş/tutar/sürüm için açık bir session varsa Stripe'a gidilmeden o döner
+            long version = order.getUpdatedAt() != null ? Timestamp.valueOf(order.getUpdatedAt()).getTime() : 0L;
+            CheckoutSessionCache.Key key = new CheckoutSessionCache.Key(order.getId(), finalAmountCents, version,
+                    request.getSuccessUrl(), request.getCancelUrl());
+            return checkoutSessionCache.getOrCreate(key, () -> createStripeSession(order, customer, request, key));
 
          } catch (StripeException e) {
              logger.error("Error creating Stripe session for Order ID: {}. Stripe Error: {}", orderId, e.getMessage(), e);
              throw new BadRequestException("Ödeme oturumu oluşturulamadı. Lütfen tekrar deneyin veya destek ile iletişime geçin."); // Kullanıcıya daha genele bir mesaj
+        } catch (PaymentGatewayUnavailableException e) {
+             throw e; // 503: devre açık veya eşzamanlı çağrı sınırı dolu
         } catch (Exception e){
              logger.error("Unexpected error during Stripe session creation for Order ID: {}", orderId, e);
              throw new RuntimeException("Ödeme oturumu oluşturulurken beklenmedik bir hata oluştu.");
@@ -187,50 +191,89 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
 
-    @Override
-    @Transactional // İçeride DB işlemleri olduğu için Transactional olmalı
-    public void handleStripeWebhook(String payload, String sigHeader) {
-        Event event;
-        final String webhookSecret = this.endpointSecret; // Final yapalım
-
-        if (webhookSecret == null || webhookSecret.isBlank()) {
-            logger.error("STRIPE_WEBHOOK_ERROR: Stripe webhook secret ('stripe.webhook.secret') is not configured!");
-            throw new InternalError("Webhook secret configuration is missing.");
-        }
+    // Yeni Checkout Session açar. Idempotency key sipariş anahtarı ve zaman penceresinden türetilir: önbellek kaçırsa bile
+    // (yeniden başlatma, diğer instance) aynı pencerede Stripe aynı session'ı döner, ikinci bir session açılmaz.
+    private CheckoutSessionCache.Entry createStripeSession(Order order, User customer, CreateCheckoutSessionRequest request,
+                                                          CheckoutSessionCache.Key key) throws StripeException {
+        long windowSeconds = checkoutWindowSeconds();
+        long window = Instant.now().getEpochSecond() / windowSeconds;
+        long expiresAt = (window + 2) * windowSeconds + CHECKOUT_EXPIRY_MARGIN_SECONDS; // Şu andan itibaren [1, 2) pencere + pay sonra
+
+        SessionCreateParams params = SessionCreateParams.builder() // <--- Değişiklik burada
+            .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
+            .setMode(SessionCreateParams.Mode.PAYMENT)
+            .setSuccessUrl(request.getSuccessUrl())
+            .setCancelUrl(request.getCancelUrl())
+             // Locale set ederken enum kullanalım
+            .setLocale(SessionCreateParams.Locale.TR)
+             // Pencere sonuna göre sabit bitiş: aynı penceredeki tekrar istekler Stripe'a birebir aynı parametreleri gönderir
+            .setExpiresAt(expiresAt)
+            .addLineItem(
+                 SessionCreateParams.LineItem.builder() // <--- Değişiklik burada
+                    .setQuantity(1L)
+                    .setPriceData(
+                         SessionCreateParams.LineItem.PriceData.builder() // <--- Değişiklik burada
+                            .setCurrency("try")
+                            .setUnitAmount(key.amountCents())
+                            .setProductData(
+                                 SessionCreateParams.LineItem.PriceData.ProductData.builder() // <--- Değişiklik burada
+                                    .setName("Fibiyo Sipariş #" + order.getId())
+                                     // .setDescription(...) // Opsiyonel
+                                    .build()
+                            )
+                            .build()
+                    )
+                    .build()
+             )
+             // Metadata
+            .putMetadata("order_id", order.getId().toString())
+             .putMetadata("customer_id", customer.getId().toString())
+             // Payment Intent Metadata
+            .setPaymentIntentData(
+                 SessionCreateParams.PaymentIntentData.builder() // <--- Değişiklik burada
+                         .putMetadata("order_id", order.getId().toString())
+                        .build()
+            )
+             .setCustomerEmail(customer.getEmail())
+            .build(); // <--- En sonda .build()
+
+        Session session = paymentGateway.createCheckoutSession(params, key.idempotencyKey(window));
+        logger.info("Stripe Checkout Session created: {} for Order ID: {} (expires at: {})", session.getId(), order.getId(), session.getExpiresAt());
+
+        return new CheckoutSessionCache.Entry(key, new StripeCheckoutSessionResponse(session.getId(), session.getUrl()),
+                session.getExpiresAt() != null ? session.getExpiresAt() : expiresAt);
+    }
 
-        // 1. İmza Doğrulama
-        try {
-            event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
-        } catch (SignatureVerificationException e) {
-            logger.error("STRIPE_WEBHOOK_SIGNATURE_ERROR: Webhook signature verification failed! IP: [Check Request Logs if needed]. Check webhook secret.", e);
-            throw new BadRequestException("Invalid webhook signature.");
-        } catch (Exception e) {
-            logger.error("STRIPE_WEBHOOK_PAYLOAD_ERROR: Error parsing webhook event payload. Payload snippet: '{}'", payload.substring(0, Math.min(payload.length(), 200)), e);
-            throw new BadRequestException("Invalid webhook payload.");
-        }
 
-        // 2. Event Datasından Obje Alma (Güvenli Deneme)
+    private long checkoutWindowSeconds() {
+        return Math.min(MAX_CHECKOUT_WINDOW_SECONDS, Math.max(MIN_CHECKOUT_WINDOW_SECONDS, checkoutWindowMinutes * 60));
+    }
+
+
+    @Override
+    @Transactional // Event'in tüm DB işlemleri tek transaction'da; hata olursa geri alınır ve kuyruk tekrar dener
+    public void processWebhookEvent(Event event) {
+        // 1. Event Datasından Obje Alma (Güvenli Deneme)
         EventDataObjectDeserializer dataObjectDeserializer = event.getDataObjectDeserializer();
         Optional<StripeObject> objectOptional = dataObjectDeserializer.getObject();
 
         if (objectOptional.isEmpty()) {
              // Bazı event tiplerinde data->object null olabilir (örn: sadece ping eventleri)
-             // Veya deserialize hatası olmuş olabilir. Stripe dokümantasyonuna göre kontrol edilmeli.
+             // Veya deserialize hatası olmuş olabilir (API versiyonu uyuşmazlığı). Tekrar denemek sonucu değiştirmez.
              logger.warn("STRIPE_WEBHOOK_DATA_WARN: Event data object is not present for Event ID: {}, Type: {}", event.getId(), event.getType());
-              // Kritik bir event değilse devam edebiliriz, loglamak yeterli.
-             // return; // Eğer işlenmesi gereken eventler için bu oluyorsa sorun var demektir.
          }
 
          StripeObject stripeObject = objectOptional.orElse(null); // Varsa al, yoksa null
 
 
-        logger.info("STRIPE_WEBHOOK_RECEIVED: EventId='{}', Type='{}', DataObject='{}'",
+        logger.info("STRIPE_WEBHOOK_PROCESSING: EventId='{}', Type='{}', DataObject='{}'",
                 event.getId(), event.getType(), stripeObject != null ? stripeObject.getClass().getSimpleName() : "N/A");
 
-        // 3. Event Tipine Göre İşleme (if-else if ile tip kontrolü daha güvenli olabilir)
+        // 2. Event Tipine Göre İşleme
+        // Metadata hataları gibi tekrar denemeyle düzelmeyecek durumlar loglanıp atlanır;
+        // DB/servis hataları ise fırlatılır ki transaction geri alınsın ve kuyruk event'i tekrar denesin.
         String eventType = event.getType();
 
-         try {
              // --- Ödeme Başarılı: Checkout Session Tamamlandı ---
              if ("checkout.session.completed".equals(eventType)) {
                  if (stripeObject instanceof Session session) { // Gelen obje Session mı?
@@ -258,36 +301,36 @@ public class PaymentServiceImpl implements PaymentService {
                         // Bu bir ABONELİK ödemesi
                          logger.info("Webhook indicates a SUBSCRIPTION payment (Type: {}) for User ID: {}. Session ID: {}",
                                  targetSubscriptionStr, customerIdStr != null ? customerIdStr : "N/A", session.getId());
+                         SubscriptionType targetSubscription;
+                         Long userId;
                          try {
-                             SubscriptionType targetSubscription = SubscriptionType.valueOf(targetSubscriptionStr.toUpperCase());
+                             targetSubscription = SubscriptionType.valueOf(targetSubscriptionStr.toUpperCase());
                             String userIdStr = session.getMetadata().get("user_id"); // VEYA PaymentIntent meta!
 
                              // PaymentIntent metadata daha güvenilir olabilir sessiondan sonra geldiği için?
                             if(userIdStr == null && session.getPaymentIntentObject() != null && session.getPaymentIntentObject().getMetadata() != null){
                                 userIdStr = session.getPaymentIntentObject().getMetadata().get("user_id");
                              }
-
-                            if (userIdStr != null) {
-                                 // SubscriptionService'i çağır
-                                subscriptionService.activateSubscriptionFromPayment(session.getId(), Long.parseLong(userIdStr), targetSubscription);
-                            } else {
+                            if (userIdStr == null) {
                                 logger.error("[WEBHOOK_SUB_ERROR] User ID missing in metadata for subscription payment. Session ID: {}", session.getId());
-                             }
-                          } catch (IllegalArgumentException e){
-                              logger.error("[WEBHOOK_SUB_ERROR] Invalid target_subscription value '{}' in metadata for Session ID: {}", targetSubscriptionStr, session.getId());
-                           } catch (Exception e) { // activateSubscription içindeki hatalar
-                                logger.error("[WEBHOOK_SUB_ERROR] Error processing subscription activation for Session ID {}: {}", session.getId(), e.getMessage(), e);
+                                return;
                             }
+                            userId = Long.parseLong(userIdStr);
+                          } catch (IllegalArgumentException e){ // NumberFormatException da dahil
+                              logger.error("[WEBHOOK_SUB_ERROR] Invalid subscription metadata (target_subscription: '{}') for Session ID: {}", targetSubscriptionStr, session.getId());
+                              return;
+                           }
+                         // SubscriptionService'i çağır (hatalar kuyruğa kadar fırlatılır)
+                         subscriptionService.activateSubscriptionFromPayment(session.getId(), userId, targetSubscription);
 
                     } else if (orderIdStr != null) {
                          // Bu bir SİPARİŞ ödemesi
                          logger.info("Webhook indicates an ORDER payment (Order ID: {}) for User ID: {}. Session ID: {}",
                                  orderIdStr, customerIdStr != null ? customerIdStr : "N/A", session.getId());
-                         try {
-                             fulfillOrder(Long.parseLong(orderIdStr), session); // Siparişi tamamlama metodunu çağır
-                         } catch (Exception e){ // fulfillOrder içindeki hatalar
-                               logger.error("[WEBHOOK_ORDER_ERROR] Error fulfilling order ID {} from session {}: {}", orderIdStr, session.getId(), e.getMessage(), e);
-                          }
+                         Long orderId = parseOrderId(orderIdStr, session.getId());
+                         if (orderId != null) {
+                             fulfillOrder(orderId, session); // Siparişi tamamlama metodunu çağır
+                         }
 
                      } else {
                          // Ne sipariş ne abonelik? Metadata eksik veya hatalı.
@@ -304,11 +347,10 @@ public class PaymentServiceImpl implements PaymentService {
                     logger.warn("Processing payment_intent.payment_failed for PaymentIntent ID: {}", paymentIntentFailed.getId());
                      String failedOrderIdStr = paymentIntentFailed.getMetadata().get("order_id"); // Sadece siparişler için mi metadata eklemiştik? Kontrol et!
                     if (failedOrderIdStr != null) {
-                        try {
-                             handleFailedPayment(Long.parseLong(failedOrderIdStr), paymentIntentFailed);
-                        } catch (Exception e) {
-                             logger.error("[WEBHOOK_FAILED_PAYMENT_ERROR] Error handling failed payment for Order ID {}: {}", failedOrderIdStr, e.getMessage(), e);
-                         }
+                        Long failedOrderId = parseOrderId(failedOrderIdStr, paymentIntentFailed.getId());
+                        if (failedOrderId != null) {
+                             handleFailedPayment(failedOrderId, paymentIntentFailed);
+                        }
                      } else {
                          logger.error("[WEBHOOK_METADATA_ERROR] Order ID missing in metadata for failed PaymentIntent ID: {}", paymentIntentFailed.getId());
                         // Abonelik başarısız ödemeleri için de benzer bir handle metodu olabilir.
@@ -334,27 +376,31 @@ public class PaymentServiceImpl implements PaymentService {
                     // Aynı siparişin iki kere işlenmemesi için fulfillOrder içindeki idempotency kontrolü önemli.
                     // Veya bu event'i sadece loglayıp checkout.session.completed'i bekleyebiliriz.
                     logger.info("Received payment_intent.succeeded event: PI_ID='{}'. Currently handled by checkout.session.completed.",
-                           ((PaymentIntent)stripeObject).getId());
+                           stripeObject instanceof PaymentIntent paymentIntent ? paymentIntent.getId() : "N/A");
                }
 
             // --- Diğer Event Tipleri ---
              else {
                 logger.warn("STRIPE_WEBHOOK_UNHANDLED: Unhandled event type: {}", eventType);
             }
+    } // processWebhookEvent sonu
 
-        } catch (Exception e) { // Webhook iş mantığı sırasındaki genel hatalar
-            logger.error("STRIPE_WEBHOOK_HANDLER_ERROR: Uncaught error processing Event ID: {}. Type: {}. Error: {}",
-                     event.getId(), eventType, e.getMessage(), e);
-            // Burada 500 hatası dönebiliriz veya loglayıp 200 OK dönerek tekrar denenmesini önleyebiliriz.
-            // Genelde loglayıp 200 dönmek daha iyidir, webhook akışını kesmez.
+    // Metadata'daki sipariş id'si bozuksa tekrar denemenin anlamı yok; loglanır ve null döner
+    private Long parseOrderId(String orderIdStr, String stripeObjectId) {
+        try {
+            return Long.parseLong(orderIdStr);
+        } catch (NumberFormatException e) {
+            logger.error("[WEBHOOK_METADATA_ERROR] Invalid order_id '{}' in metadata for Stripe object: {}", orderIdStr, stripeObjectId);
+            return null;
         }
-    } // handleStripeWebhook sonu
+    }
     // --- Özel (Protected/Private) Metodlar ---
 
     // Ödeme başarılı olduğunda çağrılır (checkout.session.completed)
     @Transactional
     protected void fulfillOrder(Long orderId, @NotNull Session session) {
-        Order order = orderRepository.findById(orderId)
+        // Satır kilidi: bayat sipariş temizliği veya müşteri iptali aynı anda çalışıyorsa onun commit'i beklenir
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElse(null);
 
         if (order == null) {
@@ -370,7 +416,15 @@ public class PaymentServiceImpl implements PaymentService {
             return;
         }
 
+        // İptal edilmiş (örn. ödeme süresi dolup stoğu geri verilmiş) siparişe geç gelen ödeme: sipariş canlandırılmaz,
+        // stok tekrar düşülmez; ödeme kaydedilip sipariş iade için işaretlenir.
+        if (order.getStatus().name().startsWith("CANCELLED")) {
+            flagPaidCancelledOrderForRefund(order, session);
+            return;
+        }
+
         // 1. Sipariş Durumlarını Güncelle
+         OrderStatus previousStatus = order.getStatus();
          order.setStatus(OrderStatus.PROCESSING); // Artık sipariş işleniyor
          order.setPaymentStatus(PaymentStatus.COMPLETED); // Ödeme tamamlandı
         // Opsiyonel: Payment Method'u Stripe olarak set edebiliriz veya daha detaylı (card vb.)
@@ -392,6 +446,13 @@ public class PaymentServiceImpl implements PaymentService {
 
          // 3. Siparişi Kaydet
         Order updatedOrder = orderRepository.save(order);
+        checkoutSessionCache.evictOrder(orderId);
+
+         // Satıcı paneli özetlerine satışı ekle (idempotency kontrolünden sonra: tekrar gelen webhook sayılmaz)
+         sellerOrderService.syncOrderStatus(updatedOrder);
+         sellerAnalyticsService.recordOrderPaid(updatedOrder);
+         adminKpiService.recordOrderPaid(updatedOrder);
+         adminKpiService.recordOrderStatusChange(updatedOrder, previousStatus);
 
          // 4. !!! Sepeti Temizle !!!
         User customer = updatedOrder.getCustomer();
@@ -438,10 +499,49 @@ try {
                  orderId, updatedOrder.getStatus(), updatedOrder.getPaymentStatus());
     }
 
+    // İptal edilmiş siparişin ödemesi alındı: sipariş iptal kalır, sipariş ve Payment kaydı REFUND_REQUIRED olarak işaretlenir.
+    // Bu durum COMPLETED sayılmadığı için admin KPI'larında (canlı ve gece yeniden hesaplamada) ciroya eklenmez; sipariş
+    // iptal edilirken durum değişikliği zaten kaydedildiği için ek analitik olayı gerekmez.
+    private void flagPaidCancelledOrderForRefund(Order order, Session session) {
+        Long orderId = order.getId();
+        if (order.getPaymentStatus() == PaymentStatus.REFUND_REQUIRED) {
+            logger.warn("[REFUND-REQUIRED] Order ID: {} already flagged for refund. Ignoring duplicate webhook (SessionID: {}).", orderId, session.getId());
+            return;
+        }
+        order.setPaymentStatus(PaymentStatus.REFUND_REQUIRED);
+        order.setPaymentMethod("STRIPE");
+
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(BigDecimal.valueOf(session.getAmountTotal()).divide(BigDecimal.valueOf(100)));
+        payment.setPaymentMethod("STRIPE");
+        payment.setStatus(PaymentStatus.REFUND_REQUIRED);
+        payment.setTransactionId(session.getPaymentIntent());
+        payment.setCurrency(session.getCurrency() != null ? session.getCurrency().toUpperCase() : "TRY");
+        payment.setGatewayResponse("REFUND_REQUIRED: paid after order was cancelled (" + order.getStatus() + "). Stripe Session ID: " + session.getId());
+        paymentRepository.save(payment);
+
+        Order updatedOrder = orderRepository.save(order);
+        sellerOrderService.syncOrderStatus(updatedOrder);
+        checkoutSessionCache.evictOrder(orderId);
+
+        try {
+            notificationService.createNotification(
+                    updatedOrder.getCustomer(),
+                    "#" + orderId + " numaralı siparişiniz ödemeniz alınmadan önce iptal edilmişti. Ödemeniz iade edilecektir.",
+                    "/orders/my/" + orderId,
+                    NotificationType.ORDER_UPDATE);
+        } catch (Exception e) {
+            logger.error("[REFUND-REQUIRED] Failed to send refund notification for Order ID {}: {}", orderId, e.getMessage(), e);
+        }
+        logger.error("[REFUND-REQUIRED] Payment received for cancelled Order ID: {} (Status: {}, PaymentIntent: {}). Manual refund required.",
+                orderId, order.getStatus(), session.getPaymentIntent());
+    }
+
     // Ödeme başarısız olduğunda çağrılır (payment_intent.payment_failed)
     @Transactional
     protected void handleFailedPayment(Long orderId, @NotNull PaymentIntent paymentIntent) {
-        Order order = orderRepository.findById(orderId).orElse(null);
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
         if (order == null) {
              logger.error("[PAYMENT-FAILED-ERROR] Order not found with ID {} from failed payment webhook (PaymentIntent ID: {}).", orderId, paymentIntent.getId());
             return;
@@ -453,6 +553,8 @@ try {
              // Opsiyonel: Sipariş durumunu CANCELLED yapabiliriz veya kullanıcıya tekrar deneme şansı vermek için PENDING_PAYMENT'da bırakabiliriz.
             // order.setStatus(OrderStatus.PENDING_PAYMENT); // Tekrar deneyebilsin
             Order updatedOrder = orderRepository.save(order);
+            sellerOrderService.syncOrderStatus(updatedOrder);
+            checkoutSessionCache.evictOrder(orderId); // Tekrar denemede yeni session açılır
 
             // Ödeme kaydı (FAILED)
              Payment payment = new Payment();
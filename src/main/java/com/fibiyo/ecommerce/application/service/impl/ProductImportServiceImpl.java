@@ -0,0 +1,506 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fibiyo.ecommerce.application.cache.CategoryTree;
+import com.fibiyo.ecommerce.application.cache.CategoryTreeCache;
+import com.fibiyo.ecommerce.application.dto.ProductImportResponse;
+import com.fibiyo.ecommerce.application.dto.ProductImportRowError;
+import com.fibiyo.ecommerce.application.dto.ProductRequest;
+import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.exception.ForbiddenException;
+import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.ProductImportService;
+import com.fibiyo.ecommerce.application.util.SlugUtils;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepositoryCustom.NewProductRow;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "price", "stock", "categoryid");
+
+    // İlk deneme düz slug; çakışırsa rastgele son ekli adaylar denenir
+    private static final int MAX_SLUG_ATTEMPTS = 4;
+    private static final int MAX_BASE_SLUG_LENGTH = 240;
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${product.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.import.max-rows:100000}")
+    private int maxRows;
+
+    // Yanıtta dönen hata satırı sınırı (failedCount her zaman tam sayıdır)
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public ProductImportServiceImpl(ProductRepository productRepository, CategoryTreeCache categoryTreeCache,
+                                    UserRepository userRepository, ObjectMapper objectMapper, Validator validator) {
+        this.productRepository = productRepository;
+        this.categoryTreeCache = categoryTreeCache;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    private User getCurrentSeller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            throw new ForbiddenException("Bu işlem için Seller olarak giriş yapmalısınız.");
+        }
+        String username = authentication.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Current user not found: " + username));
+        if (user.getRole() != Role.SELLER) {
+            logger.warn("User '{}' (Role: {}) attempted a seller-only operation.", username, user.getRole());
+            throw new ForbiddenException("Bu işlem için Seller yetkisi gereklidir.");
+        }
+        return user;
+    }
+
+    // Bilinçli olarak @Transactional değil: her chunk kendi kısa transaction'ında yazılır,
+    // böylece 100 bin satırlık bir dosya tek dev transaction/undo log oluşturmaz.
+    @Override
+    public ProductImportResponse importProductsForCurrentSeller(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Yüklenecek dosya seçilmedi.");
+        }
+        User seller = getCurrentSeller();
+        boolean ndjson = isNdjson(file.getOriginalFilename());
+        logger.info("Seller ID: {} started product import. File: '{}', Size: {} bytes, Format: {}",
+                seller.getId(), file.getOriginalFilename(), file.getSize(), ndjson ? "NDJSON" : "CSV");
+
+        ImportRun run = new ImportRun(seller.getId(), categoryTreeCache.get());
+        long startedAt = System.currentTimeMillis();
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            RowSource source = ndjson ? new NdjsonRowSource(reader) : new CsvRowSource(reader);
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            ImportRow row;
+            while ((row = source.next()) != null) {
+                if (run.totalRows >= maxRows) {
+                    run.addError(row.rowNumber(), null, "Dosya en fazla " + maxRows + " satır içerebilir. Kalan satırlar işlenmedi.");
+                    break;
+                }
+                run.totalRows++;
+                PendingRow pending = validate(row, run);
+                if (pending != null) {
+                    chunk.add(pending);
+                }
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, run);
+                    chunk = new ArrayList<>(chunkSize);
+                    logProgress(run, startedAt);
+                }
+            }
+            flushChunk(chunk, run);
+        } catch (IOException e) {
+            logger.error("Product import for seller ID: {} failed while reading file: {}", seller.getId(), e.getMessage(), e);
+            throw new BadRequestException("Dosya okunamadı: " + e.getMessage());
+        }
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        long rowsPerSecond = durationMs > 0 ? run.totalRows * 1000L / durationMs : run.totalRows;
+        logger.info("Product import for seller ID: {} finished in {} ms. Rows: {}, Imported: {}, Failed: {}, Throughput: {} rows/s",
+                seller.getId(), durationMs, run.totalRows, run.importedCount, run.failedCount, rowsPerSecond);
+        return new ProductImportResponse(run.totalRows, run.importedCount, run.failedCount, durationMs, rowsPerSecond,
+                run.failedCount > run.errors.size(), run.errors);
+    }
+
+    private boolean isNdjson(String filename) {
+        if (filename == null) return false;
+        String lower = filename.toLowerCase(Locale.ENGLISH);
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl");
+    }
+
+    private void logProgress(ImportRun run, long startedAt) {
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - startedAt);
+        logger.debug("Product import for seller ID: {} progress. Rows: {}, Imported: {}, Failed: {}, Throughput: {} rows/s",
+                run.sellerId, run.totalRows, run.importedCount, run.failedCount, run.totalRows * 1000L / elapsedMs);
+    }
+
+    // --- Doğrulama ---
+
+    private PendingRow validate(ImportRow row, ImportRun run) {
+        ProductRequest request = row.request();
+        if (row.parseError() != null) {
+            run.addError(row.rowNumber(), request != null ? request.getSku() : null, row.parseError());
+            return null;
+        }
+        request.setSku(StringUtils.hasText(request.getSku()) ? request.getSku().trim() : null);
+        request.setName(request.getName() != null ? request.getName().trim() : null);
+
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            run.addError(row.rowNumber(), request.getSku(), message);
+            return null;
+        }
+        if (!run.categoryTree.contains(request.getCategoryId())) {
+            run.addError(row.rowNumber(), request.getSku(), "Kategori bulunamadı: " + request.getCategoryId());
+            return null;
+        }
+        if (request.getSku() != null && !run.seenSkus.add(request.getSku())) {
+            run.addError(row.rowNumber(), request.getSku(), "SKU dosyada birden fazla kez kullanılmış.");
+            return null;
+        }
+        return new PendingRow(row.rowNumber(), request, baseSlug(request.getName()));
+    }
+
+    private String baseSlug(String name) {
+        String slug = SlugUtils.toSlug(name);
+        if (slug.isEmpty()) {
+            slug = "urun";
+        }
+        return slug.length() > MAX_BASE_SLUG_LENGTH ? slug.substring(0, MAX_BASE_SLUG_LENGTH) : slug;
+    }
+
+    // --- Chunk yazımı ---
+
+    private void flushChunk(List<PendingRow> chunk, ImportRun run) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<PendingRow> rows = rejectExistingSkus(chunk, run);
+        rows = assignSlugs(rows, run);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<NewProductRow> inserts = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            inserts.add(toNewProductRow(row, run, now));
+        }
+        try {
+            run.importedCount += productRepository.insertAllForImport(inserts);
+        } catch (DataIntegrityViolationException e) {
+            // Kontrol ile yazma arasında başka bir istek aynı slug/SKU'yu almış olabilir; hatalı satırı bulmak için tek tek dene
+            logger.warn("Batch insert failed for seller ID: {} ({} rows). Retrying row by row. Cause: {}",
+                    run.sellerId, rows.size(), e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    run.importedCount += productRepository.insertAllForImport(List.of(inserts.get(i)));
+                } catch (DataIntegrityViolationException rowError) {
+                    run.addError(rows.get(i).rowNumber(), rows.get(i).request().getSku(),
+                            "Ürün kaydedilemedi (slug veya SKU başka bir ürün tarafından kullanılıyor).");
+                }
+            }
+        }
+    }
+
+    private List<PendingRow> rejectExistingSkus(List<PendingRow> chunk, ImportRun run) {
+        Set<String> skus = chunk.stream()
+                .map(row -> row.request().getSku())
+                .filter(sku -> sku != null)
+                .collect(Collectors.toSet());
+        if (skus.isEmpty()) {
+            return chunk;
+        }
+        Set<String> existing = new HashSet<>(productRepository.findExistingSkus(skus));
+        if (existing.isEmpty()) {
+            return chunk;
+        }
+        List<PendingRow> accepted = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (row.request().getSku() != null && existing.contains(row.request().getSku())) {
+                run.addError(row.rowNumber(), row.request().getSku(), "Bu SKU başka bir ürün tarafından kullanılıyor.");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Her turda chunk'taki tüm aday slug'lar tek bir IN sorgusuyla kontrol edilir.
+     * Dosya içinde veya veritabanında çakışan satırlar bir sonraki turda rastgele son ekli adayla tekrar denenir.
+     */
+    private List<PendingRow> assignSlugs(List<PendingRow> rows, ImportRun run) {
+        List<PendingRow> assigned = new ArrayList<>(rows.size());
+        List<PendingRow> unresolved = rows;
+        for (int attempt = 0; attempt < MAX_SLUG_ATTEMPTS && !unresolved.isEmpty(); attempt++) {
+            Map<String, PendingRow> candidates = new LinkedHashMap<>();
+            List<PendingRow> retry = new ArrayList<>();
+            for (PendingRow row : unresolved) {
+                String candidate = attempt == 0 ? row.baseSlug()
+                        : row.baseSlug() + "-" + UUID.randomUUID().toString().substring(0, 6);
+                if (run.reservedSlugs.contains(candidate) || candidates.putIfAbsent(candidate, row) != null) {
+                    retry.add(row);
+                }
+            }
+            Set<String> existing = candidates.isEmpty() ? Set.of()
+                    : new HashSet<>(productRepository.findExistingSlugs(candidates.keySet()));
+            for (Map.Entry<String, PendingRow> entry : candidates.entrySet()) {
+                if (existing.contains(entry.getKey())) {
+                    retry.add(entry.getValue());
+                } else {
+                    entry.getValue().slug = entry.getKey();
+                    run.reservedSlugs.add(entry.getKey());
+                    assigned.add(entry.getValue());
+                }
+            }
+            unresolved = retry;
+        }
+        for (PendingRow row : unresolved) {
+            run.addError(row.rowNumber(), row.request().getSku(), "Ürün için benzersiz bir slug üretilemedi. Lütfen adı değiştirin.");
+        }
+        return assigned;
+    }
+
+    private NewProductRow toNewProductRow(PendingRow row, ImportRun run, LocalDateTime now) {
+        ProductRequest request = row.request();
+        return new NewProductRow(request.getName(), row.slug, request.getDescription(), request.getPrice(),
+                request.getStock(), request.getSku(), StringUtils.hasText(request.getImageUrl()) ? request.getImageUrl() : null,
+                request.getCategoryId(), run.categoryTree.findMaterializedPath(request.getCategoryId()), run.sellerId, now);
+    }
+
+    // --- Okuyucular ---
+
+    private record ImportRow(long rowNumber, ProductRequest request, String parseError) {
+    }
+
+    private interface RowSource {
+        /** Sonraki satırı döner; dosya bittiyse null. */
+        ImportRow next() throws IOException;
+    }
+
+    private class NdjsonRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRowSource(Reader reader) {
+            this.reader = (BufferedReader) reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRow(lineNumber, objectMapper.readValue(line, ProductRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(lineNumber, null, "Geçersiz JSON satırı: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class CsvRowSource implements RowSource {
+
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long rowNumber;
+
+        CsvRowSource(Reader reader) throws IOException {
+            this.csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new BadRequestException("CSV dosyası boş.");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // "categoryId", "category_id" ve "Category Id" aynı kolon sayılır
+                columns.put(header.get(i).replace("_", "").replace(" ", "").toLowerCase(Locale.ENGLISH), i);
+            }
+            List<String> missing = REQUIRED_CSV_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("CSV başlığında zorunlu kolon(lar) eksik: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> record;
+            do {
+                record = csv.readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank()); // Boş satırları atla
+            rowNumber++;
+
+            ProductRequest request = new ProductRequest();
+            request.setName(value(record, "name"));
+            request.setDescription(value(record, "description"));
+            request.setSku(value(record, "sku"));
+            request.setImageUrl(value(record, "imageurl"));
+            try {
+                String price = value(record, "price");
+                request.setPrice(price != null ? new BigDecimal(price) : null);
+                String stock = value(record, "stock");
+                request.setStock(stock != null ? Integer.valueOf(stock) : null);
+                String categoryId = value(record, "categoryid");
+                request.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(rowNumber, request, "Sayısal alan geçersiz (price, stock veya categoryId).");
+            }
+            return new ImportRow(rowNumber, request, null);
+        }
+
+        private String value(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // RFC 4180 CSV okuyucu: tırnaklı alanlar, "" kaçışı ve tırnak içindeki satır sonları desteklenir
+    private static class CsvReader {
+
+        private final Reader reader;
+        private boolean firstChar = true;
+        private boolean eof;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> readRecord() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (firstChar) {
+                    firstChar = false;
+                    if (c == '\uFEFF') continue; // UTF-8 BOM (Excel)
+                }
+                any = true;
+                if (inQuotes) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (next != -1) reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            eof = true;
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // --- İçe aktarma durumu ---
+
+    private static class PendingRow {
+        private final long rowNumber;
+        private final ProductRequest request;
+        private final String baseSlug;
+        private String slug;
+
+        PendingRow(long rowNumber, ProductRequest request, String baseSlug) {
+            this.rowNumber = rowNumber;
+            this.request = request;
+            this.baseSlug = baseSlug;
+        }
+
+        long rowNumber() { return rowNumber; }
+        ProductRequest request() { return request; }
+        String baseSlug() { return baseSlug; }
+    }
+
+    private class ImportRun {
+        private final Long sellerId;
+        private final CategoryTree categoryTree; // İçe aktarma boyunca aynı görüntü kullanılır
+        private final Set<String> seenSkus = new HashSet<>();
+        // Bu içe aktarmada atanmış slug'lar (farklı chunk'lardaki aynı isimli ürünler için)
+        private final Set<String> reservedSlugs = new HashSet<>();
+        private final List<ProductImportRowError> errors = new ArrayList<>();
+        private int totalRows;
+        private int importedCount;
+        private int failedCount;
+
+        ImportRun(Long sellerId, CategoryTree categoryTree) {
+            this.sellerId = sellerId;
+            this.categoryTree = categoryTree;
+        }
+
+        void addError(long rowNumber, String sku, String message) {
+            failedCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportRowError(rowNumber, sku, message));
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
 import com.fibiyo.ecommerce.application.mapper.ProductMapper;
+import com.fibiyo.ecommerce.application.service.CategoryService;
 import com.fibiyo.ecommerce.application.service.ProductService;
 import com.fibiyo.ecommerce.application.service.StorageService;
 import com.fibiyo.ecommerce.application.util.SlugUtils;
@@ -43,6 +44,7 @@ public class ProductServiceImpl implements ProductService {
     private final ProductMapper      productMapper;
     private final StorageService storageService; // StorageService'i inject et
 private final NotificationService notificationService; // bu eklenecek
+    private final CategoryService categoryService; // Kategori filtresi alt kategorileri de kapsar
 
     /* ---------- Helper ---------- */
 
@@ -65,6 +67,12 @@ private final NotificationService notificationService; // bu eklenecek
                         "Kullanıcı veritabanında bulunamadı: " + username));
     }
 
+    // Kategori + alt kategoriler; path varsa index'li önek araması, yoksa alt ağaç id listesi
+    private Specification<Product> inCategorySubtree(Long categoryId) {
+        String path = categoryService.findMaterializedPath(categoryId);
+        return path != null ? hasCategoryPathPrefix(path) : hasCategoryIn(categoryService.findSubtreeCategoryIds(categoryId));
+    }
+
     private void assertAdmin() {
         if (getCurrentUser().getRole() != Role.ADMIN)
             throw new ForbiddenException("Bu işlem için Admin yetkisi gerekli.");
@@ -126,7 +134,7 @@ private final NotificationService notificationService; // bu eklenecek
     @Override @Transactional(readOnly = true)
     public Page<ProductResponse> findActiveAndApprovedProducts(Pageable pageable, Long categoryId, String searchTerm) {
         Specification<Product> spec = Specification.where(isActive(true)).and(isApproved(true));
-        if (categoryId != null) spec = spec.and(hasCategory(categoryId));
+        if (categoryId != null) spec = spec.and(inCategorySubtree(categoryId));
         if (searchTerm != null && !searchTerm.isBlank()) spec = spec.and(nameOrDescriptionContains(searchTerm));
         return productRepository.findAll(spec, pageable).map(productMapper::toProductResponse);
     }
@@ -164,6 +172,7 @@ private final NotificationService notificationService; // bu eklenecek
         product.setSlug(SlugUtils.toSlug(req.getName()));
         product.setSeller(seller);
         product.setCategory(category);
+        product.setCategoryPath(category.getPath());
         product.setApproved(false);
         product.setActive(true);
 
@@ -176,7 +185,8 @@ private final NotificationService notificationService; // bu eklenecek
                 .orElseThrow(() -> new ResourceNotFoundException("Ürün bulunamadı: " + id));
         assertOwnerOrAdmin(product);
 
-        if (!product.getCategory().getId().equals(req.getCategoryId())) {
+        boolean categoryChanged = !product.getCategory().getId().equals(req.getCategoryId());
+        if (categoryChanged) {
             Category cat = categoryRepository.findById(req.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Kategori bulunamadı: " + req.getCategoryId()));
             product.setCategory(cat);
@@ -193,8 +203,12 @@ if (!product.getName().equals(req.getName())) {
     product.setSlug(newSlug);
 }
 
-
-        return productMapper.toProductResponse(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        if (categoryChanged) {
+            productRepository.syncCategoryPath(saved.getId());
+            saved.setCategoryPath(saved.getCategory().getPath());
+        }
+        return productMapper.toProductResponse(saved);
     }
 
     @Override @Transactional
@@ -231,7 +245,7 @@ if (!product.getName().equals(req.getName())) {
         assertAdmin();
         Specification<Product> spec = Specification.where(null);
         if (sellerId  != null) spec = spec.and(hasSeller(sellerId));
-        if (categoryId!= null) spec = spec.and(hasCategory(categoryId));
+        if (categoryId!= null) spec = spec.and(inCategorySubtree(categoryId));
         if (approved  != null) spec = spec.and(isApproved(approved));
         if (active    != null) spec = spec.and(isActive(active));
         if (searchTerm!= null && !searchTerm.isBlank())
@@ -1,17 +1,23 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationRequest;
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationResponse;
 import com.fibiyo.ecommerce.application.dto.ReviewRequest;
 import com.fibiyo.ecommerce.application.dto.ReviewResponse;
+import com.fibiyo.ecommerce.application.dto.ReviewSummaryResponse;
+import com.fibiyo.ecommerce.application.cache.ReviewSummaryCache;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
 import com.fibiyo.ecommerce.application.mapper.ReviewMapper;
 import com.fibiyo.ecommerce.application.service.ReviewService;
+import com.fibiyo.ecommerce.domain.entity.JobCheckpoint;
 import com.fibiyo.ecommerce.domain.entity.Product;
 import com.fibiyo.ecommerce.domain.entity.Review;
 import com.fibiyo.ecommerce.domain.entity.User;
 import com.fibiyo.ecommerce.domain.enums.OrderStatus;
 import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.JobCheckpointRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.ReviewRepository;
@@ -25,15 +31,32 @@ import org.springframework.data.jpa.domain.Specification; // Specification impor
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 // Review Specifications
 import static com.fibiyo.ecommerce.infrastructure.persistence.specification.ReviewSpecifications.*;
@@ -49,6 +72,21 @@ public class ReviewServiceImpl implements ReviewService {
     private final UserRepository userRepository;
     private final ReviewMapper reviewMapper;
     private final OrderRepository orderRepository;
+    private final ReviewSummaryCache reviewSummaryCache;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    private static final String RATING_BACKFILL_JOB_NAME = "product-rating-totals-backfill";
+
+    @Value("${review.rating.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    // Toplu moderasyonda tek UPDATE/DELETE ifadesine giren yorum sayısı
+    @Value("${review.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    // Filtre ile yapılan toplu moderasyonda tek istekte işlenecek en fazla yorum sayısı
+    @Value("${review.bulk.max-reviews:50000}")
+    private int bulkMaxReviews;
 
      // Opsiyonel: private final OrderRepository orderRepository;
 
@@ -71,12 +109,14 @@ public class ReviewServiceImpl implements ReviewService {
 
 
     @Autowired
-    public ReviewServiceImpl(ReviewRepository reviewRepository, ProductRepository productRepository, UserRepository userRepository, ReviewMapper reviewMapper, OrderRepository orderRepository) {
+    public ReviewServiceImpl(ReviewRepository reviewRepository, ProductRepository productRepository, UserRepository userRepository, ReviewMapper reviewMapper, OrderRepository orderRepository, ReviewSummaryCache reviewSummaryCache, JobCheckpointRepository jobCheckpointRepository) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.reviewMapper = reviewMapper;
         this.orderRepository = orderRepository; // OrderRepository'yi ekle
+        this.reviewSummaryCache = reviewSummaryCache;
+        this.jobCheckpointRepository = jobCheckpointRepository;
     }
 
     @Override
@@ -109,8 +149,10 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
         Review savedReview = reviewRepository.save(review);
         logger.info("Review added successfully with ID: {} for product ID: {} by customer ID: {}", savedReview.getId(), productId, customer.getId());
 
-         // Ürünün ortalama puanını ve yorum sayısını güncelle
-        updateProductRatingAndCount(productId);
+         // Ürünün ortalama puanını ve yorum sayısını güncelle (yorum onaylı eklendiyse)
+        if (savedReview.isApproved()) {
+            applyRatingChange(productId, savedReview.getRating(), 1);
+        }
 
 
         return reviewMapper.toReviewResponse(savedReview);
@@ -134,14 +176,24 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
         reviewRepository.delete(review);
          logger.info("Review ID: {} deleted successfully by customer ID: {}", reviewId, customer.getId());
 
-        // Ürünün ortalama puanını ve yorum sayısını güncelle
-        updateProductRatingAndCount(productId);
+        // Ürünün ortalama puanını ve yorum sayısını güncelle (sadece onaylı yorumlar sayılıyor)
+        if (review.isApproved()) {
+            applyRatingChange(productId, review.getRating(), -1);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ReviewResponse> findReviewsByProduct(Long productId, Pageable pageable, boolean approvedOnly) {
          logger.debug("Finding reviews for product ID: {}. ApprovedOnly: {}", productId, approvedOnly);
+        // Ürün sayfasının ilk yorum sayfası önbellekteki özetten verilir (yorum sorgusu çalışmaz)
+        if (approvedOnly && isServableFromSummary(pageable)) {
+            ReviewSummaryResponse summary = getReviewSummary(productId);
+            List<ReviewResponse> latest = summary.getLatestReviews();
+            List<ReviewResponse> content = latest.subList(0, Math.min(pageable.getPageSize(), latest.size()));
+            return new PageImpl<>(content, pageable, summary.getReviewCount());
+        }
+
         // Ürün var mı kontrolü (opsiyonel ama iyi pratik)
         if (!productRepository.existsById(productId)) {
              throw new ResourceNotFoundException("Product not found with id: " + productId);
@@ -160,23 +212,151 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
         return reviewPage.map(reviewMapper::toReviewResponse);
     }
 
-    // Ürünün rating ve count alanlarını güncelleyen private metot
-    // Ürün puan/sayısını güncelleyen private metot (Önceki adımda eklenmişti, tekrar kontrol et)
-    private void updateProductRatingAndCount(Long productId) {
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewSummaryResponse getReviewSummary(Long productId) {
+        Optional<ReviewSummaryResponse> cached = reviewSummaryCache.get(productId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long generation = reviewSummaryCache.currentGeneration();
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+
+        // Yıldız dağılımı ürün satırındaki sayaçlardan gelir; yorumlar taranmaz.
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        histogram.put(5, product.getRating5Count());
+        histogram.put(4, product.getRating4Count());
+        histogram.put(3, product.getRating3Count());
+        histogram.put(2, product.getRating2Count());
+        histogram.put(1, product.getRating1Count());
+
+        List<Review> latest = reviewRepository.findByProductIdAndIsApprovedTrueOrderByCreatedAtDesc(
+                productId, PageRequest.of(0, reviewSummaryCache.getPageSize()));
+
+        ReviewSummaryResponse summary = new ReviewSummaryResponse(
+                productId,
+                product.getAverageRating(),
+                product.getReviewCount(),
+                histogram,
+                List.copyOf(reviewMapper.toReviewResponseList(latest)));
+        reviewSummaryCache.putIfUnchanged(productId, summary, generation);
+        logger.debug("Review summary loaded for product ID: {} ({} latest reviews)", productId, latest.size());
+        return summary;
+    }
+
+    // İlk sayfa, önbellek sayfa boyutunu aşmıyor ve varsayılan sıralamada (en yeni önce) ise özetten servis edilebilir
+    private boolean isServableFromSummary(Pageable pageable) {
+        if (pageable.getPageNumber() != 0 || pageable.getPageSize() > reviewSummaryCache.getPageSize()) {
+            return false;
+        }
+        Sort sort = pageable.getSort();
+        return sort.isUnsorted() || sort.equals(Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    // Ürünün puan toplamı/sayısı/yıldız dağılımı/ortalamasını tek atomik UPDATE ile artımlı günceller (O(1)).
+    // Tüm yorumlar üzerinde AVG/COUNT çalıştırılmaz; olası sapmaları reconcileProductRatings() düzeltir.
+    private void applyRatingChange(Long productId, Byte rating, int countDelta) {
+        if (productId == null || rating == null) return;
+        int updated = productRepository.applyRatingDelta(productId, rating, countDelta);
+        if (updated == 0) {
+            logger.warn("Rating delta could not be applied. Product ID: {} not found.", productId);
+        } else {
+            logger.debug("Applied rating delta (rating: {}, count: {}) to product ID: {}", rating, countDelta, productId);
+        }
+        reviewSummaryCache.evictAfterCommit(productId);
+    }
+
+    // --- System Operations ---
+
+    // rating_sum ve yıldız dağılımı sütunları sonradan eklendiği için mevcut ürünlerde 0 başlar; ilk artımlı güncelleme
+    // yanlış ortalama yazmasın diye ilk açılışta tüm ürünler bir kez yorum tablosundan onarılır (job_checkpoints ile bir kere).
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatingTotalsOnStartup() {
+        boolean done = jobCheckpointRepository.findById(RATING_BACKFILL_JOB_NAME)
+                .filter(checkpoint -> JobCheckpoint.STATUS_COMPLETED.equals(checkpoint.getStatus()))
+                .isPresent();
+        if (done) return;
         try {
-            BigDecimal avgRating = reviewRepository.calculateAverageRatingByProductId(productId);
-            long reviewCount = reviewRepository.countByProductIdAndIsApprovedTrue(productId);
-            productRepository.findById(productId).ifPresent(product -> { // ifPresent ile null check daha temiz
-                product.setAverageRating(avgRating != null ? avgRating : BigDecimal.ZERO);
-                product.setReviewCount((int) reviewCount);
-                productRepository.save(product); // Transaction içinde olduğumuz için save yeterli
-                logger.info("Updated product ID: {} rating to {} and review count to {}", productId, product.getAverageRating(), product.getReviewCount());
-            });
-        } catch (Exception e) {
-            logger.error("Error updating product rating/count for product ID {}: {}", productId, e.getMessage(), e);
+            LocalDateTime startedAt = LocalDateTime.now();
+            int repaired = reconcileProductRatings();
+            LocalDateTime finishedAt = LocalDateTime.now();
+            JobCheckpoint checkpoint = new JobCheckpoint();
+            checkpoint.setJobName(RATING_BACKFILL_JOB_NAME);
+            checkpoint.setStatus(JobCheckpoint.STATUS_COMPLETED);
+            checkpoint.setCutoff(startedAt);
+            checkpoint.setProcessedCount(repaired);
+            checkpoint.setStartedAt(startedAt);
+            checkpoint.setUpdatedAt(finishedAt);
+            checkpoint.setFinishedAt(finishedAt);
+            jobCheckpointRepository.save(checkpoint);
+            logger.info("Product rating totals backfill finished. Repaired: {}", repaired);
+        } catch (RuntimeException e) {
+            // Checkpoint yazılmadığı için bir sonraki açılışta tekrar denenir; gece mutabakatı da aynı onarımı yapar
+            logger.error("Product rating totals backfill failed: {}", e.getMessage(), e);
         }
     }
 
+    @Override
+    @Scheduled(cron = "${review.rating.reconcile-cron:0 15 3 * * ?}") // Varsayılan: her gece 03:15
+    public int reconcileProductRatings() {
+        // Bilerek @Transactional değil: her parti kendi kısa transaction'ında okunur ve onarılır.
+        logger.info("Running scheduled task: Reconciling product rating totals (batch size: {})", reconcileBatchSize);
+        long startedAt = System.currentTimeMillis();
+        PageRequest batch = PageRequest.of(0, reconcileBatchSize);
+        long afterId = 0L;
+        int scanned = 0;
+        int repaired = 0;
+
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findRatingTotalsAfterId(afterId, batch);
+            if (rows.isEmpty()) break;
+
+            // productId -> [sum, count, 1..5 yıldız sayıları]
+            Map<Long, long[]> stored = new HashMap<>();
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                long[] totals = new long[7];
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] = ((Number) row[i + 1]).longValue();
+                }
+                stored.put(afterId, totals);
+            }
+
+            Map<Long, long[]> actual = new HashMap<>();
+            for (Object[] row : reviewRepository.countApprovedRatingsByProductIds(stored.keySet())) {
+                int rating = ((Number) row[1]).intValue();
+                long count = ((Number) row[2]).longValue();
+                long[] totals = actual.computeIfAbsent((Long) row[0], id -> new long[7]);
+                totals[0] += rating * count;
+                totals[1] += count;
+                totals[rating + 1] += count;
+            }
+
+            List<Long> drifted = new ArrayList<>();
+            stored.forEach((productId, totals) -> {
+                if (!Arrays.equals(totals, actual.getOrDefault(productId, new long[7]))) {
+                    drifted.add(productId);
+                }
+            });
+
+            if (!drifted.isEmpty()) {
+                // Onarım, yorum tablosundan tek ifadede yeniden hesaplar; arada eklenen yorumlar kaybolmaz.
+                productRepository.recalculateRatingTotals(drifted);
+                drifted.forEach(reviewSummaryCache::evict);
+                repaired += drifted.size();
+                logger.warn("Repaired rating drift for {} products: {}", drifted.size(), drifted);
+            }
+            scanned += rows.size();
+        } while (rows.size() == reconcileBatchSize);
+
+        logger.info("Rating reconciliation finished in {} ms. Scanned: {}, Repaired: {}",
+                System.currentTimeMillis() - startedAt, scanned, repaired);
+        return repaired;
+    }
+
     // --- Admin Operations Implementation ---
 
   
@@ -213,14 +393,14 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
          // 3. İşlemi Yap ve Kaydet
-         boolean needsRatingUpdate = !review.isApproved(); // Önceden onaylı değilse puanı güncellemek gerekecek
+         // Koşullu UPDATE: sadece durum gerçekten değiştiyse 1 döner (eşzamanlı onaylarda puan iki kez eklenmez)
+         boolean needsRatingUpdate = reviewRepository.updateApprovalIfChanged(reviewId, true) == 1;
          if(needsRatingUpdate){
               review.setApproved(true);
-             review = reviewRepository.save(review); // Güncellenmiş review'ı alalım
              logger.info("Review ID: {} approved by admin.", reviewId);
              // 4. Ürün Puanını Güncelle (Eğer durum değiştiyse)
              if(review.getProduct() != null) {
-                 updateProductRatingAndCount(review.getProduct().getId());
+                 applyRatingChange(review.getProduct().getId(), review.getRating(), 1);
              }
           } else {
               logger.warn("Review ID: {} was already approved.", reviewId); // Zaten onaylıysa tekrar işlem yapma
@@ -240,14 +420,14 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
          // 3. İşlemi Yap ve Kaydet
-        boolean needsRatingUpdate = review.isApproved(); // Önceden onaylı ise puanı güncellemek gerekecek
+        // Koşullu UPDATE: sadece önceden onaylı ise 1 döner
+        boolean needsRatingUpdate = reviewRepository.updateApprovalIfChanged(reviewId, false) == 1;
         if (needsRatingUpdate) {
             review.setApproved(false); // Onayı kaldır
-             review = reviewRepository.save(review);
             logger.info("Review ID: {} disapproved by admin.", reviewId);
              // 4. Ürün Puanını Güncelle (Eğer durum değiştiyse)
             if(review.getProduct() != null){
-                 updateProductRatingAndCount(review.getProduct().getId());
+                 applyRatingChange(review.getProduct().getId(), review.getRating(), -1);
             }
         } else {
              logger.warn("Review ID: {} was already disapproved.", reviewId); // Zaten onaylı değilse tekrar işlem yapma
@@ -278,9 +458,136 @@ orderRepository.findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrd
 
          // 4. Ürün Puanını Güncelle (Eğer silinen yorum onaylı idiyse ve ürün varsa)
         if(productId != null && review.isApproved()){
-             updateProductRatingAndCount(productId);
+             applyRatingChange(productId, review.getRating(), -1);
          }
     }
 
-}
 
+    // --- Bulk Moderation ---
+
+    private enum BulkModerationAction { APPROVE, REJECT, DELETE }
+
+    @Override
+    public ReviewBulkModerationResponse bulkApproveReviews(ReviewBulkModerationRequest request) {
+        return bulkModerate(request, BulkModerationAction.APPROVE);
+    }
+
+    @Override
+    public ReviewBulkModerationResponse bulkRejectReviews(ReviewBulkModerationRequest request) {
+        return bulkModerate(request, BulkModerationAction.REJECT);
+    }
+
+    @Override
+    public ReviewBulkModerationResponse bulkDeleteReviews(ReviewBulkModerationRequest request) {
+        return bulkModerate(request, BulkModerationAction.DELETE);
+    }
+
+    // Bilerek @Transactional değil: her parça (chunk) kendi kısa transaction'ında tek bir set-based UPDATE/DELETE ile işlenir.
+    // Puanlar yorum başına değil, işlem sonunda etkilenen her ürün için bir kez yeniden hesaplanır.
+    private ReviewBulkModerationResponse bulkModerate(ReviewBulkModerationRequest request, BulkModerationAction action) {
+        long startedAt = System.currentTimeMillis();
+        Set<Long> affectedProductIds = new HashSet<>();
+        int matched = 0;
+        int affected = 0;
+
+        if (request.getReviewIds() != null && !request.getReviewIds().isEmpty()) {
+            List<Long> reviewIds = request.getReviewIds().stream().filter(Objects::nonNull).distinct().toList();
+            logger.info("Admin bulk {} requested for {} review IDs", action, reviewIds.size());
+            for (int from = 0; from < reviewIds.size(); from += bulkChunkSize) {
+                List<Long> chunk = reviewIds.subList(from, Math.min(from + bulkChunkSize, reviewIds.size()));
+                matched += chunk.size();
+                affected += moderateChunk(chunk, action, affectedProductIds);
+                logBulkProgress(action, matched, reviewIds.size(), affected);
+            }
+        } else {
+            Specification<Review> filter = buildBulkModerationFilter(request);
+            logger.info("Admin bulk {} requested by filter: {}", action, request);
+            long afterId = 0L;
+            List<Review> page;
+            do {
+                page = reviewRepository.findBy(filter.and(idGreaterThan(afterId)),
+                        query -> query.sortBy(Sort.by("id")).limit(bulkChunkSize).all());
+                if (page.isEmpty()) break;
+                List<Long> chunk = page.stream().map(Review::getId).toList();
+                afterId = chunk.get(chunk.size() - 1);
+                matched += chunk.size();
+                affected += moderateChunk(chunk, action, affectedProductIds);
+                logBulkProgress(action, matched, -1, affected);
+            } while (page.size() == bulkChunkSize && matched < bulkMaxReviews);
+
+            if (matched >= bulkMaxReviews) {
+                logger.warn("Bulk {} stopped at max reviews per request ({}). Repeat the request for the remaining reviews.", action, bulkMaxReviews);
+            }
+        }
+
+        // Etkilenen her ürün için tek seferlik, yorum tablosundan mutlak yeniden hesaplama
+        List<Long> productIds = new ArrayList<>(affectedProductIds);
+        for (int from = 0; from < productIds.size(); from += bulkChunkSize) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + bulkChunkSize, productIds.size()));
+            productRepository.recalculateRatingTotals(chunk);
+            chunk.forEach(reviewSummaryCache::evict);
+        }
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        logger.info("Admin bulk {} finished in {} ms. Matched: {}, Affected: {}, Products recalculated: {}",
+                action, durationMs, matched, affected, productIds.size());
+        return new ReviewBulkModerationResponse(action.name(), matched, affected, productIds.size(), durationMs);
+    }
+
+    private int moderateChunk(List<Long> reviewIds, BulkModerationAction action, Set<Long> affectedProductIds) {
+        // Ürünler değişiklikten önce toplanır (silinen yorumların ürünü sonradan bulunamaz)
+        List<Long> productIds = reviewRepository.findDistinctProductIdsByReviewIds(reviewIds);
+        int changed = switch (action) {
+            case APPROVE -> reviewRepository.updateApprovalForIds(reviewIds, true);
+            case REJECT -> reviewRepository.updateApprovalForIds(reviewIds, false);
+            case DELETE -> reviewRepository.deleteAllByIdIn(reviewIds);
+        };
+        if (changed > 0) {
+            affectedProductIds.addAll(productIds);
+        }
+        return changed;
+    }
+
+    private void logBulkProgress(BulkModerationAction action, int processed, int total, int affected) {
+        if (total > 0) {
+            logger.info("Bulk {} progress: {}/{} reviews processed, {} affected", action, processed, total, affected);
+        } else {
+            logger.info("Bulk {} progress: {} reviews processed, {} affected", action, processed, affected);
+        }
+    }
+
+    private Specification<Review> buildBulkModerationFilter(ReviewBulkModerationRequest request) {
+        Specification<Review> spec = Specification.where(null);
+        boolean hasCriteria = false;
+        if (request.getIsApproved() != null) {
+            spec = spec.and(ReviewSpecifications.isApproved(request.getIsApproved()));
+            hasCriteria = true;
+        }
+        if (request.getProductId() != null) {
+            spec = spec.and(hasProduct(request.getProductId()));
+            hasCriteria = true;
+        }
+        if (request.getCustomerId() != null) {
+            spec = spec.and(hasCustomer(request.getCustomerId()));
+            hasCriteria = true;
+        }
+        if (request.getRating() != null) {
+            spec = spec.and(hasRating(request.getRating()));
+            hasCriteria = true;
+        }
+        if (request.getCreatedAfter() != null) {
+            spec = spec.and(createdAfter(request.getCreatedAfter()));
+            hasCriteria = true;
+        }
+        if (request.getCreatedBefore() != null) {
+            spec = spec.and(createdBefore(request.getCreatedBefore()));
+            hasCriteria = true;
+        }
+        // Yanlışlıkla tüm yorumları etkilememek için boş filtreye izin verilmez
+        if (!hasCriteria) {
+            throw new BadRequestException("Toplu işlem için yorum ID'leri veya en az bir filtre belirtilmelidir.");
+        }
+        return spec;
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.service.ReviewSummarizationService;
+import com.fibiyo.ecommerce.application.service.ReviewSummarizer;
+import com.fibiyo.ecommerce.domain.entity.JobCheckpoint;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.JobCheckpointRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository.ReviewSummaryUpdate;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ReviewSummarizationServiceImpl implements ReviewSummarizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSummarizationServiceImpl.class);
+
+    // Token sayısı için kaba tahmin: ~4 karakter = 1 token
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final ReviewSummarizer reviewSummarizer;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${ai.review-summary.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.review-summary.batch-size:50}")
+    private int batchSize;
+
+    @Value("${ai.review-summary.max-products-per-run:1000}")
+    private int maxProductsPerRun;
+
+    // Aynı anda LLM'e giden en fazla istek (ürün) sayısı
+    @Value("${ai.review-summary.concurrency:4}")
+    private int concurrency;
+
+    @Value("${ai.review-summary.requests-per-minute:60}")
+    private int requestsPerMinute;
+
+    // Özetlenecek en yeni onaylı yorum sayısı (ürün başına)
+    @Value("${ai.review-summary.max-reviews-per-product:200}")
+    private int maxReviewsPerProduct;
+
+    @Value("${ai.review-summary.max-review-chars:1000}")
+    private int maxReviewChars;
+
+    // Tek bir LLM isteğine konulacak yorum metninin token bütçesi
+    @Value("${ai.review-summary.chunk-token-budget:3000}")
+    private int chunkTokenBudget;
+
+    private static final String VERSION_BACKFILL_JOB_NAME = "review-summary-version-backfill";
+    private static final int VERSION_BACKFILL_CHUNK_SIZE = 2000;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Object rateLock = new Object();
+    private long nextPermitAtNanos;
+
+    @Autowired
+    public ReviewSummarizationServiceImpl(ProductRepository productRepository, ReviewRepository reviewRepository,
+                                          ReviewSummarizer reviewSummarizer, JobCheckpointRepository jobCheckpointRepository) {
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.reviewSummarizer = reviewSummarizer;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    // Sürüm sütunları eklenmeden önce yorum almış ürünlerde reviews_version = review_summary_version = 0 olduğundan
+    // özetleme işi onları eskimiş görmez. İlk açılışta bu ürünlerin sürümü bir kez artırılır (job_checkpoints ile bir kere).
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReviewVersionsOnStartup() {
+        boolean done = jobCheckpointRepository.findById(VERSION_BACKFILL_JOB_NAME)
+                .filter(checkpoint -> JobCheckpoint.STATUS_COMPLETED.equals(checkpoint.getStatus()))
+                .isPresent();
+        if (done) return;
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long maxId = productRepository.findMaxId();
+            int marked = 0;
+            int chunks = 0;
+            for (long fromId = 0; fromId < maxId; fromId += VERSION_BACKFILL_CHUNK_SIZE) {
+                marked += productRepository.markUnversionedReviewedProductsRange(fromId, Math.min(fromId + VERSION_BACKFILL_CHUNK_SIZE, maxId));
+                chunks++;
+            }
+            LocalDateTime finishedAt = LocalDateTime.now();
+            JobCheckpoint checkpoint = new JobCheckpoint();
+            checkpoint.setJobName(VERSION_BACKFILL_JOB_NAME);
+            checkpoint.setStatus(JobCheckpoint.STATUS_COMPLETED);
+            checkpoint.setCutoff(startedAt);
+            checkpoint.setLastId(maxId);
+            checkpoint.setProcessedCount(marked);
+            checkpoint.setChunkCount(chunks);
+            checkpoint.setStartedAt(startedAt);
+            checkpoint.setUpdatedAt(finishedAt);
+            checkpoint.setFinishedAt(finishedAt);
+            jobCheckpointRepository.save(checkpoint);
+            logger.info("Review summary version backfill finished. Products queued for summarization: {}", marked);
+        } catch (RuntimeException e) {
+            // Checkpoint yazılmadığı için bir sonraki açılışta tekrar denenir (UPDATE sadece 0 sürümlere dokunur)
+            logger.error("Review summary version backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Bilinçli olarak @Transactional değil: LLM çağrıları sürerken veritabanı bağlantısı/transaction tutulmaz.
+    @Override
+    @Scheduled(cron = "${ai.review-summary.cron:0 0 5 * * ?}") // Varsayılan: her gece 05:00
+    public int summarizeChangedProducts() {
+        if (!enabled) {
+            logger.debug("AI review summarization is disabled (ai.review-summary.enabled=false).");
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("AI review summarization is already running. Skipping this trigger.");
+            return 0;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "review-summary-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int processed = 0;
+        int updated = 0;
+        int failed = 0;
+        try {
+            PageRequest page = PageRequest.of(0, batchSize);
+            long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = productRepository.findProductsWithStaleReviewSummaryAfterId(afterId, page);
+                if (rows.isEmpty()) break;
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+
+                List<Future<ReviewSummaryUpdate>> futures = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    Long productId = (Long) row[0];
+                    String productName = (String) row[1];
+                    long sourceVersion = (Long) row[2];
+                    futures.add(executor.submit(() -> summarizeProduct(productId, productName, sourceVersion)));
+                }
+
+                List<ReviewSummaryUpdate> updates = new ArrayList<>(futures.size());
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        updates.add(futures.get(i).get());
+                    } catch (ExecutionException e) {
+                        // Watermark ilerlemediği için ürün bir sonraki çalıştırmada tekrar denenir.
+                        failed++;
+                        logger.warn("Could not summarize reviews for product ID: {}: {}", rows.get(i)[0], e.getCause().getMessage());
+                    }
+                }
+                processed += rows.size();
+                if (!updates.isEmpty()) {
+                    updated += productRepository.updateReviewSummaries(updates);
+                }
+                logger.debug("AI review summarization batch finished. Products up to ID: {}, Updated so far: {}", afterId, updated);
+            } while (rows.size() == batchSize && processed < maxProductsPerRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("AI review summarization interrupted. Remaining products will be handled next run.");
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+
+        logger.info("AI review summarization finished in {} ms. Processed: {}, Updated: {}, Failed: {}",
+                System.currentTimeMillis() - startedAt, processed, updated, failed);
+        return updated;
+    }
+
+    // Worker thread'de çalışır: yorumları okur, token bütçesine göre parçalar ve LLM'i çağırır.
+    private ReviewSummaryUpdate summarizeProduct(Long productId, String productName, long sourceVersion) throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        for (Object[] row : reviewRepository.findApprovedRatingsAndCommentsByProductId(productId, PageRequest.of(0, maxReviewsPerProduct))) {
+            String comment = (String) row[1];
+            if (!StringUtils.hasText(comment)) continue;
+            comment = comment.strip();
+            if (comment.length() > maxReviewChars) {
+                comment = comment.substring(0, maxReviewChars) + "...";
+            }
+            lines.add(row[0] + "/5: " + comment.replace('\n', ' '));
+        }
+
+        // Metinli onaylı yorum kalmadıysa eski özet temizlenir.
+        if (lines.isEmpty()) {
+            return new ReviewSummaryUpdate(productId, null, sourceVersion);
+        }
+
+        List<String> partials = new ArrayList<>();
+        for (List<String> chunk : chunkByTokenBudget(lines)) {
+            acquirePermit();
+            String partial = reviewSummarizer.summarizeReviews(productName, chunk);
+            if (StringUtils.hasText(partial)) {
+                partials.add(partial);
+            }
+        }
+        if (partials.isEmpty()) {
+            throw new IllegalStateException("Summarizer returned no content");
+        }
+
+        String summary;
+        if (partials.size() == 1) {
+            summary = partials.get(0);
+        } else {
+            acquirePermit();
+            summary = reviewSummarizer.mergeSummaries(productName, partials);
+            if (!StringUtils.hasText(summary)) {
+                throw new IllegalStateException("Summarizer returned no content while merging " + partials.size() + " partial summaries");
+            }
+        }
+        logger.debug("Summarized {} reviews in {} chunk(s) for product ID: {}", lines.size(), partials.size(), productId);
+        return new ReviewSummaryUpdate(productId, summary, sourceVersion);
+    }
+
+    private List<List<String>> chunkByTokenBudget(List<String> lines) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (String line : lines) {
+            int tokens = line.length() / CHARS_PER_TOKEN + 1;
+            if (!current.isEmpty() && currentTokens + tokens > chunkTokenBudget) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(line);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    // Tüm worker'lar arasında paylaşılan basit hız limiti: istekler arasında eşit aralık bırakır.
+    private void acquirePermit() throws InterruptedException {
+        if (requestsPerMinute <= 0) return;
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        long waitNanos;
+        synchronized (rateLock) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(now, nextPermitAtNanos);
+            nextPermitAtNanos = permitAt + intervalNanos;
+            waitNanos = permitAt - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.dto.SellerDailyStatsResponse;
+import com.fibiyo.ecommerce.application.dto.SellerDashboardResponse;
+import com.fibiyo.ecommerce.application.dto.SellerHourlyStatsResponse;
+import com.fibiyo.ecommerce.application.dto.SellerTopProductResponse;
+import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.exception.ForbiddenException;
+import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.SellerAnalyticsService;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.OrderItem;
+import com.fibiyo.ecommerce.domain.entity.Product;
+import com.fibiyo.ecommerce.domain.entity.SellerDailyStats;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.SellerDailyStatsRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.SellerHourlyStatsRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.SellerProductDailyStatsRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+public class SellerAnalyticsServiceImpl implements SellerAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerAnalyticsServiceImpl.class);
+
+    private final SellerDailyStatsRepository dailyStatsRepository;
+    private final SellerHourlyStatsRepository hourlyStatsRepository;
+    private final SellerProductDailyStatsRepository productDailyStatsRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+
+    @Value("${seller.dashboard.max-range-days:366}")
+    private int maxRangeDays;
+
+    @Value("${seller.dashboard.hourly-retention-days:7}")
+    private int hourlyRetentionDays;
+
+    @Autowired
+    public SellerAnalyticsServiceImpl(SellerDailyStatsRepository dailyStatsRepository,
+                                      SellerHourlyStatsRepository hourlyStatsRepository,
+                                      SellerProductDailyStatsRepository productDailyStatsRepository,
+                                      ProductRepository productRepository,
+                                      UserRepository userRepository) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.hourlyStatsRepository = hourlyStatsRepository;
+        this.productDailyStatsRepository = productDailyStatsRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            throw new ForbiddenException("Erişim için kimlik doğrulaması gerekli.");
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Current authenticated user not found: " + username));
+    }
+
+    // --- Yazma tarafı (durum geçişlerinden çağrılır) ---
+
+    @Override
+    @Transactional
+    public void recordOrderPaid(Order order) {
+        Map<Long, SellerDelta> deltas = groupBySeller(order);
+        if (deltas.isEmpty()) return;
+
+        LocalDateTime bookedAt = bookingTime(order);
+        LocalDate day = bookedAt.toLocalDate();
+        LocalDateTime hour = bookedAt.truncatedTo(ChronoUnit.HOURS);
+        boolean keepHourly = isWithinHourlyRetention(hour);
+        deltas.forEach((sellerId, delta) -> {
+            dailyStatsRepository.upsertDelta(sellerId, day, delta.units, delta.revenue, 1, 0, BigDecimal.ZERO);
+            if (keepHourly) {
+                hourlyStatsRepository.upsertDelta(sellerId, hour, delta.units, delta.revenue, 1);
+            }
+            delta.productTotals.forEach((productId, product) ->
+                    productDailyStatsRepository.upsertDelta(sellerId, day, productId, product.units, product.revenue));
+        });
+        logger.debug("Seller stats updated for paid Order ID: {} ({} sellers)", order.getId(), deltas.size());
+    }
+
+    // İade, satışın yazıldığı aynı kovaya (sipariş tarihi) işlenir. Günlük satırda ciro korunur ve iade ayrı
+    // sütunlarda tutulur (net = ciro - iade); saatlik ve ürün bazlı satırlarda satış geri alınır.
+    @Override
+    @Transactional
+    public void recordOrderRefunded(Order order) {
+        Map<Long, SellerDelta> deltas = groupBySeller(order);
+        if (deltas.isEmpty()) return;
+
+        LocalDateTime bookedAt = bookingTime(order);
+        LocalDate day = bookedAt.toLocalDate();
+        LocalDateTime hour = bookedAt.truncatedTo(ChronoUnit.HOURS);
+        boolean keepHourly = isWithinHourlyRetention(hour);
+        deltas.forEach((sellerId, delta) -> {
+            dailyStatsRepository.upsertDelta(sellerId, day, 0, BigDecimal.ZERO, 0, 1, delta.revenue);
+            if (keepHourly) {
+                hourlyStatsRepository.upsertDelta(sellerId, hour, -delta.units, delta.revenue.negate(), -1);
+            }
+            delta.productTotals.forEach((productId, product) ->
+                    productDailyStatsRepository.upsertDelta(sellerId, day, productId, -product.units, product.revenue.negate()));
+        });
+        logger.debug("Seller stats updated for refunded Order ID: {} ({} sellers)", order.getId(), deltas.size());
+    }
+
+    // Tüm özet tabloları sipariş tarihine göre kovalanır; ödeme ve iade aynı satırları günceller
+    private LocalDateTime bookingTime(Order order) {
+        return order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now();
+    }
+
+    // Saklama süresinden eski saatlik satırlar zaten temizlendiği için yeniden oluşturulmaz
+    private boolean isWithinHourlyRetention(LocalDateTime hour) {
+        return !hour.isBefore(LocalDateTime.now().minusDays(hourlyRetentionDays));
+    }
+
+    private Map<Long, SellerDelta> groupBySeller(Order order) {
+        // TreeMap: özet satırları hep satıcı ID sırasıyla kilitlenir, çok satıcılı eşzamanlı siparişlerde deadlock oluşmaz
+        Map<Long, SellerDelta> deltas = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product == null || product.getSeller() == null) {
+                logger.warn("Order item ID: {} of Order ID: {} has no product/seller. Skipping in seller stats.", item.getId(), order.getId());
+                continue;
+            }
+            BigDecimal itemTotal = item.getPriceAtPurchase().multiply(BigDecimal.valueOf(item.getQuantity()));
+            deltas.computeIfAbsent(product.getSeller().getId(), id -> new SellerDelta())
+                    .add(product.getId(), item.getQuantity(), itemTotal);
+        }
+        return deltas;
+    }
+
+    // --- Okuma tarafı (panel) ---
+
+    @Override
+    @Transactional(readOnly = true)
+    public SellerDashboardResponse getMyDashboard(LocalDate from, LocalDate to, int topProductLimit) {
+        User seller = getCurrentUser();
+        if (to == null) to = LocalDate.now();
+        if (from == null) from = to.minusDays(29);
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Başlangıç tarihi bitiş tarihinden sonra olamaz.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BadRequestException("Tarih aralığı en fazla " + maxRangeDays + " gün olabilir.");
+        }
+        logger.debug("Building seller dashboard for seller ID: {} ({} - {})", seller.getId(), from, to);
+
+        SellerDashboardResponse response = new SellerDashboardResponse();
+        response.setFrom(from);
+        response.setTo(to);
+
+        int units = 0, orders = 0, refundedOrders = 0;
+        BigDecimal revenue = BigDecimal.ZERO, refundedAmount = BigDecimal.ZERO;
+        List<SellerDailyStatsResponse> daily = new ArrayList<>();
+        for (SellerDailyStats row : dailyStatsRepository.findBySellerIdAndStatDateBetweenOrderByStatDateAsc(seller.getId(), from, to)) {
+            units += row.getUnitsSold();
+            orders += row.getOrderCount();
+            refundedOrders += row.getRefundedOrderCount();
+            revenue = revenue.add(row.getRevenue());
+            refundedAmount = refundedAmount.add(row.getRefundedAmount());
+            daily.add(new SellerDailyStatsResponse(row.getStatDate(), row.getUnitsSold(), row.getRevenue(),
+                    row.getOrderCount(), row.getRefundedOrderCount(), row.getRefundedAmount()));
+        }
+        response.setUnitsSold(units);
+        response.setRevenue(revenue);
+        response.setOrderCount(orders);
+        response.setRefundedOrderCount(refundedOrders);
+        response.setRefundedAmount(refundedAmount);
+        response.setNetRevenue(revenue.subtract(refundedAmount));
+        response.setRefundRate(orders == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(refundedOrders).divide(BigDecimal.valueOf(orders), 4, RoundingMode.HALF_UP));
+        response.setDaily(daily);
+
+        LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(23);
+        response.setLast24Hours(hourlyStatsRepository.findBySellerIdAndStatHourGreaterThanEqualOrderByStatHourAsc(seller.getId(), since)
+                .stream()
+                .map(row -> new SellerHourlyStatsResponse(row.getStatHour(), row.getUnitsSold(), row.getRevenue(), row.getOrderCount()))
+                .collect(Collectors.toList()));
+
+        response.setTopProducts(findTopProducts(seller.getId(), from, to, topProductLimit));
+        return response;
+    }
+
+    private List<SellerTopProductResponse> findTopProducts(Long sellerId, LocalDate from, LocalDate to, int limit) {
+        List<Object[]> rows = productDailyStatsRepository.findTopProducts(sellerId, from, to, PageRequest.of(0, Math.max(1, limit)));
+        if (rows.isEmpty()) return List.of();
+
+        // Ürün isimleri tek sorguda
+        List<Long> productIds = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        Map<Long, String> names = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName, (a, b) -> a));
+        return rows.stream()
+                .map(row -> new SellerTopProductResponse((Long) row[0], names.get((Long) row[0]),
+                        ((Number) row[1]).longValue(), (BigDecimal) row[2]))
+                .collect(Collectors.toList());
+    }
+
+    // Saatlik satırlar sadece kısa süreli grafik için tutulur; eski satırlar temizlenir.
+    @Scheduled(cron = "${seller.dashboard.hourly-cleanup-cron:0 15 3 * * ?}")
+    @Transactional
+    public void purgeOldHourlyStats() {
+        int deleted = hourlyStatsRepository.deleteOlderThan(LocalDateTime.now().minusDays(hourlyRetentionDays));
+        logger.info("Purged {} seller hourly stat rows older than {} days.", deleted, hourlyRetentionDays);
+    }
+
+    // Bir satıcının sipariş içindeki payı
+    private static class SellerDelta {
+        private int units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private final Map<Long, ProductDelta> productTotals = new TreeMap<>();
+
+        void add(Long productId, int quantity, BigDecimal amount) {
+            units += quantity;
+            revenue = revenue.add(amount);
+            ProductDelta product = productTotals.computeIfAbsent(productId, id -> new ProductDelta());
+            product.units += quantity;
+            product.revenue = product.revenue.add(amount);
+        }
+    }
+
+    private static class ProductDelta {
+        private int units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+}
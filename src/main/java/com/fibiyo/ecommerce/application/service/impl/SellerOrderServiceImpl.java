@@ -1 +1,218 @@
 package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.dto.SellerOrderLineResponse;
+import com.fibiyo.ecommerce.application.exception.ForbiddenException;
+import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.SellerOrderService;
+import com.fibiyo.ecommerce.domain.entity.JobCheckpoint;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.OrderItem;
+import com.fibiyo.ecommerce.domain.entity.Product;
+import com.fibiyo.ecommerce.domain.entity.SellerOrderLine;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.JobCheckpointRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.SellerOrderLineRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SellerOrderServiceImpl implements SellerOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerOrderServiceImpl.class);
+
+    private final SellerOrderLineRepository sellerOrderLineRepository;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    private static final String BACKFILL_JOB_NAME = "seller-order-lines-backfill";
+    // MySQL DATETIME üst sınırı; keyset sayfalamada ilk sayfanın "öncesi"
+    private static final LocalDateTime MAX_ORDER_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Value("${seller.order-lines.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // >= 0 ise geriye dönük doldurma bu sipariş ID'sinden sonrası için zorla çalıştırılır (INSERT IGNORE, tekrar güvenli)
+    @Value("${seller.order-lines.backfill-from-order-id:-1}")
+    private long backfillFromOrderId;
+
+    // Geriye dönük doldurmada tek INSERT ... SELECT'in kapsadığı sipariş sayısı
+    @Value("${seller.order-lines.backfill-chunk-size:2000}")
+    private int backfillChunkSize;
+
+    @Autowired
+    public SellerOrderServiceImpl(SellerOrderLineRepository sellerOrderLineRepository,
+                                  OrderRepository orderRepository,
+                                  UserRepository userRepository,
+                                  JobCheckpointRepository jobCheckpointRepository) {
+        this.sellerOrderLineRepository = sellerOrderLineRepository;
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            throw new ForbiddenException("Erişim için kimlik doğrulaması gerekli.");
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Current authenticated user not found: " + username));
+    }
+
+    @Override
+    @Transactional
+    public void recordOrderCreated(Order order) {
+        List<SellerOrderLine> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product == null || product.getSeller() == null) {
+                logger.warn("Order item ID: {} of Order ID: {} has no product/seller. Not added to seller order lines.", item.getId(), order.getId());
+                continue;
+            }
+            SellerOrderLine line = new SellerOrderLine();
+            line.setOrderItemId(item.getId());
+            line.setSellerId(product.getSeller().getId());
+            line.setOrderId(order.getId());
+            line.setCustomerId(order.getCustomer().getId());
+            line.setProductId(product.getId());
+            line.setProductName(product.getName());
+            line.setQuantity(item.getQuantity());
+            line.setPriceAtPurchase(item.getPriceAtPurchase());
+            line.setLineTotal(item.getPriceAtPurchase().multiply(BigDecimal.valueOf(item.getQuantity())));
+            line.setOrderStatus(order.getStatus());
+            line.setPaymentStatus(order.getPaymentStatus());
+            line.setOrderDate(order.getOrderDate());
+            lines.add(line);
+        }
+        sellerOrderLineRepository.saveAll(lines);
+        logger.debug("{} seller order lines created for Order ID: {}", lines.size(), order.getId());
+    }
+
+    @Override
+    @Transactional
+    public void syncOrderStatus(Order order) {
+        int updated = sellerOrderLineRepository.updateStatusByOrderId(order.getId(), order.getStatus(), order.getPaymentStatus());
+        logger.debug("Synced status {} / {} to {} seller order lines of Order ID: {}",
+                order.getStatus(), order.getPaymentStatus(), updated, order.getId());
+    }
+
+    @Override
+    @Transactional
+    public void syncOrderStatuses(List<Long> orderIds, OrderStatus status) {
+        if (orderIds.isEmpty()) return;
+        int updated = sellerOrderLineRepository.updateOrderStatusByOrderIds(orderIds, status);
+        logger.debug("Synced status {} to {} seller order lines of {} orders", status, updated, orderIds.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SellerOrderLineResponse> findMyOrderLines(Pageable pageable, OrderStatus status) {
+        User seller = getCurrentUser();
+        logger.debug("Fetching order lines for seller ID: {}. Status Filter: {}", seller.getId(), status);
+        // Sıralama sorguda sabit (orderDate DESC, orderId DESC); indeks sırasıyla okunur
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<SellerOrderLine> lines = status == null
+                ? sellerOrderLineRepository.findBySellerIdOrderByOrderDateDescOrderIdDescOrderItemIdDesc(seller.getId(), page)
+                : sellerOrderLineRepository.findBySellerIdAndOrderStatusOrderByOrderDateDescOrderIdDescOrderItemIdDesc(seller.getId(), status, page);
+        return lines.map(line -> new SellerOrderLineResponse(line.getOrderId(), line.getOrderItemId(), line.getProductId(),
+                line.getProductName(), line.getQuantity(), line.getPriceAtPurchase(), line.getLineTotal(),
+                line.getOrderStatus(), line.getPaymentStatus(), line.getOrderDate()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findOrderIdsForSeller(Long sellerId, OrderStatus status, LocalDateTime beforeOrderDate, Long beforeOrderId, int limit) {
+        // İlk sayfa: keyset koşulu her siparişi kapsayan üst sınırla çalıştırılır (tek sorgu şekli, indeks aralığı aynı)
+        LocalDateTime beforeDate = beforeOrderDate != null ? beforeOrderDate : MAX_ORDER_DATE;
+        Long beforeId = beforeOrderDate != null && beforeOrderId != null ? beforeOrderId : Long.MAX_VALUE;
+        Pageable page = PageRequest.of(0, limit);
+        List<Object[]> keys = status == null
+                ? sellerOrderLineRepository.findOrderKeysBySellerIdBefore(sellerId, beforeDate, beforeId, page)
+                : sellerOrderLineRepository.findOrderKeysBySellerIdAndStatusBefore(sellerId, status, beforeDate, beforeId, page);
+        return keys.stream().map(key -> (Long) key[1]).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean sellerHasItemsInOrder(Long sellerId, Long orderId) {
+        return sellerOrderLineRepository.existsByOrderIdAndSellerId(orderId, sellerId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) return;
+        try {
+            backfillMissingLines();
+        } catch (RuntimeException e) {
+            logger.error("Seller order lines backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Bilinçli olarak @Transactional değil: her sipariş aralığı kendi kısa transaction'ında eklenir.
+    // İlerleme job_checkpoints'te tutulur: ilk çalıştırma tüm siparişleri tarar (okuma modelinin MAX(order_id)'si yeni
+    // siparişlerden geldiği için eski siparişlerin eksik olup olmadığını göstermez), sonrakiler kaldığı yerden devam eder.
+    @Override
+    public int backfillMissingLines() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(BACKFILL_JOB_NAME).orElseGet(() -> {
+            JobCheckpoint created = new JobCheckpoint();
+            created.setJobName(BACKFILL_JOB_NAME);
+            created.setStartedAt(LocalDateTime.now());
+            return created;
+        });
+        long afterOrderId = backfillFromOrderId >= 0 ? backfillFromOrderId : checkpoint.getLastId();
+        long maxOrderId = orderRepository.findMaxId();
+        if (afterOrderId >= maxOrderId) {
+            return 0;
+        }
+        logger.info("Backfilling seller order lines for orders {} - {}", afterOrderId + 1, maxOrderId);
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setStatus(JobCheckpoint.STATUS_RUNNING);
+        checkpoint.setCutoff(now);
+        checkpoint.setLastId(afterOrderId);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(null);
+        checkpoint = jobCheckpointRepository.save(checkpoint);
+
+        int inserted = 0;
+        while (afterOrderId < maxOrderId) {
+            long upTo = Math.min(afterOrderId + backfillChunkSize, maxOrderId);
+            int chunkInserted = sellerOrderLineRepository.backfillOrderRange(afterOrderId, upTo);
+            inserted += chunkInserted;
+            afterOrderId = upTo;
+            // INSERT IGNORE tekrar güvenli: checkpoint kaydedilmeden kesilirse aralık bir sonraki çalıştırmada yeniden eklenir
+            checkpoint.setLastId(afterOrderId);
+            checkpoint.setProcessedCount(checkpoint.getProcessedCount() + chunkInserted);
+            checkpoint.setChunkCount(checkpoint.getChunkCount() + 1);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpoint = jobCheckpointRepository.save(checkpoint);
+        }
+        LocalDateTime finishedAt = LocalDateTime.now();
+        checkpoint.setStatus(JobCheckpoint.STATUS_COMPLETED);
+        checkpoint.setUpdatedAt(finishedAt);
+        checkpoint.setFinishedAt(finishedAt);
+        jobCheckpointRepository.save(checkpoint);
+        logger.info("Seller order lines backfill finished. Inserted {} lines.", inserted);
+        return inserted;
+    }
+}
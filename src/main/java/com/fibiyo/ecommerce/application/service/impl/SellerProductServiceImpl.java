@@ -131,6 +131,7 @@ public class SellerProductServiceImpl implements SellerProductService {
         product.setSlug(slug);
         product.setSeller(currentSeller);
         product.setCategory(category);
+        product.setCategoryPath(category.getPath()); // Alt ağaç filtresi için denormalize kopya
         product.setApproved(false); // Onay bekler
         product.setActive(true);    // Aktif başlar
 
@@ -145,7 +146,8 @@ public class SellerProductServiceImpl implements SellerProductService {
          Product existingProduct = findProductByIdAndCheckOwnership(productId);
          logger.info("Seller ID: {} updating product ID: {}", existingProduct.getSeller().getId(), productId);
 
-         if (!Objects.equals(existingProduct.getCategory().getId(), productRequest.getCategoryId())) {
+         boolean categoryChanged = !Objects.equals(existingProduct.getCategory().getId(), productRequest.getCategoryId());
+         if (categoryChanged) {
             Category newCategory = categoryRepository.findById(productRequest.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("New category not found with id: " + productRequest.getCategoryId()));
             existingProduct.setCategory(newCategory);
@@ -162,6 +164,10 @@ public class SellerProductServiceImpl implements SellerProductService {
           existingProduct.setApproved(false);
 
         Product updatedProduct = productRepository.save(existingProduct);
+        if (categoryChanged) {
+            productRepository.syncCategoryPath(updatedProduct.getId());
+            updatedProduct.setCategoryPath(updatedProduct.getCategory().getPath());
+        }
         logger.info("Product ID {} updated by seller ID: {}", updatedProduct.getId(), updatedProduct.getSeller().getId());
         return productMapper.toProductResponse(updatedProduct);
     }
@@ -0,0 +1,207 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.service.NotificationPushService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class SseNotificationPushServiceImpl implements NotificationPushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseNotificationPushServiceImpl.class);
+
+    // userId -> açık bağlantılar, açılış sırasıyla (aynı kullanıcı birden fazla sekme/cihazdan bağlanabilir)
+    private final Map<Long, Deque<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    // Boşta bekleyen bağlantılar thread tutmaz; sadece gönderilecek olay olduğunda bu havuzdan bir thread kullanılır.
+    private final ExecutorService sender;
+
+    @Value("${notification.push.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    // Bağlantı başına bekleyen en fazla olay; dolarsa en eski olay atılır (yavaş istemci diğerlerini yavaşlatmaz)
+    @Value("${notification.push.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${notification.push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${notification.push.max-connections:50000}")
+    private int maxConnections;
+
+    public SseNotificationPushServiceImpl(@Value("${notification.push.sender-threads:4}") int senderThreads) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        if (connectionCount.get() >= maxConnections) {
+            // Limit aşıldıysa bağlantı hemen kapatılır; istemci retry süresi sonra tekrar dener
+            logger.warn("SSE connection limit ({}) reached. Rejecting stream for user ID: {}", maxConnections, userId);
+            SseEmitter rejected = new SseEmitter(0L);
+            rejected.complete();
+            return rejected;
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Connection connection = new Connection(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        // compute/computeIfPresent anahtar bazında atomiktir; eşzamanlı kapanan bağlantı yeni kaydı silemez
+        Deque<Connection> userConnections = connections.compute(userId, (id, existing) -> {
+            Deque<Connection> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(connection);
+            return deque;
+        });
+        connectionCount.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(ex -> remove(connection));
+
+        // Kullanıcı başına bağlantı sınırı: fazlası varsa en eski bağlantılar kapatılır (deque başı en eskidir)
+        if (userConnections.size() > maxConnectionsPerUser) {
+            Iterator<Connection> iterator = userConnections.iterator();
+            while (iterator.hasNext() && userConnections.size() > maxConnectionsPerUser) {
+                Connection oldest = iterator.next();
+                if (oldest != connection) {
+                    oldest.emitter.complete();
+                    remove(oldest);
+                }
+            }
+        }
+
+        logger.debug("SSE stream opened for user ID: {}. Active connections: {}", userId, connectionCount.get());
+        return emitter;
+    }
+
+    @Override
+    public void pushToUser(Long userId, String eventName, Object payload) {
+        Deque<Connection> userConnections = connections.get(userId);
+        if (userConnections == null || userConnections.isEmpty()) {
+            return; // Kullanıcı bu node'a bağlı değil
+        }
+        for (Connection connection : userConnections) {
+            enqueue(connection, SseEmitter.event().name(eventName).data(payload));
+        }
+    }
+
+    @Override
+    public Set<Long> getConnectedUserIds() {
+        return new HashSet<>(connections.keySet());
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return connectionCount.get();
+    }
+
+    // Proxy/load balancer'ların boşta bağlantıyı kapatmaması ve ölü bağlantıların tespiti için
+    @Scheduled(fixedDelayString = "${notification.push.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        for (Deque<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                // Sırada bekleyen olay varsa ayrıca heartbeat gerekmez
+                if (connection.buffer.isEmpty()) {
+                    enqueue(connection, SseEmitter.event().comment("hb"));
+                }
+            }
+        }
+        logger.trace("SSE heartbeat sent. Active connections: {}, Dropped events so far: {}", connectionCount.get(), droppedEvents.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Closing {} SSE connections.", connectionCount.get());
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> connection.emitter.complete()));
+        connections.clear();
+        sender.shutdownNow();
+    }
+
+    private void enqueue(Connection connection, SseEmitter.SseEventBuilder event) {
+        while (!connection.buffer.offer(event)) {
+            // Tampon dolu: en eski olayı at (istemci yeniden bağlandığında okunmamış sayısını zaten alır)
+            if (connection.buffer.poll() != null) {
+                droppedEvents.incrementAndGet();
+            }
+        }
+        if (connection.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                connection.draining.set(false); // Uygulama kapanıyor
+            }
+        }
+    }
+
+    // Bir bağlantının tamponunu sırayla boşaltır; aynı bağlantı için aynı anda tek drain çalışır.
+    private void drain(Connection connection) {
+        do {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = connection.buffer.poll()) != null) {
+                    connection.emitter.send(event);
+                }
+            } catch (Exception e) {
+                // IOException (istemci kopmuş) veya IllegalStateException (emitter tamamlanmış)
+                logger.debug("SSE send failed for user ID: {}. Closing connection: {}", connection.userId, e.getMessage());
+                connection.buffer.clear();
+                remove(connection);
+                connection.emitter.completeWithError(e);
+                return;
+            } finally {
+                connection.draining.set(false);
+            }
+            // draining bırakıldıktan sonra eklenen olay varsa ve başka drain başlamadıysa devam et
+        } while (!connection.buffer.isEmpty() && connection.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Connection connection) {
+        AtomicBoolean removed = new AtomicBoolean(false);
+        connections.computeIfPresent(connection.userId, (id, deque) -> {
+            removed.set(deque.remove(connection));
+            return deque.isEmpty() ? null : deque;
+        });
+        if (removed.get()) {
+            connectionCount.decrementAndGet();
+            logger.debug("SSE stream closed for user ID: {}. Active connections: {}", connection.userId, connectionCount.get());
+        }
+    }
+
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private Connection(Long userId, SseEmitter emitter, ArrayBlockingQueue<SseEmitter.SseEventBuilder> buffer) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
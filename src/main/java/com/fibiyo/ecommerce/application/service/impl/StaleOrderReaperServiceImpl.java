@@ -0,0 +1,250 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.cache.CheckoutSessionCache;
+import com.fibiyo.ecommerce.application.dto.StaleOrderReaperRunResponse;
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
+import com.fibiyo.ecommerce.application.service.NotificationIngestService;
+import com.fibiyo.ecommerce.application.service.SellerOrderService;
+import com.fibiyo.ecommerce.application.service.StaleOrderReaperService;
+import com.fibiyo.ecommerce.domain.entity.JobCheckpoint;
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponCodeRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.JobCheckpointRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderItemRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class StaleOrderReaperServiceImpl implements StaleOrderReaperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleOrderReaperServiceImpl.class);
+
+    private static final String REAPER_JOB_NAME = "stale-order-reaper";
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final OrderStatus REAPED_STATUS = OrderStatus.CANCELLED_BY_ADMIN; // Sistem iptali
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final CouponRepository couponRepository;
+    private final CouponCodeRepository couponCodeRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final SellerOrderService sellerOrderService;
+    private final AdminKpiService adminKpiService;
+    private final NotificationIngestService notificationIngestService;
+    private final CheckoutSessionCache checkoutSessionCache;
+    private final TransactionTemplate chunkTransaction;
+
+    // PaymentServiceImpl de aynı değeri kullanır: süresi TTL'i aşacak bir Checkout Session açılmaz
+    @Value("${order.pending-payment.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${order.reaper.chunk-size:500}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile StaleOrderReaperRunResponse lastRun;
+
+    private final AtomicLong totalCancelledOrders = new AtomicLong();
+    private final AtomicLong totalReclaimedUnits = new AtomicLong();
+
+    @Autowired
+    public StaleOrderReaperServiceImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                                       ProductRepository productRepository, CouponRepository couponRepository,
+                                       CouponCodeRepository couponCodeRepository, JobCheckpointRepository jobCheckpointRepository,
+                                       SellerOrderService sellerOrderService, AdminKpiService adminKpiService,
+                                       NotificationIngestService notificationIngestService, CheckoutSessionCache checkoutSessionCache,
+                                       PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.couponRepository = couponRepository;
+        this.couponCodeRepository = couponCodeRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.sellerOrderService = sellerOrderService;
+        this.adminKpiService = adminKpiService;
+        this.notificationIngestService = notificationIngestService;
+        this.checkoutSessionCache = checkoutSessionCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${order.reaper.interval-ms:300000}", initialDelayString = "${order.reaper.interval-ms:300000}")
+    public void reapStaleOrders() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Stale order reaper is already running. Skipping this trigger.");
+            return;
+        }
+        try {
+            runReaperJob();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public StaleOrderReaperRunResponse getLastRun() {
+        StaleOrderReaperRunResponse run = lastRun;
+        if (run != null) return run;
+        // Bu instance henüz çalıştırmadıysa kalıcı checkpoint'ten özet (geri dönen adet bilinmez)
+        return jobCheckpointRepository.findById(REAPER_JOB_NAME)
+                .map(cp -> new StaleOrderReaperRunResponse(cp.getStartedAt(), cp.getFinishedAt(), cp.getCutoff(), false,
+                        cp.getChunkCount(), cp.getProcessedCount(), 0, 0, 0, totalCancelledOrders.get(), totalReclaimedUnits.get()))
+                .orElse(null);
+    }
+
+    // Parça parça iptal: her parça kendi kısa transaction'ında siparişleri kilitler, stoğu/kuponları/okuma modellerini toplu
+    // UPDATE'lerle günceller ve checkpoint'i ilerletir. Ödeme webhook'u (fulfillOrder) ve iptal yolları siparişi
+    // OrderRepository.findByIdForUpdate ile kilitleyerek okur; aynı siparişte hangisi önce commit ederse diğeri güncel durumu görür.
+    // Temizlik önce kazanırsa geç gelen ödeme siparişi canlandırmaz, iade için işaretler.
+    private void runReaperJob() {
+        long startedAtMs = System.currentTimeMillis();
+        RunStart start = chunkTransaction.execute(status -> startOrResumeRun());
+        JobCheckpoint checkpoint = start.checkpoint();
+        boolean resumed = start.resumed();
+        logger.debug("Running scheduled task: Cancelling orders pending payment since before {} (resumed: {}, chunk size: {})",
+                checkpoint.getCutoff(), resumed, chunkSize);
+
+        long maxChunkMs = 0;
+        long cancelledThisRun = 0;
+        long reclaimedThisRun = 0;
+        while (true) {
+            long chunkStartedAt = System.currentTimeMillis();
+            ChunkResult chunk = chunkTransaction.execute(status -> reapNextChunk(checkpoint));
+            if (chunk == null || chunk.rows().isEmpty()) break;
+
+            long chunkMs = System.currentTimeMillis() - chunkStartedAt;
+            maxChunkMs = Math.max(maxChunkMs, chunkMs);
+            cancelledThisRun += chunk.cancelled();
+            reclaimedThisRun += chunk.reclaimedUnits();
+            totalCancelledOrders.addAndGet(chunk.cancelled());
+            totalReclaimedUnits.addAndGet(chunk.reclaimedUnits());
+            logger.info("Stale order reaper chunk {} cancelled {} orders and returned {} units to stock in {} ms.",
+                    checkpoint.getChunkCount(), chunk.cancelled(), chunk.reclaimedUnits(), chunkMs);
+
+            afterChunkCommitted(chunk.rows());
+            lastRun = new StaleOrderReaperRunResponse(checkpoint.getStartedAt(), null, checkpoint.getCutoff(), resumed,
+                    checkpoint.getChunkCount(), checkpoint.getProcessedCount(), reclaimedThisRun,
+                    System.currentTimeMillis() - startedAtMs, maxChunkMs, totalCancelledOrders.get(), totalReclaimedUnits.get());
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        checkpoint.setStatus(JobCheckpoint.STATUS_COMPLETED);
+        checkpoint.setFinishedAt(finishedAt);
+        checkpoint.setUpdatedAt(finishedAt);
+        chunkTransaction.executeWithoutResult(status -> jobCheckpointRepository.save(checkpoint));
+
+        long totalDurationMs = System.currentTimeMillis() - startedAtMs;
+        lastRun = new StaleOrderReaperRunResponse(checkpoint.getStartedAt(), finishedAt, checkpoint.getCutoff(), resumed,
+                checkpoint.getChunkCount(), checkpoint.getProcessedCount(), reclaimedThisRun, totalDurationMs, maxChunkMs,
+                totalCancelledOrders.get(), totalReclaimedUnits.get());
+        if (cancelledThisRun > 0) {
+            logger.warn("Stale order reaper finished in {} ms. Cancelled: {} orders, returned {} units to stock (since startup: {} orders, {} units).",
+                    totalDurationMs, cancelledThisRun, reclaimedThisRun, totalCancelledOrders.get(), totalReclaimedUnits.get());
+        } else {
+            logger.debug("No stale pending-payment orders found.");
+        }
+    }
+
+    private record RunStart(JobCheckpoint checkpoint, boolean resumed) {
+    }
+
+    // rows: [id, customer_id, order_date]
+    private record ChunkResult(List<Object[]> rows, int cancelled, long reclaimedUnits) {
+    }
+
+    private RunStart startOrResumeRun() {
+        Optional<JobCheckpoint> existing = jobCheckpointRepository.findById(REAPER_JOB_NAME);
+        if (existing.isPresent() && JobCheckpoint.STATUS_RUNNING.equals(existing.get().getStatus())) {
+            JobCheckpoint interrupted = existing.get();
+            logger.warn("Resuming interrupted stale order reaper run started at {} ({} orders already cancelled in {} chunks).",
+                    interrupted.getStartedAt(), interrupted.getProcessedCount(), interrupted.getChunkCount());
+            return new RunStart(interrupted, true);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = existing.orElseGet(JobCheckpoint::new);
+        checkpoint.setJobName(REAPER_JOB_NAME);
+        checkpoint.setStatus(JobCheckpoint.STATUS_RUNNING);
+        checkpoint.setCutoff(now.minusMinutes(ttlMinutes));
+        checkpoint.setLastSortValue(null);
+        checkpoint.setLastId(0L);
+        checkpoint.setProcessedCount(0L);
+        checkpoint.setChunkCount(0);
+        checkpoint.setStartedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(null);
+        return new RunStart(jobCheckpointRepository.save(checkpoint), false);
+    }
+
+    // Tek parça: kilitle, stoğu ve kuponları geri ver, iptal et, okuma modellerini güncelle, imleci ilerlet (hepsi aynı transaction'da).
+    // Stok/kupon UPDATE'leri order_items ve orders üzerinden toplandığı için sipariş durumu en son değiştirilir.
+    private ChunkResult reapNextChunk(JobCheckpoint checkpoint) {
+        LocalDateTime lastOrderDate = checkpoint.getLastSortValue() != null ? checkpoint.getLastSortValue() : KEYSET_START;
+        List<Object[]> rows = orderRepository.findStalePendingPaymentChunk(checkpoint.getCutoff(), lastOrderDate,
+                checkpoint.getLastId(), chunkSize);
+        if (rows.isEmpty()) return new ChunkResult(rows, 0, 0);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long reclaimedUnits = orderItemRepository.sumRestorableQuantityByOrderIds(ids);
+        int restoredProducts = productRepository.restoreStockForOrders(ids, now);
+        int releasedCoupons = couponRepository.releaseUsageForOrders(ids);
+        int releasedCodes = couponCodeRepository.clearRedeemedForOrders(ids);
+        int cancelled = orderRepository.cancelPendingPayment(ids, now);
+        sellerOrderService.syncOrderStatuses(ids, REAPED_STATUS);
+        adminKpiService.recordOrderStatusChanges(OrderStatus.PENDING_PAYMENT, REAPED_STATUS, cancelled);
+        logger.debug("Stale order chunk: {} products restocked, {} coupons and {} single-use codes released.",
+                restoredProducts, releasedCoupons, releasedCodes);
+
+        Object[] last = rows.get(rows.size() - 1);
+        checkpoint.setLastSortValue(toLocalDateTime(last[2]));
+        checkpoint.setLastId(((Number) last[0]).longValue());
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + cancelled);
+        checkpoint.setChunkCount(checkpoint.getChunkCount() + 1);
+        checkpoint.setUpdatedAt(now);
+        jobCheckpointRepository.save(checkpoint);
+        return new ChunkResult(rows, cancelled, reclaimedUnits);
+    }
+
+    // Parça commit olduktan sonra: önbellekteki Checkout Session'lar düşürülür, müşterilere bildirim kuyruğa eklenir
+    private void afterChunkCommitted(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long orderId = ((Number) row[0]).longValue();
+            Long customerId = ((Number) row[1]).longValue();
+            checkoutSessionCache.evictOrder(orderId);
+            try {
+                notificationIngestService.enqueue(customerId,
+                        "Siparişiniz #" + orderId + " ödeme süresi dolduğu için iptal edildi.",
+                        "/orders/my/" + orderId,
+                        NotificationType.ORDER_UPDATE);
+            } catch (Exception e) {
+                logger.error("Failed to enqueue stale order cancellation notification for Order ID {}: {}", orderId, e.getMessage());
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,239 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.service.StorageCleanupService;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CategoryRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+@Service
+public class StorageCleanupServiceImpl implements StorageCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageCleanupServiceImpl.class);
+
+    // Sadece StorageService'in ürettiği isimler (UUID + uzantı) silinebilir; elle konan dosyalara dokunulmaz.
+    private static final Pattern STORED_FILENAME_PATTERN =
+            Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.[a-z0-9]+$");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${file.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.gc.dry-run:false}")
+    private boolean dryRun;
+
+    // AI ile üretilip henüz seçilmemiş görsellerin silinmemesi için bekleme süresi
+    @Value("${file.gc.grace-hours:48}")
+    private long graceHours;
+
+    @Value("${file.gc.page-size:1000}")
+    private int pageSize;
+
+    // Disk I/O'yu sınırlamak için saniyedeki maksimum silme sayısı
+    @Value("${file.gc.max-deletes-per-second:20}")
+    private int maxDeletesPerSecond;
+
+    @Value("${file.gc.max-deletes-per-run:10000}")
+    private int maxDeletesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalFilesDeleted = new AtomicLong();
+    private final AtomicLong totalBytesReclaimed = new AtomicLong();
+
+    @Autowired
+    public StorageCleanupServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @Override
+    @Scheduled(cron = "${file.gc.cron:0 30 4 * * ?}") // Varsayılan: her gece 04:30
+    public int cleanupOrphanedUploads() {
+        if (!enabled) {
+            logger.debug("Upload cleanup is disabled (file.gc.enabled=false).");
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Upload cleanup is already running. Skipping this trigger.");
+            return 0;
+        }
+        try {
+            Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            if (!Files.isDirectory(root)) {
+                logger.warn("Upload directory '{}' does not exist. Nothing to clean.", root);
+                return 0;
+            }
+
+            // Grace period sınırı mark aşamasından ÖNCE alınır; tarama sırasında yüklenen dosyalar bu sınırdan yeni olur.
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+            long startedAt = System.currentTimeMillis();
+
+            Set<String> referenced = collectReferencedFilenames();
+            logger.info("Upload cleanup mark phase finished. {} referenced files found.", referenced.size());
+
+            SweepVisitor visitor = new SweepVisitor(referenced, cutoff);
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), 1, visitor);
+
+            if (!dryRun) {
+                totalFilesDeleted.addAndGet(visitor.deletedCount);
+                totalBytesReclaimed.addAndGet(visitor.deletedBytes);
+            }
+            logger.info("Upload cleanup finished in {} ms. Scanned: {}, Orphans: {}, Deleted: {}, Bytes reclaimed: {}, Dry run: {}",
+                    System.currentTimeMillis() - startedAt, visitor.scannedCount, visitor.orphanCount,
+                    visitor.deletedCount, visitor.deletedBytes, dryRun);
+            return visitor.deletedCount;
+        } catch (IOException e) {
+            logger.error("Upload cleanup failed while walking '{}': {}", uploadDir, e.getMessage(), e);
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public long getTotalFilesDeleted() {
+        return totalFilesDeleted.get();
+    }
+
+    @Override
+    public long getTotalBytesReclaimed() {
+        return totalBytesReclaimed.get();
+    }
+
+    // Mark: ürün ve kategori görsellerini keyset sayfalama ile okuyup dosya adlarını toplar
+    private Set<String> collectReferencedFilenames() {
+        Set<String> referenced = new HashSet<>();
+        PageRequest page = PageRequest.of(0, pageSize);
+
+        long afterId = 0L;
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findImageUrlsAfterId(afterId, page);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                addFilename(referenced, (String) row[1]);
+                addFilename(referenced, (String) row[2]);
+            }
+        } while (rows.size() == pageSize);
+
+        afterId = 0L;
+        do {
+            rows = categoryRepository.findImageUrlsAfterId(afterId, page);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                addFilename(referenced, (String) row[1]);
+            }
+        } while (rows.size() == pageSize);
+
+        return referenced;
+    }
+
+    private void addFilename(Set<String> referenced, String url) {
+        if (!StringUtils.hasText(url)) return;
+        referenced.add(url.substring(url.lastIndexOf('/') + 1));
+    }
+
+    // Sweep: upload klasöründeki dosyaları gezer, referanssız ve yeterince eski olanları siler
+    private class SweepVisitor extends SimpleFileVisitor<Path> {
+
+        private final Set<String> referenced;
+        private final Instant cutoff;
+        private final long deleteIntervalMs;
+
+        private int scannedCount;
+        private int orphanCount;
+        private int deletedCount;
+        private long deletedBytes;
+
+        SweepVisitor(Set<String> referenced, Instant cutoff) {
+            this.referenced = referenced;
+            this.cutoff = cutoff;
+            this.deleteIntervalMs = maxDeletesPerSecond > 0 ? 1000L / maxDeletesPerSecond : 0L;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) {
+                return FileVisitResult.CONTINUE;
+            }
+            scannedCount++;
+            String filename = file.getFileName().toString();
+            if (!STORED_FILENAME_PATTERN.matcher(filename).matches()
+                    || referenced.contains(filename)
+                    || attrs.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            orphanCount++;
+            if (dryRun) {
+                logger.info("[DRY-RUN] Orphaned upload would be deleted: {} ({} bytes)", filename, attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            try {
+                if (Files.deleteIfExists(file)) {
+                    deletedCount++;
+                    deletedBytes += attrs.size();
+                    logger.debug("Deleted orphaned upload: {} ({} bytes)", filename, attrs.size());
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete orphaned upload '{}': {}", filename, e.getMessage());
+            }
+
+            if (deletedCount >= maxDeletesPerRun) {
+                logger.info("Upload cleanup reached max deletes per run ({}). Remaining orphans will be handled next run.", maxDeletesPerRun);
+                return FileVisitResult.TERMINATE;
+            }
+            return throttle();
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            logger.warn("Could not read upload file '{}': {}", file, exc.getMessage());
+            return FileVisitResult.CONTINUE;
+        }
+
+        private FileVisitResult throttle() {
+            if (deleteIntervalMs <= 0) {
+                return FileVisitResult.CONTINUE;
+            }
+            try {
+                Thread.sleep(deleteIntervalMs);
+                return FileVisitResult.CONTINUE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Upload cleanup interrupted. Stopping sweep.");
+                return FileVisitResult.TERMINATE;
+            }
+        }
+    }
+}
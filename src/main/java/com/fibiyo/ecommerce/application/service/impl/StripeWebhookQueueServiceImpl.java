@@ -0,0 +1,386 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.dto.StripeWebhookEventResponse;
+import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.PaymentService;
+import com.fibiyo.ecommerce.application.service.StripeWebhookQueueService;
+import com.fibiyo.ecommerce.domain.entity.StripeWebhookEvent;
+import com.fibiyo.ecommerce.domain.enums.WebhookEventStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.PaymentRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.StripeWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Charge;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class StripeWebhookQueueServiceImpl implements StripeWebhookQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookQueueServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000; // last_error kolon uzunluğu
+
+    private final StripeWebhookEventRepository webhookEventRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+
+    @Value("${stripe.webhook.secret}")
+    private String endpointSecret;
+
+    @Value("${stripe.webhook.queue.workers:4}")
+    private int workerCount;
+
+    // Aynı anda sahiplenilip worker'larda bekleyen/işlenen en fazla event sayısı
+    @Value("${stripe.webhook.queue.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${stripe.webhook.queue.max-attempts:8}")
+    private int maxAttempts;
+
+    // n. hatadan sonra bekleme: min(initial * 2^(n-1), max) + %20'ye kadar jitter
+    @Value("${stripe.webhook.queue.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${stripe.webhook.queue.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    // Bu süreden uzun PROCESSING'de kalan satırın worker'ı öldü kabul edilir (crash, kill -9)
+    @Value("${stripe.webhook.queue.stuck-timeout-ms:600000}")
+    private long stuckTimeoutMs;
+
+    @Value("${stripe.webhook.queue.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${stripe.webhook.queue.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    @Value("${stripe.webhook.queue.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    // Her worker tek thread'dir. Bölüm içi sıra veritabanında korunur: aynı partition key'de daha eski bitmemiş event varsa
+    // (işleniyor veya retry beklemesinde) yenisi sahiplenilmez (StripeWebhookEventRepository.claim).
+    private ExecutorService[] workers;
+    private volatile boolean running;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong deadCount = new AtomicLong();
+    private final AtomicLong totalProcessingMs = new AtomicLong();
+
+    @Autowired
+    public StripeWebhookQueueServiceImpl(StripeWebhookEventRepository webhookEventRepository, PaymentRepository paymentRepository,
+                                         PaymentService paymentService) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+    }
+
+    @PostConstruct
+    public void start() {
+        workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            String threadName = "stripe-webhook-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        running = true;
+        logger.info("Stripe webhook queue started (workers: {}, max in flight: {}, max attempts: {})", workerCount, maxInFlight, maxAttempts);
+    }
+
+    // Sahiplenilmiş ama henüz işlenmemiş event'ler kuyruğa geri bırakılır; işlenmekte olanların bitmesi beklenir
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (ExecutorService worker : workers) {
+            for (Runnable pending : worker.shutdownNow()) {
+                if (pending instanceof ClaimedEvent claimed) {
+                    webhookEventRepository.unclaim(claimed.id);
+                }
+            }
+        }
+        for (ExecutorService worker : workers) {
+            if (!worker.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Stripe webhook worker did not finish within {} ms. Its event will be released after the stuck timeout.", shutdownTimeoutMs);
+            }
+        }
+        logger.info("Stripe webhook queue stopped. Processed: {}, Retries: {}, Dead: {}", processedCount.get(), retryCount.get(), deadCount.get());
+    }
+
+    @Override
+    public boolean ingest(String payload, String sigHeader) {
+        if (endpointSecret == null || endpointSecret.isBlank()) {
+            logger.error("STRIPE_WEBHOOK_ERROR: Stripe webhook secret ('stripe.webhook.secret') is not configured!");
+            throw new InternalError("Webhook secret configuration is missing.");
+        }
+
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, sigHeader, endpointSecret);
+        } catch (SignatureVerificationException e) {
+            logger.error("STRIPE_WEBHOOK_SIGNATURE_ERROR: Webhook signature verification failed! Check webhook secret.", e);
+            throw new BadRequestException("Invalid webhook signature.");
+        } catch (Exception e) {
+            logger.error("STRIPE_WEBHOOK_PAYLOAD_ERROR: Error parsing webhook event payload. Payload snippet: '{}'", payload.substring(0, Math.min(payload.length(), 200)), e);
+            throw new BadRequestException("Invalid webhook payload.");
+        }
+
+        receivedCount.incrementAndGet();
+        String partitionKey = resolvePartitionKey(event);
+        int inserted = webhookEventRepository.insertIgnore(event.getId(), event.getType(), partitionKey, payload, sigHeader, LocalDateTime.now());
+        if (inserted == 0) {
+            duplicateCount.incrementAndGet();
+            logger.info("STRIPE_WEBHOOK_DUPLICATE: Event ID '{}' (Type: {}) was already received. Ignoring.", event.getId(), event.getType());
+            return false;
+        }
+        logger.info("STRIPE_WEBHOOK_QUEUED: EventId='{}', Type='{}', PartitionKey='{}'", event.getId(), event.getType(), partitionKey);
+
+        // Worker'larda yer varsa poller'ı beklemeden hemen işlemeye başla
+        if (running && inFlight.get() < maxInFlight) {
+            webhookEventRepository.findIdByEventId(event.getId())
+                    .ifPresent(id -> claimAndSubmit(id, partitionKey));
+        }
+        return true;
+    }
+
+    @Override
+    public Page<StripeWebhookEventResponse> getDeadLetters(Pageable pageable) {
+        return webhookEventRepository.findByStatus(WebhookEventStatus.DEAD, pageable).map(this::toResponse);
+    }
+
+    @Override
+    public StripeWebhookEventResponse requeueDeadLetter(Long id) {
+        StripeWebhookEvent event = webhookEventRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook event not found with id: " + id));
+        if (webhookEventRepository.requeueDead(id, LocalDateTime.now()) == 0) {
+            throw new BadRequestException("Sadece DEAD durumundaki event'ler tekrar kuyruğa alınabilir (Durum: " + event.getStatus() + ").");
+        }
+        logger.warn("Dead-letter webhook event ID: {} (Stripe Event ID: {}) requeued by admin.", id, event.getEventId());
+        return toResponse(webhookEventRepository.findById(id).orElseThrow());
+    }
+
+    @Override
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    @Override
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    @Override
+    public long getDeadCount() {
+        return deadCount.get();
+    }
+
+    // Zamanı gelen (yeni veya tekrar denenecek) event'leri sahiplenip worker'lara dağıtır
+    @Scheduled(fixedDelayString = "${stripe.webhook.queue.poll-ms:1000}")
+    public void pollDueEvents() {
+        if (!running || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int released = webhookEventRepository.releaseStuck(now.minus(stuckTimeoutMs, ChronoUnit.MILLIS), now);
+            if (released > 0) {
+                logger.warn("Released {} Stripe webhook events stuck in PROCESSING for more than {} ms.", released, stuckTimeoutMs);
+            }
+
+            int capacity = maxInFlight - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+            for (Object[] row : webhookEventRepository.findDue(now, capacity)) {
+                claimAndSubmit(((Number) row[0]).longValue(), (String) row[1]);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error while polling Stripe webhook queue: {}", e.getMessage(), e);
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${stripe.webhook.queue.cleanup-cron:0 50 4 * * ?}") // Varsayılan: her gece 04:50
+    public void deleteOldProcessedEvents() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long deleted = 0;
+        int batch;
+        do {
+            batch = webhookEventRepository.deleteProcessedBefore(before, cleanupBatchSize);
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+        logger.info("Deleted {} processed Stripe webhook events older than {} days.", deleted, retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.queue.metrics-log-ms:60000}")
+    public void logMetrics() {
+        long processed = processedCount.get();
+        if (receivedCount.get() == 0 && processed == 0) return;
+        logger.info("Stripe webhook queue metrics - Received: {}, Duplicates: {}, Processed: {}, Avg processing: {} ms, Retries: {}, Dead: {}, In flight: {}",
+                receivedCount.get(), duplicateCount.get(), processed, processed > 0 ? totalProcessingMs.get() / processed : 0,
+                retryCount.get(), deadCount.get(), inFlight.get());
+    }
+
+    private void claimAndSubmit(Long id, String partitionKey) {
+        if (webhookEventRepository.claim(id, LocalDateTime.now()) == 0) {
+            return; // Başka bir instance/poller zaten aldı
+        }
+        ExecutorService worker = workers[Math.floorMod(partitionKey.hashCode(), workers.length)];
+        inFlight.incrementAndGet();
+        try {
+            worker.execute(new ClaimedEvent(id));
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            webhookEventRepository.unclaim(id);
+        }
+    }
+
+    private void process(Long id) {
+        StripeWebhookEvent stored = webhookEventRepository.findById(id).orElse(null);
+        if (stored == null) {
+            logger.warn("Claimed Stripe webhook event ID: {} no longer exists.", id);
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            // Kayıtlı payload, saklanan imzayla tekrar çözülür; tolerance 0 => imza zamanı kontrol edilmez (retry'lar günler sonra olabilir)
+            Event event = Webhook.constructEvent(stored.getPayload(), stored.getSignatureHeader(), endpointSecret, 0);
+            paymentService.processWebhookEvent(event);
+            webhookEventRepository.markProcessed(id, LocalDateTime.now());
+            processedCount.incrementAndGet();
+            totalProcessingMs.addAndGet(System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            if (!handleFailure(stored, e)) {
+                return; // Retry beklemesinde: bölümün sıradaki event'leri bu event bitene kadar bekler
+            }
+        }
+        submitNextInPartition(stored.getPartitionKey());
+    }
+
+    // Event bittiğinde (işlendi veya DEAD) bölümün sıradaki event'i poller beklenmeden sahiplenilir
+    private void submitNextInPartition(String partitionKey) {
+        if (!running || inFlight.get() >= maxInFlight) {
+            return;
+        }
+        try {
+            webhookEventRepository.findHeadOfPartition(partitionKey).ifPresent(nextId -> claimAndSubmit(nextId, partitionKey));
+        } catch (RuntimeException e) {
+            logger.warn("Could not submit next Stripe webhook event of partition {}: {}. The poller will pick it up.", partitionKey, e.getMessage());
+        }
+    }
+
+    // @return Event bölümde yer açtıysa (DEAD) true; tekrar denenecekse false
+    private boolean handleFailure(StripeWebhookEvent stored, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        int attempts = stored.getAttempts(); // claim sırasında artırılmış değer
+        if (attempts >= maxAttempts) {
+            webhookEventRepository.markDead(stored.getId(), error);
+            deadCount.incrementAndGet();
+            logger.error("STRIPE_WEBHOOK_DEAD: Event ID '{}' (Type: {}) failed {} times and moved to dead-letter. Last error: {}",
+                    stored.getEventId(), stored.getEventType(), attempts, error, e);
+            return true;
+        }
+        long backoffMs = Math.min(initialBackoffMs << Math.min(attempts - 1, 30), maxBackoffMs);
+        backoffMs += ThreadLocalRandom.current().nextLong(backoffMs / 5 + 1);
+        webhookEventRepository.markForRetry(stored.getId(), LocalDateTime.now().plus(backoffMs, ChronoUnit.MILLIS), error);
+        retryCount.incrementAndGet();
+        logger.warn("STRIPE_WEBHOOK_RETRY: Event ID '{}' (Type: {}) failed on attempt {}/{}. Retrying in {} ms. Error: {}",
+                stored.getEventId(), stored.getEventType(), attempts, maxAttempts, backoffMs, error);
+        return false;
+    }
+
+    // Sipariş event'leri sipariş id'sine, abonelik event'leri kullanıcı id'sine göre gruplanır. Charge event'leri
+    // (charge.refunded) sipariş id'sini metadata'da taşımayabilir; o zaman PaymentIntent'in ödeme kaydından sipariş bulunur.
+    private String resolvePartitionKey(Event event) {
+        StripeObject object = event.getDataObjectDeserializer().getObject().orElse(null);
+        Map<String, String> metadata = null;
+        if (object instanceof Session session) {
+            metadata = session.getMetadata();
+        } else if (object instanceof PaymentIntent paymentIntent) {
+            metadata = paymentIntent.getMetadata();
+        } else if (object instanceof Charge charge) {
+            metadata = charge.getMetadata();
+            if ((metadata == null || metadata.get("order_id") == null) && charge.getPaymentIntent() != null) {
+                return paymentRepository.findOrderIdByTransactionId(charge.getPaymentIntent())
+                        .map(orderId -> "order:" + orderId)
+                        .orElse("pi:" + charge.getPaymentIntent());
+            }
+        }
+        if (metadata != null) {
+            if (metadata.get("order_id") != null) return "order:" + metadata.get("order_id");
+            if (metadata.get("user_id") != null) return "user:" + metadata.get("user_id");
+        }
+        return "event:" + event.getId();
+    }
+
+    private StripeWebhookEventResponse toResponse(StripeWebhookEvent event) {
+        return new StripeWebhookEventResponse(event.getId(), event.getEventId(), event.getEventType(), event.getPartitionKey(),
+                event.getStatus(), event.getAttempts(), event.getLastError(), event.getReceivedAt(),
+                event.getNextAttemptAt(), event.getProcessedAt());
+    }
+
+    // shutdownNow() ile dönen bekleyen işlerin hangi event'e ait olduğunu bilmek için
+    private final class ClaimedEvent implements Runnable {
+        private final Long id;
+
+        private ClaimedEvent(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            try {
+                process(id);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
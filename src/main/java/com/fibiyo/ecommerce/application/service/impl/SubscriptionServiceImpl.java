@@ -1,15 +1,20 @@
 package com.fibiyo.ecommerce.application.service.impl;
 
 import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse;
+import com.fibiyo.ecommerce.application.dto.SubscriptionExpiryRunResponse;
 import com.fibiyo.ecommerce.application.dto.SubscriptionStatusResponse;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.exception.ForbiddenException;
 import com.fibiyo.ecommerce.application.exception.ResourceNotFoundException;
+import com.fibiyo.ecommerce.application.service.NotificationIngestService;
 import com.fibiyo.ecommerce.application.service.NotificationService; // Bildirim için
+import com.fibiyo.ecommerce.application.service.PaymentGateway;
 import com.fibiyo.ecommerce.application.service.SubscriptionService;
+import com.fibiyo.ecommerce.domain.entity.JobCheckpoint;
 import com.fibiyo.ecommerce.domain.entity.User;
 import com.fibiyo.ecommerce.domain.enums.NotificationType;
 import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.JobCheckpointRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session; // Stripe Session
@@ -17,25 +22,46 @@ import com.stripe.param.checkout.SessionCreateParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled; // Periyodik görev için
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal; // Fiyatlar için
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit; // Süre ekleme için
+import java.util.ArrayList;
 import java.util.HashMap; // Fiyat map'i için
 import java.util.List;
 import java.util.Map; // Fiyat map'i için
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class SubscriptionServiceImpl implements SubscriptionService {
 
     private static final Logger logger = LoggerFactory.getLogger(SubscriptionServiceImpl.class);
 
+    private static final String EXPIRY_JOB_NAME = "subscription-expiry";
+    private static final int DEFAULT_IMAGE_GEN_QUOTA = 3; // User.imageGenQuota varsayılanı
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final NotificationIngestService notificationIngestService;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate chunkTransaction;
+
+    @Value("${subscription.expiry.chunk-size:1000}")
+    private int expiryChunkSize;
+
+    private final AtomicBoolean expiryRunning = new AtomicBoolean(false);
+    private volatile SubscriptionExpiryRunResponse lastExpiryRun;
 
     // Sabit Fiyatlar (Daha dinamik bir yapı için DB'den okunabilir)
     private static final Map<SubscriptionType, Long> SUBSCRIPTION_PRICES_CENTS = new HashMap<>();
@@ -55,9 +81,15 @@ public class SubscriptionServiceImpl implements SubscriptionService {
       // TODO: Bu sabitleri konfigürasyon dosyasına veya veritabanına taşımak daha iyi olur.
 
     @Autowired
-    public SubscriptionServiceImpl(UserRepository userRepository, NotificationService notificationService) {
+    public SubscriptionServiceImpl(UserRepository userRepository, NotificationService notificationService,
+                                   NotificationIngestService notificationIngestService, JobCheckpointRepository jobCheckpointRepository,
+                                   PaymentGateway paymentGateway, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.notificationIngestService = notificationIngestService;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.paymentGateway = paymentGateway;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
     }
 
     // Helper
@@ -143,7 +175,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                      .setCustomerEmail(currentUser.getEmail())
                      .build();
 
-            Session session = Session.create(params);
+            Session session = paymentGateway.createCheckoutSession(params, null);
              logger.info("Stripe Checkout Session created for Subscription: {}. Session ID: {}", targetSubscription, session.getId());
 
              return new StripeCheckoutSessionResponse(session.getId(), session.getUrl());
@@ -215,49 +247,150 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
 
     @Override
-    @Scheduled(cron = "0 0 3 * * ?") // Her gece saat 03:00'da çalışır (Cron expression)
-    @Transactional // Toplu güncelleme transactional olmalı
+    @Scheduled(cron = "${subscription.expiry.cron:0 0 3 * * ?}") // Varsayılan: her gece 03:00
     public void checkAndExpireSubscriptions() {
-         LocalDateTime now = LocalDateTime.now();
-         logger.info("Running scheduled task: Checking for expired subscriptions at {}", now);
-
-        // Süresi dolmuş ve FREE olmayan abonelikleri bul
-        List<User> expiredUsers = userRepository.findBySubscriptionTypeNotAndSubscriptionExpiryDateBefore(SubscriptionType.FREE, now);
-
-        if (!expiredUsers.isEmpty()) {
-            logger.warn("Found {} expired subscriptions to downgrade.", expiredUsers.size());
-             for (User user : expiredUsers) {
-                 SubscriptionType oldType = user.getSubscriptionType();
-                 LocalDateTime oldExpiry = user.getSubscriptionExpiryDate();
-
-                // FREE'ye düşür
-                 user.setSubscriptionType(SubscriptionType.FREE);
-                 user.setSubscriptionExpiryDate(null);
-                 // Avantajları geri al (örn: kotayı düşür)
-                  if(oldType == SubscriptionType.SELLER_PLUS) {
-                     user.setImageGenQuota(3); // Varsayılan kotaya dön
-                 }
-                  //... diğer avantajları geri alma
-
-                  userRepository.save(user);
-                  logger.info("Downgraded subscription for User ID: {} from {} (Expired: {}) to FREE.",
-                         user.getId(), oldType, oldExpiry);
-
-                  // Kullanıcıya bildirim gönder
-                  try{
-                      notificationService.createNotification(user,
-                              "Fibiyo " + oldType.name() + " aboneliğinizin süresi dolduğu için FREE plana geçiş yapıldı.",
-                              "/profile",
-                             NotificationType.SUBSCRIPTION_UPDATE);
-                 } catch (Exception e){
-                       logger.error("Failed to send subscription expiry notification for User ID {}: {}", user.getId(), e.getMessage());
-                   }
-              }
-         } else {
+        if (!expiryRunning.compareAndSet(false, true)) {
+            logger.warn("Subscription expiry job is already running. Skipping this trigger.");
+            return;
+        }
+        try {
+            runExpiryJob();
+        } finally {
+            expiryRunning.set(false);
+        }
+    }
+
+    @Override
+    public SubscriptionExpiryRunResponse getLastExpiryRun() {
+        SubscriptionExpiryRunResponse lastRun = lastExpiryRun;
+        if (lastRun != null) return lastRun;
+        // Bu instance henüz çalıştırmadıysa kalıcı checkpoint'ten özet (parça süreleri bilinmez)
+        return jobCheckpointRepository.findById(EXPIRY_JOB_NAME)
+                .map(cp -> new SubscriptionExpiryRunResponse(cp.getStartedAt(), cp.getFinishedAt(), cp.getCutoff(), false,
+                        cp.getChunkCount(), cp.getProcessedCount(), 0, 0, 0, 0, 0))
+                .orElse(null);
+    }
+
+    // Süresi dolan abonelikler (subscription_expiry_date, id) keyset'i ile parça parça düşürülür. Her parça kendi kısa
+    // transaction'ında satırları kilitler, tek UPDATE ile FREE'ye çeker ve checkpoint'i ilerletir; bildirimler commit sonrası
+    // asenkron yazma kuyruğuna eklenir. İş yarıda kesilirse sonraki çalıştırma checkpoint'teki cutoff ve imleçle devam eder.
+    private void runExpiryJob() {
+        long startedAtMs = System.currentTimeMillis();
+        ExpiryRunStart start = chunkTransaction.execute(status -> startOrResumeExpiryRun());
+        JobCheckpoint checkpoint = start.checkpoint();
+        boolean resumed = start.resumed();
+        logger.info("Running scheduled task: Expiring subscriptions before {} (resumed: {}, chunk size: {})",
+                checkpoint.getCutoff(), resumed, expiryChunkSize);
+
+        long minChunkMs = Long.MAX_VALUE, maxChunkMs = 0, totalChunkMs = 0, lastChunkMs = 0;
+        int chunksThisRun = 0;
+        long downgradedThisRun = 0;
+        while (true) {
+            long chunkStartedAt = System.currentTimeMillis();
+            List<Object[]> expired = chunkTransaction.execute(status -> expireNextChunk(checkpoint));
+            if (expired == null || expired.isEmpty()) break;
+
+            lastChunkMs = System.currentTimeMillis() - chunkStartedAt;
+            minChunkMs = Math.min(minChunkMs, lastChunkMs);
+            maxChunkMs = Math.max(maxChunkMs, lastChunkMs);
+            totalChunkMs += lastChunkMs;
+            chunksThisRun++;
+            downgradedThisRun += expired.size();
+            logger.info("Subscription expiry chunk {} downgraded {} users in {} ms.", checkpoint.getChunkCount(), expired.size(), lastChunkMs);
+
+            enqueueExpiryNotifications(expired);
+            lastExpiryRun = new SubscriptionExpiryRunResponse(checkpoint.getStartedAt(), null, checkpoint.getCutoff(), resumed,
+                    checkpoint.getChunkCount(), checkpoint.getProcessedCount(), System.currentTimeMillis() - startedAtMs,
+                    minChunkMs, totalChunkMs / chunksThisRun, maxChunkMs, lastChunkMs);
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        checkpoint.setStatus(JobCheckpoint.STATUS_COMPLETED);
+        checkpoint.setFinishedAt(finishedAt);
+        checkpoint.setUpdatedAt(finishedAt);
+        chunkTransaction.executeWithoutResult(status -> jobCheckpointRepository.save(checkpoint));
+
+        long totalDurationMs = System.currentTimeMillis() - startedAtMs;
+        lastExpiryRun = new SubscriptionExpiryRunResponse(checkpoint.getStartedAt(), finishedAt, checkpoint.getCutoff(), resumed,
+                checkpoint.getChunkCount(), checkpoint.getProcessedCount(), totalDurationMs,
+                chunksThisRun > 0 ? minChunkMs : 0, chunksThisRun > 0 ? totalChunkMs / chunksThisRun : 0, maxChunkMs, lastChunkMs);
+        if (checkpoint.getProcessedCount() > 0) {
+            logger.warn("Subscription expiry finished in {} ms. Downgraded: {} ({} this run) in {} chunks.",
+                    totalDurationMs, checkpoint.getProcessedCount(), downgradedThisRun, checkpoint.getChunkCount());
+        } else {
             logger.info("No expired subscriptions found to downgrade.");
         }
     }
 
+    private record ExpiryRunStart(JobCheckpoint checkpoint, boolean resumed) {
+    }
+
+    private ExpiryRunStart startOrResumeExpiryRun() {
+        Optional<JobCheckpoint> existing = jobCheckpointRepository.findById(EXPIRY_JOB_NAME);
+        if (existing.isPresent() && JobCheckpoint.STATUS_RUNNING.equals(existing.get().getStatus())) {
+            JobCheckpoint interrupted = existing.get();
+            logger.warn("Resuming interrupted subscription expiry run started at {} ({} users already downgraded in {} chunks).",
+                    interrupted.getStartedAt(), interrupted.getProcessedCount(), interrupted.getChunkCount());
+            return new ExpiryRunStart(interrupted, true);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = existing.orElseGet(JobCheckpoint::new);
+        checkpoint.setJobName(EXPIRY_JOB_NAME);
+        checkpoint.setStatus(JobCheckpoint.STATUS_RUNNING);
+        checkpoint.setCutoff(now);
+        checkpoint.setLastSortValue(null);
+        checkpoint.setLastId(0L);
+        checkpoint.setProcessedCount(0L);
+        checkpoint.setChunkCount(0);
+        checkpoint.setStartedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(null);
+        return new ExpiryRunStart(jobCheckpointRepository.save(checkpoint), false);
+    }
+
+    // Tek parça: kilitle, toplu düşür, imleci ilerlet (hepsi aynı transaction'da). Dönen satırlar: [id, eski tip, eski bitiş]
+    private List<Object[]> expireNextChunk(JobCheckpoint checkpoint) {
+        LocalDateTime lastExpiry = checkpoint.getLastSortValue() != null ? checkpoint.getLastSortValue() : KEYSET_START;
+        List<Object[]> rows = userRepository.findExpiredSubscriptionChunk(checkpoint.getCutoff(), lastExpiry,
+                checkpoint.getLastId(), expiryChunkSize);
+        if (rows.isEmpty()) return rows;
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.downgradeToFree(ids, DEFAULT_IMAGE_GEN_QUOTA, now);
+
+        Object[] last = rows.get(rows.size() - 1);
+        checkpoint.setLastSortValue(toLocalDateTime(last[2]));
+        checkpoint.setLastId(((Number) last[0]).longValue());
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + rows.size());
+        checkpoint.setChunkCount(checkpoint.getChunkCount() + 1);
+        checkpoint.setUpdatedAt(now);
+        jobCheckpointRepository.save(checkpoint);
+        return rows;
+    }
+
+    // Parça commit olduktan sonra çağrılır; kuyruk (NotificationIngestService) bildirimleri toplu INSERT'lerle yazar
+    private void enqueueExpiryNotifications(List<Object[]> expired) {
+        for (Object[] row : expired) {
+            Long userId = ((Number) row[0]).longValue();
+            try {
+                notificationIngestService.enqueue(userId,
+                        "Fibiyo " + row[1] + " aboneliğinizin süresi dolduğu için FREE plana geçiş yapıldı.",
+                        "/profile",
+                        NotificationType.SUBSCRIPTION_UPDATE);
+            } catch (Exception e) {
+                logger.error("Failed to enqueue subscription expiry notification for User ID {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
 
     // TODO: Abonelik iptali (cancelMySubscription) mantığı eklenecek.
      // Bu, ya expiry date'i değiştirmez sadece bir flag set eder ya da
@@ -0,0 +1,76 @@
+package com.fibiyo.ecommerce.application.util;
+
+/**
+ * String'ler için basit, thread-safe olmayan bloom filter.
+ * "Yok" cevabı kesindir; "var olabilir" cevabı verilen yanlış pozitif oranıyla hatalı olabilir.
+ * Kupon kodu üretiminde mevcut kodları (milyonlarca) tam bir HashSet yerine birkaç MB ile tutmak için kullanılır:
+ * yanlış pozitif sadece adayın atılıp yeniden üretilmesine yol açar.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions Beklenen eleman sayısı.
+     * @param falsePositiveRate  İstenen yanlış pozitif oranı (örn. 0.01).
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = Math.max(64, m);
+        this.bits = new long[(int) ((bitCount + 63) / 64)];
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+    }
+
+    public void add(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Yoksa ekler. @return Eleman daha önce (muhtemelen) yoksa true. */
+    public boolean addIfAbsent(String value) {
+        if (mightContain(value)) {
+            return false;
+        }
+        add(value);
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    // FNV-1a + MurmurHash3 fmix64: iki farklı tohumla bağımsız sayılabilecek iki 64 bit hash (double hashing)
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
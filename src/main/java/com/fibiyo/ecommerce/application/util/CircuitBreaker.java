@@ -0,0 +1,138 @@
+package com.fibiyo.ecommerce.application.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sayı tabanlı kayan pencereli basit devre kesici (circuit breaker).
+ * Son N çağrının hata oranı eşiği aşarsa devre açılır (OPEN) ve çağrılar dış servise gitmeden reddedilir;
+ * bekleme süresi dolunca sınırlı sayıda deneme çağrısına izin verilir (HALF_OPEN). Denemeler başarılıysa devre
+ * kapanır, biri bile hata alırsa tekrar açılır. Durum küçük olduğu için metotlar synchronized'dır.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold; // Yüzde
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+
+    // Kayan pencere: true = hata
+    private final boolean[] outcomes;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long openedCount;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          long openDurationMs, int halfOpenCalls) {
+        this.name = name;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Çağrı yapılabilir mi? true dönerse çağrının sonucu onSuccess/onFailure ile,
+     * çağrı hiç yapılmadıysa releasePermission ile mutlaka bildirilmelidir.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Penceredeki hata oranı (yüzde); pencere boşsa 0. */
+    public synchronized int getFailureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100 / windowCount;
+    }
+
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == outcomes.length) {
+            if (outcomes[windowIndex]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        outcomes[windowIndex] = failure;
+        if (failure) windowFailures++;
+        windowIndex = (windowIndex + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State newState) {
+        State previous = state;
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openUntil = System.currentTimeMillis() + openDurationMs;
+            openedCount++;
+            logger.warn("Circuit breaker '{}' {} -> OPEN (failure rate: {}% of last {} calls). Calls rejected for {} ms.",
+                    name, previous, getFailureRate(), windowCount, openDurationMs);
+        } else if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            logger.info("Circuit breaker '{}' {} -> CLOSED.", name, previous);
+        } else {
+            logger.info("Circuit breaker '{}' {} -> HALF_OPEN. Allowing {} trial calls.", name, previous, halfOpenCalls);
+        }
+    }
+}
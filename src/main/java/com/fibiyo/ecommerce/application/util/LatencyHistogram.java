@@ -0,0 +1,75 @@
+package com.fibiyo.ecommerce.application.util;
+
+import com.fibiyo.ecommerce.application.dto.LatencyHistogramResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sabit sınırlı kovalardan (bucket) oluşan, kilitsiz gecikme histogramı.
+ * Yüzdelikler (p50/p95/p99) kova üst sınırı olarak yaklaşık hesaplanır; bellek kullanımı kayıt sayısından bağımsızdır.
+ */
+public class LatencyHistogram {
+
+    private static final long[] DEFAULT_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final long[] boundsMs;
+    private final AtomicLongArray counts; // Son kova: en büyük sınırın üstü
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BOUNDS_MS);
+    }
+
+    public LatencyHistogram(long[] boundsMs) {
+        this.boundsMs = boundsMs.clone();
+        this.counts = new AtomicLongArray(boundsMs.length + 1);
+    }
+
+    public void record(long elapsedMs) {
+        int bucket = 0;
+        while (bucket < boundsMs.length && elapsedMs > boundsMs[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        totalCount.incrementAndGet();
+        totalMs.addAndGet(elapsedMs);
+        maxMs.accumulateAndGet(elapsedMs, Math::max);
+    }
+
+    public LatencyHistogramResponse snapshot() {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        List<Long> bucketCounts = new ArrayList<>(snapshot.length);
+        for (long c : snapshot) bucketCounts.add(c);
+        List<Long> bounds = new ArrayList<>(boundsMs.length);
+        for (long b : boundsMs) bounds.add(b);
+
+        long max = maxMs.get();
+        return new LatencyHistogramResponse(count, count > 0 ? totalMs.get() / count : 0,
+                percentile(snapshot, count, 50, max), percentile(snapshot, count, 95, max), percentile(snapshot, count, 99, max),
+                max, bounds, bucketCounts);
+    }
+
+    // Yüzdeliğin düştüğü kovanın üst sınırı (taşma kovası için gözlenen maksimum)
+    private long percentile(long[] snapshot, long count, int percent, long max) {
+        if (count == 0) return 0;
+        long rank = (count * percent + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i < boundsMs.length ? Math.min(boundsMs[i], max) : max;
+            }
+        }
+        return max;
+    }
+}
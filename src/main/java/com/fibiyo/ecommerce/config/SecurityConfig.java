@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import jakarta.servlet.DispatcherType;
 import org.springframework.http.HttpMethod; // HTTP metodları için
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -66,6 +67,8 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             // İstek Yetkilendirme Kuralları
             .authorizeHttpRequests(authz -> authz
+                // SSE gibi async yanıtların tamamlanma dispatch'i (yetki ilk istekte kontrol edildi)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Auth endpoint'leri (login, register) herkese açık
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
@@ -1,18 +1,144 @@
 package com.fibiyo.ecommerce.config;
 
+import com.fibiyo.ecommerce.infrastructure.adapter.StripeOkHttpClient;
 import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import com.stripe.net.Authenticator;
+import com.stripe.net.BearerTokenAuthenticator;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeResponseGetterOptions;
 import jakarta.annotation.PostConstruct; // import et
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class StripeConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(StripeConfig.class);
+
     @Value("${stripe.secret.key}")
     private String secretKey;
 
+    // Yerel sahte Stripe sunucusu (örn. stripe-mock) ile çalışmak için değiştirilebilir
+    @Value("${stripe.client.api-base:" + Stripe.LIVE_API_BASE + "}")
+    private String apiBase;
+
+    @Value("${stripe.client.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${stripe.client.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    // SDK'nın kendi ağ hatası yeniden denemeleri (POST'lara otomatik idempotency key eklenir)
+    @Value("${stripe.client.max-network-retries:1}")
+    private int maxNetworkRetries;
+
+    @Value("${stripe.client.pool.max-idle-connections:20}")
+    private int maxIdleConnections;
+
+    @Value("${stripe.client.pool.keep-alive-seconds:300}")
+    private long keepAliveSeconds;
+
     @PostConstruct // Bean oluştuktan sonra çalışır
     public void initStripe() {
         Stripe.apiKey = secretKey; // Stripe kütüphanesine API anahtarını set et
     }
-}
\ No newline at end of file
+
+    // Ödeme çağrıları bu istemciyle StripeAdapter üzerinden yapılır (statik Stripe.apiKey varsayılanları yerine)
+    @Bean
+    public StripeClient stripeClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(maxIdleConnections);
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false) // Yeniden denemeyi Stripe SDK'sı yönetir
+                .build();
+
+        logger.info("Configuring StripeClient (API base: {}, connect timeout: {} ms, read timeout: {} ms, pool: {} idle connections)",
+                apiBase, connectTimeoutMs, readTimeoutMs, maxIdleConnections);
+        return new StripeClient(new LiveStripeResponseGetter(new ClientOptions(), new StripeOkHttpClient(okHttpClient)));
+    }
+
+    private class ClientOptions extends StripeResponseGetterOptions {
+        private final Authenticator authenticator = new BearerTokenAuthenticator(secretKey);
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+
+        @Override
+        public String getClientId() {
+            return null;
+        }
+
+        @Override
+        public int getConnectTimeout() {
+            return connectTimeoutMs;
+        }
+
+        @Override
+        public Proxy getConnectionProxy() {
+            return null;
+        }
+
+        @Override
+        public int getMaxNetworkRetries() {
+            return maxNetworkRetries;
+        }
+
+        @Override
+        public PasswordAuthentication getProxyCredential() {
+            return null;
+        }
+
+        @Override
+        public String getApiBase() {
+            return apiBase;
+        }
+
+        @Override
+        public String getFilesBase() {
+            return Stripe.UPLOAD_API_BASE;
+        }
+
+        @Override
+        public String getConnectBase() {
+            return Stripe.CONNECT_API_BASE;
+        }
+
+        @Override
+        public String getMeterEventsBase() {
+            return Stripe.METER_EVENTS_API_BASE;
+        }
+
+        @Override
+        public int getReadTimeout() {
+            return readTimeoutMs;
+        }
+
+        @Override
+        public String getStripeAccount() {
+            return null;
+        }
+
+        @Override
+        public String getStripeContext() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Bir segmente (rol, abonelik tipi veya açık kullanıcı listesi) gönderilen, tek satır olarak saklanan bildirim.
+// Kullanıcı bildirimlerini okuduğunda kendi notifications kaydına aktarılır (fan-out-on-read).
+@Entity
+@Table(name = "broadcast_notifications",
+        indexes = @Index(name = "idx_broadcast_notifications_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Bildirim mesajı boş olamaz")
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Size(max = 1024, message = "Link en fazla 1024 karakter olabilir")
+    @Column(length = 1024, nullable = true)
+    private String link;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50, nullable = true)
+    private NotificationType type;
+
+    // Hedef segment: null alanlar filtre uygulanmaz demektir
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_role", length = 20, nullable = true)
+    private Role targetRole;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_subscription_type", length = 20, nullable = true)
+    private SubscriptionType targetSubscriptionType;
+
+    // true ise sadece recipientUserIds listesindeki kullanıcılar hedeflenir
+    @Column(name = "explicit_recipients", nullable = false)
+    private boolean explicitRecipients = false;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "broadcast_notification_recipients", joinColumns = @JoinColumn(name = "broadcast_id"))
+    @Column(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<Long> recipientUserIds = new HashSet<>();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", nullable = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = true)
+    private LocalDateTime expiresAt;
+}
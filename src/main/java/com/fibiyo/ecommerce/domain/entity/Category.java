@@ -16,6 +16,8 @@ import java.util.List; // İlişkiler için
 @Entity
 @Table(name = "categories", uniqueConstraints = {
         @UniqueConstraint(columnNames = "slug", name = "uk_category_slug") // slug unique olmalı
+}, indexes = {
+        @Index(name = "idx_categories_path", columnList = "path")
 })
 @Data // Lombok: Getter, Setter, equals, hashCode, toString
 @NoArgsConstructor // Lombok: Boş constructor
@@ -59,6 +61,15 @@ public class Category {
     @Column(name = "is_active", nullable = false)
     private boolean isActive = true; // Varsayılan olarak aktif
 
+    // Materialized path: kökten bu kategoriye id'ler, örn. "/1/5/12/". Alt ağaç = path ile başlayan tüm kategoriler.
+    // Id ancak insert sonrası bilindiği için ve taşımalar toplu UPDATE ile yapıldığından sadece CategoryRepository yazar.
+    @Column(name = "path", length = 512, nullable = true, updatable = false)
+    private String path;
+
+    // Kök kategoriler için 0
+    @Column(name = "depth", nullable = false, updatable = false)
+    private int depth = 0;
+
     // =============================================
     // İLİŞKİLER (Relationships)
     // =============================================
@@ -69,9 +69,15 @@ public class Coupon {
 
     @NotNull
     @Min(value = 0)
-    @Column(name = "times_used", nullable = false)
+    // Sadece CouponUsageService'in koşullu UPDATE'leri ile değişir; entity kaydı eşzamanlı kullanımları ezmesin
+    @Column(name = "times_used", nullable = false, updatable = false)
     private int timesUsed = 0; // Kuponun kaç kere kullanıldığı
 
+    // True ise kupon bir kampanya şablonudur: kuralları üretilen tek kullanımlık kodlar (coupon_codes) üzerinden uygulanır,
+    // kuponun kendi kodu sepette kullanılamaz. İlk kod üretiminde CouponCodeService tarafından açılır.
+    @Column(name = "single_use_codes", nullable = false)
+    private boolean singleUseCodes = false;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -118,13 +124,6 @@ public class Coupon {
     public boolean isValid() {
         return this.isActive && !isExpired() && !isUsageLimitReached();
     }
-
-    /**
-     * Kuponun kullanım sayısını bir artırır.
-     */
-    public void incrementTimesUsed() {
-        this.timesUsed++;
-    }
 }// Açıklamalar:
 
 /*
@@ -154,5 +153,5 @@ public class Coupon {
  * Yardımcı Metotlar:
  * isExpired(), isUsageLimitReached(), isValid() gibi metodlar kuponun geçerliliğini kontrol etmeyi kolaylaştırır.
  * Bu kontroller servis katmanında da yapılabilir, ancak entity içinde olması da pratik olabilir.
- * incrementTimesUsed() metodu kullanım sayısını artırır.
+ * Kullanım sayısı entity üzerinden değil, CouponUsageService'in atomik UPDATE'leriyle değiştirilir.
  */
@@ -0,0 +1,48 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bir kampanya kuponu (Coupon.singleUseCodes = true) için üretilmiş tek kullanımlık kod.
+ * İndirim kuralları bağlı kupondan gelir; bu satır sadece kodun kullanılıp kullanılmadığını tutar.
+ * Satırlar CouponCodeRepositoryImpl ile toplu eklenir, kullanım koşullu UPDATE ile işaretlenir.
+ */
+@Entity
+@Table(name = "coupon_codes",
+        uniqueConstraints = @UniqueConstraint(columnNames = "code", name = "uk_coupon_codes_code"),
+        indexes = @Index(name = "idx_coupon_codes_coupon_id", columnList = "coupon_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "coupon_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE) // Kampanya kuponu silinirse kodları da silinir
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Coupon coupon;
+
+    @Column(nullable = false, length = 50, updatable = false)
+    private String code;
+
+    // Null ise kod kullanılmamış; sadece CouponUsageService'in koşullu UPDATE'leri yazar
+    @Column(name = "redeemed_at", nullable = true, updatable = false)
+    private LocalDateTime redeemedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Parça parça çalışan periyodik işlerin kaldığı yer. Her parça kendi transaction'ında işini ve checkpoint'i birlikte commit eder;
+// iş yarıda kesilirse (crash, deploy) bir sonraki çalıştırma aynı kesim zamanı (cutoff) ve imleçle devam eder.
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // Çalıştırmanın sabit kesim zamanı (devam edilirse değişmez)
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    // Keyset imleci: son işlenen satırın sıralama anahtarı ve id'si
+    @Column(name = "last_sort_value")
+    private LocalDateTime lastSortValue;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(name = "chunk_count", nullable = false)
+    private int chunkCount;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
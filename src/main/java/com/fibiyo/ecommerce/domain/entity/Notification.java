@@ -18,6 +18,9 @@ import java.time.LocalDateTime;
 @Table(name = "notifications", indexes = {
         // Kullanıcı bazında ve okunma durumuna göre sorgulama hızlanabilir
         @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read")
+}, uniqueConstraints = {
+        // Bir toplu bildirim aynı kullanıcıya sadece bir kez aktarılır
+        @UniqueConstraint(columnNames = {"user_id", "broadcast_id"}, name = "uk_notification_user_broadcast")
 })
 @Data // Lombok: Getter, Setter, equals, hashCode, toString
 @NoArgsConstructor // Lombok: Boş constructor
@@ -49,6 +52,10 @@ public class Notification {
     @Column(length = 50, nullable = true) // Null olabilir veya 'GENERIC' gibi bir default olabilir
     private NotificationType type; // Bildirim türü (Filtreleme/gruplama için)
 
+    // Toplu (broadcast) bildirimden kullanıcıya aktarıldıysa kaynak kaydın ID'si, kişisel bildirimlerde null
+    @Column(name = "broadcast_id", nullable = true, updatable = false)
+    private Long broadcastId;
+
 
     // =============================================
     // İLİŞKİLER (Relationships)
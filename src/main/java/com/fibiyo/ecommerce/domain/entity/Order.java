@@ -28,7 +28,8 @@ import java.util.List; // İlişkiler için
         @Index(name = "idx_orders_customer_id", columnList = "customer_id"),
         @Index(name = "idx_orders_status", columnList = "status"),
         @Index(name = "idx_orders_payment_status", columnList = "payment_status"),
-        @Index(name = "idx_orders_order_date", columnList = "order_date")
+        @Index(name = "idx_orders_order_date", columnList = "order_date"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date") // Bayat PENDING_PAYMENT taraması (keyset)
 })
 @Data // Lombok: Getter, Setter, equals, hashCode, toString
 @NoArgsConstructor // Lombok: Boş constructor
@@ -118,6 +119,10 @@ public class Order {
     @EqualsAndHashCode.Exclude
     private Coupon coupon;
 
+    // Kampanya kuponlarında kullanılan tek kullanımlık kod (coupon_codes.code); iptalde bu kod tekrar kullanılabilir olur
+    @Column(name = "single_use_coupon_code", length = 50, nullable = true)
+    private String singleUseCouponCode;
+
     // Siparişteki ürün kalemleri (Order Items)
     // mappedBy: OrderItem entity'sindeki Order referansının adı ("order")
     // cascade: Sipariş kaydedildiğinde kalemleri de kaydet/güncelle, sipariş silinince kalemleri de sil.
@@ -19,6 +19,8 @@ import java.util.List; // İlişkiler için
 @Table(name = "products", uniqueConstraints = {
         @UniqueConstraint(columnNames = "slug", name = "uk_product_slug"), // slug unique olmalı
         @UniqueConstraint(columnNames = "sku", name = "uk_product_sku") // SKU unique olmalı (kullanılıyorsa)
+}, indexes = {
+        @Index(name = "idx_products_category_path", columnList = "category_path")
 })
 @Data // Lombok: Getter, Setter, equals, hashCode, toString
 @NoArgsConstructor // Lombok: Boş constructor
@@ -87,19 +89,60 @@ public class Product {
     @DecimalMin(value = "0.0")
     @DecimalMax(value = "5.0")
     @Digits(integer = 1, fraction = 2) // Örn: 4.75 gibi bir ortalama için
-    @Column(name = "average_rating", nullable = false)
+    @Column(name = "average_rating", nullable = false, updatable = false) // Sadece ReviewRepository'deki atomik UPDATE'ler değiştirir
     private BigDecimal averageRating = BigDecimal.ZERO; // Varsayılan ortalama puan
 
     @NotNull
     @Min(value = 0)
-    @Column(name = "review_count", nullable = false)
+    @Column(name = "review_count", nullable = false, updatable = false) // Sadece ReviewRepository'deki atomik UPDATE'ler değiştirir
     private int reviewCount = 0; // Varsayılan yorum sayısı
 
+    // Onaylı yorumların puan toplamı. Ortalama, AVG sorgusu yerine sum/count üzerinden artımlı hesaplanır.
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum = 0L;
+
+    // Yıldız dağılımı (histogram): onaylı yorumlardan kaç tanesi 1..5 puan. Puan toplamlarıyla aynı UPDATE'te tutulur.
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_1_count", nullable = false, updatable = false)
+    private int rating1Count = 0;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_2_count", nullable = false, updatable = false)
+    private int rating2Count = 0;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_3_count", nullable = false, updatable = false)
+    private int rating3Count = 0;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_4_count", nullable = false, updatable = false)
+    private int rating4Count = 0;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "rating_5_count", nullable = false, updatable = false)
+    private int rating5Count = 0;
+
     // --- AI Özellikleri ---
+    // Özet sadece toplu özetleme işi tarafından yazılır; ürün kaydı (save) üzerine yazmaz.
     @Lob // Büyük metinler için (CLOB veya TEXT)
-    @Column(name = "review_summary_ai", nullable = true)
+    @Column(name = "review_summary_ai", nullable = true, updatable = false)
     private String reviewSummaryAi;
 
+    // Onaylı yorum kümesi her değiştiğinde artan sürüm (puan toplamlarıyla aynı UPDATE'te artırılır)
+    @Column(name = "reviews_version", nullable = false, updatable = false)
+    private long reviewsVersion = 0L;
+
+    // AI özetinin üretildiği andaki reviews_version (watermark). reviews_version'dan küçükse özet eskimiştir.
+    @Column(name = "review_summary_version", nullable = false, updatable = false)
+    private long reviewSummaryVersion = 0L;
+
     @Size(max = 1024, message = "AI Görsel URL'si en fazla 1024 karakter olabilir")
     @Column(name = "ai_generated_image_url", length = 1024, nullable = true)
     private String aiGeneratedImageUrl;
@@ -115,6 +158,12 @@ public class Product {
     @EqualsAndHashCode.Exclude // equals/hashCode döngüsünü engelle
     private Category category;
 
+    // Kategorinin materialized path'inin kopyası (denormalize). Alt ağaç filtresi "category_path LIKE '/1/5/%'"
+    // şeklinde tek bir index aralık taramasına dönüşür. Insert'te serviste atanır; sonrasında sadece
+    // ProductRepository'deki UPDATE'ler değiştirir (kategori taşıma / ürün kategori değişimi).
+    @Column(name = "category_path", length = 512, nullable = true, updatable = false)
+    private String categoryPath;
+
     // Ürünü satan satıcı (User)
     @NotNull // Her ürünün bir satıcısı olmalı
     @ManyToOne(fetch = FetchType.LAZY) // Satıcıyı her zaman yüklemeye gerek yok
@@ -0,0 +1,52 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Satıcı paneli için günlük özet (rollup) satırı. Sipariş/ödeme durum geçişlerinde artımlı olarak güncellenir,
+// panel sipariş tablolarını taramadan sadece bu tablodan okunur.
+@Entity
+@Table(name = "seller_daily_stats")
+@IdClass(SellerDailyStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerDailyStats {
+
+    @Id
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "units_sold", nullable = false)
+    private int unitsSold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO; // Satıcının kalemlerinin brüt tutarı (kupon indirimi hariç)
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+
+    @Column(name = "refunded_order_count", nullable = false)
+    private int refundedOrderCount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private LocalDate statDate;
+    }
+}
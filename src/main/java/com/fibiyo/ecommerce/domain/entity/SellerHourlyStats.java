@@ -0,0 +1,45 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Satıcı paneli için saatlik satış özeti (son 24 saat grafiği). statHour saat başına yuvarlanmış zamandır.
+@Entity
+@Table(name = "seller_hourly_stats")
+@IdClass(SellerHourlyStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerHourlyStats {
+
+    @Id
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Id
+    @Column(name = "stat_hour", nullable = false)
+    private LocalDateTime statHour;
+
+    @Column(name = "units_sold", nullable = false)
+    private int unitsSold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private LocalDateTime statHour;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Satıcı sipariş sorguları için denormalize okuma modeli: her (satıcı, sipariş, kalem) için bir satır.
+// Sipariş oluşturulurken ve durum değiştikçe aynı transaction içinde güncellenir;
+// satıcı sipariş listesi orders/order_items/products join'i yerine (seller_id, order_date) indeksinden okunur.
+@Entity
+@Table(name = "seller_order_lines", indexes = {
+        @Index(name = "idx_seller_order_lines_seller_date", columnList = "seller_id, order_date, order_id"),
+        @Index(name = "idx_seller_order_lines_seller_status_date", columnList = "seller_id, order_status, order_date, order_id"),
+        @Index(name = "idx_seller_order_lines_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderLine {
+
+    @Id
+    @Column(name = "order_item_id")
+    private Long orderItemId; // order_items.id ile aynı (kalem başına tek satır)
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "product_id")
+    private Long productId; // Ürün silinirse null kalabilir
+
+    @Column(name = "product_name", length = 255)
+    private String productName; // Sipariş anındaki ürün adı
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "price_at_purchase", nullable = false, precision = 12, scale = 2)
+    private BigDecimal priceAtPurchase;
+
+    @Column(name = "line_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal lineTotal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false, length = 30)
+    private OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false, length = 20)
+    private PaymentStatus paymentStatus;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+}
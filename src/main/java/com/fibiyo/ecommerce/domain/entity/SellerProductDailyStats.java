@@ -0,0 +1,48 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Satıcının ürün bazında günlük satışları; "en çok satan ürünler" listesi bu tablodan hesaplanır.
+// productId için FK yok: ürün silinse bile geçmiş istatistik korunur.
+@Entity
+@Table(name = "seller_product_daily_stats")
+@IdClass(SellerProductDailyStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerProductDailyStats {
+
+    @Id
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "units_sold", nullable = false)
+    private int unitsSold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private LocalDate statDate;
+        private Long productId;
+    }
+}
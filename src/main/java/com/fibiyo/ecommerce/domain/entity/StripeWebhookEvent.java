@@ -0,0 +1,72 @@
+package com.fibiyo.ecommerce.domain.entity;
+
+import com.fibiyo.ecommerce.domain.enums.WebhookEventStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stripe'tan gelen, imzası doğrulanmış webhook event'i. Stripe aynı event'i birden fazla kez gönderebildiği için
+ * event_id unique'tir; satırlar INSERT IGNORE ile eklenir ve durum geçişleri StripeWebhookEventRepository'deki
+ * koşullu UPDATE'lerle yapılır (entity üzerinden save edilmez).
+ */
+@Entity
+@Table(name = "stripe_webhook_events",
+        uniqueConstraints = @UniqueConstraint(columnNames = "event_id", name = "uk_stripe_webhook_events_event_id"),
+        indexes = {
+                @Index(name = "idx_stripe_webhook_events_status_next", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_stripe_webhook_events_partition", columnList = "partition_key, status") // Bölüm içi sıra kontrolü
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, length = 255, updatable = false)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 100, updatable = false)
+    private String eventType;
+
+    // Aynı anahtara sahip event'ler aynı worker'da sırayla işlenir (örn. "order:42", "user:7")
+    @Column(name = "partition_key", nullable = false, length = 64, updatable = false)
+    private String partitionKey;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT", updatable = false)
+    private String payload;
+
+    // Worker event'i bu header ile tekrar doğrulayıp çözer
+    @Column(name = "signature_header", nullable = false, length = 1000, updatable = false)
+    private String signatureHeader;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private WebhookEventStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false, updatable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // PROCESSING durumundaki satırın ne zaman sahiplenildiği; takılı kalanlar bu zamana göre serbest bırakılır
+    @Column(name = "claimed_at", updatable = false)
+    private LocalDateTime claimedAt;
+
+    @Column(name = "last_error", length = 1000, updatable = false)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at", updatable = false)
+    private LocalDateTime processedAt;
+}
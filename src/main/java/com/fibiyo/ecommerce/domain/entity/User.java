@@ -27,6 +27,8 @@ import lombok.NoArgsConstructor;
         @UniqueConstraint(columnNames = "username", name = "uk_user_username"), // Kısıtlamaya isim vermek best practice'tir
         @UniqueConstraint(columnNames = "email", name = "uk_user_email"),
         @UniqueConstraint(name = "uk_user_provider_id", columnNames = {"auth_provider", "provider_id"})
+}, indexes = {
+        @Index(name = "idx_users_subscription_expiry", columnList = "subscription_expiry_date, id") // Abonelik bitiş işinin keyset'i
 })
 @Data // Lombok: Getter, Setter, equals, hashCode, toString
 @NoArgsConstructor // Lombok: Boş constructor
@@ -105,6 +107,11 @@ public class User {
     @Column(name = "image_gen_quota", nullable = false)
     private int imageGenQuota = 3; // Satıcılar için varsayılan AI imaj hakkı
 
+    // Kullanıcının bildirimlerine aktarılmış (materialize edilmiş) en son toplu bildirim ID'si.
+    // Sadece UserRepository.advanceBroadcastCursor'daki koşullu UPDATE değiştirir.
+    @Column(name = "last_broadcast_id", nullable = false, updatable = false)
+    private long lastBroadcastId = 0L;
+
     // =============================================
     // İLİŞKİLER (Relationships)
     // =============================================
@@ -0,0 +1,6 @@
+package com.fibiyo.ecommerce.domain.enums;
+
+public enum ExportFormat {
+    CSV,   // Virgülle ayrılmış, ilk satır başlık
+    NDJSON // Her satır ayrı bir JSON nesnesi (newline-delimited JSON)
+}
@@ -5,5 +5,6 @@ public enum PaymentStatus {
     COMPLETED,         // Tamamlandı
     FAILED,            // Başarısız
     REFUNDED,          // Tamamen İade Edildi
-    PARTIALLY_REFUNDED // Kısmen İade Edildi
+    PARTIALLY_REFUNDED, // Kısmen İade Edildi
+    REFUND_REQUIRED    // İptal edilmiş siparişe ödeme geldi, iade edilmeli (ciroya sayılmaz)
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.fibiyo.ecommerce.domain.enums;
+
+public enum WebhookEventStatus {
+    PENDING,    // İşlenmeyi (veya bir sonraki denemeyi) bekliyor
+    PROCESSING, // Bir worker tarafından sahiplenildi
+    PROCESSED,  // Başarıyla işlendi
+    DEAD        // Deneme hakkı bitti; admin dead-letter listesinde bekler
+}
@@ -1,5 +1,74 @@
 package com.fibiyo.ecommerce.infrastructure.adapter;
 
-public class OpenAiAdapter {
-    
+import com.fibiyo.ecommerce.application.service.ReviewSummarizer;
+import com.openai.client.OpenAIClient;
+import com.openai.models.ChatCompletion;
+import com.openai.models.ChatCompletionCreateParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "ai.review-summary.provider", havingValue = "openai", matchIfMissing = true)
+public class OpenAiAdapter implements ReviewSummarizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiAdapter.class);
+
+    private static final String SUMMARIZE_PROMPT =
+            "Aşağıda '%s' ürünü için müşteri yorumları var (puan/5: yorum). " +
+            "Öne çıkan artıları ve eksileri tarafsız, 3-4 cümlelik Türkçe bir özet halinde yaz. " +
+            "Kişisel bilgi veya yorumcu adı kullanma.\n\n%s";
+
+    private static final String MERGE_PROMPT =
+            "Aşağıdakiler '%s' ürünü için farklı yorum gruplarından çıkarılmış ara özetler. " +
+            "Bunları tekrar etmeden, 3-4 cümlelik tek bir Türkçe özet halinde birleştir.\n\n%s";
+
+    private final Optional<OpenAIClient> openAIClient;
+
+    @Value("${ai.review-summary.model:gpt-4o-mini}")
+    private String model;
+
+    @Value("${ai.review-summary.max-output-tokens:300}")
+    private long maxOutputTokens;
+
+    @Autowired(required = false)
+    public OpenAiAdapter(OpenAIClient openAIClient) {
+        this.openAIClient = Optional.ofNullable(openAIClient);
+    }
+
+    @Override
+    public String summarizeReviews(String productName, List<String> reviews) {
+        return complete(String.format(SUMMARIZE_PROMPT, productName, String.join("\n", reviews)));
+    }
+
+    @Override
+    public String mergeSummaries(String productName, List<String> partialSummaries) {
+        return complete(String.format(MERGE_PROMPT, productName, String.join("\n\n", partialSummaries)));
+    }
+
+    private String complete(String prompt) {
+        OpenAIClient client = openAIClient.orElseThrow(() ->
+                new IllegalStateException("OpenAI client is not configured (openai.api.key missing)."));
+
+        ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
+                .model(model)
+                .maxCompletionTokens(maxOutputTokens)
+                .addUserMessage(prompt)
+                .build();
+
+        ChatCompletion completion = client.chat().completions().create(params);
+        String content = completion.choices().isEmpty() ? null
+                : completion.choices().get(0).message().content().orElse(null);
+        if (content == null || content.isBlank()) {
+            logger.warn("OpenAI returned an empty review summary (model: {}).", model);
+            return null;
+        }
+        return content.trim();
+    }
 }
@@ -1,6 +1,170 @@
 package com.fibiyo.ecommerce.infrastructure.adapter;
 
-public class StripeAdapter {
-    
+import com.fibiyo.ecommerce.application.dto.LatencyHistogramResponse;
+import com.fibiyo.ecommerce.application.dto.PaymentGatewayStatsResponse;
+import com.fibiyo.ecommerce.application.exception.PaymentGatewayUnavailableException;
+import com.fibiyo.ecommerce.application.service.PaymentGateway;
+import com.fibiyo.ecommerce.application.util.CircuitBreaker;
+import com.fibiyo.ecommerce.application.util.LatencyHistogram;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.checkout.SessionCreateParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stripe API çağrıları için PaymentGateway adapter'ı.
+ * - Bağlantı havuzu ve varsayılan timeout'lar StripeConfig'teki StripeClient'tadır; checkout için ayrı (daha kısa) read timeout.
+ * - Bulkhead: aynı anda en fazla N çağrı Stripe'ta bekleyebilir; fazlası kısa bir beklemeden sonra 503 ile reddedilir,
+ *   böylece Stripe yavaşladığında Tomcat thread'lerinin tamamı Stripe'ı beklerken tükenmez.
+ * - Devre kesici: bağlantı/zaman aşımı, 429 ve 5xx hataları sayılır; kart ve istek (4xx) hataları Stripe'ın sağlıklı olduğunu gösterir.
+ */
+@Component
+public class StripeAdapter implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeAdapter.class);
+
+    private static final String UNAVAILABLE_MESSAGE = "Ödeme servisine şu anda ulaşılamıyor. Lütfen birkaç dakika sonra tekrar deneyin.";
+
+    private final StripeClient stripeClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+
+    @Value("${stripe.client.bulkhead.max-wait-ms:100}")
+    private long bulkheadMaxWaitMs;
+
+    @Value("${stripe.client.checkout.connect-timeout-ms:2000}")
+    private int checkoutConnectTimeoutMs;
+
+    @Value("${stripe.client.checkout.read-timeout-ms:8000}")
+    private int checkoutReadTimeoutMs;
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong totalCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong rejectedByCircuit = new AtomicLong();
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+
+    @Autowired
+    public StripeAdapter(StripeClient stripeClient,
+                         @Value("${stripe.client.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+                         @Value("${stripe.client.circuit-breaker.window-size:20}") int windowSize,
+                         @Value("${stripe.client.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                         @Value("${stripe.client.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                         @Value("${stripe.client.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+                         @Value("${stripe.client.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.stripeClient = stripeClient;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker("stripe", windowSize, minimumCalls, failureRateThreshold, openDurationMs, halfOpenCalls);
+    }
+
+    @Override
+    public Session createCheckoutSession(SessionCreateParams params, String idempotencyKey) throws StripeException {
+        RequestOptions.RequestOptionsBuilder options = RequestOptions.builder()
+                .setConnectTimeout(checkoutConnectTimeoutMs)
+                .setReadTimeout(checkoutReadTimeoutMs);
+        if (idempotencyKey != null) {
+            options.setIdempotencyKey(idempotencyKey); // Verilmezse SDK ağ yeniden denemeleri için kendisi üretir
+        }
+        return call("checkout.sessions.create", () -> stripeClient.checkout().sessions().create(params, options.build()));
+    }
+
+    @Override
+    public PaymentGatewayStatsResponse getStats() {
+        Map<String, LatencyHistogramResponse> latencySnapshots = new TreeMap<>();
+        latencies.forEach((operation, histogram) -> latencySnapshots.put(operation, histogram.snapshot()));
+        return new PaymentGatewayStatsResponse(circuitBreaker.getState().name(), circuitBreaker.getFailureRate(),
+                circuitBreaker.getOpenedCount(), maxConcurrentCalls - bulkhead.availablePermits(), maxConcurrentCalls,
+                totalCalls.get(), failedCalls.get(), rejectedByCircuit.get(), rejectedByBulkhead.get(), latencySnapshots);
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.client.metrics-log-ms:60000}")
+    public void logMetrics() {
+        if (totalCalls.get() == 0 && rejectedByCircuit.get() == 0 && rejectedByBulkhead.get() == 0) return;
+        latencies.forEach((operation, histogram) -> {
+            LatencyHistogramResponse snapshot = histogram.snapshot();
+            logger.info("Stripe client metrics - {}: Calls: {}, p50: {} ms, p95: {} ms, p99: {} ms, Max: {} ms",
+                    operation, snapshot.getCount(), snapshot.getP50Ms(), snapshot.getP95Ms(), snapshot.getP99Ms(), snapshot.getMaxMs());
+        });
+        logger.info("Stripe client metrics - Circuit: {}, Failed: {}, Rejected (circuit): {}, Rejected (bulkhead): {}",
+                circuitBreaker.getState(), failedCalls.get(), rejectedByCircuit.get(), rejectedByBulkhead.get());
+    }
+
+    private <T> T call(String operation, StripeCall<T> stripeCall) throws StripeException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedByCircuit.incrementAndGet();
+            logger.warn("Stripe call '{}' rejected: circuit breaker is {}.", operation, circuitBreaker.getState());
+            throw new PaymentGatewayUnavailableException(UNAVAILABLE_MESSAGE);
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.releasePermission();
+            rejectedByBulkhead.incrementAndGet();
+            logger.warn("Stripe call '{}' rejected: {} concurrent calls already in flight.", operation, maxConcurrentCalls);
+            throw new PaymentGatewayUnavailableException(UNAVAILABLE_MESSAGE);
+        }
+
+        long startedAt = System.nanoTime();
+        totalCalls.incrementAndGet();
+        try {
+            T result = stripeCall.execute();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (StripeException e) {
+            if (isGatewayFailure(e)) {
+                failedCalls.incrementAndGet();
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            failedCalls.incrementAndGet();
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            bulkhead.release();
+            latencies.computeIfAbsent(operation, key -> new LatencyHistogram())
+                    .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Stripe'ın (veya ağın) sağlıksız olduğunu gösteren hatalar
+    private boolean isGatewayFailure(StripeException e) {
+        if (e instanceof ApiConnectionException || e instanceof RateLimitException) {
+            return true;
+        }
+        Integer statusCode = e.getStatusCode();
+        return statusCode != null && statusCode >= 500;
+    }
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
 }
-    
\ No newline at end of file
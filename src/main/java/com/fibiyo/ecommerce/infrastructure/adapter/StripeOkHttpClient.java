@@ -0,0 +1,79 @@
+package com.fibiyo.ecommerce.infrastructure.adapter;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpContent;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stripe SDK'nın HTTP katmanı için OkHttp tabanlı istemci. Varsayılan HttpURLConnection istemcisi yerine
+ * boyutu ayarlanabilen, keep-alive'lı tek bir bağlantı havuzu kullanılır. İstek bazında farklı timeout istenirse
+ * (RequestOptions) aynı havuzu paylaşan türetilmiş bir OkHttpClient ile çağrılır.
+ */
+public class StripeOkHttpClient extends HttpClient {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final OkHttpClient okHttpClient;
+
+    public StripeOkHttpClient(OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) throws StripeException {
+        Request.Builder builder = new Request.Builder().url(request.url());
+        for (Map.Entry<String, List<String>> header : request.headers().map().entrySet()) {
+            builder.header(header.getKey(), String.join(",", header.getValue()));
+        }
+        builder.header("User-Agent", buildUserAgentString(request));
+        builder.header("X-Stripe-Client-User-Agent", buildXStripeClientUserAgentString());
+
+        HttpContent content = request.content();
+        RequestBody body = content != null
+                ? RequestBody.create(content.byteArrayContent(), MediaType.parse(content.contentType()))
+                : null;
+        switch (request.method()) {
+            case GET -> builder.get();
+            case POST -> builder.post(body != null ? body : RequestBody.create(EMPTY_BODY, null));
+            case DELETE -> builder.delete(body);
+        }
+
+        try (Response response = clientFor(request.options()).newCall(builder.build()).execute()) {
+            ResponseBody responseBody = response.body();
+            return new StripeResponse(response.code(), HttpHeaders.of(response.headers().toMultimap()),
+                    responseBody != null ? responseBody.string() : "");
+        } catch (IOException e) {
+            // SDK'nın ağ hatası sınıfı: yeniden deneme (maxNetworkRetries) ve devre kesici bunu bağlantı hatası sayar
+            throw new ApiConnectionException(String.format("IOException during API request to Stripe (%s): %s",
+                    request.url(), e.getMessage()), e);
+        }
+    }
+
+    private OkHttpClient clientFor(RequestOptions options) {
+        int connectTimeout = options.getConnectTimeout() != null ? options.getConnectTimeout() : okHttpClient.connectTimeoutMillis();
+        int readTimeout = options.getReadTimeout() != null ? options.getReadTimeout() : okHttpClient.readTimeoutMillis();
+        if (connectTimeout == okHttpClient.connectTimeoutMillis() && readTimeout == okHttpClient.readTimeoutMillis()) {
+            return okHttpClient;
+        }
+        return okHttpClient.newBuilder() // Havuz ve dispatcher paylaşılır
+                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
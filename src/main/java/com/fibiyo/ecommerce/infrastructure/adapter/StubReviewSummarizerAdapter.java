@@ -0,0 +1,26 @@
+package com.fibiyo.ecommerce.infrastructure.adapter;
+
+import com.fibiyo.ecommerce.application.service.ReviewSummarizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ağ çağrısı yapmayan, deterministik özet üreten yerel LLM yerine geçen sınıf.
+ * Test ve geliştirme ortamında ai.review-summary.provider=stub ile etkinleştirilir.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.review-summary.provider", havingValue = "stub")
+public class StubReviewSummarizerAdapter implements ReviewSummarizer {
+
+    @Override
+    public String summarizeReviews(String productName, List<String> reviews) {
+        return String.format("%s için %d yorumun özeti.", productName, reviews.size());
+    }
+
+    @Override
+    public String mergeSummaries(String productName, List<String> partialSummaries) {
+        return String.join(" ", partialSummaries);
+    }
+}
@@ -0,0 +1,23 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.BroadcastNotification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+
+    // Kullanıcıların aktarım imleciyle (users.last_broadcast_id) karşılaştırılan en son toplu bildirim ID'si.
+    // Sadece cutoff'tan önce oluşturulanlar dikkate alınır: daha düşük ID'li ama geç commit edilen bir kayıt
+    // imleç üzerinden atlanmasın diye en yeni kayıtlar güvenlik payı kadar bekletilir.
+    @Query("SELECT COALESCE(MAX(b.id), 0) FROM BroadcastNotification b WHERE b.createdAt <= :cutoff")
+    long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    Page<BroadcastNotification> findAllByOrderByCreatedAtDesc(Pageable pageable);
+}
@@ -2,8 +2,12 @@ package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 
 import com.fibiyo.ecommerce.domain.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query; // Özel JPQL/SQL için
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,4 +30,43 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Boolean existsByName(String name); // İsim kontrolü için
 
     Boolean existsBySlug(String slug); // Slug kontrolü için
+
+    // Yüklenen dosya temizliği için görsel URL'lerini id sırasıyla (keyset) getirir: [id, imageUrl]
+    @Query("SELECT c.id, c.imageUrl FROM Category c WHERE c.id > :afterId AND c.imageUrl IS NOT NULL ORDER BY c.id")
+    List<Object[]> findImageUrlsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Bellek içi kategori ağacı için tüm kategoriler, id sırasıyla: [id, parentId, name, slug, description, imageUrl, isActive, path]
+    @Query("SELECT c.id, p.id, c.name, c.slug, c.description, c.imageUrl, c.isActive, c.path " +
+           "FROM Category c LEFT JOIN c.parentCategory p ORDER BY c.id")
+    List<Object[]> findTreeRows();
+
+    // --- Materialized path ---
+
+    // Yeni kategori insert edildikten (id belli olduktan) sonra path'i yazar
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE categories SET path = :path, depth = :depth WHERE id = :id", nativeQuery = true)
+    int setMaterializedPath(@Param("id") Long id, @Param("path") String path, @Param("depth") int depth);
+
+    // Taşınan kategori ve tüm alt ağacının path'ini tek UPDATE ile değiştirir (oldPrefix ile başlayan her satır).
+    // pathPattern = oldPath + "%" (path sadece rakam ve '/' içerdiği için kaçış gerekmez; index aralık taraması yapılır)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE categories SET path = CONCAT(:newPath, SUBSTRING(path, :oldPathLength + 1)), depth = depth + :depthDelta " +
+            "WHERE path LIKE :pathPattern", nativeQuery = true)
+    int repathSubtree(@Param("pathPattern") String pathPattern, @Param("oldPathLength") int oldPathLength,
+                      @Param("newPath") String newPath, @Param("depthDelta") int depthDelta);
+
+    // Geriye dönük doldurma: path'i olmayan kök kategoriler
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE categories SET path = CONCAT('/', id, '/'), depth = 0 " +
+            "WHERE parent_category_id IS NULL AND path IS NULL", nativeQuery = true)
+    int fillMissingRootPaths();
+
+    // Geriye dönük doldurma: üst kategorisinin path'i belli olan bir sonraki seviye (0 dönene kadar tekrarlanır)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE categories c JOIN categories p ON p.id = c.parent_category_id " +
+            "SET c.path = CONCAT(p.path, c.id, '/'), c.depth = p.depth + 1 " +
+            "WHERE c.path IS NULL AND p.path IS NOT NULL", nativeQuery = true)
+    int fillMissingChildPaths();
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.CouponCode;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface CouponCodeRepository extends JpaRepository<CouponCode, Long>, CouponCodeRepositoryCustom {
+
+    // Sepet/sipariş için kod çözümleme: [couponId, redeemedAt]; unique index üzerinden tek satır
+    @Query("SELECT cc.coupon.id, cc.redeemedAt FROM CouponCode cc WHERE cc.code = :code")
+    List<Object[]> findLookupByCode(@Param("code") String code);
+
+    boolean existsByCode(String code);
+
+    long countByCouponId(Long couponId);
+
+    // Bloom filter'ı doldurmak için tüm kodlar; ileri yönlü cursor ile satır satır okunur
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT cc.code FROM CouponCode cc")
+    Stream<String> streamAllCodes();
+
+    // Dışa aktarım: [code, redeemedAt], üretim sırasıyla
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT cc.code, cc.redeemedAt FROM CouponCode cc WHERE cc.coupon.id = :couponId ORDER BY cc.id")
+    Stream<Object[]> streamByCouponId(@Param("couponId") Long couponId);
+
+    // Tek kullanım: sadece henüz kullanılmamışsa işaretler (etkilenen satır 0 ise kod yok veya kullanılmış)
+    @Modifying
+    @Query(value = "UPDATE coupon_codes SET redeemed_at = :now WHERE code = :code AND redeemed_at IS NULL", nativeQuery = true)
+    int markRedeemed(@Param("code") String code, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE coupon_codes SET redeemed_at = NULL WHERE code = :code AND redeemed_at IS NOT NULL", nativeQuery = true)
+    int clearRedeemed(@Param("code") String code);
+
+    // Toplu sipariş iptalinde siparişlerin tek kullanımlık kodları tek UPDATE ile tekrar kullanılabilir olur
+    @Modifying
+    @Query(value = "UPDATE coupon_codes cc JOIN orders o ON o.single_use_coupon_code = cc.code " +
+            "SET cc.redeemed_at = NULL WHERE o.id IN (:orderIds) AND cc.redeemed_at IS NOT NULL", nativeQuery = true)
+    int clearRedeemedForOrders(@Param("orderIds") List<Long> orderIds);
+}
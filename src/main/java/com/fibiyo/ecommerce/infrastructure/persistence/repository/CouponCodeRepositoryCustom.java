@@ -0,0 +1,19 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Spring Data JPA ile ifade edilemeyen toplu yazma işlemleri (CouponCodeRepositoryImpl uygular)
+public interface CouponCodeRepositoryCustom {
+
+    /**
+     * Üretilen kodları tek bir JDBC batch'i ile ekler (INSERT IGNORE). Başka bir üretimle çakışan kodlar sessizce atlanır;
+     * eksik kalan adet çağıran tarafından tekrar üretilir.
+     *
+     * @return Sürücünün bildirdiği eklenen satır sayısı (rewriteBatchedStatements ile kesin olmayabilir).
+     */
+    @Transactional
+    int insertIgnoreAll(Long couponId, List<String> codes, LocalDateTime createdAt);
+}
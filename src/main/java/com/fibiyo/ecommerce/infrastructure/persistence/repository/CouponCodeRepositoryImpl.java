@@ -0,0 +1,49 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// CouponCodeRepositoryCustom'ın uygulaması; Spring Data "Impl" son ekiyle otomatik bulur.
+public class CouponCodeRepositoryImpl implements CouponCodeRepositoryCustom {
+
+    private static final String INSERT_IGNORE_SQL =
+            "INSERT IGNORE INTO coupon_codes (coupon_id, code, created_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CouponCodeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int insertIgnoreAll(Long couponId, List<String> codes, LocalDateTime createdAt) {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, couponId);
+                ps.setString(2, codes.get(i));
+                ps.setTimestamp(3, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return codes.size();
+            }
+        });
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += count < 0 ? 1 : count;
+        }
+        return inserted;
+    }
+}
@@ -1,13 +1,21 @@
 package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 
 import com.fibiyo.ecommerce.domain.entity.Coupon;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CouponRepository extends JpaRepository<Coupon, Long> ,JpaSpecificationExecutor<Coupon>{
@@ -22,5 +30,35 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> ,JpaSpecif
     // Belirli bir kodla aktif ve geçerli kuponu bulma (sepete uygulama için)
     Optional<Coupon> findByCodeAndIsActiveTrueAndExpiryDateAfter(String code, LocalDateTime now);
 
+    // Kupon kural önbelleği için: süresi dolmamış tüm kuponlar (pasifler dahil, doğru hata mesajı için)
+    List<Coupon> findByExpiryDateAfter(LocalDateTime now);
+
     Boolean existsByCode(String code);
+
+    // Kod üretiminde çakışma kontrolü için (bloom filter'ı doldurur)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT c.code FROM Coupon c")
+    Stream<String> streamAllCodes();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Coupon c SET c.singleUseCodes = true WHERE c.id = :id")
+    int enableSingleUseCodes(@Param("id") Long id);
+
+    // Kullanım sayacı: limit kontrolü ve artırma tek koşullu UPDATE'te yapılır (etkilenen satır 0 ise limit dolmuş / kupon yok)
+    @Modifying
+    @Query(value = "UPDATE coupons SET times_used = times_used + 1 " +
+            "WHERE id = :id AND (usage_limit IS NULL OR times_used < usage_limit)", nativeQuery = true)
+    int incrementUsageIfAvailable(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE coupons SET times_used = times_used - 1 WHERE id = :id AND times_used > 0", nativeQuery = true)
+    int decrementUsage(@Param("id") Long id);
+
+    // Toplu sipariş iptalinde kullanımlar kupon başına toplanıp tek UPDATE ile geri verilir (sayaç sıfırın altına inmez)
+    @Modifying
+    @Query(value = "UPDATE coupons c JOIN (SELECT coupon_id, COUNT(*) AS used FROM orders " +
+            "WHERE id IN (:orderIds) AND coupon_id IS NOT NULL GROUP BY coupon_id) r ON r.coupon_id = c.id " +
+            "SET c.times_used = GREATEST(c.times_used - r.used, 0)", nativeQuery = true)
+    int releaseUsageForOrders(@Param("orderIds") List<Long> orderIds);
 }
\ No newline at end of file
@@ -10,10 +10,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional; // @Modifying ile @Transactional gerekli
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     // Kullanıcının bildirimlerini tarihe göre tersten sayfalı getir
     Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
@@ -29,4 +31,62 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying // Veriyi değiştiren bir sorgu olduğunu belirtir
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
     int markAllAsReadByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    // Kullanıcının segmentine uyan (afterId, upToId] aralığındaki toplu bildirimleri tek INSERT ... SELECT ile
+    // kullanıcının bildirimlerine aktarır. Kullanıcı kaydından önce gönderilenler ve süresi dolanlar alınmaz.
+    // uk_notification_user_broadcast sayesinde aynı toplu bildirim iki kez eklenmez.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO notifications (user_id, message, link, type, is_read, created_at, broadcast_id) " +
+            "SELECT :userId, b.message, b.link, b.type, false, b.created_at, b.id FROM broadcast_notifications b " +
+            "WHERE b.id > :afterId AND b.id <= :upToId AND b.created_at >= :userCreatedAt " +
+            "AND (b.expires_at IS NULL OR b.expires_at > CURRENT_TIMESTAMP) " +
+            "AND (b.target_role IS NULL OR b.target_role = :role) " +
+            "AND (b.target_subscription_type IS NULL OR b.target_subscription_type = :subscriptionType) " +
+            "AND (b.explicit_recipients = false OR EXISTS (SELECT 1 FROM broadcast_notification_recipients r " +
+            "WHERE r.broadcast_id = b.id AND r.user_id = :userId))", nativeQuery = true)
+    int materializeBroadcasts(@Param("userId") Long userId, @Param("afterId") long afterId, @Param("upToId") long upToId,
+                              @Param("role") String role, @Param("subscriptionType") String subscriptionType,
+                              @Param("userCreatedAt") LocalDateTime userCreatedAt);
+
+    // Tek bildirimi sadece okunmamışsa okundu yapar; 1 dönerse okunmamış sayacı azaltılmalıdır.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :notificationId AND n.isRead = false")
+    int markAsReadIfUnread(@Param("notificationId") Long notificationId);
+
+    // Bellekteki okunmamış sayaçlarının mutabakatı için: [userId, unreadCount]
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.isRead = false AND n.user.id IN :userIds GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // --- Saklama (retention) ve arşiv ---
+
+    // Arşivlenecek adaylar: cutoff'tan eski ve okunmuş bildirimler, id sırasıyla (keyset)
+    @Query("SELECT n.id FROM Notification n WHERE n.id > :afterId AND n.isRead = true AND n.createdAt < :cutoff ORDER BY n.id")
+    List<Long> findArchivableIdsAfterId(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Okunmamış hale getirilmiş satırları kopyalamamak için is_read tekrar kontrol edilir
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO notifications_archive (id, user_id, message, link, is_read, created_at, type, broadcast_id, archived_at) " +
+            "SELECT id, user_id, message, link, is_read, created_at, type, broadcast_id, CURRENT_TIMESTAMP FROM notifications " +
+            "WHERE id IN (:ids) AND is_read = true", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    // Sadece arşive kopyalanmış satırlar silinir
+    @Modifying
+    @Query(value = "DELETE n FROM notifications n JOIN notifications_archive a ON a.id = n.id WHERE n.id IN (:ids)", nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+
+    // Bir parçayı tek transaction içinde arşive taşır (kopyala + sil); yarıda kalırsa ikisi de geri alınır.
+    @Transactional
+    default int moveToArchive(Collection<Long> ids) {
+        copyToArchive(ids);
+        return deleteArchived(ids);
+    }
+
+    // Arşivlenmiş bildirimler (istek üzerine): [id, message, link, isRead, createdAt, type]
+    @Query(value = "SELECT id, message, link, is_read, created_at, type FROM notifications_archive " +
+            "WHERE user_id = :userId ORDER BY created_at DESC, id DESC",
+            countQuery = "SELECT COUNT(*) FROM notifications_archive WHERE user_id = :userId",
+            nativeQuery = true)
+    Page<Object[]> findArchivedByUserId(@Param("userId") Long userId, Pageable pageable);
+}
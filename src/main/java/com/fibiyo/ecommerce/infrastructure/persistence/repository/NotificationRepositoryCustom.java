@@ -0,0 +1,48 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.enums.NotificationType;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Spring Data JPA ile ifade edilemeyen toplu yazma işlemleri (NotificationRepositoryImpl uygular)
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Okunmamış bildirimleri tek bir JDBC batch'i ile ekler (MySQL'de rewriteBatchedStatements ile çok satırlı INSERT olur).
+     * IDENTITY id'ler nedeniyle Hibernate batch insert yapamadığı için JDBC kullanılır.
+     *
+     * Her zaman kendi transaction'ında çalışır (commit sonrası callback'lerden de güvenle çağrılabilir).
+     *
+     * @return Üretilen id'ler, satırlarla aynı sırada.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    List<Long> insertAllUnread(List<NewNotificationRow> rows);
+
+    // --- Arşiv tablosu DDL'i (notifications_archive bir JPA entity'si değil; ddl-auto onu oluşturmaz) ---
+
+    /**
+     * notifications_archive yoksa verilen yıllar ve pmax partition'larıyla oluşturur (CREATE TABLE IF NOT EXISTS).
+     */
+    void createArchiveTableIfMissing(List<Integer> years);
+
+    /**
+     * Arşiv tablosundaki yıllık partition'lar (pYYYY adlarından), artan sırada. Tablo partition'sızsa boş döner.
+     */
+    List<Integer> findArchivePartitionYears();
+
+    /**
+     * pmax partition'ını bölerek verilen yıl için partition ekler. pmax boş tutulduğu için işlem sadece metadata değişikliğidir.
+     */
+    void addArchivePartition(int year);
+
+    /**
+     * Verilen yılın partition'ını (içindeki tüm arşiv satırlarıyla) siler.
+     */
+    void dropArchivePartition(int year);
+
+    record NewNotificationRow(Long userId, String message, String link, NotificationType type, LocalDateTime createdAt) {
+    }
+}
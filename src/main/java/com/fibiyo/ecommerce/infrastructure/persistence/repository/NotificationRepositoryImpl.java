@@ -0,0 +1,124 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// NotificationRepositoryCustom'ın uygulaması; Spring Data "Impl" son ekiyle otomatik bulur.
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, message, link, type, is_read, created_at) VALUES (?, ?, ?, ?, false, ?)";
+
+    private static final String ARCHIVE_TABLE = "notifications_archive";
+
+    // schema.sql ile aynı tanım; partition listesi çalışma anında eklenir
+    private static final String CREATE_ARCHIVE_SQL =
+            "CREATE TABLE IF NOT EXISTS notifications_archive (" +
+            "id BIGINT NOT NULL, " +
+            "user_id BIGINT NOT NULL, " +
+            "message TEXT NOT NULL, " +
+            "link VARCHAR(1024) NULL, " +
+            "is_read BOOLEAN NOT NULL, " +
+            "created_at TIMESTAMP NOT NULL, " +
+            "type VARCHAR(50) NULL, " +
+            "broadcast_id BIGINT NULL, " +
+            "archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL, " +
+            "PRIMARY KEY (id, created_at), " +
+            "KEY idx_notifications_archive_user_created (user_id, created_at)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ROW_FORMAT=COMPRESSED " +
+            "PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (%s, PARTITION pmax VALUES LESS THAN MAXVALUE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> insertAllUnread(List<NewNotificationRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NewNotificationRow row = rows.get(i);
+                        ps.setLong(1, row.userId());
+                        ps.setString(2, row.message());
+                        ps.setString(3, row.link());
+                        if (row.type() != null) {
+                            ps.setString(4, row.type().name());
+                        } else {
+                            ps.setNull(4, Types.VARCHAR);
+                        }
+                        ps.setTimestamp(5, Timestamp.valueOf(row.createdAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    @Override
+    public void createArchiveTableIfMissing(List<Integer> years) {
+        String partitions = years.stream().sorted().map(NotificationRepositoryImpl::yearPartition).collect(Collectors.joining(", "));
+        jdbcTemplate.execute(String.format(CREATE_ARCHIVE_SQL, partitions));
+    }
+
+    @Override
+    public List<Integer> findArchivePartitionYears() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                String.class, ARCHIVE_TABLE);
+        List<Integer> years = new ArrayList<>();
+        for (String name : names) {
+            if (name.matches("p\\d{4}")) {
+                years.add(Integer.parseInt(name.substring(1)));
+            }
+        }
+        Collections.sort(years);
+        return years;
+    }
+
+    @Override
+    public void addArchivePartition(int year) {
+        jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " REORGANIZE PARTITION pmax INTO (" +
+                yearPartition(year) + ", PARTITION pmax VALUES LESS THAN MAXVALUE)");
+    }
+
+    @Override
+    public void dropArchivePartition(int year) {
+        jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " DROP PARTITION p" + year);
+    }
+
+    // pYYYY: created_at < (YYYY+1)-01-01
+    private static String yearPartition(int year) {
+        return "PARTITION p" + year + " VALUES LESS THAN (UNIX_TIMESTAMP('" + (year + 1) + "-01-01 00:00:00'))";
+    }
+}
@@ -2,6 +2,8 @@ package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 
 import com.fibiyo.ecommerce.domain.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,9 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     // Belirli bir ürünü içeren tüm sipariş kalemleri (Ürün satış analizi için)
     List<OrderItem> findByProductId(Long productId);
+
+    // Siparişlerdeki (silinmemiş ürünlere ait) toplam adet; stoğa geri dönecek birim sayısı
+    @Query(value = "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE order_id IN (:orderIds) AND product_id IS NOT NULL",
+            nativeQuery = true)
+    long sumRestorableQuantityByOrderIds(@Param("orderIds") List<Long> orderIds);
 }
\ No newline at end of file
@@ -2,14 +2,24 @@ package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 
 import com.fibiyo.ecommerce.domain.entity.Order;
 import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Sipariş filtreleme için
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> { // Specification Executor eklendi
@@ -31,6 +41,38 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     Optional<Order> findFirstByCustomerIdAndOrderItems_Product_IdAndStatusOrderByOrderDateDesc(
         Long customerId, Long productId, OrderStatus status
     );
+
+    // KPI yeniden hesaplama: tüm siparişler entity oluşturmadan akış halinde okunur.
+    // Integer.MIN_VALUE fetch size, MySQL sürücüsünde satır satır streaming'i açar (sonuç belleğe alınmaz).
+    // [status, paymentStatus, totalAmount, discountAmount, shippingFee, orderDate]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o.status, o.paymentStatus, o.totalAmount, o.discountAmount, o.shippingFee, o.orderDate FROM Order o")
+    Stream<Object[]> streamKpiRows();
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    long findMaxId();
+
+    // Durum geçişleri (ödeme webhook'u, iptal, bayat sipariş temizliği) aynı satırı kilitleyerek sıraya girer;
+    // kilidi bekleyen taraf diğerinin commit ettiği güncel durumu okur.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    // Bayat sipariş temizliği: (status, order_date) indeksinde (order_date, id) keyset'i ile bir sonraki parça;
+    // satırlar parça transaction'ı boyunca kilitlenir (aynı anda gelen ödeme webhook'u parça bitene kadar bekler).
+    // Dönen satırlar: [id, customer_id, order_date]
+    @Query(value = "SELECT id, customer_id, order_date FROM orders " +
+            "WHERE status = 'PENDING_PAYMENT' AND order_date < :cutoff " +
+            "AND (order_date > :lastOrderDate OR (order_date = :lastOrderDate AND id > :lastId)) " +
+            "ORDER BY order_date, id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Object[]> findStalePendingPaymentChunk(@Param("cutoff") LocalDateTime cutoff, @Param("lastOrderDate") LocalDateTime lastOrderDate,
+                                                @Param("lastId") long lastId, @Param("limit") int limit);
+
+    // Parçadaki siparişleri tek UPDATE ile iptal eder; ödeme durumu (PENDING/FAILED) olduğu gibi kalır
+    @Modifying
+    @Query(value = "UPDATE orders SET status = 'CANCELLED_BY_ADMIN', updated_at = :now " +
+            "WHERE id IN (:ids) AND status = 'PENDING_PAYMENT'", nativeQuery = true)
+    int cancelPendingPayment(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
     
         
 }
\ No newline at end of file
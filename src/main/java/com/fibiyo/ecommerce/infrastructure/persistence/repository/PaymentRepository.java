@@ -3,6 +3,8 @@ package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 import com.fibiyo.ecommerce.domain.entity.Payment;
 import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,5 +17,9 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByTransactionId(String transactionId);
 
+    // Webhook bölümleme: PaymentIntent id'sinden siparişi bulur (charge.refunded sipariş event'leriyle aynı sıraya girer)
+    @Query("SELECT p.order.id FROM Payment p WHERE p.transactionId = :transactionId")
+    Optional<Long> findOrderIdByTransactionId(@Param("transactionId") String transactionId);
+
     List<Payment> findByOrderIdAndStatus(Long orderId, PaymentStatus status);
 }
\ No newline at end of file
@@ -5,13 +5,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Filtreleme için gerekli
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> { // Specification Executor eklendi
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom { // Specification Executor eklendi
 
     boolean existsBySlug(String slug);
  
@@ -19,6 +26,13 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     Optional<Product> findBySku(String sku); // SKU ile bulma
 
+    // Toplu içe aktarma: verilen slug/SKU'lardan veritabanında zaten kullanılanlar (tek IN sorgusu)
+    @Query("SELECT p.slug FROM Product p WHERE p.slug IN :slugs")
+    List<String> findExistingSlugs(@Param("slugs") Collection<String> slugs);
+
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
     // Aktif ve onaylanmış ürünleri sayfalama ile getirme (Genel kullanıcı listesi için)
     Page<Product> findByIsActiveTrueAndIsApprovedTrue(Pageable pageable);
 
@@ -31,7 +45,133 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     // Admin onayı bekleyen ürünler (Onaylanmamış ve aktif olanlar?)
     Page<Product> findByIsApprovedFalse(Pageable pageable); // Duruma göre 'findByIsApprovedFalseAndIsActiveTrue' olabilir
 
+    // Admin paneli: onay bekleyen ürün sayısı
+    long countByIsApprovedFalse();
+
+    // Yüklenen dosya temizliği için görsel URL'lerini id sırasıyla (keyset) getirir: [id, imageUrl, aiGeneratedImageUrl]
+    @Query("SELECT p.id, p.imageUrl, p.aiGeneratedImageUrl FROM Product p " +
+           "WHERE p.id > :afterId AND (p.imageUrl IS NOT NULL OR p.aiGeneratedImageUrl IS NOT NULL) ORDER BY p.id")
+    List<Object[]> findImageUrlsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Product p")
+    long findMaxId();
+
+    // --- Kategori path'i (denormalize) ---
+
+    // Ürünün kategorisi değiştiğinde category_path'i kategorinin güncel path'inden kopyalar
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products p LEFT JOIN categories c ON c.id = p.category_id " +
+            "SET p.category_path = c.path WHERE p.id = :productId", nativeQuery = true)
+    int syncCategoryPath(@Param("productId") Long productId);
+
+    // Kategori taşındıktan sonra eski path ile başlayan ürünler id sırasıyla (keyset) parça parça güncellenir.
+    // Sonraki parça son id'den sonra başladığı için yeniden yazılmış satırlar (yeni path eski önekle eşleşse bile) tekrar seçilmez.
+    @Query("SELECT p.id FROM Product p WHERE p.categoryPath LIKE :pathPattern AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByCategoryPathAfterId(@Param("pathPattern") String pathPattern, @Param("afterId") long afterId, Pageable pageable);
+
+    // Bir parçanın path'ini değiştirir; her parça kendi transaction'ında
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE products SET category_path = CONCAT(:newPath, SUBSTRING(category_path, :oldPathLength + 1)) " +
+            "WHERE id IN (:ids) AND category_path LIKE :pathPattern", nativeQuery = true)
+    int repathCategoryBatch(@Param("ids") Collection<Long> ids, @Param("pathPattern") String pathPattern,
+                            @Param("oldPathLength") int oldPathLength, @Param("newPath") String newPath);
+
+    // Silinen kategori alt ağacındaki ürünlerin path'ini temizler (FK zaten category_id'yi NULL yapar)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products SET category_path = NULL WHERE category_path LIKE :pathPattern", nativeQuery = true)
+    int clearCategoryPaths(@Param("pathPattern") String pathPattern);
+
+    // Geriye dönük doldurma / mutabakat: id aralığındaki eksik veya eskimiş category_path değerlerini düzeltir
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products p LEFT JOIN categories c ON c.id = p.category_id SET p.category_path = c.path " +
+            "WHERE p.id > :fromId AND p.id <= :toId AND NOT (p.category_path <=> c.path)", nativeQuery = true)
+    int reconcileCategoryPathRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // --- Puan (rating) toplamları ---
+
+    // Onaylı yorum eklenince/çıkınca puan toplamını, sayısını, yıldız dağılımını ve ortalamayı tek UPDATE ile artımlı günceller.
+    // average_rating eski değerlerden hesaplanır ve ilk sırada atanır (MySQL atamaları soldan sağa değerlendirir).
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products SET " +
+            "average_rating = CASE WHEN review_count + :countDelta > 0 " +
+            "THEN ROUND((rating_sum + :rating * :countDelta) / (review_count + :countDelta), 2) ELSE 0 END, " +
+            "rating_sum = rating_sum + :rating * :countDelta, " +
+            "reviews_version = reviews_version + 1, " +
+            "review_count = review_count + :countDelta, " +
+            "rating_1_count = rating_1_count + CASE WHEN :rating = 1 THEN :countDelta ELSE 0 END, " +
+            "rating_2_count = rating_2_count + CASE WHEN :rating = 2 THEN :countDelta ELSE 0 END, " +
+            "rating_3_count = rating_3_count + CASE WHEN :rating = 3 THEN :countDelta ELSE 0 END, " +
+            "rating_4_count = rating_4_count + CASE WHEN :rating = 4 THEN :countDelta ELSE 0 END, " +
+            "rating_5_count = rating_5_count + CASE WHEN :rating = 5 THEN :countDelta ELSE 0 END " +
+            "WHERE id = :productId", nativeQuery = true)
+    int applyRatingDelta(@Param("productId") Long productId, @Param("rating") int rating, @Param("countDelta") int countDelta);
+
+    // Mutabakat işi için saklanan toplamları id sırasıyla (keyset) getirir:
+    // [id, ratingSum, reviewCount, rating1Count, rating2Count, rating3Count, rating4Count, rating5Count]
+    @Query("SELECT p.id, p.ratingSum, p.reviewCount, p.rating1Count, p.rating2Count, p.rating3Count, p.rating4Count, p.rating5Count " +
+           "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findRatingTotalsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Sapma (drift) tespit edilen ürünlerin toplamlarını yorum tablosundan yeniden hesaplar
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products p SET " +
+            "p.reviews_version = p.reviews_version + 1, " +
+            "p.rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true), " +
+            "p.review_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true), " +
+            "p.average_rating = (SELECT COALESCE(ROUND(AVG(r.rating), 2), 0) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true), " +
+            "p.rating_1_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true AND r.rating = 1), " +
+            "p.rating_2_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true AND r.rating = 2), " +
+            "p.rating_3_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true AND r.rating = 3), " +
+            "p.rating_4_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true AND r.rating = 4), " +
+            "p.rating_5_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true AND r.rating = 5) " +
+            "WHERE p.id IN (:productIds)", nativeQuery = true)
+    int recalculateRatingTotals(@Param("productIds") Collection<Long> productIds);
+
+    // --- AI yorum özeti ---
+
+    // Yorumları son özetten sonra değişmiş ürünler (keyset): [id, name, reviewsVersion]
+    @Query("SELECT p.id, p.name, p.reviewsVersion FROM Product p " +
+           "WHERE p.id > :afterId AND p.reviewSummaryVersion < p.reviewsVersion ORDER BY p.id")
+    List<Object[]> findProductsWithStaleReviewSummaryAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // reviews_version sonradan eklendiği için onaylı yorumu olan eski ürünler 0/0 ile başlar ve hiç özetlenmez;
+    // bu ürünlerin sürümü bir kez artırılarak özetleme işine dahil edilir (id aralığı bazında, tekrar çalıştırılabilir)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products p SET p.reviews_version = p.reviews_version + 1 " +
+            "WHERE p.id > :fromId AND p.id <= :toId AND p.reviews_version = 0 " +
+            "AND EXISTS (SELECT 1 FROM reviews r WHERE r.product_id = p.id AND r.is_approved = true)", nativeQuery = true)
+    int markUnversionedReviewedProductsRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Özeti ve özetin üretildiği yorum sürümünü (watermark) yazar. Watermark geri gitmez.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products SET review_summary_ai = :summary, review_summary_version = :sourceVersion " +
+            "WHERE id = :productId AND review_summary_version < :sourceVersion", nativeQuery = true)
+    int updateReviewSummary(@Param("productId") Long productId, @Param("summary") String summary, @Param("sourceVersion") long sourceVersion);
+
+    // Bir partinin özetlerini tek transaction içinde yazar (satır başına ayrı commit olmaz).
+    @Transactional
+    default int updateReviewSummaries(List<ReviewSummaryUpdate> updates) {
+        int updated = 0;
+        for (ReviewSummaryUpdate update : updates) {
+            updated += updateReviewSummary(update.productId(), update.summary(), update.sourceVersion());
+        }
+        return updated;
+    }
+
+    record ReviewSummaryUpdate(Long productId, String summary, long sourceVersion) {
+    }
+
+    // İptal edilen siparişlerin kalemlerini ürün başına toplayıp stoğa tek UPDATE ile geri ekler (ürün başına save yerine).
+    // version artırılır ki stoğu okuyup kaydetmek üzere olan bir istek optimistic lock hatası alsın, stoğu ezmesin.
+    @Modifying
+    @Query(value = "UPDATE products p JOIN (SELECT product_id, SUM(quantity) AS qty FROM order_items " +
+            "WHERE order_id IN (:orderIds) AND product_id IS NOT NULL GROUP BY product_id) r ON r.product_id = p.id " +
+            "SET p.stock = p.stock + r.qty, p.version = p.version + 1, p.updated_at = :now", nativeQuery = true)
+    int restoreStockForOrders(@Param("orderIds") List<Long> orderIds, @Param("now") LocalDateTime now);
 }
-/*
- * Not: Gelişmiş filtreleme (price < X, rating > Y vb.) JpaSpecificationExecutor ile Specification API kullanılarak servis katmanında yapılacak.
- */
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Spring Data JPA ile ifade edilemeyen toplu yazma işlemleri (ProductRepositoryImpl uygular)
+public interface ProductRepositoryCustom {
+
+    /**
+     * Toplu içe aktarılan ürünleri tek bir JDBC batch'i ile ekler (MySQL'de rewriteBatchedStatements ile çok satırlı INSERT olur).
+     * IDENTITY id'ler nedeniyle Hibernate batch insert yapamadığı için JDBC kullanılır.
+     * Ürünler onaysız (is_approved = false) ve aktif başlar; puan/yorum sayaçları sıfırdır.
+     *
+     * @return Eklenen satır sayısı.
+     */
+    @Transactional
+    int insertAllForImport(List<NewProductRow> rows);
+
+    record NewProductRow(String name, String slug, String description, BigDecimal price, int stock,
+                         String sku, String imageUrl, Long categoryId, String categoryPath, Long sellerId,
+                         LocalDateTime createdAt) {
+    }
+}
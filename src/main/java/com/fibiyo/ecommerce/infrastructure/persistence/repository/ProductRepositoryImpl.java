@@ -0,0 +1,69 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// ProductRepositoryCustom'ın uygulaması; Spring Data "Impl" son ekiyle otomatik bulur.
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    // Entity varsayılanları (version, sayaçlar, sürümler) açıkça yazılır; ddl-auto ile oluşan tabloda DB default'u olmayabilir.
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, slug, description, price, stock, sku, image_url, category_id, category_path, seller_id, " +
+            "is_approved, is_active, version, average_rating, review_count, rating_sum, " +
+            "rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, " +
+            "reviews_version, review_summary_version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, true, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int insertAllForImport(List<NewProductRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NewProductRow row = rows.get(i);
+                ps.setString(1, row.name());
+                ps.setString(2, row.slug());
+                ps.setString(3, row.description());
+                ps.setBigDecimal(4, row.price());
+                ps.setInt(5, row.stock());
+                ps.setString(6, row.sku());
+                ps.setString(7, row.imageUrl());
+                if (row.categoryId() != null) {
+                    ps.setLong(8, row.categoryId());
+                } else {
+                    ps.setNull(8, Types.BIGINT);
+                }
+                ps.setString(9, row.categoryPath());
+                ps.setLong(10, row.sellerId());
+                Timestamp createdAt = Timestamp.valueOf(row.createdAt());
+                ps.setTimestamp(11, createdAt);
+                ps.setTimestamp(12, createdAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        // rewriteBatchedStatements ile sürücü satır sayısı yerine SUCCESS_NO_INFO (-2) dönebilir
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += count < 0 ? 1 : count;
+        }
+        return inserted;
+    }
+}
@@ -3,13 +3,17 @@ package com.fibiyo.ecommerce.infrastructure.persistence.repository;
 import com.fibiyo.ecommerce.domain.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Yorum filtreleme (onay durumu vb.)
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +37,45 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
 
     // Bir ürünün toplam onaylı yorum sayısını hesaplamak için
     long countByProductIdAndIsApprovedTrue(Long productId);
-}
\ No newline at end of file
+
+    // Admin paneli: onay bekleyen yorum sayısı
+    long countByIsApprovedFalse();
+
+    // Onay durumunu sadece gerçekten değişiyorsa günceller; 1 dönerse puan toplamlarına delta uygulanmalıdır.
+    // Aynı yorumu eşzamanlı onaylayan iki istekten sadece biri 1 alır, böylece puan iki kez eklenmez.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.isApproved = :approved WHERE r.id = :reviewId AND r.isApproved <> :approved")
+    int updateApprovalIfChanged(@Param("reviewId") Long reviewId, @Param("approved") boolean approved);
+
+    // Mutabakat için ürün ve puan bazında onaylı yorum sayıları: [productId, rating, count]
+    @Query("SELECT r.product.id, r.rating, COUNT(r) FROM Review r " +
+           "WHERE r.isApproved = true AND r.product.id IN :productIds GROUP BY r.product.id, r.rating")
+    List<Object[]> countApprovedRatingsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Ürün sayfasındaki yorum bloğu için en yeni onaylı yorumlar (COUNT sorgusu çalıştırmaz, müşteri tek sorguda gelir)
+    @EntityGraph(attributePaths = {"customer"})
+    List<Review> findByProductIdAndIsApprovedTrueOrderByCreatedAtDesc(Long productId, Pageable pageable);
+
+    // AI özetleme için en yeni onaylı yorumların puan ve metni: [rating, comment]
+    @Query("SELECT r.rating, r.comment FROM Review r WHERE r.product.id = :productId AND r.isApproved = true " +
+           "AND r.comment IS NOT NULL ORDER BY r.createdAt DESC")
+    List<Object[]> findApprovedRatingsAndCommentsByProductId(@Param("productId") Long productId, Pageable pageable);
+
+    // --- Toplu moderasyon (set-based) ---
+
+    // Verilen yorumların ait olduğu ürünler (puanları işlem sonunda yeniden hesaplanır)
+    @Query("SELECT DISTINCT r.product.id FROM Review r WHERE r.id IN :reviewIds")
+    List<Long> findDistinctProductIdsByReviewIds(@Param("reviewIds") Collection<Long> reviewIds);
+
+    // Sadece durumu gerçekten değişen yorumları günceller; değişen satır sayısını döner.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.isApproved = :approved WHERE r.id IN :reviewIds AND r.isApproved <> :approved")
+    int updateApprovalForIds(@Param("reviewIds") Collection<Long> reviewIds, @Param("approved") boolean approved);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.id IN :reviewIds")
+    int deleteAllByIdIn(@Param("reviewIds") Collection<Long> reviewIds);
+}
@@ -0,0 +1,30 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.SellerDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SellerDailyStatsRepository extends JpaRepository<SellerDailyStats, SellerDailyStats.Key> {
+
+    // Satıcı paneli: tarih aralığındaki günlük satırlar (PK önek taraması)
+    List<SellerDailyStats> findBySellerIdAndStatDateBetweenOrderByStatDateAsc(Long sellerId, LocalDate from, LocalDate to);
+
+    // Satırı yoksa oluşturur, varsa sayaçlara ekler (delta'lar negatif de olabilir)
+    @Modifying
+    @Query(value = "INSERT INTO seller_daily_stats (seller_id, stat_date, units_sold, revenue, order_count, refunded_order_count, refunded_amount) " +
+            "VALUES (:sellerId, :statDate, :units, :revenue, :orders, :refundedOrders, :refundedAmount) " +
+            "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), revenue = revenue + VALUES(revenue), " +
+            "order_count = order_count + VALUES(order_count), refunded_order_count = refunded_order_count + VALUES(refunded_order_count), " +
+            "refunded_amount = refunded_amount + VALUES(refunded_amount)", nativeQuery = true)
+    int upsertDelta(@Param("sellerId") Long sellerId, @Param("statDate") LocalDate statDate,
+                    @Param("units") int units, @Param("revenue") BigDecimal revenue, @Param("orders") int orders,
+                    @Param("refundedOrders") int refundedOrders, @Param("refundedAmount") BigDecimal refundedAmount);
+}
@@ -0,0 +1,31 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.SellerHourlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SellerHourlyStatsRepository extends JpaRepository<SellerHourlyStats, SellerHourlyStats.Key> {
+
+    List<SellerHourlyStats> findBySellerIdAndStatHourGreaterThanEqualOrderByStatHourAsc(Long sellerId, LocalDateTime from);
+
+    @Modifying
+    @Query(value = "INSERT INTO seller_hourly_stats (seller_id, stat_hour, units_sold, revenue, order_count) " +
+            "VALUES (:sellerId, :statHour, :units, :revenue, :orders) " +
+            "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), revenue = revenue + VALUES(revenue), " +
+            "order_count = order_count + VALUES(order_count)", nativeQuery = true)
+    int upsertDelta(@Param("sellerId") Long sellerId, @Param("statHour") LocalDateTime statHour,
+                    @Param("units") int units, @Param("revenue") BigDecimal revenue, @Param("orders") int orders);
+
+    // Saatlik satırlar sadece kısa süreli grafik için tutulur
+    @Modifying
+    @Query("DELETE FROM SellerHourlyStats s WHERE s.statHour < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,66 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.SellerOrderLine;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SellerOrderLineRepository extends JpaRepository<SellerOrderLine, Long> {
+
+    // Satıcının sipariş kalemleri, en yeni önce ((seller_id, order_date, order_id) indeks sırasıyla; PK index'in son kolonu)
+    Page<SellerOrderLine> findBySellerIdOrderByOrderDateDescOrderIdDescOrderItemIdDesc(Long sellerId, Pageable pageable);
+
+    Page<SellerOrderLine> findBySellerIdAndOrderStatusOrderByOrderDateDescOrderIdDescOrderItemIdDesc(Long sellerId, OrderStatus orderStatus, Pageable pageable);
+
+    // Satıcının ürününü içeren siparişler (sipariş başına tek satır), en yeni önce: [orderDate, orderId].
+    // Keyset sayfalama: (orderDate, orderId) önceki sayfanın son siparişinden küçük olanlar, indeks sırasıyla okunur
+    // (OFFSET ve COUNT yok). Durum filtresi olan ve olmayan sorgular ayrıdır; her biri kendi indeksinde aralık taraması yapar.
+    @Query("SELECT DISTINCT l.orderDate, l.orderId FROM SellerOrderLine l WHERE l.sellerId = :sellerId " +
+            "AND (l.orderDate < :beforeDate OR (l.orderDate = :beforeDate AND l.orderId < :beforeOrderId)) " +
+            "ORDER BY l.orderDate DESC, l.orderId DESC")
+    List<Object[]> findOrderKeysBySellerIdBefore(@Param("sellerId") Long sellerId, @Param("beforeDate") LocalDateTime beforeDate,
+                                                 @Param("beforeOrderId") Long beforeOrderId, Pageable pageable);
+
+    @Query("SELECT DISTINCT l.orderDate, l.orderId FROM SellerOrderLine l WHERE l.sellerId = :sellerId AND l.orderStatus = :status " +
+            "AND (l.orderDate < :beforeDate OR (l.orderDate = :beforeDate AND l.orderId < :beforeOrderId)) " +
+            "ORDER BY l.orderDate DESC, l.orderId DESC")
+    List<Object[]> findOrderKeysBySellerIdAndStatusBefore(@Param("sellerId") Long sellerId, @Param("status") OrderStatus status,
+                                                          @Param("beforeDate") LocalDateTime beforeDate,
+                                                          @Param("beforeOrderId") Long beforeOrderId, Pageable pageable);
+
+    // Sipariş yetki kontrolü: satıcının bu siparişte kalemi var mı?
+    boolean existsByOrderIdAndSellerId(Long orderId, Long sellerId);
+
+    // Sipariş durumu değişince siparişin tüm satırları tek UPDATE ile güncellenir
+    @Modifying
+    @Query("UPDATE SellerOrderLine l SET l.orderStatus = :orderStatus, l.paymentStatus = :paymentStatus WHERE l.orderId = :orderId")
+    int updateStatusByOrderId(@Param("orderId") Long orderId, @Param("orderStatus") OrderStatus orderStatus,
+                              @Param("paymentStatus") PaymentStatus paymentStatus);
+
+    // Toplu durum değişikliği (bayat sipariş iptali): sadece sipariş durumu; ödeme durumu siparişten siparişe farklı olabilir
+    @Modifying
+    @Query("UPDATE SellerOrderLine l SET l.orderStatus = :orderStatus WHERE l.orderId IN :orderIds")
+    int updateOrderStatusByOrderIds(@Param("orderIds") List<Long> orderIds, @Param("orderStatus") OrderStatus orderStatus);
+
+    // Okuma modeli eklenmeden önceki siparişler için geriye dönük doldurma (sipariş ID aralığı bazında, tekrar çalıştırılabilir)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO seller_order_lines (order_item_id, seller_id, order_id, customer_id, product_id, product_name, " +
+            "quantity, price_at_purchase, line_total, order_status, payment_status, order_date) " +
+            "SELECT oi.id, p.seller_id, o.id, o.customer_id, p.id, p.name, oi.quantity, oi.price_at_purchase, " +
+            "oi.quantity * oi.price_at_purchase, o.status, o.payment_status, o.order_date " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.id > :afterOrderId AND o.id <= :upToOrderId", nativeQuery = true)
+    int backfillOrderRange(@Param("afterOrderId") long afterOrderId, @Param("upToOrderId") long upToOrderId);
+}
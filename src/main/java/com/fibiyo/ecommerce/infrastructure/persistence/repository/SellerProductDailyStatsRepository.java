@@ -0,0 +1,32 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.SellerProductDailyStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SellerProductDailyStatsRepository extends JpaRepository<SellerProductDailyStats, SellerProductDailyStats.Key> {
+
+    // En çok satan ürünler: [productId, units, revenue], ciroya göre azalan
+    @Query("SELECT s.productId, SUM(s.unitsSold), SUM(s.revenue) FROM SellerProductDailyStats s " +
+            "WHERE s.sellerId = :sellerId AND s.statDate BETWEEN :from AND :to " +
+            "GROUP BY s.productId ORDER BY SUM(s.revenue) DESC")
+    List<Object[]> findTopProducts(@Param("sellerId") Long sellerId, @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO seller_product_daily_stats (seller_id, stat_date, product_id, units_sold, revenue) " +
+            "VALUES (:sellerId, :statDate, :productId, :units, :revenue) " +
+            "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), revenue = revenue + VALUES(revenue)",
+            nativeQuery = true)
+    int upsertDelta(@Param("sellerId") Long sellerId, @Param("statDate") LocalDate statDate, @Param("productId") Long productId,
+                    @Param("units") int units, @Param("revenue") BigDecimal revenue);
+}
@@ -0,0 +1,110 @@
+package com.fibiyo.ecommerce.infrastructure.persistence.repository;
+
+import com.fibiyo.ecommerce.domain.entity.StripeWebhookEvent;
+import com.fibiyo.ecommerce.domain.enums.WebhookEventStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Durum geçişlerinin hepsi koşullu UPDATE'tir: etkilenen satır 0 ise başka bir worker/instance satırı zaten almıştır.
+// Webhook kuyruğu transaction dışında çalıştığı için değiştiren metotlar kendi transaction'larını açar.
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, Long> {
+
+    // Tekrar gelen event (aynı event_id) unique index'e takılır ve sessizce atlanır; 0 dönerse kopyadır
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO stripe_webhook_events " +
+            "(event_id, event_type, partition_key, payload, signature_header, status, attempts, next_attempt_at, received_at) " +
+            "VALUES (:eventId, :eventType, :partitionKey, :payload, :signatureHeader, 'PENDING', 0, :now, :now)", nativeQuery = true)
+    int insertIgnore(@Param("eventId") String eventId, @Param("eventType") String eventType,
+                     @Param("partitionKey") String partitionKey, @Param("payload") String payload,
+                     @Param("signatureHeader") String signatureHeader, @Param("now") LocalDateTime now);
+
+    @Query("SELECT e.id FROM StripeWebhookEvent e WHERE e.eventId = :eventId")
+    Optional<Long> findIdByEventId(@Param("eventId") String eventId);
+
+    // Zamanı gelmiş event'ler: [id, partition_key]; (status, next_attempt_at) index'i üzerinden, payload okunmadan.
+    // Aynı bölümde daha eski bitmemiş (PENDING/PROCESSING) event'i olanlar atlanır; sırası gelince seçilirler.
+    @Query(value = "SELECT e.id, e.partition_key FROM stripe_webhook_events e WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM stripe_webhook_events p WHERE p.partition_key = e.partition_key " +
+            "AND p.status IN ('PENDING', 'PROCESSING') AND p.id < e.id) " +
+            "ORDER BY e.next_attempt_at, e.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Bölümün sıradaki (en eski bitmemiş) event'i zamanı geldiyse id'si; bir event bitince ardındaki poller beklenmeden alınır
+    @Query(value = "SELECT id FROM stripe_webhook_events WHERE partition_key = :partitionKey AND status IN ('PENDING', 'PROCESSING') " +
+            "ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<Long> findHeadOfPartition(@Param("partitionKey") String partitionKey);
+
+    // Sahiplenme, aynı bölümde daha eski bitmemiş event yoksa yapılır (retry beklemesindeki event'in önüne geçilmez).
+    // MySQL UPDATE içinde aynı tabloya alt sorguya izin vermediği için kontrol self LEFT JOIN (anti-join) ile yapılır.
+    // DEAD event'ler bölümü kilitlemez; admin tekrar kuyruğa alırsa sırasına bakılmadan işlenir.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events e LEFT JOIN stripe_webhook_events p " +
+            "ON p.partition_key = e.partition_key AND p.status IN ('PENDING', 'PROCESSING') AND p.id < e.id " +
+            "SET e.status = 'PROCESSING', e.claimed_at = :now, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND e.status = 'PENDING' AND e.next_attempt_at <= :now AND p.id IS NULL", nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Sahiplenilip hiç çalıştırılamayan (worker kapanıyor) event deneme hakkı yemeden geri bırakılır
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'PENDING', claimed_at = NULL, attempts = attempts - 1 " +
+            "WHERE id = :id AND status = 'PROCESSING'", nativeQuery = true)
+    int unclaim(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'PROCESSED', processed_at = :now, last_error = NULL " +
+            "WHERE id = :id AND status = 'PROCESSING'", nativeQuery = true)
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'PENDING', next_attempt_at = :nextAttemptAt, last_error = :error " +
+            "WHERE id = :id AND status = 'PROCESSING'", nativeQuery = true)
+    int markForRetry(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'DEAD', last_error = :error " +
+            "WHERE id = :id AND status = 'PROCESSING'", nativeQuery = true)
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    // Instance çökerse PROCESSING'de kalan satırlar zaman aşımından sonra tekrar kuyruğa döner
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'PENDING', claimed_at = NULL, next_attempt_at = :now " +
+            "WHERE status = 'PROCESSING' AND claimed_at < :claimedBefore", nativeQuery = true)
+    int releaseStuck(@Param("claimedBefore") LocalDateTime claimedBefore, @Param("now") LocalDateTime now);
+
+    // Dead-letter'daki event'i admin tekrar kuyruğa alır; deneme sayacı sıfırlanır
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stripe_webhook_events SET status = 'PENDING', attempts = 0, next_attempt_at = :now " +
+            "WHERE id = :id AND status = 'DEAD'", nativeQuery = true)
+    int requeueDead(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // İşlenmiş eski satırların temizliği. İşlenmiş satırda next_attempt_at <= processed_at olduğundan
+    // (status, next_attempt_at) index'i kullanılır; LIMIT ile kısa transaction'lar halinde silinir.
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM stripe_webhook_events WHERE status = 'PROCESSED' AND next_attempt_at < :before LIMIT :limit",
+            nativeQuery = true)
+    int deleteProcessedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    Page<StripeWebhookEvent> findByStatus(WebhookEventStatus status, Pageable pageable);
+
+    long countByStatus(WebhookEventStatus status);
+}
@@ -4,6 +4,9 @@ import com.fibiyo.ecommerce.domain.enums.SubscriptionType;
 import com.fibiyo.ecommerce.domain.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Dinamik sorgular için
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -27,9 +30,37 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Boolean existsByUsername(String username);
 // ... (UserRepository içinde) ...
 List<User> findBySubscriptionTypeNotAndSubscriptionExpiryDateBefore(SubscriptionType type, LocalDateTime dateTime);
+
+    // Abonelik bitiş işi: (subscription_expiry_date, id) keyset'i ile bir sonraki parça; satırlar parça transaction'ı boyunca kilitlenir.
+    // Dönen satırlar: [id, subscription_type, subscription_expiry_date]
+    @Query(value = "SELECT id, subscription_type, subscription_expiry_date FROM users " +
+            "WHERE subscription_expiry_date < :cutoff AND subscription_type <> 'FREE' " +
+            "AND (subscription_expiry_date > :lastExpiry OR (subscription_expiry_date = :lastExpiry AND id > :lastId)) " +
+            "ORDER BY subscription_expiry_date, id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Object[]> findExpiredSubscriptionChunk(@Param("cutoff") LocalDateTime cutoff, @Param("lastExpiry") LocalDateTime lastExpiry,
+                                                @Param("lastId") long lastId, @Param("limit") int limit);
+
+    // Parçadaki tüm kullanıcıları tek UPDATE ile FREE'ye düşürür. MySQL SET ifadelerini soldan sağa uyguladığı için
+    // kota CASE'i subscription_type değişmeden önce değerlendirilir.
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+            "image_gen_quota = CASE WHEN subscription_type = 'SELLER_PLUS' THEN :defaultQuota ELSE image_gen_quota END, " +
+            "subscription_type = 'FREE', subscription_expiry_date = NULL, updated_at = :now " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int downgradeToFree(@Param("ids") List<Long> ids, @Param("defaultQuota") int defaultQuota, @Param("now") LocalDateTime now);
     Boolean existsByEmail(String email);
     long countByRole(Role role); // bu eklenecek
 Optional<User> findByPasswordResetToken(String token); // Token ile kullanıcı bulma metodu
+
+    // Toplu bildirim aktarım imlecini sadece beklenen değerdeyse ilerletir (compare-and-set).
+    // 0 dönerse başka bir istek aynı aralığı zaten aktarıyordur.
+    @Modifying
+    @Query(value = "UPDATE users SET last_broadcast_id = :upToId WHERE id = :userId AND last_broadcast_id = :afterId", nativeQuery = true)
+    int advanceBroadcastCursor(@Param("userId") Long userId, @Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    // KPI: belirli tarihten sonraki günlük yeni kullanıcı sayıları [date, count]
+    @Query(value = "SELECT DATE(created_at), COUNT(*) FROM users WHERE created_at >= :since GROUP BY DATE(created_at)", nativeQuery = true)
+    List<Object[]> countNewUsersPerDaySince(@Param("since") LocalDateTime since);
 }
 
 //Not: Kullanıcıları filtrelemek (rol, abonelik vb.) gerekebileceği için JpaSpecificationExecutor ekledik.
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public final class ProductSpecifications {
@@ -24,6 +25,16 @@ public final class ProductSpecifications {
         return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
     }
 
+    // Kategori ve tüm alt kategorileri: denormalize category_path üzerinde index'li önek araması ("/1/5/%")
+    public static Specification<Product> hasCategoryPathPrefix(String categoryPath) {
+        return (root, query, cb) -> cb.like(root.get("categoryPath"), categoryPath + "%");
+    }
+
+    // Path henüz doldurulmamışsa yedek: id'ler CategoryService.findSubtreeCategoryIds ile bellek içi ağaçtan gelir
+    public static Specification<Product> hasCategoryIn(Collection<Long> categoryIds) {
+        return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
+    }
+
     public static Specification<Product> hasSeller(Long sellerId) {
         return (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId);
     }
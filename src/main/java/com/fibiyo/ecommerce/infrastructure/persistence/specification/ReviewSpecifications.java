@@ -4,11 +4,36 @@
 
  import com.fibiyo.ecommerce.domain.entity.Review;
  import org.springframework.data.jpa.domain.Specification;
+
+ import java.time.LocalDateTime;
  
   public class ReviewSpecifications {
      public static Specification<Review> isApproved(boolean isApproved) {
           return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("isApproved"), isApproved);
      }
-     // TODO: CustomerId, ProductId, Date Range gibi filtreler eklenebilir
-     // public static Specification<Review> hasCustomer(Long customerId) { ... }
- }
\ No newline at end of file
+
+     public static Specification<Review> hasProduct(Long productId) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("product").get("id"), productId);
+     }
+
+     public static Specification<Review> hasCustomer(Long customerId) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("customer").get("id"), customerId);
+     }
+
+     public static Specification<Review> hasRating(int rating) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("rating"), (byte) rating);
+     }
+
+     public static Specification<Review> createdAfter(LocalDateTime from) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), from);
+     }
+
+     public static Specification<Review> createdBefore(LocalDateTime to) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.lessThan(root.get("createdAt"), to);
+     }
+
+     // Toplu işlemlerde id sırasıyla (keyset) sayfalama için
+     public static Specification<Review> idGreaterThan(Long afterId) {
+          return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), afterId);
+     }
+ }
@@ -0,0 +1,60 @@
+package com.fibiyo.ecommerce.infrastructure.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// SSE akışında token query parametresiyle gelir (?access_token=). Filtre token'ı okuduktan sonra zincirin geri kalanına
+// bu sarmalayıcı verilir; istek URL'sini/parametrelerini loglayan bileşenler (DispatcherServlet DEBUG vb.) token'ı görmez.
+class AccessTokenRedactingRequest extends HttpServletRequestWrapper {
+
+    static final String PARAMETER = "access_token";
+
+    private final String queryString;
+
+    AccessTokenRedactingRequest(HttpServletRequest request) {
+        super(request);
+        String original = request.getQueryString();
+        if (original == null) {
+            this.queryString = null;
+        } else {
+            String stripped = Arrays.stream(original.split("&"))
+                    .filter(pair -> !pair.equals(PARAMETER) && !pair.startsWith(PARAMETER + "="))
+                    .collect(Collectors.joining("&"));
+            this.queryString = stripped.isEmpty() ? null : stripped;
+        }
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        return PARAMETER.equals(name) ? null : super.getParameter(name);
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return PARAMETER.equals(name) ? null : super.getParameterValues(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        Map<String, String[]> parameters = new LinkedHashMap<>(super.getParameterMap());
+        parameters.remove(PARAMETER);
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+}
@@ -23,6 +23,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final String NOTIFICATION_STREAM_PATH = "/api/notifications/stream";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
@@ -78,7 +80,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.error("Could not set user authentication in security context", ex);
         }
 
-        // Filtre zincirinde bir sonraki adıma geç
+        // Filtre zincirinde bir sonraki adıma geç (SSE akışında token query'den çıkarılmış istekle; loglara düşmesin)
+        if (NOTIFICATION_STREAM_PATH.equals(request.getServletPath()) && request.getQueryString() != null) {
+            request = new AccessTokenRedactingRequest(request);
+        }
         filterChain.doFilter(request, response);
     }
 
@@ -88,6 +93,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7); // "Bearer " kısmını at
         }
+        // Tarayıcı EventSource API'si header gönderemez; sadece SSE akışı için query parametresi kabul edilir
+        if (NOTIFICATION_STREAM_PATH.equals(request.getServletPath())) {
+            return request.getParameter(AccessTokenRedactingRequest.PARAMETER);
+        }
         return null; // Token yok veya format hatalı
     }
 }
\ No newline at end of file
@@ -1,9 +1,8 @@
 package com.fibiyo.ecommerce.infrastructure.security;
 
-import com.fibiyo.ecommerce.domain.entity.Order;
 import com.fibiyo.ecommerce.domain.entity.User;
 import com.fibiyo.ecommerce.domain.enums.Role;
-import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.SellerOrderLineRepository;
 import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -12,12 +11,12 @@ import org.springframework.stereotype.Component;
 @Component("orderSecurity")
 public class OrderSecurity {
 
-    private final OrderRepository orderRepository;
+    private final SellerOrderLineRepository sellerOrderLineRepository;
     private final UserRepository userRepository;
 
     @Autowired
-    public OrderSecurity(OrderRepository orderRepository, UserRepository userRepository) {
-        this.orderRepository = orderRepository;
+    public OrderSecurity(SellerOrderLineRepository sellerOrderLineRepository, UserRepository userRepository) {
+        this.sellerOrderLineRepository = sellerOrderLineRepository;
         this.userRepository = userRepository;
     }
 
@@ -28,10 +27,7 @@ public class OrderSecurity {
 
         if (user.getRole() == Role.ADMIN) return true;
 
-        return orderRepository.findById(orderId)
-                .map(order -> order.getOrderItems().stream()
-                        .anyMatch(item -> item.getProduct() != null
-                                && item.getProduct().getSeller().getId().equals(user.getId())))
-                .orElse(false);
+        // Sipariş ve kalemleri yüklemek yerine okuma modelinde tek indeks araması
+        return sellerOrderLineRepository.existsByOrderIdAndSellerId(orderId, user.getId());
     }
 }
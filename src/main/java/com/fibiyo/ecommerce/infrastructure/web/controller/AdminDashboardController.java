@@ -1,5 +1,69 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
+import com.fibiyo.ecommerce.application.dto.AdminKpiSnapshotResponse;
+import com.fibiyo.ecommerce.application.dto.ApiResponse;
+import com.fibiyo.ecommerce.application.dto.StaleOrderReaperRunResponse;
+import com.fibiyo.ecommerce.application.dto.SubscriptionExpiryRunResponse;
+import com.fibiyo.ecommerce.application.service.AdminKpiService;
+import com.fibiyo.ecommerce.application.service.StaleOrderReaperService;
+import com.fibiyo.ecommerce.application.service.SubscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/dashboard")
+@PreAuthorize("hasRole('ADMIN')")
 public class AdminDashboardController {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminDashboardController.class);
+
+    private final AdminKpiService adminKpiService;
+    private final SubscriptionService subscriptionService;
+    private final StaleOrderReaperService staleOrderReaperService;
+
+    @Autowired
+    public AdminDashboardController(AdminKpiService adminKpiService, SubscriptionService subscriptionService,
+                                    StaleOrderReaperService staleOrderReaperService) {
+        this.adminKpiService = adminKpiService;
+        this.subscriptionService = subscriptionService;
+        this.staleOrderReaperService = staleOrderReaperService;
+    }
+
+    // KPI anlık görüntüsü (bellekteki sayaçlardan, veritabanına gitmeden)
+    @GetMapping("/kpis")
+    public ResponseEntity<AdminKpiSnapshotResponse> getKpiSnapshot() {
+        logger.debug("GET /api/admin/dashboard/kpis requested");
+        return ResponseEntity.ok(adminKpiService.getSnapshot());
+    }
+
+    // Sayaçları geçmiş veriden hemen yeniden hesapla (normalde her gece çalışır)
+    @PostMapping("/kpis/rebuild")
+    public ResponseEntity<ApiResponse> rebuildKpis() {
+        logger.info("POST /api/admin/dashboard/kpis/rebuild requested");
+        adminKpiService.rebuild();
+        return ResponseEntity.ok(new ApiResponse(true, "KPI sayaçları yeniden hesaplandı."));
+    }
+
+    // Gece çalışan abonelik bitiş işinin son çalıştırması (parça sayısı ve parça süreleri)
+    @GetMapping("/jobs/subscription-expiry")
+    public ResponseEntity<SubscriptionExpiryRunResponse> getSubscriptionExpiryRun() {
+        logger.debug("GET /api/admin/dashboard/jobs/subscription-expiry requested");
+        SubscriptionExpiryRunResponse lastRun = subscriptionService.getLastExpiryRun();
+        return lastRun != null ? ResponseEntity.ok(lastRun) : ResponseEntity.noContent().build();
+    }
+
+    // Ödemesi tamamlanmayan siparişleri iptal eden işin son çalıştırması (iptal edilen sipariş ve stoğa dönen adet)
+    @GetMapping("/jobs/stale-order-reaper")
+    public ResponseEntity<StaleOrderReaperRunResponse> getStaleOrderReaperRun() {
+        logger.debug("GET /api/admin/dashboard/jobs/stale-order-reaper requested");
+        StaleOrderReaperRunResponse lastRun = staleOrderReaperService.getLastRun();
+        return lastRun != null ? ResponseEntity.ok(lastRun) : ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,109 @@
+package com.fibiyo.ecommerce.infrastructure.web.controller;
+
+import com.fibiyo.ecommerce.application.service.AdminExportService;
+import com.fibiyo.ecommerce.domain.enums.ExportFormat;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+// Büyük veri dışa aktarımları: sonuç sayfalanmadan, sabit bellekle doğrudan response'a akıtılır
+@RestController
+@RequestMapping("/api/admin/exports")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminExportController.class);
+
+    private final AdminExportService adminExportService;
+
+    @Autowired
+    public AdminExportController(AdminExportService adminExportService) {
+        this.adminExportService = adminExportService;
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        logger.info("GET /api/admin/exports/orders requested. Format: {}, Gzip: {}", format, gzip);
+        return stream("orders", format, gzip,
+                out -> adminExportService.exportOrders(out, format, customerId, status, from, to));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean isApproved,
+            @RequestParam(required = false) Boolean isActive,
+            @RequestParam(required = false) String search) {
+        logger.info("GET /api/admin/exports/products requested. Format: {}, Gzip: {}", format, gzip);
+        return stream("products", format, gzip,
+                out -> adminExportService.exportProducts(out, format, sellerId, categoryId, isApproved, isActive, search));
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) Boolean isActive) {
+        logger.info("GET /api/admin/exports/users requested. Format: {}, Gzip: {}", format, gzip);
+        return stream("users", format, gzip,
+                out -> adminExportService.exportUsers(out, format, search, role, isActive));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, boolean gzip, ExportWriter exportWriter) {
+        String extension = format == ExportFormat.NDJSON ? "ndjson" : "csv";
+        String filename = name + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + extension + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == ExportFormat.NDJSON ? MediaType.parseMediaType("application/x-ndjson")
+                : MediaType.parseMediaType("text/csv; charset=UTF-8");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    exportWriter.write(gzipOut);
+                }
+            } else {
+                exportWriter.write(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(contentType)
+                .body(body);
+    }
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        long write(OutputStream out) throws IOException;
+    }
+}
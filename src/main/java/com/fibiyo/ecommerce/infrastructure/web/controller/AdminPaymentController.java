@@ -0,0 +1,55 @@
+package com.fibiyo.ecommerce.infrastructure.web.controller;
+
+import com.fibiyo.ecommerce.application.dto.PaymentGatewayStatsResponse;
+import com.fibiyo.ecommerce.application.dto.StripeWebhookEventResponse;
+import com.fibiyo.ecommerce.application.service.PaymentGateway;
+import com.fibiyo.ecommerce.application.service.StripeWebhookQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/payments")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminPaymentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminPaymentController.class);
+
+    private final StripeWebhookQueueService stripeWebhookQueueService;
+    private final PaymentGateway paymentGateway;
+
+    @Autowired
+    public AdminPaymentController(StripeWebhookQueueService stripeWebhookQueueService, PaymentGateway paymentGateway) {
+        this.stripeWebhookQueueService = stripeWebhookQueueService;
+        this.paymentGateway = paymentGateway;
+    }
+
+    // Stripe istemcisi: devre kesici durumu, reddedilen çağrılar ve gecikme histogramları
+    @GetMapping("/gateway/stats")
+    public ResponseEntity<PaymentGatewayStatsResponse> getGatewayStats() {
+        logger.debug("GET /api/admin/payments/gateway/stats requested");
+        return ResponseEntity.ok(paymentGateway.getStats());
+    }
+
+    // Deneme hakkı biten Stripe webhook event'leri (dead-letter)
+    @GetMapping("/webhooks/dead-letters")
+    public ResponseEntity<Page<StripeWebhookEventResponse>> getDeadLetters(
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        logger.info("GET /api/admin/payments/webhooks/dead-letters requested");
+        return ResponseEntity.ok(stripeWebhookQueueService.getDeadLetters(pageable));
+    }
+
+    // Sorun giderildikten sonra (örn. eksik kayıt düzeltildi) event'i tekrar işlenmek üzere kuyruğa al
+    @PostMapping("/webhooks/dead-letters/{id}/requeue")
+    public ResponseEntity<StripeWebhookEventResponse> requeueDeadLetter(@PathVariable Long id) {
+        logger.warn("POST /api/admin/payments/webhooks/dead-letters/{}/requeue requested", id);
+        return ResponseEntity.ok(stripeWebhookQueueService.requeueDeadLetter(id));
+    }
+}
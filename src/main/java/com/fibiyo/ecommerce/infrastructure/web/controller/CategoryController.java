@@ -3,6 +3,7 @@ package com.fibiyo.ecommerce.infrastructure.web.controller;
 import com.fibiyo.ecommerce.application.dto.ApiResponse;
 import com.fibiyo.ecommerce.application.dto.CategoryRequest;
 import com.fibiyo.ecommerce.application.dto.CategoryResponse;
+import com.fibiyo.ecommerce.application.dto.CategoryTreeNodeResponse;
 import com.fibiyo.ecommerce.application.service.CategoryService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -37,6 +38,12 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/tree") // Aktif kategorilerin iç içe ağacı (menü için)
+    public ResponseEntity<List<CategoryTreeNodeResponse>> getActiveCategoryTree() {
+        logger.info("GET /api/categories/tree requested");
+        return ResponseEntity.ok(categoryService.findActiveCategoryTree());
+    }
+
      @GetMapping("/slug/{slug}") // Slug ile kategori bulma
      public ResponseEntity<CategoryResponse> getCategoryBySlug(@PathVariable String slug) {
          logger.info("GET /api/categories/slug/{} requested", slug);
@@ -58,6 +65,12 @@ public class CategoryController {
         return ResponseEntity.ok(subCategories);
     }
 
+    @GetMapping("/{id}/path") // Kökten kategoriye breadcrumb
+    public ResponseEntity<List<CategoryResponse>> getCategoryPath(@PathVariable Long id) {
+         logger.info("GET /api/categories/{}/path requested", id);
+        return ResponseEntity.ok(categoryService.findCategoryPath(id));
+    }
+
      @GetMapping("/roots") // Kök kategorileri listeleme
      public ResponseEntity<List<CategoryResponse>> getRootCategories() {
          logger.info("GET /api/categories/roots requested");
@@ -1,9 +1,12 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
 import com.fibiyo.ecommerce.application.dto.ApiResponse;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationRequest;
+import com.fibiyo.ecommerce.application.dto.CouponCodeGenerationResponse;
 import com.fibiyo.ecommerce.application.dto.CouponRequest;
 import com.fibiyo.ecommerce.application.dto.CouponResponse;
 import com.fibiyo.ecommerce.application.dto.CouponValidationResponse;
+import com.fibiyo.ecommerce.application.service.CouponCodeService;
 import com.fibiyo.ecommerce.application.service.CouponService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -16,11 +19,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.NumberFormat; // BigDecimal validasyonu
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated; // @RequestParam validasyonu için
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 
@@ -32,10 +39,12 @@ public class CouponController {
     private static final Logger logger = LoggerFactory.getLogger(CouponController.class);
 
     private final CouponService couponService;
+    private final CouponCodeService couponCodeService;
 
     @Autowired
-    public CouponController(CouponService couponService) {
+    public CouponController(CouponService couponService, CouponCodeService couponCodeService) {
         this.couponService = couponService;
+        this.couponCodeService = couponCodeService;
     }
 
     // --- Public/Customer Endpoint ---
@@ -100,6 +109,31 @@ public class CouponController {
         return ResponseEntity.ok(updatedCoupon);
     }
 
+    // Kampanya için tek kullanımlık kodlar üretir; kupon bundan sonra sadece bu kodlarla kullanılabilir
+    @PostMapping("/{couponId}/codes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CouponCodeGenerationResponse> generateCodes(
+            @PathVariable Long couponId,
+            @Valid @RequestBody CouponCodeGenerationRequest request) {
+        logger.info("POST /api/coupons/{}/codes requested (Admin). Count: {}", couponId, request.getCount());
+        CouponCodeGenerationResponse response = couponCodeService.generateCodes(couponId, request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // Üretilen kodları CSV olarak sayfalanmadan, sabit bellekle akıtır
+    @GetMapping("/{couponId}/codes/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportCodes(@PathVariable Long couponId) {
+        logger.info("GET /api/coupons/{}/codes/export requested (Admin)", couponId);
+        CouponResponse coupon = couponService.findCouponById(couponId); // Yoksa akış başlamadan 404
+        StreamingResponseBody body = out -> couponCodeService.exportCodes(couponId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("coupon-codes-" + coupon.getCode() + ".csv").build().toString())
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
     @DeleteMapping("/{couponId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> deleteCoupon(@PathVariable Long couponId) {
@@ -1,9 +1,12 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
 import com.fibiyo.ecommerce.application.dto.ApiResponse;
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationRequest;
+import com.fibiyo.ecommerce.application.dto.BroadcastNotificationResponse;
 import com.fibiyo.ecommerce.application.dto.NotificationResponse;
 import com.fibiyo.ecommerce.application.dto.UnreadNotificationCountDto;
 import com.fibiyo.ecommerce.application.service.NotificationService;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +14,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 @RestController
@@ -39,6 +45,13 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    // Arşive taşınmış eski bildirimler (istek üzerine, en yeniden eskiye)
+    @GetMapping("/my/archive")
+    public ResponseEntity<Page<NotificationResponse>> getMyArchivedNotifications(@PageableDefault(size = 15) Pageable pageable) {
+        logger.info("GET /api/notifications/my/archive requested");
+        return ResponseEntity.ok(notificationService.findMyArchivedNotifications(pageable));
+    }
+
     // Kullanıcının okunmamış bildirim sayısını getir
     @GetMapping("/my/unread-count")
     public ResponseEntity<UnreadNotificationCountDto> getMyUnreadCount() {
@@ -47,6 +60,14 @@ public class NotificationController {
         return ResponseEntity.ok(countDto);
     }
 
+    // Anlık bildirim akışı (Server-Sent Events). Olaylar: "notification", "unread-count".
+    // EventSource header gönderemediği için token ?access_token= ile de verilebilir.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyNotifications() {
+        logger.debug("GET /api/notifications/stream requested");
+        return notificationService.subscribeToMyNotifications();
+    }
+
     // Belirli bir bildirimi okundu olarak işaretle
     @PatchMapping("/{notificationId}/read")
     public ResponseEntity<NotificationResponse> markAsRead(@PathVariable Long notificationId) {
@@ -72,6 +93,24 @@ public class NotificationController {
          return ResponseEntity.ok(new ApiResponse(true, "Bildirim başarıyla silindi."));
      }
 
+    // --- Admin: Toplu (segment) bildirimler ---
+
+    // Tüm kullanıcılara, bir role, abonelik tipine veya açık kullanıcı listesine bildirim gönder
+    @PostMapping("/admin/broadcasts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastNotificationResponse> createBroadcast(@Valid @RequestBody BroadcastNotificationRequest request) {
+        logger.info("POST /api/notifications/admin/broadcasts requested. Role: {}, Subscription: {}",
+                request.getTargetRole(), request.getTargetSubscriptionType());
+        return new ResponseEntity<>(notificationService.createBroadcastNotification(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/admin/broadcasts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<BroadcastNotificationResponse>> getBroadcasts(@PageableDefault(size = 20) Pageable pageable) {
+        logger.info("GET /api/notifications/admin/broadcasts requested");
+        return ResponseEntity.ok(notificationService.findBroadcastNotifications(pageable));
+    }
+
     // --- NOT: Bildirim oluşturma endpoint'i genellikle public olmaz. ---
     // Bildirimler genellikle diğer servisler (OrderService, CouponService vb.) tarafından
     // NotificationService.createNotification() metodu çağrılarak oluşturulur.
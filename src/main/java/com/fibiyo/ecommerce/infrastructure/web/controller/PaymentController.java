@@ -5,6 +5,7 @@ import com.fibiyo.ecommerce.application.dto.CreateCheckoutSessionRequest;
 import com.fibiyo.ecommerce.application.dto.StripeCheckoutSessionResponse;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
 import com.fibiyo.ecommerce.application.service.PaymentService;
+import com.fibiyo.ecommerce.application.service.StripeWebhookQueueService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +22,12 @@ public class PaymentController {
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     private final PaymentService paymentService;
+    private final StripeWebhookQueueService stripeWebhookQueueService;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, StripeWebhookQueueService stripeWebhookQueueService) {
         this.paymentService = paymentService;
+        this.stripeWebhookQueueService = stripeWebhookQueueService;
     }
 
     // Stripe Checkout Session oluşturma endpoint'i (Login gerektirir)
@@ -41,14 +44,16 @@ public class PaymentController {
     // Stripe Webhook Endpoint'i (GÜVENLİK ÇOK ÖNEMLİ!)
     // Bu endpoint public olmalı ama İMZA DOĞRULAMASI ŞART!
     // Genellikle /webhook gibi daha belirgin bir path kullanılır.
+    // Event sadece doğrulanıp kuyruğa yazılır ve hemen 200 dönülür; işleme arka planda yapılır.
+    // Tekrar gelen event'ler de 200 alır ki Stripe tekrar göndermeyi bıraksın.
     @PostMapping("/stripe/webhook")
     public ResponseEntity<ApiResponse> handleStripeWebhook(
             @RequestBody String payload, // Request body'yi String olarak al
             @RequestHeader("Stripe-Signature") String sigHeader) { // Stripe'ın gönderdiği header
         logger.info("Received Stripe Webhook request");
         try {
-             paymentService.handleStripeWebhook(payload, sigHeader);
-              return ResponseEntity.ok(new ApiResponse(true,"Webhook processed successfully.")); // Stripe'a 200 OK dönmek yeterli
+             boolean queued = stripeWebhookQueueService.ingest(payload, sigHeader);
+              return ResponseEntity.ok(new ApiResponse(true, queued ? "Webhook received." : "Duplicate webhook ignored.")); // Stripe'a 200 OK dönmek yeterli
           } catch (BadRequestException e) {
              logger.error("Webhook processing error (Bad Request): {}", e.getMessage());
                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(false, e.getMessage()));
@@ -1,8 +1,11 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
 import com.fibiyo.ecommerce.application.dto.ApiResponse;
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationRequest;
+import com.fibiyo.ecommerce.application.dto.ReviewBulkModerationResponse;
 import com.fibiyo.ecommerce.application.dto.ReviewRequest;
 import com.fibiyo.ecommerce.application.dto.ReviewResponse;
+import com.fibiyo.ecommerce.application.dto.ReviewSummaryResponse;
 import com.fibiyo.ecommerce.application.service.ReviewService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -55,6 +58,13 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    // Ürün sayfasındaki yorum bloğu: puan özeti, 1-5 yıldız dağılımı ve en yeni onaylı yorumlar
+    @GetMapping("/product/{productId}/summary")
+    public ResponseEntity<ReviewSummaryResponse> getProductReviewSummary(@PathVariable Long productId) {
+        logger.debug("GET /api/reviews/product/{}/summary requested", productId);
+        return ResponseEntity.ok(reviewService.getReviewSummary(productId));
+    }
+
     // --- Customer Endpoints ---
 
     // Yeni yorum ekleme (CUSTOMER rolü gerekli)
@@ -119,4 +129,29 @@ public class ReviewController {
           return ResponseEntity.ok(new ApiResponse(true, "Yorum admin tarafından silindi."));
       }
 
-}
\ No newline at end of file
+    // --- Admin Bulk Moderation ---
+
+    // Toplu onay: body'de reviewIds listesi veya filtre (isApproved, productId, customerId, rating, createdAfter/Before)
+    @PatchMapping("/admin/bulk/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReviewBulkModerationResponse> bulkApproveReviews(@Valid @RequestBody ReviewBulkModerationRequest request) {
+        logger.info("PATCH /api/reviews/admin/bulk/approve requested");
+        return ResponseEntity.ok(reviewService.bulkApproveReviews(request));
+    }
+
+    @PatchMapping("/admin/bulk/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReviewBulkModerationResponse> bulkRejectReviews(@Valid @RequestBody ReviewBulkModerationRequest request) {
+        logger.info("PATCH /api/reviews/admin/bulk/reject requested");
+        return ResponseEntity.ok(reviewService.bulkRejectReviews(request));
+    }
+
+    // DELETE isteklerinde body desteklenmeyebileceği için POST kullanılır
+    @PostMapping("/admin/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReviewBulkModerationResponse> bulkDeleteReviews(@Valid @RequestBody ReviewBulkModerationRequest request) {
+        logger.warn("POST /api/reviews/admin/bulk/delete requested by admin");
+        return ResponseEntity.ok(reviewService.bulkDeleteReviews(request));
+    }
+
+}
@@ -1,5 +1,41 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
+import com.fibiyo.ecommerce.application.dto.SellerDashboardResponse;
+import com.fibiyo.ecommerce.application.service.SellerAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/seller/dashboard")
+@PreAuthorize("hasRole('SELLER')")
 public class SellerDashboardController {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerDashboardController.class);
+
+    private final SellerAnalyticsService sellerAnalyticsService;
+
+    @Autowired
+    public SellerDashboardController(SellerAnalyticsService sellerAnalyticsService) {
+        this.sellerAnalyticsService = sellerAnalyticsService;
+    }
+
+    // Satıcı paneli: varsayılan son 30 gün (ön-hesaplanmış özet tablolardan okunur)
+    @GetMapping
+    public ResponseEntity<SellerDashboardResponse> getMyDashboard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int topProducts) {
+        logger.info("GET /api/seller/dashboard requested. From: {}, To: {}", from, to);
+        return ResponseEntity.ok(sellerAnalyticsService.getMyDashboard(from, to, Math.min(topProducts, 50)));
+    }
 }
@@ -1,5 +1,41 @@
 package com.fibiyo.ecommerce.infrastructure.web.controller;
 
+import com.fibiyo.ecommerce.application.dto.SellerOrderLineResponse;
+import com.fibiyo.ecommerce.application.service.SellerOrderService;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/seller/orders")
+@PreAuthorize("hasRole('SELLER')")
 public class SellerOrderController {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerOrderController.class);
+
+    private final SellerOrderService sellerOrderService;
+
+    @Autowired
+    public SellerOrderController(SellerOrderService sellerOrderService) {
+        this.sellerOrderService = sellerOrderService;
+    }
+
+    // Satıcının kendi ürünlerine ait sipariş kalemleri (en yeni önce)
+    @GetMapping
+    public ResponseEntity<Page<SellerOrderLineResponse>> getMyOrderLines(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) OrderStatus status) {
+        logger.info("GET /api/seller/orders requested. Status Filter: {}", status);
+        return ResponseEntity.ok(sellerOrderService.findMyOrderLines(pageable, status));
+    }
 }
@@ -2,6 +2,7 @@ package com.fibiyo.ecommerce.infrastructure.web.controller;
 
 import com.fibiyo.ecommerce.application.dto.*;
 import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.service.ProductImportService;
 import com.fibiyo.ecommerce.application.service.SellerProductService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -25,10 +26,12 @@ public class SellerProductController {
     private static final Logger logger = LoggerFactory.getLogger(SellerProductController.class);
 
     private final SellerProductService sellerProductService;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public SellerProductController(SellerProductService sellerProductService) {
+    public SellerProductController(SellerProductService sellerProductService, ProductImportService productImportService) {
         this.sellerProductService = sellerProductService;
+        this.productImportService = productImportService;
     }
 
     // Yeni ürün oluşturma
@@ -39,6 +42,15 @@ public class SellerProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    // CSV/NDJSON dosyasından toplu ürün ekleme; hatalı satırlar atlanır ve yanıtta raporlanır
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportResponse> importProducts(@RequestParam("file") MultipartFile file) {
+        logger.info("POST /api/seller/products/import requested. File: '{}', Size: {} bytes",
+                file.getOriginalFilename(), file.getSize());
+        ProductImportResponse response = productImportService.importProductsForCurrentSeller(file);
+        return ResponseEntity.ok(response);
+    }
+
     // Satıcının kendi ürünlerini listeleme
     @GetMapping("/my")
     public ResponseEntity<Page<ProductResponse>> getMyProducts(
@@ -0,0 +1,239 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.dto.AdminDailyKpiResponse;
+import com.fibiyo.ecommerce.application.dto.AdminKpiSnapshotResponse;
+import com.fibiyo.ecommerce.domain.entity.Order;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.OrderStatus;
+import com.fibiyo.ecommerce.domain.enums.PaymentStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.OrderRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ProductRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.ReviewRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Artımlı KPI sayaçları, aynı olay dizisinden kaba kuvvetle (tüm siparişler tek tek sayılarak) hesaplanan değerlerle
+ * karşılaştırılır. Siparişler bellek içi bir listede tutulur; repository'ler bu listeyi okur.
+ */
+class AdminKpiServiceImplTest {
+
+    private static final int BUCKET_DAYS = 30;
+
+    private AdminKpiServiceImpl kpiService;
+    private final List<Order> orders = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private final Random random = new Random(37);
+    private long nextOrderId = 1;
+
+    @BeforeEach
+    void setUp() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+
+        when(orderRepository.streamKpiRows()).thenAnswer(inv -> kpiRows().stream());
+        when(userRepository.count()).thenAnswer(inv -> (long) users.size());
+        when(userRepository.countNewUsersPerDaySince(any())).thenAnswer(inv -> {
+            LocalDateTime since = inv.getArgument(0);
+            Map<LocalDate, Long> perDay = new TreeMap<>();
+            for (User user : users) {
+                if (!user.getCreatedAt().isBefore(since)) perDay.merge(user.getCreatedAt().toLocalDate(), 1L, Long::sum);
+            }
+            List<Object[]> rows = new ArrayList<>();
+            perDay.forEach((day, count) -> rows.add(new Object[]{java.sql.Date.valueOf(day), count}));
+            return rows;
+        });
+
+        kpiService = new AdminKpiServiceImpl(orderRepository, userRepository, mock(ProductRepository.class),
+                mock(ReviewRepository.class), transactionManager);
+        ReflectionTestUtils.setField(kpiService, "bucketDays", BUCKET_DAYS);
+    }
+
+    @Test
+    void incrementalCountersMatchRecountAfterRandomEventSequence() {
+        for (int step = 0; step < 2_000; step++) {
+            applyRandomEvent();
+        }
+        assertMatchesRecount(kpiService.getSnapshot());
+
+        kpiService.rebuild();
+        assertMatchesRecount(kpiService.getSnapshot());
+    }
+
+    @Test
+    void countersStayConsistentAcrossInterleavedRebuilds() {
+        kpiService.rebuild();
+        for (int round = 0; round < 10; round++) {
+            for (int step = 0; step < 200; step++) {
+                applyRandomEvent();
+            }
+            assertMatchesRecount(kpiService.getSnapshot());
+            kpiService.rebuild();
+            assertMatchesRecount(kpiService.getSnapshot());
+        }
+    }
+
+    @Test
+    void eventCommittedWhileRebuildReadsDatabaseIsNotLost() {
+        for (int step = 0; step < 300; step++) {
+            applyRandomEvent();
+        }
+        OrderRepository orderRepository = (OrderRepository) ReflectionTestUtils.getField(kpiService, "orderRepository");
+        // Rebuild veritabanı snapshot'ını aldıktan hemen sonra yeni bir sipariş ödenir (journal ile yeni duruma taşınmalı)
+        when(orderRepository.streamKpiRows()).thenAnswer(inv -> {
+            List<Object[]> snapshot = kpiRows();
+            Order late = createOrder(LocalDateTime.now());
+            pay(late);
+            return snapshot.stream();
+        });
+
+        kpiService.rebuild();
+
+        assertMatchesRecount(kpiService.getSnapshot());
+    }
+
+    // --- Olay üretimi (servislerin KPI'ı çağırdığı akışlarla aynı) ---
+
+    private void applyRandomEvent() {
+        int action = random.nextInt(100);
+        if (action < 30 || orders.isEmpty()) {
+            createOrder(LocalDateTime.now().minusDays(random.nextInt(BUCKET_DAYS + 10)).minusMinutes(random.nextInt(1_000)));
+        } else if (action < 40) {
+            User user = new User();
+            user.setCreatedAt(LocalDateTime.now().minusDays(random.nextInt(BUCKET_DAYS + 10)));
+            users.add(user);
+            kpiService.recordUserRegistered(user);
+        } else if (action < 45) {
+            reapPendingOrders();
+        } else {
+            Order order = orders.get(random.nextInt(orders.size()));
+            switch (order.getStatus()) {
+                case PENDING_PAYMENT -> {
+                    if (random.nextInt(4) == 0) changeStatus(order, OrderStatus.CANCELLED_BY_CUSTOMER);
+                    else pay(order);
+                }
+                case PROCESSING -> {
+                    if (random.nextInt(3) == 0) cancelWithRefund(order);
+                    else changeStatus(order, OrderStatus.SHIPPED);
+                }
+                case SHIPPED -> changeStatus(order, OrderStatus.DELIVERED);
+                default -> { /* Son durum */ }
+            }
+        }
+    }
+
+    private Order createOrder(LocalDateTime orderDate) {
+        Order order = new Order();
+        order.setId(nextOrderId++);
+        order.setOrderDate(orderDate);
+        order.setStatus(OrderStatus.PENDING_PAYMENT);
+        order.setPaymentStatus(PaymentStatus.PENDING);
+        order.setTotalAmount(BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2));
+        order.setDiscountAmount(BigDecimal.valueOf(random.nextInt(500), 2));
+        order.setShippingFee(BigDecimal.valueOf(random.nextInt(3) * 1_499L, 2));
+        orders.add(order);
+        kpiService.recordOrderStatusChange(order, null);
+        return order;
+    }
+
+    private void pay(Order order) {
+        OrderStatus previous = order.getStatus();
+        order.setStatus(OrderStatus.PROCESSING);
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        kpiService.recordOrderPaid(order);
+        kpiService.recordOrderStatusChange(order, previous);
+    }
+
+    private void cancelWithRefund(Order order) {
+        OrderStatus previous = order.getStatus();
+        order.setStatus(OrderStatus.CANCELLED_BY_CUSTOMER);
+        order.setPaymentStatus(PaymentStatus.REFUNDED);
+        kpiService.recordOrderRefunded(order);
+        kpiService.recordOrderStatusChange(order, previous);
+    }
+
+    private void changeStatus(Order order, OrderStatus newStatus) {
+        OrderStatus previous = order.getStatus();
+        order.setStatus(newStatus);
+        kpiService.recordOrderStatusChange(order, previous);
+    }
+
+    // Bayat sipariş temizliği: birden fazla sipariş tek seferde iptal edilir
+    private void reapPendingOrders() {
+        int count = 0;
+        for (Order order : orders) {
+            if (order.getStatus() == OrderStatus.PENDING_PAYMENT && random.nextBoolean()) {
+                order.setStatus(OrderStatus.CANCELLED_BY_ADMIN);
+                count++;
+            }
+        }
+        kpiService.recordOrderStatusChanges(OrderStatus.PENDING_PAYMENT, OrderStatus.CANCELLED_BY_ADMIN, count);
+    }
+
+    // --- Kaba kuvvet yeniden sayım ---
+
+    private List<Object[]> kpiRows() {
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (Order o : orders) {
+            rows.add(new Object[]{o.getStatus(), o.getPaymentStatus(), o.getTotalAmount(), o.getDiscountAmount(), o.getShippingFee(), o.getOrderDate()});
+        }
+        return rows;
+    }
+
+    private void assertMatchesRecount(AdminKpiSnapshotResponse snapshot) {
+        LocalDate today = LocalDate.now();
+        LocalDate firstBucket = today.minusDays(BUCKET_DAYS - 1);
+
+        BigDecimal gmv = BigDecimal.ZERO.setScale(2);
+        Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) byStatus.put(status, 0L);
+        Map<LocalDate, long[]> dailyOrders = new TreeMap<>();
+        Map<LocalDate, BigDecimal> dailyGmv = new TreeMap<>();
+        for (Order o : orders) {
+            byStatus.merge(o.getStatus(), 1L, Long::sum);
+            LocalDate day = o.getOrderDate().toLocalDate();
+            boolean paid = o.getPaymentStatus() == PaymentStatus.COMPLETED || o.getPaymentStatus() == PaymentStatus.PARTIALLY_REFUNDED;
+            BigDecimal amount = o.getTotalAmount().subtract(o.getDiscountAmount()).add(o.getShippingFee());
+            if (paid) gmv = gmv.add(amount);
+            if (!day.isBefore(firstBucket)) {
+                dailyOrders.computeIfAbsent(day, d -> new long[1])[0]++;
+                if (paid) dailyGmv.merge(day, amount, BigDecimal::add);
+            }
+        }
+
+        assertThat(snapshot.getGmv()).isEqualByComparingTo(gmv);
+        assertThat(snapshot.getOrdersByStatus()).isEqualTo(byStatus);
+        assertThat(snapshot.getTotalOrders()).isEqualTo(orders.size());
+        assertThat(snapshot.getTotalUsers()).isEqualTo(users.size());
+        assertThat(snapshot.getDaily()).hasSize(BUCKET_DAYS);
+        for (AdminDailyKpiResponse day : snapshot.getDaily()) {
+            long[] expectedOrders = dailyOrders.get(day.getDate());
+            assertThat(day.getOrders()).as("orders on %s", day.getDate()).isEqualTo(expectedOrders != null ? expectedOrders[0] : 0);
+            assertThat(day.getGmv()).as("gmv on %s", day.getDate())
+                    .isEqualByComparingTo(dailyGmv.getOrDefault(day.getDate(), BigDecimal.ZERO));
+            long expectedUsers = users.stream().filter(u -> u.getCreatedAt().toLocalDate().equals(day.getDate())).count();
+            assertThat(day.getNewUsers()).as("new users on %s", day.getDate()).isEqualTo(expectedUsers);
+        }
+    }
+}
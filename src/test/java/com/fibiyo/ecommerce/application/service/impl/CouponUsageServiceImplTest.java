@@ -0,0 +1,123 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponCodeRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CouponRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kupon kullanım sayacı: sipariş geri alınırsa kullanım geri verilmeli, commit olursa kalmalı.
+ * Repository'nin koşullu UPDATE'leri bir sayaçla taklit edilir. Eşzamanlı kullanımda limitin aşılmaması
+ * veritabanındaki UPDATE'in atomikliğine dayanır ve burada test edilmez (gerçek veritabanı gerektirir).
+ */
+class CouponUsageServiceImplTest {
+
+    private static final long COUPON_ID = 1L;
+
+    private CouponRepository couponRepository;
+    private CouponCodeRepository couponCodeRepository;
+    private CouponUsageServiceImpl couponUsageService;
+
+    private final AtomicInteger timesUsed = new AtomicInteger();
+    private volatile int usageLimit;
+
+    @BeforeEach
+    void setUp() {
+        couponRepository = mock(CouponRepository.class);
+        couponCodeRepository = mock(CouponCodeRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+
+        // UPDATE coupons SET times_used = times_used + 1 WHERE id = :id AND times_used < usage_limit
+        when(couponRepository.incrementUsageIfAvailable(anyLong())).thenAnswer(inv -> {
+            while (true) {
+                int current = timesUsed.get();
+                if (current >= usageLimit) return 0;
+                if (timesUsed.compareAndSet(current, current + 1)) return 1;
+            }
+        });
+        // UPDATE coupons SET times_used = times_used - 1 WHERE id = :id AND times_used > 0
+        when(couponRepository.decrementUsage(anyLong())).thenAnswer(inv -> {
+            while (true) {
+                int current = timesUsed.get();
+                if (current <= 0) return 0;
+                if (timesUsed.compareAndSet(current, current - 1)) return 1;
+            }
+        });
+
+        couponUsageService = new CouponUsageServiceImpl(couponRepository, couponCodeRepository, transactionManager);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackOrderReleasesRedemption() {
+        usageLimit = 1;
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(couponUsageService.tryRedeem(COUPON_ID)).isTrue();
+        assertThat(timesUsed.get()).isEqualTo(1);
+        assertThat(couponUsageService.tryRedeem(COUPON_ID)).isFalse(); // Limit dolu
+
+        completeOrderTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(couponRepository).decrementUsage(COUPON_ID);
+        assertThat(timesUsed.get()).isZero();
+        assertThat(couponUsageService.tryRedeem(COUPON_ID)).isTrue(); // Geri verilen kullanım tekrar alınabilir
+    }
+
+    @Test
+    void committedOrderKeepsRedemption() {
+        usageLimit = 5;
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(couponUsageService.tryRedeem(COUPON_ID)).isTrue();
+        completeOrderTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(couponRepository, never()).decrementUsage(anyLong());
+        assertThat(timesUsed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackOrderReleasesSingleUseCode() {
+        when(couponCodeRepository.markRedeemed(anyString(), any())).thenReturn(1);
+        when(couponCodeRepository.clearRedeemed(anyString())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(couponUsageService.tryRedeemCode("SPRING-ABCD-1234")).isTrue();
+        completeOrderTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(couponCodeRepository).clearRedeemed("SPRING-ABCD-1234");
+    }
+
+    // Sipariş transaction'ının bitişini taklit eder (Spring'in afterCompletion çağrısı)
+    private static void completeOrderTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.cache.CategoryTreeCache;
+import com.fibiyo.ecommerce.application.dto.ProductImportResponse;
+import com.fibiyo.ecommerce.application.service.ProductImportService;
+import com.fibiyo.ecommerce.domain.entity.Category;
+import com.fibiyo.ecommerce.domain.entity.User;
+import com.fibiyo.ecommerce.domain.enums.Role;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.CategoryRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100 bin satırlık içe aktarma için tekrarlanabilir ölçüm; uygulamanın yapılandırdığı gerçek MySQL veritabanına karşı çalışır.
+ * Varsayılan test çalıştırmasına dahil değildir: {@code mvn test -Pbenchmark} (gerekirse
+ * {@code -Dspring.datasource.url=...} ile ayrı bir veritabanı verilir). Test kendi satıcısını ve kategorilerini oluşturur,
+ * bittiğinde eklediği ürünlerle birlikte siler. Ölçülen süre dosya okuma + doğrulama + SKU/slug sorguları + batch INSERT'tir.
+ */
+@SpringBootTest
+@Tag("benchmark")
+class ProductImportServiceImplBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImplBenchmarkTest.class);
+
+    private static final int ROWS = 100_000; // product.import.max-rows varsayılanı
+    private static final int WARMUP_ROWS = 10_000;
+    private static final int CATEGORY_COUNT = 20;
+
+    @Autowired
+    private ProductImportService importService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+    private final List<Category> categories = new ArrayList<>();
+    private String runId;
+
+    @BeforeEach
+    void setUp() {
+        runId = Long.toString(System.currentTimeMillis(), 36);
+        User user = new User();
+        user.setUsername("import-benchmark-" + runId);
+        user.setEmail("import-benchmark-" + runId + "@fibiyo.example");
+        user.setFirstName("Import");
+        user.setLastName("Benchmark");
+        user.setRole(Role.SELLER);
+        seller = userRepository.save(user);
+
+        for (int i = 1; i <= CATEGORY_COUNT; i++) {
+            Category category = new Category();
+            category.setName("Benchmark Kategori " + i);
+            category.setSlug("benchmark-" + runId + "-" + i);
+            categories.add(categoryRepository.save(category));
+        }
+        categoryRepository.fillMissingRootPaths();
+        categoryTreeCache.reload();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(seller.getUsername(), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        int deleted = jdbcTemplate.update("DELETE FROM products WHERE seller_id = ?", seller.getId());
+        categoryRepository.deleteAll(categories);
+        userRepository.delete(seller);
+        categoryTreeCache.reload();
+        logger.info("Product import benchmark cleanup removed {} products.", deleted);
+    }
+
+    @Test
+    void importsHundredThousandCsvRows() {
+        importService.importProductsForCurrentSeller(csvFile("W", WARMUP_ROWS)); // JIT ısınması, bağlantı havuzu
+
+        MockMultipartFile file = csvFile("M", ROWS);
+        long startedAt = System.nanoTime();
+        ProductImportResponse response = importService.importProductsForCurrentSeller(file);
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertThat(response.getTotalRows()).isEqualTo(ROWS);
+        assertThat(response.getImportedCount()).isEqualTo(ROWS);
+        assertThat(response.getFailedCount()).isZero();
+        assertThat(countSellerProducts()).isEqualTo(WARMUP_ROWS + ROWS);
+        report("CSV", file.getSize(), elapsedMs);
+    }
+
+    @Test
+    void importsHundredThousandNdjsonRows() {
+        importService.importProductsForCurrentSeller(ndjsonFile("W", WARMUP_ROWS));
+
+        MockMultipartFile file = ndjsonFile("M", ROWS);
+        long startedAt = System.nanoTime();
+        ProductImportResponse response = importService.importProductsForCurrentSeller(file);
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertThat(response.getImportedCount()).isEqualTo(ROWS);
+        assertThat(response.getFailedCount()).isZero();
+        assertThat(countSellerProducts()).isEqualTo(WARMUP_ROWS + ROWS);
+        report("NDJSON", file.getSize(), elapsedMs);
+    }
+
+    private long countSellerProducts() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE seller_id = ?", Long.class, seller.getId());
+        return count != null ? count : 0;
+    }
+
+    private void report(String format, long bytes, long elapsedMs) {
+        logger.info("Product import benchmark ({}): {} rows, {} KB in {} ms ({} rows/s)",
+                format, ROWS, bytes / 1024, elapsedMs, elapsedMs > 0 ? ROWS * 1000L / elapsedMs : ROWS);
+    }
+
+    // --- Test dosyaları (her satır benzersiz SKU; her 50 satırda bir aynı isim tekrar eder -> slug son eki yolu) ---
+
+    private MockMultipartFile csvFile(String batch, int rows) {
+        StringBuilder csv = new StringBuilder(rows * 120);
+        csv.append("name,description,price,stock,sku,imageUrl,categoryId\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(productName(i)).append(",\"Açıklama, satır ").append(i).append("\",")
+                    .append(price(i)).append(',').append(i % 500).append(',').append(sku(batch, i))
+                    .append(",https://cdn.example.com/p/").append(i).append(".jpg,").append(categoryId(i)).append('\n');
+        }
+        return new MockMultipartFile("file", "products.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MockMultipartFile ndjsonFile(String batch, int rows) {
+        StringBuilder json = new StringBuilder(rows * 160);
+        for (int i = 0; i < rows; i++) {
+            json.append("{\"name\":\"").append(productName(i)).append("\",\"description\":\"Açıklama ").append(i)
+                    .append("\",\"price\":").append(price(i)).append(",\"stock\":").append(i % 500)
+                    .append(",\"sku\":\"").append(sku(batch, i)).append("\",\"categoryId\":").append(categoryId(i)).append("}\n");
+        }
+        return new MockMultipartFile("file", "products.ndjson", "application/x-ndjson", json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // SKU tablo genelinde unique: çalıştırma ve parti (ısınma/ölçüm) önekiyle
+    private String sku(String batch, int i) {
+        return "BENCH-" + runId + "-" + batch + "-" + i;
+    }
+
+    private long categoryId(int i) {
+        return categories.get(i % CATEGORY_COUNT).getId();
+    }
+
+    private static String productName(int i) {
+        return i % 50 == 0 ? "Klasik Tişört" : "Ürün " + i + " Model " + (i % 97);
+    }
+
+    private static String price(int i) {
+        return (10 + i % 990) + "." + (i % 100 < 10 ? "0" : "") + (i % 100);
+    }
+}
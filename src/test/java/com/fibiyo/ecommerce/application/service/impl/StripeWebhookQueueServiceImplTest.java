@@ -0,0 +1,340 @@
+package com.fibiyo.ecommerce.application.service.impl;
+
+import com.fibiyo.ecommerce.application.exception.BadRequestException;
+import com.fibiyo.ecommerce.application.service.PaymentService;
+import com.fibiyo.ecommerce.domain.entity.StripeWebhookEvent;
+import com.fibiyo.ecommerce.domain.enums.WebhookEventStatus;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.PaymentRepository;
+import com.fibiyo.ecommerce.infrastructure.persistence.repository.StripeWebhookEventRepository;
+import com.stripe.Stripe;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kaydedilmiş Stripe webhook payload'larını (src/test/resources/stripe/webhooks) imzalayıp kuyruğa tekrar oynatır.
+ * Repository, koşullu UPDATE'lerin anlamını taklit eden bellek içi bir tabloyla; worker'lar çağıran thread'de çalışan
+ * executor'larla değiştirilir, böylece sıra ve tekrar deneme davranışı deterministik kontrol edilir.
+ */
+class StripeWebhookQueueServiceImplTest {
+
+    private static final String SECRET = "whsec_test_secret";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private StripeWebhookEventRepository repository;
+    private PaymentRepository paymentRepository;
+    private PaymentService paymentService;
+    private StripeWebhookQueueServiceImpl queue;
+
+    private final Map<Long, StripeWebhookEvent> table = new HashMap<>();
+    private final List<String> processedOrder = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Integer> failuresLeft = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StripeWebhookEventRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        paymentService = mock(PaymentService.class);
+        stubTable();
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            processedOrder.add(event.getId());
+            Integer left = failuresLeft.get(event.getId());
+            if (left != null && left > 0) {
+                failuresLeft.put(event.getId(), left - 1);
+                throw new IllegalStateException("Simulated fulfilment failure");
+            }
+            return null;
+        }).when(paymentService).processWebhookEvent(any(Event.class));
+
+        queue = new StripeWebhookQueueServiceImpl(repository, paymentRepository, paymentService);
+        ReflectionTestUtils.setField(queue, "endpointSecret", SECRET);
+        ReflectionTestUtils.setField(queue, "maxInFlight", 100);
+        ReflectionTestUtils.setField(queue, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(queue, "initialBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(queue, "maxBackoffMs", 3_600_000L);
+        ReflectionTestUtils.setField(queue, "stuckTimeoutMs", 600_000L);
+        ReflectionTestUtils.setField(queue, "workers", new ExecutorService[]{new CallerRunsExecutor(), new CallerRunsExecutor()});
+        ReflectionTestUtils.setField(queue, "running", true);
+    }
+
+    @Test
+    void duplicateEventIdIsStoredAndProcessedOnce() throws Exception {
+        String payload = recorded("checkout_session_completed.json", "evt_dup", 42L);
+
+        assertThat(queue.ingest(payload, sign(payload))).isTrue();
+        assertThat(queue.ingest(payload, sign(payload))).isFalse();
+
+        assertThat(table).hasSize(1);
+        assertThat(processedOrder).containsExactly("evt_dup");
+        assertThat(queue.getDuplicateCount()).isEqualTo(1);
+        assertThat(row("evt_dup").getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+        assertThat(row("evt_dup").getPartitionKey()).isEqualTo("order:42");
+    }
+
+    @Test
+    void failingEventBacksOffAndMovesToDeadLetterAfterMaxAttempts() throws Exception {
+        failuresLeft.put("evt_fail", Integer.MAX_VALUE);
+        String payload = recorded("checkout_session_completed.json", "evt_fail", 42L);
+
+        LocalDateTime before = LocalDateTime.now();
+        queue.ingest(payload, sign(payload));
+        StripeWebhookEvent stored = row("evt_fail");
+        assertThat(stored.getStatus()).isEqualTo(WebhookEventStatus.PENDING);
+        assertThat(stored.getAttempts()).isEqualTo(1);
+        assertThat(stored.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(60));
+        assertThat(stored.getLastError()).contains("Simulated fulfilment failure");
+
+        // Bekleme dolmadan poller tekrar denemez
+        queue.pollDueEvents();
+        assertThat(processedOrder).hasSize(1);
+
+        for (int attempt = 2; attempt <= MAX_ATTEMPTS; attempt++) {
+            LocalDateTime previousNextAttempt = stored.getNextAttemptAt();
+            stored.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)); // Zaman ilerledi
+            queue.pollDueEvents();
+            assertThat(stored.getAttempts()).isEqualTo(attempt);
+            if (attempt < MAX_ATTEMPTS) {
+                // Üstel bekleme: ikinci hatadan sonra en az 2 * initial
+                assertThat(stored.getNextAttemptAt()).isAfter(previousNextAttempt);
+            }
+        }
+
+        assertThat(stored.getStatus()).isEqualTo(WebhookEventStatus.DEAD);
+        assertThat(processedOrder).hasSize(MAX_ATTEMPTS);
+        assertThat(queue.getRetryCount()).isEqualTo(MAX_ATTEMPTS - 1);
+        assertThat(queue.getDeadCount()).isEqualTo(1);
+
+        stored.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        queue.pollDueEvents();
+        assertThat(processedOrder).hasSize(MAX_ATTEMPTS); // DEAD event tekrar alınmaz
+    }
+
+    @Test
+    void requeuedDeadLetterIsProcessedAgain() throws Exception {
+        failuresLeft.put("evt_requeue", MAX_ATTEMPTS);
+        String payload = recorded("checkout_session_completed.json", "evt_requeue", 42L);
+        queue.ingest(payload, sign(payload));
+        StripeWebhookEvent stored = row("evt_requeue");
+        while (stored.getStatus() != WebhookEventStatus.DEAD) {
+            stored.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            queue.pollDueEvents();
+        }
+
+        queue.requeueDeadLetter(stored.getId());
+        assertThat(stored.getStatus()).isEqualTo(WebhookEventStatus.PENDING);
+        assertThat(stored.getAttempts()).isZero();
+
+        queue.pollDueEvents();
+        assertThat(stored.getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+        assertThat(processedOrder).hasSize(MAX_ATTEMPTS + 1);
+
+        // Sadece DEAD event'ler tekrar kuyruğa alınabilir
+        assertThatThrownBy(() -> queue.requeueDeadLetter(stored.getId())).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void laterEventOfSamePartitionWaitsForEarlierEventInBackoff() throws Exception {
+        failuresLeft.put("evt_a", 1);
+        String first = recorded("checkout_session_completed.json", "evt_a", 42L);
+        String second = recorded("checkout_session_completed.json", "evt_b", 42L);
+        String otherOrder = recorded("checkout_session_completed.json", "evt_c", 7L);
+
+        queue.ingest(first, sign(first));   // Hata alır, retry beklemesine girer
+        queue.ingest(second, sign(second)); // Aynı sipariş: evt_a bitene kadar sahiplenilmez
+        queue.ingest(otherOrder, sign(otherOrder)); // Başka sipariş: beklemez
+        queue.pollDueEvents();
+
+        assertThat(processedOrder).containsExactly("evt_a", "evt_c");
+        assertThat(row("evt_b").getStatus()).isEqualTo(WebhookEventStatus.PENDING);
+        assertThat(row("evt_b").getAttempts()).isZero();
+
+        row("evt_a").setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        queue.pollDueEvents();
+
+        // evt_a başarıyla bitince evt_b hemen ardından işlenir
+        assertThat(processedOrder).containsExactly("evt_a", "evt_c", "evt_a", "evt_b");
+        assertThat(row("evt_a").getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+        assertThat(row("evt_b").getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+    }
+
+    @Test
+    void chargeRefundedIsPartitionedWithItsOrder() throws Exception {
+        when(paymentRepository.findOrderIdByTransactionId("pi_test_42")).thenReturn(Optional.of(42L));
+        String payload = recorded("charge_refunded.json", "evt_refund", 42L);
+
+        queue.ingest(payload, sign(payload));
+
+        assertThat(row("evt_refund").getPartitionKey()).isEqualTo("order:42");
+    }
+
+    // --- Yardımcılar ---
+
+    private String recorded(String file, String eventId, Long orderId) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/stripe/webhooks/" + file)) {
+            assertThat(in).as("recorded payload %s", file).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("{{EVENT_ID}}", eventId)
+                    .replace("{{ORDER_ID}}", orderId.toString())
+                    .replace("{{API_VERSION}}", Stripe.API_VERSION);
+        }
+    }
+
+    private static String sign(String payload) throws Exception {
+        long timestamp = Webhook.Util.getTimeNow();
+        return "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(SECRET, timestamp + "." + payload);
+    }
+
+    private StripeWebhookEvent row(String eventId) {
+        return table.values().stream().filter(e -> e.getEventId().equals(eventId)).findFirst().orElseThrow();
+    }
+
+    private boolean blockedByOlder(StripeWebhookEvent event) {
+        return table.values().stream().anyMatch(other -> other.getPartitionKey().equals(event.getPartitionKey())
+                && other.getId() < event.getId() && isUnfinished(other));
+    }
+
+    private static boolean isUnfinished(StripeWebhookEvent event) {
+        return event.getStatus() == WebhookEventStatus.PENDING || event.getStatus() == WebhookEventStatus.PROCESSING;
+    }
+
+    private static StripeWebhookEvent copyOf(StripeWebhookEvent e) {
+        return new StripeWebhookEvent(e.getId(), e.getEventId(), e.getEventType(), e.getPartitionKey(), e.getPayload(),
+                e.getSignatureHeader(), e.getStatus(), e.getAttempts(), e.getNextAttemptAt(), e.getClaimedAt(),
+                e.getLastError(), e.getReceivedAt(), e.getProcessedAt());
+    }
+
+    // StripeWebhookEventRepository'deki native sorguların bellek içi karşılıkları
+    private void stubTable() {
+        when(repository.insertIgnore(anyString(), anyString(), anyString(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            String eventId = inv.getArgument(0);
+            if (table.values().stream().anyMatch(e -> e.getEventId().equals(eventId))) return 0;
+            StripeWebhookEvent e = new StripeWebhookEvent();
+            e.setId((long) table.size() + 1);
+            e.setEventId(eventId);
+            e.setEventType(inv.getArgument(1));
+            e.setPartitionKey(inv.getArgument(2));
+            e.setPayload(inv.getArgument(3));
+            e.setSignatureHeader(inv.getArgument(4));
+            e.setStatus(WebhookEventStatus.PENDING);
+            e.setNextAttemptAt(inv.getArgument(5));
+            e.setReceivedAt(inv.getArgument(5));
+            table.put(e.getId(), e);
+            return 1;
+        });
+        when(repository.findIdByEventId(anyString())).thenAnswer(inv -> table.values().stream()
+                .filter(e -> e.getEventId().equals(inv.getArgument(0))).map(StripeWebhookEvent::getId).findFirst());
+        when(repository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(table.get((Long) inv.getArgument(0))).map(
+                StripeWebhookQueueServiceImplTest::copyOf));
+        when(repository.findDue(any(), anyInt())).thenAnswer(inv -> {
+            LocalDateTime now = inv.getArgument(0);
+            return table.values().stream()
+                    .filter(e -> e.getStatus() == WebhookEventStatus.PENDING && !e.getNextAttemptAt().isAfter(now) && !blockedByOlder(e))
+                    .sorted(Comparator.comparing(StripeWebhookEvent::getNextAttemptAt).thenComparing(StripeWebhookEvent::getId))
+                    .limit((int) inv.getArgument(1))
+                    .map(e -> new Object[]{e.getId(), e.getPartitionKey()})
+                    .toList();
+        });
+        when(repository.findHeadOfPartition(anyString())).thenAnswer(inv -> table.values().stream()
+                .filter(e -> e.getPartitionKey().equals(inv.getArgument(0)) && isUnfinished(e))
+                .map(StripeWebhookEvent::getId).min(Long::compare));
+        when(repository.claim(anyLong(), any())).thenAnswer(inv -> {
+            StripeWebhookEvent e = table.get((Long) inv.getArgument(0));
+            LocalDateTime now = inv.getArgument(1);
+            if (e == null || e.getStatus() != WebhookEventStatus.PENDING || e.getNextAttemptAt().isAfter(now) || blockedByOlder(e)) return 0;
+            e.setStatus(WebhookEventStatus.PROCESSING);
+            e.setClaimedAt(now);
+            e.setAttempts(e.getAttempts() + 1);
+            return 1;
+        });
+        when(repository.markProcessed(anyLong(), any())).thenAnswer(inv -> transition(inv.getArgument(0), WebhookEventStatus.PROCESSING, e -> {
+            e.setStatus(WebhookEventStatus.PROCESSED);
+            e.setProcessedAt(inv.getArgument(1));
+            e.setLastError(null);
+        }));
+        when(repository.markForRetry(anyLong(), any(), anyString())).thenAnswer(inv -> transition(inv.getArgument(0), WebhookEventStatus.PROCESSING, e -> {
+            e.setStatus(WebhookEventStatus.PENDING);
+            e.setNextAttemptAt(inv.getArgument(1));
+            e.setLastError(inv.getArgument(2));
+        }));
+        when(repository.markDead(anyLong(), anyString())).thenAnswer(inv -> transition(inv.getArgument(0), WebhookEventStatus.PROCESSING, e -> {
+            e.setStatus(WebhookEventStatus.DEAD);
+            e.setLastError(inv.getArgument(1));
+        }));
+        when(repository.requeueDead(anyLong(), any())).thenAnswer(inv -> transition(inv.getArgument(0), WebhookEventStatus.DEAD, e -> {
+            e.setStatus(WebhookEventStatus.PENDING);
+            e.setAttempts(0);
+            e.setNextAttemptAt(inv.getArgument(1));
+        }));
+    }
+
+    private int transition(Long id, WebhookEventStatus expected, java.util.function.Consumer<StripeWebhookEvent> change) {
+        StripeWebhookEvent e = table.get(id);
+        if (e == null || e.getStatus() != expected) return 0;
+        change.accept(e);
+        return 1;
+    }
+
+    // Gönderilen işi hemen çağıran thread'de çalıştırır (worker thread'i yerine)
+    private static final class CallerRunsExecutor extends AbstractExecutorService {
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
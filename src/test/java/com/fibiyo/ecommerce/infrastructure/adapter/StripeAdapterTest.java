@@ -0,0 +1,235 @@
+package com.fibiyo.ecommerce.infrastructure.adapter;
+
+import com.fibiyo.ecommerce.application.exception.PaymentGatewayUnavailableException;
+import com.fibiyo.ecommerce.config.StripeConfig;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import com.stripe.param.checkout.SessionCreateParams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * StripeAdapter, StripeConfig'in gerçek istemcisiyle (OkHttp + Stripe SDK) yerel sahte bir Stripe sunucusuna karşı çalıştırılır.
+ * Sunucu her testte istenen davranışı (başarılı yanıt, yavaş yanıt, 5xx, 4xx, bekletme) sergiler.
+ */
+class StripeAdapterTest {
+
+    private static final String SESSION_JSON = "{\"id\":\"cs_test_123\",\"object\":\"checkout.session\"," +
+            "\"url\":\"https://checkout.stripe.com/c/pay/cs_test_123\",\"expires_at\":1900000000}";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicReference<String> lastIdempotencyKey = new AtomicReference<>();
+    private volatile Handler handler = exchange -> respond(exchange, 200, SESSION_JSON);
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/checkout/sessions", exchange -> {
+            requestCount.incrementAndGet();
+            lastIdempotencyKey.set(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            exchange.getRequestBody().readAllBytes();
+            try {
+                handler.handle(exchange);
+            } catch (Exception e) {
+                // Yavaş yanıt sırasında istemci bağlantıyı kapatmış olabilir
+            } finally {
+                exchange.close();
+            }
+        });
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void createsCheckoutSessionThroughConfiguredClient() throws StripeException {
+        StripeAdapter adapter = adapter(20, 20, 10, 30_000);
+
+        Session session = adapter.createCheckoutSession(params(), "checkout-order-1-1000-0-abc-1");
+
+        assertThat(session.getId()).isEqualTo("cs_test_123");
+        assertThat(session.getUrl()).isEqualTo("https://checkout.stripe.com/c/pay/cs_test_123");
+        assertThat(lastIdempotencyKey.get()).isEqualTo("checkout-order-1-1000-0-abc-1");
+        assertThat(adapter.getStats().getTotalCalls()).isEqualTo(1);
+        assertThat(adapter.getStats().getFailedCalls()).isZero();
+    }
+
+    @Test
+    void slowResponseTimesOutAtCheckoutReadTimeoutAndCountsAsFailure() {
+        StripeAdapter adapter = adapter(20, 20, 10, 30_000);
+        ReflectionTestUtils.setField(adapter, "checkoutReadTimeoutMs", 200);
+        handler = exchange -> {
+            Thread.sleep(2_000);
+            respond(exchange, 200, SESSION_JSON);
+        };
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> adapter.createCheckoutSession(params(), "key-timeout"))
+                .isInstanceOf(ApiConnectionException.class);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertThat(elapsedMs).isLessThan(1_500); // İstemci varsayılanı (10 sn) değil checkout timeout'u uygulanır
+        assertThat(adapter.getStats().getFailedCalls()).isEqualTo(1);
+        assertThat(requestCount.get()).isEqualTo(1); // max-network-retries=0
+    }
+
+    @Test
+    void circuitOpensAfterServerErrorsAndRejectsWithoutCallingStripe() {
+        StripeAdapter adapter = adapter(20, 4, 4, 60_000);
+        handler = exchange -> respond(exchange, 500, "{\"error\":{\"type\":\"api_error\",\"message\":\"Internal error\"}}");
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> adapter.createCheckoutSession(params(), null))
+                    .isInstanceOf(StripeException.class)
+                    .isNotInstanceOf(PaymentGatewayUnavailableException.class);
+        }
+        assertThat(adapter.getStats().getCircuitState()).isEqualTo("OPEN");
+
+        assertThatThrownBy(() -> adapter.createCheckoutSession(params(), null))
+                .isInstanceOf(PaymentGatewayUnavailableException.class);
+        assertThat(requestCount.get()).isEqualTo(4);
+        assertThat(adapter.getStats().getRejectedByCircuit()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidRequestErrorsDoNotOpenCircuit() {
+        StripeAdapter adapter = adapter(20, 4, 4, 60_000);
+        handler = exchange -> respond(exchange, 400,
+                "{\"error\":{\"type\":\"invalid_request_error\",\"message\":\"Invalid expires_at\",\"param\":\"expires_at\"}}");
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> adapter.createCheckoutSession(params(), null))
+                    .isInstanceOf(InvalidRequestException.class);
+        }
+        assertThat(adapter.getStats().getCircuitState()).isEqualTo("CLOSED");
+        assertThat(adapter.getStats().getFailedCalls()).isZero();
+        assertThat(requestCount.get()).isEqualTo(6);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        StripeAdapter adapter = adapter(2, 20, 10, 30_000);
+        ReflectionTestUtils.setField(adapter, "bulkheadMaxWaitMs", 50L);
+        CountDownLatch arrived = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        handler = exchange -> {
+            arrived.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            respond(exchange, 200, SESSION_JSON);
+        };
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Session>> inFlight = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String key = "key-bulkhead-" + i;
+                inFlight.add(callers.submit(() -> adapter.createCheckoutSession(params(), key)));
+            }
+            assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(adapter.getStats().getCallsInFlight()).isEqualTo(2);
+
+            long startedAt = System.nanoTime();
+            assertThatThrownBy(() -> adapter.createCheckoutSession(params(), "key-bulkhead-rejected"))
+                    .isInstanceOf(PaymentGatewayUnavailableException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(1_000);
+
+            release.countDown();
+            for (Future<Session> call : inFlight) {
+                assertThat(call.get(5, TimeUnit.SECONDS).getId()).isEqualTo("cs_test_123");
+            }
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+        assertThat(requestCount.get()).isEqualTo(2);
+        assertThat(adapter.getStats().getRejectedByBulkhead()).isEqualTo(1);
+        assertThat(adapter.getStats().getCallsInFlight()).isZero();
+        assertThat(adapter.getStats().getCircuitState()).isEqualTo("CLOSED");
+    }
+
+    // --- Yardımcılar ---
+
+    private StripeAdapter adapter(int maxConcurrentCalls, int windowSize, int minimumCalls, long openDurationMs) {
+        StripeConfig config = new StripeConfig();
+        ReflectionTestUtils.setField(config, "secretKey", "sk_test_fake");
+        ReflectionTestUtils.setField(config, "apiBase", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "connectTimeoutMs", 1_000);
+        ReflectionTestUtils.setField(config, "readTimeoutMs", 10_000);
+        ReflectionTestUtils.setField(config, "maxNetworkRetries", 0);
+        ReflectionTestUtils.setField(config, "maxIdleConnections", 20);
+        ReflectionTestUtils.setField(config, "keepAliveSeconds", 60L);
+        StripeClient client = config.stripeClient();
+
+        StripeAdapter adapter = new StripeAdapter(client, maxConcurrentCalls, windowSize, minimumCalls, 50, openDurationMs, 1);
+        ReflectionTestUtils.setField(adapter, "bulkheadMaxWaitMs", 100L);
+        ReflectionTestUtils.setField(adapter, "checkoutConnectTimeoutMs", 1_000);
+        ReflectionTestUtils.setField(adapter, "checkoutReadTimeoutMs", 5_000);
+        return adapter;
+    }
+
+    private static SessionCreateParams params() {
+        return SessionCreateParams.builder()
+                .setMode(SessionCreateParams.Mode.PAYMENT)
+                .setSuccessUrl("https://fibiyo.example/success")
+                .setCancelUrl("https://fibiyo.example/cancel")
+                .addLineItem(SessionCreateParams.LineItem.builder()
+                        .setQuantity(1L)
+                        .setPriceData(SessionCreateParams.LineItem.PriceData.builder()
+                                .setCurrency("try")
+                                .setUnitAmount(1000L)
+                                .setProductData(SessionCreateParams.LineItem.PriceData.ProductData.builder()
+                                        .setName("Fibiyo Sipariş #1")
+                                        .build())
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Request-Id", "req_test");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}